@@ -20,8 +20,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
 
 /**
  * @author Clinton Begin
@@ -35,9 +37,19 @@ public @interface CacheNamespace {
 
   long flushInterval() default 0;
 
+  long expireAfterWrite() default 0;
+
+  long expireAfterAccess() default 0;
+
+  long expiryJitter() default 0;
+
+  long refreshAhead() default 0;
+
   int size() default 1024;
 
   boolean readWrite() default true;
+
+  Class<? extends CacheSerializer> serializer() default JavaSerializer.class;
   
   boolean blocking() default false;
   
@@ -20,6 +20,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
 
@@ -46,4 +47,11 @@ public @interface Options {
   String keyProperty() default "id";
 
   String keyColumn() default "";
+
+  boolean multiRowInsert() default false;
+
+  /*
+   * AUTO inherits the route of the mapper namespace, if one was declared in its XML.
+   */
+  DataSourceRoute route() default DataSourceRoute.AUTO;
 }
@@ -17,17 +17,27 @@ package org.apache.ibatis.binding;
 
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.columnar.ColumnarResult;
+import org.apache.ibatis.columnar.ColumnarResultHandler;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.AsyncStatements;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Clinton Begin
@@ -50,6 +60,45 @@ public class MapperMethod {
 
   //执行
   public Object execute(SqlSession sqlSession, Object[] args) {
+    if (method.returnsFuture()) {
+      return executeAsync(sqlSession, args);
+    }
+    return executeInSession(sqlSession, args);
+  }
+
+  //异步执行，在同一个工厂打开的新SqlSession里
+  private CompletableFuture<Object> executeAsync(SqlSession sqlSession, final Object[] args) {
+    return AsyncStatements.supply(getAsyncSessionFactory(sqlSession), sqlSession.getConfiguration().getAsyncExecutor(),
+        new AsyncStatements.Work<Object>() {
+          @Override
+          public Object execute(SqlSession sqlSession) {
+            return executeInSession(sqlSession, args);
+          }
+        });
+  }
+
+  /*
+   * The factory opening the session of a call in the background: the one that opened the calling
+   * session, or the SqlSessionManager itself. A managed session has a transaction that the call could
+   * not take part in, and a session of unknown origin may be managed elsewhere, so both are rejected.
+   */
+  private SqlSessionFactory getAsyncSessionFactory(SqlSession sqlSession) {
+    if (sqlSession instanceof SqlSessionManager) {
+      SqlSessionManager sqlSessionManager = (SqlSessionManager) sqlSession;
+      if (!sqlSessionManager.isManagedSessionStarted()) {
+        return sqlSessionManager;
+      }
+    } else if (sqlSession instanceof DefaultSqlSession) {
+      SqlSessionFactory sqlSessionFactory = ((DefaultSqlSession) sqlSession).getSqlSessionFactory();
+      if (sqlSessionFactory != null) {
+        return sqlSessionFactory;
+      }
+    }
+    throw new BindingException("Mapper method '" + command.getName() + "' returns a CompletableFuture and cannot leave the transaction of a managed "
+        + sqlSession.getClass().getSimpleName() + ". Call it on a session opened by a SqlSessionFactory, or use AsyncStatements.");
+  }
+
+  private Object executeInSession(SqlSession sqlSession, Object[] args) {
     Object result;
     //可以看到执行时就是4种情况，insert|update|delete|select，分别调用SqlSession的4大类方法
     if (SqlCommandType.INSERT == command.getType()) {
@@ -72,6 +121,12 @@ public class MapperMethod {
       } else if (method.returnsMap()) {
         //如果结果是map
         result = executeForMap(sqlSession, args);
+      } else if (method.returnsCursor()) {
+        //如果结果是游标
+        result = executeForCursor(sqlSession, args);
+      } else if (method.returnsColumnar()) {
+        //如果结果是列式的
+        result = executeForColumnar(sqlSession, args);
       } else {
         //否则就是一条记录
         Object param = method.convertArgsToSqlCommandParam(args);
@@ -124,6 +179,19 @@ public class MapperMethod {
     }
   }
 
+  //列式结果
+  private ColumnarResult executeForColumnar(SqlSession sqlSession, Object[] args) {
+    ColumnarResultHandler resultHandler = new ColumnarResultHandler();
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      sqlSession.select(command.getName(), param, rowBounds, resultHandler);
+    } else {
+      sqlSession.select(command.getName(), param, resultHandler);
+    }
+    return resultHandler.getResult();
+  }
+
   //多条记录
   private <E> Object executeForMany(SqlSession sqlSession, Object[] args) {
     List<E> result;
@@ -160,6 +228,18 @@ public class MapperMethod {
     return array;
   }
 
+  private <T> Cursor<T> executeForCursor(SqlSession sqlSession, Object[] args) {
+    Cursor<T> result;
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      result = sqlSession.<T>selectCursor(command.getName(), param, rowBounds);
+    } else {
+      result = sqlSession.<T>selectCursor(command.getName(), param);
+    }
+    return result;
+  }
+
   private <K, V> Map<K, V> executeForMap(SqlSession sqlSession, Object[] args) {
     Map<K, V> result;
     Object param = method.convertArgsToSqlCommandParam(args);
@@ -230,6 +310,9 @@ public class MapperMethod {
     private final boolean returnsMany;
     private final boolean returnsMap;
     private final boolean returnsVoid;
+    private final boolean returnsCursor;
+    private final boolean returnsColumnar;
+    private final boolean returnsFuture;
     private final Class<?> returnType;
     private final String mapKey;
     private final Integer resultHandlerIndex;
@@ -238,9 +321,16 @@ public class MapperMethod {
     private final boolean hasNamedParameters;
 
     public MethodSignature(Configuration configuration, Method method) {
-      this.returnType = method.getReturnType();
-      this.returnsVoid = void.class.equals(this.returnType);
+      this.returnsFuture = CompletableFuture.class.equals(method.getReturnType());
+      //异步方法的其余部分都按Future里面的类型来
+      this.returnType = returnsFuture ? getFutureValueType(method) : method.getReturnType();
+      this.returnsVoid = void.class.equals(this.returnType) || (returnsFuture && Void.class.equals(this.returnType));
       this.returnsMany = (configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray());
+      this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsColumnar = ColumnarResult.class.equals(this.returnType);
+      if (returnsFuture && returnsCursor) {
+        throw new BindingException(method.getName() + " cannot return a Cursor asynchronously, it would be closed with its session");
+      }
       this.mapKey = getMapKey(method);
       this.returnsMap = (this.mapKey != null);
       this.hasNamedParameters = hasNamedParams(method);
@@ -318,6 +408,31 @@ public class MapperMethod {
       return returnsVoid;
     }
 
+    public boolean returnsCursor() {
+      return returnsCursor;
+    }
+
+    public boolean returnsColumnar() {
+      return returnsColumnar;
+    }
+
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
+    private Class<?> getFutureValueType(Method method) {
+      final Type returnType = method.getGenericReturnType();
+      if (returnType instanceof ParameterizedType) {
+        final Type valueType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+        if (valueType instanceof Class) {
+          return (Class<?>) valueType;
+        } else if (valueType instanceof ParameterizedType) {
+          return (Class<?>) ((ParameterizedType) valueType).getRawType();
+        }
+      }
+      return Object.class;
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
@@ -335,7 +450,7 @@ public class MapperMethod {
 
     private String getMapKey(Method method) {
       String mapKey = null;
-      if (Map.class.isAssignableFrom(method.getReturnType())) {
+      if (Map.class.isAssignableFrom(returnType)) {
         //如果返回类型是map类型的，查看该method是否有MapKey注解。如果有这个注解，将这个注解的值作为map的key
         final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
         if (mapKeyAnnotation != null) {
@@ -26,11 +26,14 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMap;
@@ -134,6 +137,21 @@ public class MapperBuilderAssistant extends BaseBuilder {
       boolean readWrite,
       boolean blocking,
       Properties props) {
+    return useNewCache(typeClass, evictionClass, flushInterval, null, null, null, null, size, readWrite, null, blocking, props);
+  }
+
+  public Cache useNewCache(Class<? extends Cache> typeClass,
+      Class<? extends Cache> evictionClass,
+      Long flushInterval,
+      Long expireAfterWrite,
+      Long expireAfterAccess,
+      Long expiryJitter,
+      Long refreshAhead,
+      Integer size,
+      boolean readWrite,
+      Class<? extends CacheSerializer> serializer,
+      boolean blocking,
+      Properties props) {
       //这里面又判断了一下是否为null就用默认值，有点和XMLMapperBuilder.cacheElement逻辑重复了
     typeClass = valueOrDefault(typeClass, PerpetualCache.class);
     evictionClass = valueOrDefault(evictionClass, LruCache.class);
@@ -142,8 +160,13 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .implementation(typeClass)
         .addDecorator(evictionClass)
         .clearInterval(flushInterval)
+        .expireAfterWrite(expireAfterWrite)
+        .expireAfterAccess(expireAfterAccess)
+        .expiryJitter(expiryJitter)
+        .refreshAhead(refreshAhead)
         .size(size)
         .readWrite(readWrite)
+        .serializer(serializer)
         .blocking(blocking)
         .properties(props)
         .build();
@@ -284,6 +307,34 @@ public class MapperBuilderAssistant extends BaseBuilder {
       String databaseId,
       LanguageDriver lang,
       String resultSets) {
+    return addMappedStatement(id, sqlSource, statementType, sqlCommandType, fetchSize, timeout, parameterMap, parameterType,
+        resultMap, resultType, resultSetType, flushCache, useCache, resultOrdered, keyGenerator, keyProperty, keyColumn,
+        databaseId, lang, resultSets, new StatementOptions());
+  }
+
+  //增加映射语句,基本参数之外的设置放在options里
+  public MappedStatement addMappedStatement(
+      String id,
+      SqlSource sqlSource,
+      StatementType statementType,
+      SqlCommandType sqlCommandType,
+      Integer fetchSize,
+      Integer timeout,
+      String parameterMap,
+      Class<?> parameterType,
+      String resultMap,
+      Class<?> resultType,
+      ResultSetType resultSetType,
+      boolean flushCache,
+      boolean useCache,
+      boolean resultOrdered,
+      KeyGenerator keyGenerator,
+      String keyProperty,
+      String keyColumn,
+      String databaseId,
+      LanguageDriver lang,
+      String resultSets,
+      StatementOptions options) {
     
     if (unresolvedCacheRef) {
       throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -305,6 +356,9 @@ public class MapperBuilderAssistant extends BaseBuilder {
     statementBuilder.databaseId(databaseId);
     statementBuilder.lang(lang);
     statementBuilder.resultOrdered(resultOrdered);
+    statementBuilder.parallelMapping(options.parallelMapping);
+    statementBuilder.multiRowInsert(options.multiRowInsert);
+    statementBuilder.route(resolveRoute(id, options.route));
     statementBuilder.resulSets(resultSets);
     setStatementTimeout(timeout, statementBuilder);
 
@@ -400,6 +454,19 @@ public class MapperBuilderAssistant extends BaseBuilder {
     statementBuilder.resultSetType(resultSetType);
   }
 
+  //没有指定route的语句继承namespace上的route
+  private DataSourceRoute resolveRoute(String id, DataSourceRoute route) {
+    if (id.endsWith(SelectKeyGenerator.SELECT_KEY_SUFFIX)) {
+      // the key belongs to the insert, which always runs on the primary
+      return DataSourceRoute.PRIMARY;
+    }
+    if (route != null) {
+      return route;
+    }
+    DataSourceRoute namespaceRoute = configuration.getNamespaceRoute(currentNamespace);
+    return namespaceRoute == null ? DataSourceRoute.AUTO : namespaceRoute;
+  }
+
   private void setStatementTimeout(Integer timeout, MappedStatement.Builder statementBuilder) {
     if (timeout == null) {
       timeout = configuration.getDefaultStatementTimeout();
@@ -423,6 +490,26 @@ public class MapperBuilderAssistant extends BaseBuilder {
       String resultSet,
       String foreignColumn, 
       boolean lazy) {
+    return buildResultMapping(resultType, property, column, javaType, jdbcType, nestedSelect, nestedResultMap, notNullColumn,
+        columnPrefix, typeHandler, flags, resultSet, foreignColumn, lazy, 0);
+  }
+
+  public ResultMapping buildResultMapping(
+      Class<?> resultType,
+      String property,
+      String column,
+      Class<?> javaType,
+      JdbcType jdbcType,
+      String nestedSelect,
+      String nestedResultMap,
+      String notNullColumn,
+      String columnPrefix,
+      Class<? extends TypeHandler<?>> typeHandler,
+      List<ResultFlag> flags,
+      String resultSet,
+      String foreignColumn, 
+      boolean lazy,
+      int batchSize) {
     Class<?> javaTypeClass = resolveResultJavaType(resultType, property, javaType);
     TypeHandler<?> typeHandlerInstance = resolveTypeHandler(javaTypeClass, typeHandler);
     //解析复合的列名,一般用不到，返回的是空
@@ -443,6 +530,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
     builder.columnPrefix(columnPrefix);
     builder.foreignColumn(foreignColumn);
     builder.lazy(lazy);
+    builder.batchSize(batchSize);
     return builder.build();
   }
 
@@ -570,4 +658,29 @@ public class MapperBuilderAssistant extends BaseBuilder {
       keyColumn, databaseId, lang, null);
   }
 
+  /*
+   * addMappedStatement 基本参数之外的语句设置,不设置的保持默认值
+   */
+  public static class StatementOptions {
+    private boolean parallelMapping;
+    private boolean multiRowInsert;
+    private DataSourceRoute route;
+
+    public StatementOptions parallelMapping(boolean parallelMapping) {
+      this.parallelMapping = parallelMapping;
+      return this;
+    }
+
+    public StatementOptions multiRowInsert(boolean multiRowInsert) {
+      this.multiRowInsert = multiRowInsert;
+      return this;
+    }
+
+    //为null时继承namespace上的设置
+    public StatementOptions route(DataSourceRoute route) {
+      this.route = route;
+      return this;
+    }
+  }
+
 }
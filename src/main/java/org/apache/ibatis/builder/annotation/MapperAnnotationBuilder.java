@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -61,11 +62,13 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.FetchType;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -177,10 +180,17 @@ public class MapperAnnotationBuilder {
     if (cacheDomain != null) {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), null);
+      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval,
+          positiveOrNull(cacheDomain.expireAfterWrite()), positiveOrNull(cacheDomain.expireAfterAccess()),
+          positiveOrNull(cacheDomain.expiryJitter()), positiveOrNull(cacheDomain.refreshAhead()),
+          size, cacheDomain.readWrite(), cacheDomain.serializer(), cacheDomain.blocking(), null);
     }
   }
 
+  private Long positiveOrNull(long value) {
+    return value > 0 ? value : null;
+  }
+
   private void parseCacheRef() {
     CacheNamespaceRef cacheDomainRef = type.getAnnotation(CacheNamespaceRef.class);
     if (cacheDomainRef != null) {
@@ -267,6 +277,8 @@ public class MapperAnnotationBuilder {
       boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
       boolean flushCache = !isSelect;
       boolean useCache = isSelect;
+      boolean multiRowInsert = false;
+      DataSourceRoute route = null;
 
       KeyGenerator keyGenerator;
       String keyProperty = "id";
@@ -295,6 +307,8 @@ public class MapperAnnotationBuilder {
         timeout = options.timeout() > -1 ? options.timeout() : null;
         statementType = options.statementType();
         resultSetType = options.resultSetType();
+        multiRowInsert = options.multiRowInsert();
+        route = options.route() == DataSourceRoute.AUTO ? null : options.route();
       }
 
       String resultMapId = null;
@@ -337,7 +351,8 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          null);
+          null,
+          new MapperBuilderAssistant.StatementOptions().multiRowInsert(multiRowInsert).route(route));
     }
   }
   
@@ -368,14 +383,26 @@ public class MapperAnnotationBuilder {
 
   private Class<?> getReturnType(Method method) {
     Class<?> returnType = method.getReturnType();
+    Type genericReturnType = method.getGenericReturnType();
+    if (CompletableFuture.class.equals(returnType) && genericReturnType instanceof ParameterizedType) {
+      //异步方法，看Future里面的类型
+      genericReturnType = ((ParameterizedType) genericReturnType).getActualTypeArguments()[0];
+      if (genericReturnType instanceof Class) {
+        returnType = (Class<?>) genericReturnType;
+      } else if (genericReturnType instanceof ParameterizedType) {
+        returnType = (Class<?>) ((ParameterizedType) genericReturnType).getRawType();
+      } else {
+        returnType = Object.class;
+      }
+    }
     // issue #508
     if (void.class.equals(returnType)) {
       ResultType rt = method.getAnnotation(ResultType.class);
       if (rt != null) {
         returnType = rt.value();
       } 
-    } else if (Collection.class.isAssignableFrom(returnType)) {
-      Type returnTypeParameter = method.getGenericReturnType();
+    } else if (Collection.class.isAssignableFrom(returnType) || Cursor.class.isAssignableFrom(returnType)) {
+      Type returnTypeParameter = genericReturnType;
       if (returnTypeParameter instanceof ParameterizedType) {
         Type[] actualTypeArguments = ((ParameterizedType) returnTypeParameter).getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
@@ -394,7 +421,7 @@ public class MapperAnnotationBuilder {
       }
     } else if (method.isAnnotationPresent(MapKey.class) && Map.class.isAssignableFrom(returnType)) {
       // (issue 504) Do not look into Maps if there is not MapKey annotation
-      Type returnTypeParameter = method.getGenericReturnType();
+      Type returnTypeParameter = genericReturnType;
       if (returnTypeParameter instanceof ParameterizedType) {
         Type[] actualTypeArguments = ((ParameterizedType) returnTypeParameter).getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 2) {
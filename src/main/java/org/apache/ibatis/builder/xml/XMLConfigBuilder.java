@@ -332,6 +332,14 @@ public class XMLConfigBuilder extends BaseBuilder {
       configuration.setUseGeneratedKeys(booleanValueOf(props.getProperty("useGeneratedKeys"), false));
       //配置默认的执行器
       configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
+      //BATCH执行器的分组与自动flush
+      configuration.setBatchGroupBySql(booleanValueOf(props.getProperty("batchGroupBySql"), false));
+      configuration.setBatchFlushRows(integerValueOf(props.getProperty("batchFlushRows"), 0));
+      configuration.setBatchFlushBytes(Long.parseLong(props.getProperty("batchFlushBytes", "0")));
+      configuration.setMultiRowInsertMaxRows(integerValueOf(props.getProperty("multiRowInsertMaxRows"), 0));
+      configuration.setMultiRowInsertMaxParameters(integerValueOf(props.getProperty("multiRowInsertMaxParameters"), 0));
+      configuration.setAsyncPoolSize(integerValueOf(props.getProperty("asyncPoolSize"), 10));
+      configuration.setAsyncVirtualThreads(booleanValueOf(props.getProperty("asyncVirtualThreads"), false));
       //超时时间
       configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
       //是否将DB字段自动映射到驼峰式Java属性（A_COLUMN-->aColumn）
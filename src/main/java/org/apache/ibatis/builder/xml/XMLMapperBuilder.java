@@ -33,8 +33,10 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
@@ -129,6 +131,10 @@ public class XMLMapperBuilder extends BaseBuilder {
         throw new BuilderException("Mapper's namespace cannot be empty");
       }
       builderAssistant.setCurrentNamespace(namespace);
+      String route = context.getStringAttribute("route");
+      if (route != null) {
+        configuration.setNamespaceRoute(namespace, DataSourceRoute.valueOf(route));
+      }
       //2.配置cache-ref
       cacheRefElement(context.evalNode("cache-ref"));
       //3.配置cache
@@ -244,16 +250,22 @@ public class XMLMapperBuilder extends BaseBuilder {
       String eviction = context.getStringAttribute("eviction", "LRU");
       Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
       Long flushInterval = context.getLongAttribute("flushInterval");
+      Long expireAfterWrite = context.getLongAttribute("expireAfterWrite");
+      Long expireAfterAccess = context.getLongAttribute("expireAfterAccess");
+      Long expiryJitter = context.getLongAttribute("expiryJitter");
+      Long refreshAhead = context.getLongAttribute("refreshAhead");
       Integer size = context.getIntAttribute("size");
       boolean readWrite = !context.getBooleanAttribute("readOnly", false);
       boolean blocking = context.getBooleanAttribute("blocking", false);
+      Class<? extends CacheSerializer> serializer = typeAliasRegistry.resolveAlias(context.getStringAttribute("serializer"));
       //读入额外的配置信息，易于第三方的缓存扩展,例:
 //    <cache type="com.domain.something.MyCustomCache">
 //      <property name="cacheFile" value="/tmp/my-custom-cache.tmp"/>
 //    </cache>
       Properties props = context.getChildrenAsProperties();
       //调用builderAssistant.useNewCache
-      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, expireAfterWrite, expireAfterAccess,
+          expiryJitter, refreshAhead, size, readWrite, serializer, blocking, props);
     }
   }
 
@@ -461,12 +473,13 @@ public class XMLMapperBuilder extends BaseBuilder {
     String resulSet = context.getStringAttribute("resultSet");
     String foreignColumn = context.getStringAttribute("foreignColumn");
     boolean lazy = "lazy".equals(context.getStringAttribute("fetchType", configuration.isLazyLoadingEnabled() ? "lazy" : "eager"));
+    int batchSize = context.getIntAttribute("batchSize", 0);
     Class<?> javaTypeClass = resolveClass(javaType);
     @SuppressWarnings("unchecked")
     Class<? extends TypeHandler<?>> typeHandlerClass = (Class<? extends TypeHandler<?>>) resolveClass(typeHandler);
     JdbcType jdbcTypeEnum = resolveJdbcType(jdbcType);
     //又去调builderAssistant.buildResultMapping
-    return builderAssistant.buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect, nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resulSet, foreignColumn, lazy);
+    return builderAssistant.buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect, nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resulSet, foreignColumn, lazy, batchSize);
   }
   
   //5.1.1.1 处理嵌套的result map
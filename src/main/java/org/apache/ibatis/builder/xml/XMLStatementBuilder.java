@@ -24,6 +24,7 @@ import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.SqlCommandType;
@@ -116,6 +117,12 @@ public class XMLStatementBuilder extends BaseBuilder {
     //仅针对嵌套结果 select 语句适用：如果为 true，就是假设包含了嵌套结果集或是分组了，这样的话当返回一个主结果行的时候，就不会发生有对前面结果集的引用的情况。
     //这就使得在获取嵌套的结果集的时候不至于导致内存不够用。默认值：false。 
     boolean resultOrdered = context.getBooleanAttribute("resultOrdered", false);
+    boolean parallelMapping = context.getBooleanAttribute("parallelMapping", false);
+    //批量执行时是否合并为多行insert
+    boolean multiRowInsert = context.getBooleanAttribute("multiRowInsert", false);
+    //使用路由数据源时语句走主库还是从库,不写则继承namespace上的设置
+    String route = context.getStringAttribute("route");
+    DataSourceRoute routeEnum = route == null ? null : DataSourceRoute.valueOf(route);
 
     // Include Fragments before parsing
     //解析之前先解析<include>SQL片段
@@ -149,7 +156,8 @@ public class XMLStatementBuilder extends BaseBuilder {
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
         fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
         resultSetTypeEnum, flushCache, useCache, resultOrdered, 
-        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets,
+        new MapperBuilderAssistant.StatementOptions().parallelMapping(parallelMapping).multiRowInsert(multiRowInsert).route(routeEnum));
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -63,6 +63,16 @@ public class CacheKey implements Cloneable, Serializable {
     this.updateList = new ArrayList<Object>();
   }
 
+  /*
+   * For subclasses that keep their own components, like {@link StatementCacheKey}. The inherited
+   * state is left empty and a count of -1 makes sure such a key never equals one built with update().
+   */
+  CacheKey(int hashcode) {
+    this.hashcode = hashcode;
+    this.multiplier = DEFAULT_MULTIPLYER;
+    this.count = -1;
+  }
+
   //传入一个Object数组，更新hashcode和效验码
   public CacheKey(Object[] objects) {
     this();
@@ -74,7 +84,11 @@ public class CacheKey implements Cloneable, Serializable {
   }
 
   public void update(Object object) {
-    if (object != null && object.getClass().isArray()) {
+    if (object instanceof Object[]) {
+      for (Object element : (Object[]) object) {
+        doUpdate(element);
+      }
+    } else if (object != null && object.getClass().isArray()) {
         //如果是数组，则循环调用doUpdate
       int length = Array.getLength(object);
       for (int i = 0; i < length; i++) {
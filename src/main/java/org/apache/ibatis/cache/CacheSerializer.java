@@ -0,0 +1,34 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * SPI used by the read-write cache ({@link org.apache.ibatis.cache.decorators.SerializedCache})
+ * to give every caller its own copy of a cached value.
+ *
+ * The form returned by serialize is what the cache keeps. It must not share any mutable state
+ * with the value, which the caller may change afterwards. Each call to deserialize must return
+ * a new copy.
+ *
+ * Implementations need a public no-arg constructor and must be thread safe.
+ */
+public interface CacheSerializer {
+
+  Object serialize(Object value);
+
+  Object deserialize(Object serialized);
+
+}
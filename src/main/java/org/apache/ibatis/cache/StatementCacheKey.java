@@ -0,0 +1,209 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Cache key of a query, built in one go by {@link org.apache.ibatis.executor.BaseExecutor#createCacheKey}.
+ *
+ * Unlike {@link CacheKey} it keeps the row bounds in int fields and the parameters in a single
+ * pre-sized array, and computes a 64 bit hash once, so building a key costs two allocations and
+ * comparing keys with different hashes never looks at the components.
+ *
+ * Plugins can still extend the key with update() and updateAll(), the values are appended after
+ * the statement components and the hash is carried on from there.
+ */
+public final class StatementCacheKey extends CacheKey {
+
+  private static final long serialVersionUID = -2719153421562541247L;
+
+  private static final long PRIME = 0x9E3779B97F4A7C15L;
+
+  private final String id;
+  private final int offset;
+  private final int limit;
+  private final String sql;
+  private final Object[] parameters;
+  private final String environmentId;
+  // values added with update(), null until then
+  private Object[] extras;
+  // the hash before the finalizer, so update() can carry on from it
+  private long state;
+  private long hash;
+
+  /*
+   * @param parameters the parameter values, the array is kept (not copied) by the key
+   */
+  public StatementCacheKey(String id, int offset, int limit, String sql, Object[] parameters, String environmentId) {
+    super(0);
+    this.id = id;
+    this.offset = offset;
+    this.limit = limit;
+    this.sql = sql;
+    this.parameters = parameters;
+    this.environmentId = environmentId;
+    long h = mix(hashOf(id), offset);
+    h = mix(h, limit);
+    h = mix(h, hashOf(sql));
+    for (int i = 0; i < parameters.length; i++) {
+      Object parameter = parameters[i];
+      if (parameter != null && parameter.getClass().isArray()) {
+        // copy arrays so a caller changing them later cannot change the key
+        parameter = parameters[i] = ArrayUtil.copy(parameter);
+      }
+      h = mix(h, ArrayUtil.hashCode(parameter));
+    }
+    h = mix(h, hashOf(environmentId));
+    this.state = h;
+    this.hash = finish(h);
+  }
+
+  private StatementCacheKey(StatementCacheKey original) {
+    super(0);
+    this.id = original.id;
+    this.offset = original.offset;
+    this.limit = original.limit;
+    this.sql = original.sql;
+    this.parameters = original.parameters;
+    this.environmentId = original.environmentId;
+    this.extras = original.extras == null ? null : original.extras.clone();
+    this.state = original.state;
+    this.hash = original.hash;
+  }
+
+  public long getHash64() {
+    return hash;
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return parameters.length + (environmentId == null ? 4 : 5) + (extras == null ? 0 : extras.length);
+  }
+
+  @Override
+  public void update(Object object) {
+    if (object != null && object.getClass().isArray()) {
+      object = ArrayUtil.copy(object);
+    }
+    if (extras == null) {
+      extras = new Object[] { object };
+    } else {
+      extras = Arrays.copyOf(extras, extras.length + 1);
+      extras[extras.length - 1] = object;
+    }
+    state = mix(state, ArrayUtil.hashCode(object));
+    hash = finish(state);
+  }
+
+  @Override
+  public void updateAll(Object[] objects) {
+    for (Object o : objects) {
+      update(o);
+    }
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof StatementCacheKey)) {
+      return false;
+    }
+    StatementCacheKey other = (StatementCacheKey) object;
+    if (hash != other.hash || offset != other.offset || limit != other.limit
+        || parameters.length != other.parameters.length) {
+      return false;
+    }
+    if (!equal(id, other.id) || !equal(sql, other.sql) || !equal(environmentId, other.environmentId)) {
+      return false;
+    }
+    for (int i = 0; i < parameters.length; i++) {
+      if (!ArrayUtil.equals(parameters[i], other.parameters[i])) {
+        return false;
+      }
+    }
+    return equalExtras(extras, other.extras);
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append(Long.toHexString(hash));
+    builder.append(':').append(id).append(':').append(offset).append(':').append(limit).append(':').append(sql);
+    for (Object parameter : parameters) {
+      builder.append(':').append(ArrayUtil.toString(parameter));
+    }
+    if (environmentId != null) {
+      builder.append(':').append(environmentId);
+    }
+    if (extras != null) {
+      for (Object extra : extras) {
+        builder.append(':').append(ArrayUtil.toString(extra));
+      }
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public StatementCacheKey clone() {
+    // the statement components are never changed, only the extras need their own array
+    return new StatementCacheKey(this);
+  }
+
+  private static boolean equalExtras(Object[] a, Object[] b) {
+    int length = a == null ? 0 : a.length;
+    if (length != (b == null ? 0 : b.length)) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (!ArrayUtil.equals(a[i], b[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static int hashOf(Object object) {
+    return object == null ? 1 : object.hashCode();
+  }
+
+  private static long mix(long h, int value) {
+    return (h + value) * PRIME;
+  }
+
+  // finalizer of MurmurHash3, spreads the bits of all the components over the 64 bits
+  private static long finish(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+}
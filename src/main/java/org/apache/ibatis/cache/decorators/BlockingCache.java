@@ -16,10 +16,9 @@ package org.apache.ibatis.cache.decorators;
  */
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
@@ -27,9 +26,15 @@ import org.apache.ibatis.cache.CacheException;
 /**
  * Simple blocking decorator 
  * 
- * Sipmle and inefficient version of EhCache's BlockingCache decorator.
- * It sets a lock over a cache key when the element is not found in cache.
- * This way, other threads will wait until this element is filled instead of hitting the database.
+ * Single flight loader in the spirit of EhCache's BlockingCache decorator.
+ * The first thread that misses a key becomes its loader and gets null, every other thread that
+ * misses the same key waits until the loader puts the value, instead of hitting the database.
+ * The waiters then get the loaded value directly, or, when the cache hands out copies, read it
+ * from the cache once.
+ *
+ * Only the keys being loaded are tracked, so the table of loads is as small as the number of
+ * concurrent misses and hits take no lock at all. If the loader gives up (puts null or removes the
+ * key, as a rolled back session does) one of the waiters becomes the next loader.
  * 阻塞的 Cache 实现类
  * 这里的阻塞比较特殊，当线程去获取缓存值时，如果不存在，则会阻塞后续的其他线程去获取该缓存。
  * @author Eduardo Macarron
@@ -42,16 +47,20 @@ public class BlockingCache implements Cache {
    */
   private long timeout;
 
+  /**
+   * 等待的线程是否直接拿到加载的值
+   */
+  private boolean handOff = true;
 
   private final Cache delegate;
   /**
-   * 缓存键与 ReentrantLock 对象的映射
+   * 缓存键与正在进行的加载的映射, 加载完成后移除
    */
-  private final ConcurrentHashMap<Object, ReentrantLock> locks;
+  private final ConcurrentHashMap<Object, Load> loads;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<Object, ReentrantLock>();
+    this.loads = new ConcurrentHashMap<Object, Load>();
   }
 
   @Override
@@ -70,28 +79,66 @@ public class BlockingCache implements Cache {
       // <2.1> 添加缓存
       delegate.putObject(key, value);
     } finally {
-      // <2.2> 释放锁
-      releaseLock(key);
+      // <2.2> 完成加载, 唤醒等待的线程
+      release(key, value);
     }
   }
 
   @Override
   public Object getObject(Object key) {
-    // <1.1> 获得锁
-    acquireLock(key);
-    // <1.2> 获得缓存值
+    // <1.1> 命中时不加锁
     Object value = delegate.getObject(key);
     if (value != null) {
-// <1.3> 释放锁
-      releaseLock(key);
-    }        
-    return value;
+      return value;
+    }
+    Thread current = Thread.currentThread();
+    while (true) {
+      Load load = loads.get(key);
+      if (load == null) {
+        // <1.2> 成为加载者
+        Load claimed = new Load(current);
+        if (loads.putIfAbsent(key, claimed) != null) {
+          continue;
+        }
+        // it may have been put between the first read and the claim
+        value = delegate.getObject(key);
+        if (value != null) {
+          release(key, value);
+        }
+        return value;
+      }
+      if (load.loader == current) {
+        // already loading this key
+        return null;
+      }
+      if (!load.loader.isAlive()) {
+        // the loader died without putting the key
+        if (loads.remove(key, load)) {
+          load.complete(null);
+        }
+        continue;
+      }
+      // <1.3> 等待加载者
+      value = await(key, load);
+      if (value != null) {
+        if (handOff) {
+          return value;
+        }
+        value = delegate.getObject(key);
+        if (value != null) {
+          return value;
+        }
+      }
+      // the loader gave up or the value is already gone, try to load it
+    }
   }
 
   @Override
   public Object removeObject(Object key) {
     // 释放锁
-    return delegate.removeObject(key);
+    Object value = delegate.removeObject(key);
+    release(key, null);
+    return value;
   }
 
   @Override
@@ -104,44 +151,30 @@ public class BlockingCache implements Cache {
     return null;
   }
 
-  /**
-   * 获得 ReentrantLock 对象。如果不存在，进行添加
-   *
-   * @param key 缓存键
-   * @return ReentrantLock 对象
-   */
-  private ReentrantLock getLockForKey(Object key) {
-    ReentrantLock lock = new ReentrantLock();
-    ReentrantLock previous = locks.putIfAbsent(key, lock);
-    return previous == null ? lock : previous;
-  }
-
-
-  private void acquireLock(Object key) {
-    // 获得 ReentrantLock 对象。
-    Lock lock = getLockForKey(key);
-    // 获得锁，直到超时
-    if (timeout > 0) {
-      try {
-        boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        if (!acquired) {
+  private Object await(Object key, Load load) {
+    try {
+      if (timeout > 0) {
+        if (!load.done.await(timeout, TimeUnit.MILLISECONDS)) {
           throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());  
         }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+      } else {
+        load.done.await();
       }
-    } else {
-      // 释放锁
-      lock.lock();
+    } catch (InterruptedException e) {
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
     }
+    return load.value;
   }
-  
-  private void releaseLock(Object key) {
-    // 获得 ReentrantLock 对象
-    ReentrantLock lock = locks.get(key);
-    // 如果当前线程持有，进行释放
-    if (lock.isHeldByCurrentThread()) {
-      lock.unlock();
+
+  /*
+   * Ends the load of the key if the current thread is its loader. Does nothing otherwise, so
+   * putting a key that was never missed is fine.
+   */
+  private void release(Object key, Object value) {
+    Load load = loads.get(key);
+    // 如果当前线程是加载者，结束加载
+    if (load != null && load.loader == Thread.currentThread() && loads.remove(key, load)) {
+      load.complete(value);
     }
   }
 
@@ -151,5 +184,40 @@ public class BlockingCache implements Cache {
 
   public void setTimeout(long timeout) {
     this.timeout = timeout;
-  }  
-}
\ No newline at end of file
+  }
+
+  public boolean isHandOff() {
+    return handOff;
+  }
+
+  /*
+   * Whether the threads that waited for a load get the loaded object itself. Must be turned off
+   * when the delegate returns copies, so every thread gets its own.
+   */
+  public void setHandOff(boolean handOff) {
+    this.handOff = handOff;
+  }
+
+  /*
+   * The number of keys being loaded right now.
+   */
+  public int getLoadCount() {
+    return loads.size();
+  }
+
+  private static class Load {
+    private final Thread loader;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Object value;
+
+    Load(Thread loader) {
+      this.loader = loader;
+    }
+
+    void complete(Object value) {
+      this.value = value;
+      done.countDown();
+    }
+  }
+
+}
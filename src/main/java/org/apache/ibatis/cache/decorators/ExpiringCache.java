@@ -0,0 +1,240 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Per entry expiration, unlike {@link ScheduledCache} which clears the whole cache at once.
+ *
+ * An entry expires a fixed time after it was written (expireAfterWrite), after it was last read
+ * (expireAfterAccess) or whichever comes first when both are set. A random jitter of up to
+ * expiryJitter milliseconds is added to every deadline so entries written together do not expire
+ * together.
+ *
+ * With refreshAhead, the first hit on an entry that expires within that many milliseconds still
+ * returns the cached value but asks the caller to reload it in the background, see
+ * {@link #listenForRefresh()}. Callers that do not listen never get asked. The CachingExecutor does that by running the query again
+ * asynchronously, so hot entries are replaced before they expire instead of missing all at once.
+ * A reloaded value is dropped if the cache was cleared after the refresh was requested, since it
+ * may have been read before the write that cleared it was committed.
+ */
+public class ExpiringCache implements Cache {
+
+  // set only while a caller that reloads entries reads the cache, holds the requested refresh
+  private static final ThreadLocal<Refresh[]> REFRESH_REQUEST = new ThreadLocal<Refresh[]>();
+  private static final ThreadLocal<Refresh> REFRESHING = new ThreadLocal<Refresh>();
+
+  private final Cache delegate;
+  private long expireAfterWrite;
+  private long expireAfterAccess;
+  private long expiryJitter;
+  private long refreshAhead;
+  // how many times the cache was cleared, guarded by this
+  private long clearCount;
+
+  public ExpiringCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  public void setExpireAfterWrite(long expireAfterWrite) {
+    this.expireAfterWrite = TimeUnit.MILLISECONDS.toNanos(expireAfterWrite);
+  }
+
+  public void setExpireAfterAccess(long expireAfterAccess) {
+    this.expireAfterAccess = TimeUnit.MILLISECONDS.toNanos(expireAfterAccess);
+  }
+
+  public void setExpiryJitter(long expiryJitter) {
+    this.expiryJitter = TimeUnit.MILLISECONDS.toNanos(expiryJitter);
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = TimeUnit.MILLISECONDS.toNanos(refreshAhead);
+  }
+
+  /*
+   * Makes the next reads of the calling thread ask for refreshes, until takeRefreshRequest is
+   * called. Call that one in a finally block so the thread does not keep listening.
+   */
+  public static void listenForRefresh() {
+    REFRESH_REQUEST.set(new Refresh[1]);
+  }
+
+  /*
+   * Stops listening and tells whether a read since listenForRefresh hit an entry due for a
+   * refresh. Only the thread that gets a request for an entry is expected to reload it.
+   *
+   * @param key the key that was just read
+   * @return the refresh to run the reload with, or null
+   */
+  public static Refresh takeRefreshRequest(Object key) {
+    Refresh[] requested = REFRESH_REQUEST.get();
+    if (requested == null) {
+      return null;
+    }
+    REFRESH_REQUEST.remove();
+    return requested[0] != null && requested[0].key.equals(key) ? requested[0] : null;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Refresh refresh = REFRESHING.get();
+    if (refresh != null && refresh.cache == this && refresh.key.equals(key)) {
+      synchronized (this) {
+        // cleared since the refresh was requested, the reloaded value may be older than the write
+        if (clearCount == refresh.clearCount) {
+          doPutObject(key, value);
+        }
+      }
+    } else {
+      doPutObject(key, value);
+    }
+  }
+
+  private void doPutObject(Object key, Object value) {
+    long now = System.nanoTime();
+    long writeDeadline = expireAfterWrite > 0 ? now + expireAfterWrite + jitter() : Long.MAX_VALUE;
+    long accessDeadline = expireAfterAccess > 0 ? now + expireAfterAccess + jitter() : Long.MAX_VALUE;
+    delegate.putObject(key, new Entry(value, writeDeadline, accessDeadline));
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object stored = delegate.getObject(key);
+    if (!(stored instanceof Entry)) {
+      return stored;
+    }
+    Entry entry = (Entry) stored;
+    long now = System.nanoTime();
+    long deadline = Math.min(entry.writeDeadline, entry.accessDeadline);
+    if (now - deadline >= 0) {
+      delegate.removeObject(key);
+      return null;
+    }
+    if (expireAfterAccess > 0) {
+      entry.accessDeadline = now + expireAfterAccess + jitter();
+      deadline = Math.min(entry.writeDeadline, entry.accessDeadline);
+    }
+    Refresh[] requested = refreshAhead > 0 ? REFRESH_REQUEST.get() : null;
+    if (requested != null && deadline - now <= refreshAhead && entry.claimRefresh()) {
+      synchronized (this) {
+        requested[0] = new Refresh(this, key, clearCount);
+      }
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object stored = delegate.removeObject(key);
+    return stored instanceof Entry ? ((Entry) stored).value : stored;
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      clearCount++;
+      delegate.clear();
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private long jitter() {
+    return expiryJitter > 0 ? ThreadLocalRandom.current().nextLong(expiryJitter + 1) : 0;
+  }
+
+  /*
+   * A requested reload. The reloaded value is stored by the thread running it between begin() and
+   * end(), and only if the cache was not cleared in the meantime.
+   */
+  public static final class Refresh {
+
+    private final ExpiringCache cache;
+    private final Object key;
+    private final long clearCount;
+
+    private Refresh(ExpiringCache cache, Object key, long clearCount) {
+      this.cache = cache;
+      this.key = key;
+      this.clearCount = clearCount;
+    }
+
+    public void begin() {
+      REFRESHING.set(this);
+    }
+
+    public void end() {
+      REFRESHING.remove();
+    }
+
+  }
+
+  private static class Entry implements Serializable {
+
+    private static final long serialVersionUID = -2548372810397342863L;
+
+    private static final AtomicIntegerFieldUpdater<Entry> REFRESHING =
+        AtomicIntegerFieldUpdater.newUpdater(Entry.class, "refreshing");
+
+    private final Object value;
+    private final long writeDeadline;
+    private volatile long accessDeadline;
+    private volatile int refreshing;
+
+    Entry(Object value, long writeDeadline, long accessDeadline) {
+      this.value = value;
+      this.writeDeadline = writeDeadline;
+      this.accessDeadline = accessDeadline;
+    }
+
+    // only one refresh per entry, the reloaded value comes in a new entry
+    boolean claimRefresh() {
+      return REFRESHING.compareAndSet(this, 0, 1);
+    }
+  }
+
+}
@@ -0,0 +1,468 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * Size bounded cache meant to be shared by many threads, without the SynchronizedCache and
+ * LruCache decorators a PerpetualCache needs.
+ *
+ * Entries live in a ConcurrentHashMap. A hit never blocks: the access is recorded in one of
+ * several lossy ring buffers (picked by thread) and the buffers are replayed against the eviction
+ * policy by whichever thread manages to take the eviction lock. Writes take that lock to keep the
+ * cache within its size.
+ *
+ * The default policy is W-TinyLFU: new entries go to a small LRU window; when the cache is full an
+ * entry leaving the window is admitted only if it has been used more often than the entry it
+ * would evict from the main segmented LRU, according to a {@link FrequencySketch}. This keeps one
+ * off scans from flushing the popular entries. The policy can be switched to a plain LRU with
+ * the <code>policy</code> property.
+ *
+ * <pre>
+ * &lt;cache type="CONCURRENT" size="10000"&gt;
+ *   &lt;property name="policy" value="LRU"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ */
+public class ConcurrentCache implements Cache {
+
+  public static final String POLICY_TINY_LFU = "TINYLFU";
+  public static final String POLICY_LRU = "LRU";
+
+  private static final int DEFAULT_SIZE = 1024;
+
+  private static final int NONE = 0;
+  private static final int WINDOW = 1;
+  private static final int PROBATION = 2;
+  private static final int PROTECTED = 3;
+
+  private static final int READ_BUFFER_SIZE = 16;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  private static final int READ_BUFFER_STRIPES =
+      Integer.highestOneBit(Math.max(1, 4 * Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+  private final String id;
+  private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<Object, Node>();
+  private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  // guarded by evictionLock
+  private final Node window = new Node(null, null);
+  private final Node probation = new Node(null, null);
+  private final Node protectedSegment = new Node(null, null);
+  private FrequencySketch sketch;
+  private String policy = POLICY_TINY_LFU;
+  private int maximumSize;
+  private int windowMaximum;
+  private int protectedMaximum;
+  private int size;
+  private int windowSize;
+  private int protectedSize;
+
+  public ConcurrentCache(String id) {
+    this.id = id;
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+    window.prev = window.next = window;
+    probation.prev = probation.next = probation;
+    protectedSegment.prev = protectedSegment.next = protectedSegment;
+    setSize(DEFAULT_SIZE);
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public void setSize(int size) {
+    if (size < 1) {
+      throw new CacheException("The size of cache " + id + " must be positive but was " + size);
+    }
+    evictionLock.lock();
+    try {
+      this.maximumSize = size;
+      this.sketch = new FrequencySketch(size);
+      configurePolicy();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  public String getPolicy() {
+    return policy;
+  }
+
+  public void setPolicy(String policy) {
+    String upper = policy == null ? POLICY_TINY_LFU : policy.toUpperCase();
+    if (!POLICY_TINY_LFU.equals(upper) && !POLICY_LRU.equals(upper)) {
+      throw new CacheException("Unknown eviction policy '" + policy + "' for cache " + id
+          + ", use " + POLICY_TINY_LFU + " or " + POLICY_LRU);
+    }
+    evictionLock.lock();
+    try {
+      this.policy = upper;
+      configurePolicy();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Node node = new Node(key, value);
+    Node prior = data.put(key, node);
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      if (prior != null) {
+        retire(prior);
+      }
+      // a concurrent remove or clear may have retired it already
+      if (!node.retired) {
+        onAdd(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Node node = data.get(key);
+    if (node == null) {
+      missCount.increment();
+      return null;
+    }
+    hitCount.increment();
+    if (!readBuffers[probe()].offer(node) && evictionLock.tryLock()) {
+      // the buffer is full, replay it now unless somebody else is already at it
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Node node = data.remove(key);
+    if (node == null) {
+      return null;
+    }
+    evictionLock.lock();
+    try {
+      retire(node);
+    } finally {
+      evictionLock.unlock();
+    }
+    return node.value;
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (Node node : data.values()) {
+        if (data.remove(node.key, node)) {
+          retire(node);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  public double getHitRatio() {
+    long hits = hitCount.sum();
+    long requests = hits + missCount.sum();
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return id + " [size=" + getSize() + ", maximumSize=" + maximumSize + ", policy=" + policy
+        + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+  }
+
+  private int probe() {
+    long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+    return (int) (hash >>> 32) & (READ_BUFFER_STRIPES - 1);
+  }
+
+  /*
+   * Policy, all the methods below run under the eviction lock.
+   */
+
+  private void configurePolicy() {
+    if (POLICY_LRU.equals(policy)) {
+      windowMaximum = maximumSize;
+      protectedMaximum = 0;
+    } else {
+      windowMaximum = Math.max(1, maximumSize / 100);
+      protectedMaximum = (maximumSize - windowMaximum) * 4 / 5;
+    }
+    while (protectedSize > protectedMaximum) {
+      demote(protectedSegment.next);
+    }
+    while (windowSize > windowMaximum) {
+      Node node = window.next;
+      unlink(node);
+      windowSize--;
+      append(probation, node, PROBATION);
+    }
+    if (POLICY_LRU.equals(policy)) {
+      // a plain LRU only has the window, move the rest in from the most recently used side
+      while (probation.prev != probation) {
+        Node node = probation.prev;
+        unlink(node);
+        insertFirst(window, node);
+        windowSize++;
+      }
+    }
+    evict();
+  }
+
+  private void onAdd(Node node) {
+    sketch.increment(node.key);
+    append(window, node, WINDOW);
+    windowSize++;
+    size++;
+    while (windowSize > windowMaximum) {
+      Node candidate = window.next;
+      unlink(candidate);
+      windowSize--;
+      append(probation, candidate, PROBATION);
+    }
+    evict();
+  }
+
+  private void onAccess(Node node) {
+    if (node.retired) {
+      return;
+    }
+    sketch.increment(node.key);
+    if (node.queue == WINDOW) {
+      unlink(node);
+      append(window, node, WINDOW);
+    } else if (node.queue == PROBATION) {
+      unlink(node);
+      append(protectedSegment, node, PROTECTED);
+      protectedSize++;
+      while (protectedSize > protectedMaximum) {
+        demote(protectedSegment.next);
+      }
+    } else if (node.queue == PROTECTED) {
+      unlink(node);
+      append(protectedSegment, node, PROTECTED);
+    }
+  }
+
+  private void evict() {
+    while (size > maximumSize) {
+      Node victim = probation.next;
+      Node candidate = probation.prev;
+      if (victim == probation) {
+        // the main space is empty, evict from the protected segment or the window
+        evictEntry(protectedSegment.next != protectedSegment ? protectedSegment.next : window.next);
+      } else if (victim == candidate) {
+        evictEntry(victim);
+      } else {
+        // the most recent arrival in probation has to beat the least recently used entry
+        evictEntry(sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate);
+      }
+    }
+  }
+
+  private void evictEntry(Node node) {
+    if (data.remove(node.key, node)) {
+      evictionCount.increment();
+    }
+    retire(node);
+  }
+
+  private void demote(Node node) {
+    unlink(node);
+    protectedSize--;
+    append(probation, node, PROBATION);
+  }
+
+  private void retire(Node node) {
+    if (node.retired) {
+      return;
+    }
+    node.retired = true;
+    if (node.queue != NONE) {
+      if (node.queue == WINDOW) {
+        windowSize--;
+      } else if (node.queue == PROTECTED) {
+        protectedSize--;
+      }
+      unlink(node);
+      node.queue = NONE;
+      size--;
+    }
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer buffer : readBuffers) {
+      long head = buffer.readCounter;
+      long tail = buffer.writeCounter.get();
+      for (; head < tail; head++) {
+        int index = (int) (head & READ_BUFFER_MASK);
+        Node node = buffer.nodes.get(index);
+        if (node == null) {
+          // the writer has not published it yet, pick it up next time
+          break;
+        }
+        buffer.nodes.lazySet(index, null);
+        onAccess(node);
+      }
+      buffer.readCounter = head;
+    }
+  }
+
+  private static void append(Node head, Node node, int queue) {
+    node.queue = queue;
+    node.prev = head.prev;
+    node.next = head;
+    head.prev.next = node;
+    head.prev = node;
+  }
+
+  private static void insertFirst(Node head, Node node) {
+    node.queue = WINDOW;
+    node.prev = head;
+    node.next = head.next;
+    head.next.prev = node;
+    head.next = node;
+  }
+
+  private static void unlink(Node node) {
+    node.prev.next = node.next;
+    node.next.prev = node.prev;
+    node.prev = null;
+    node.next = null;
+  }
+
+  /*
+   * An entry. The key and value never change, a put replaces the whole node.
+   * The links and the queue are guarded by the eviction lock.
+   */
+  private static final class Node {
+    final Object key;
+    final Object value;
+    Node prev;
+    Node next;
+    int queue;
+    boolean retired;
+
+    Node(Object key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /*
+   * Ring buffer of recent hits. Lossy: when it is full or another thread wins the slot
+   * the hit is simply not recorded, it only makes the policy a bit less precise.
+   */
+  private static final class ReadBuffer {
+    final AtomicLong writeCounter = new AtomicLong();
+    final AtomicReferenceArray<Node> nodes = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+    volatile long readCounter;
+
+    /*
+     * @return false if the buffer is full
+     */
+    boolean offer(Node node) {
+      long tail = writeCounter.get();
+      if (tail - readCounter >= READ_BUFFER_SIZE) {
+        return false;
+      }
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        nodes.lazySet((int) (tail & READ_BUFFER_MASK), node);
+      }
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,367 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.SerializedCache.CustomObjectInputStream;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
+
+/**
+ * Cache that keeps its values serialized outside of the Java heap, so large caches do not add to
+ * the old generation and to the GC pauses.
+ *
+ * The memory is a fixed number of segments, direct ByteBuffers or regions of a memory mapped file.
+ * Values are appended to the current segment; when it is full writing moves to the next one, and
+ * once every segment has been used the oldest segment is emptied and reused, evicting all its
+ * entries. The cache therefore never holds more than <code>capacity</code> bytes of values and
+ * never fragments. Replaced and removed values keep their space until their segment is reused.
+ *
+ * Only the keys and a small index entry per key stay on the heap. Values must be serializable and
+ * every read returns a new copy, so the cache does not need a SerializedCache in front of it.
+ * Values bigger than a segment are not cached. Like PerpetualCache this class is not thread safe,
+ * CacheBuilder adds the usual SynchronizedCache.
+ *
+ * <pre>
+ * &lt;cache type="OFFHEAP"&gt;
+ *   &lt;property name="capacity" value="1073741824"/&gt;
+ *   &lt;property name="segmentSize" value="16777216"/&gt;
+ *   &lt;property name="file" value="/var/cache/myapp/blog.cache"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ */
+public class OffHeapCache implements Cache {
+
+  private static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+  private static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+  private final String id;
+  private final JavaSerializer serializer = new JavaSerializer();
+  private final Map<Object, Slot> index = new HashMap<Object, Slot>();
+
+  private long capacity = DEFAULT_CAPACITY;
+  private int segmentSize = DEFAULT_SEGMENT_SIZE;
+  private String file;
+
+  private Segment[] segments;
+  private int current;
+  private long usedBytes;
+  private long evictionCount;
+  private long rejectionCount;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return index.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    byte[] bytes = (byte[]) serializer.serialize(value);
+    removeObject(key);
+    if (bytes.length > segmentSize) {
+      rejectionCount++;
+      return;
+    }
+    Segment segment = segmentFor(bytes.length);
+    Slot slot = new Slot(segment, segment.position, bytes.length);
+    ByteBuffer buffer = segment.buffer.duplicate();
+    buffer.position(slot.offset);
+    buffer.put(bytes);
+    segment.position += bytes.length;
+    segment.keys.add(key);
+    index.put(key, slot);
+    usedBytes += bytes.length;
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Slot slot = index.get(key);
+    if (slot == null) {
+      return null;
+    }
+    ByteBuffer buffer = slot.segment.buffer.duplicate();
+    buffer.limit(slot.offset + slot.length);
+    buffer.position(slot.offset);
+    try {
+      ObjectInputStream ois = new CustomObjectInputStream(new ByteBufferInputStream(buffer));
+      Object result = ois.readObject();
+      ois.close();
+      return result;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Slot slot = index.remove(key);
+    if (slot != null) {
+      usedBytes -= slot.length;
+    }
+    // the value is not deserialized just to be dropped
+    return null;
+  }
+
+  @Override
+  public void clear() {
+    index.clear();
+    usedBytes = 0;
+    if (segments != null) {
+      for (Segment segment : segments) {
+        if (segment != null) {
+          segment.reset();
+        }
+      }
+    }
+    current = 0;
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  /*
+   * The maximum number of bytes of serialized values, rounded down to a whole number of segments.
+   */
+  public void setCapacity(long capacity) {
+    checkNotAllocated();
+    this.capacity = capacity;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /*
+   * The unit of allocation and of eviction, and the largest value the cache can hold.
+   */
+  public void setSegmentSize(int segmentSize) {
+    checkNotAllocated();
+    this.segmentSize = segmentSize;
+  }
+
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  /*
+   * Keeps the segments in this file, memory mapped, instead of direct buffers. The content does not
+   * survive a restart, but the operating system can page it out under memory pressure.
+   */
+  public void setFile(String file) {
+    checkNotAllocated();
+    this.file = file;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  /*
+   * The bytes taken by the values that can still be read, not counting replaced or removed ones.
+   */
+  public long getUsedBytes() {
+    return usedBytes;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /*
+   * The number of values that were not cached because they did not fit in a segment.
+   */
+  public long getRejectionCount() {
+    return rejectionCount;
+  }
+
+  /*
+   * Finds room for a value, moving to the next segment and evicting what it holds if needed.
+   */
+  private Segment segmentFor(int length) {
+    if (segments == null) {
+      allocate();
+    }
+    Segment segment = segments[current];
+    if (segment == null) {
+      segment = segments[current] = newSegment(current);
+    }
+    if (segment.position + length <= segmentSize) {
+      return segment;
+    }
+    current = (current + 1) % segments.length;
+    segment = segments[current];
+    if (segment == null) {
+      return segments[current] = newSegment(current);
+    }
+    evict(segment);
+    return segment;
+  }
+
+  private void evict(Segment segment) {
+    for (Object key : segment.keys) {
+      Slot slot = index.get(key);
+      // the key may have been written again to another segment since
+      if (slot != null && slot.segment == segment) {
+        index.remove(key);
+        usedBytes -= slot.length;
+        evictionCount++;
+      }
+    }
+    segment.reset();
+  }
+
+  private void allocate() {
+    if (segmentSize <= 0) {
+      throw new CacheException("The segment size of cache " + id + " must be positive.");
+    }
+    long count = capacity / segmentSize;
+    if (count < 1 || count > Integer.MAX_VALUE) {
+      throw new CacheException("The capacity of cache " + id + " must be between one segment ("
+          + segmentSize + " bytes) and " + Integer.MAX_VALUE + " segments.");
+    }
+    segments = new Segment[(int) count];
+  }
+
+  private Segment newSegment(int number) {
+    if (file == null) {
+      return new Segment(ByteBuffer.allocateDirect(segmentSize));
+    }
+    try {
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      try {
+        FileChannel channel = raf.getChannel();
+        // the mapping stays valid after the channel is closed
+        return new Segment(channel.map(FileChannel.MapMode.READ_WRITE, (long) number * segmentSize, segmentSize));
+      } finally {
+        raf.close();
+      }
+    } catch (IOException e) {
+      throw new CacheException("Error mapping segment " + number + " of cache " + id + " to " + file + ".  Cause: " + e, e);
+    }
+  }
+
+  private void checkNotAllocated() {
+    if (segments != null) {
+      throw new CacheException("The memory of cache " + id + " is already allocated.");
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static class Segment {
+    private final ByteBuffer buffer;
+    private final List<Object> keys = new ArrayList<Object>();
+    private int position;
+
+    Segment(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    void reset() {
+      keys.clear();
+      position = 0;
+    }
+  }
+
+  private static class Slot {
+    private final Segment segment;
+    private final int offset;
+    private final int length;
+
+    Slot(Segment segment, int offset, int length) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+}
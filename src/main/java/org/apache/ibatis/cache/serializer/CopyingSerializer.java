@@ -0,0 +1,283 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * Deep copies values instead of serializing them, which is much cheaper for large result lists.
+ *
+ * Result objects are copied property by property with the metadata of their {@link Reflector},
+ * the same getters, setters and fields MyBatis uses to map them. Immutable JDK values are shared,
+ * dates and arrays are cloned, and the usual java.util lists, sets and maps are rebuilt. Shared
+ * references and cycles are preserved. Transient and static fields are not copied.
+ *
+ * Anything else (lazy loading proxies, objects without a default constructor, other JDK classes,
+ * sorted collections) cannot be copied safely this way, so the whole value then falls back to
+ * {@link JavaSerializer}.
+ */
+public class CopyingSerializer implements CacheSerializer {
+
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>();
+  private static final Set<Class<?>> COLLECTION_TYPES = new HashSet<Class<?>>();
+
+  static {
+    IMMUTABLE_TYPES.add(String.class);
+    IMMUTABLE_TYPES.add(Boolean.class);
+    IMMUTABLE_TYPES.add(Character.class);
+    IMMUTABLE_TYPES.add(Byte.class);
+    IMMUTABLE_TYPES.add(Short.class);
+    IMMUTABLE_TYPES.add(Integer.class);
+    IMMUTABLE_TYPES.add(Long.class);
+    IMMUTABLE_TYPES.add(Float.class);
+    IMMUTABLE_TYPES.add(Double.class);
+    IMMUTABLE_TYPES.add(BigInteger.class);
+    IMMUTABLE_TYPES.add(BigDecimal.class);
+    IMMUTABLE_TYPES.add(UUID.class);
+    IMMUTABLE_TYPES.add(Class.class);
+
+    COLLECTION_TYPES.add(ArrayList.class);
+    COLLECTION_TYPES.add(LinkedList.class);
+    COLLECTION_TYPES.add(HashSet.class);
+    COLLECTION_TYPES.add(LinkedHashSet.class);
+    COLLECTION_TYPES.add(HashMap.class);
+    COLLECTION_TYPES.add(LinkedHashMap.class);
+  }
+
+  private final JavaSerializer fallback = new JavaSerializer();
+  private final Map<Class<?>, BeanCopier> copiers = new ConcurrentHashMap<Class<?>, BeanCopier>();
+
+  @Override
+  public Object serialize(Object value) {
+    try {
+      return new GraphCopy().copy(value);
+    } catch (UnsupportedTypeException e) {
+      return new Serialized((byte[]) fallback.serialize(value));
+    }
+  }
+
+  @Override
+  public Object deserialize(Object serialized) {
+    if (serialized instanceof Serialized) {
+      return fallback.deserialize(((Serialized) serialized).bytes);
+    }
+    return new GraphCopy().copy(serialized);
+  }
+
+  private BeanCopier getBeanCopier(Class<?> type) {
+    BeanCopier copier = copiers.get(type);
+    if (copier == null) {
+      copier = new BeanCopier(type);
+      copiers.put(type, copier);
+    }
+    return copier;
+  }
+
+  /*
+   * One copy of one object graph, remembers what has been copied so far.
+   */
+  private class GraphCopy {
+
+    private final Map<Object, Object> copies = new IdentityHashMap<Object, Object>();
+
+    @SuppressWarnings("unchecked")
+    Object copy(Object value) {
+      if (value == null) {
+        return null;
+      }
+      Class<?> type = value.getClass();
+      if (IMMUTABLE_TYPES.contains(type) || type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum())
+          || type.getName().startsWith("java.time.")) {
+        return value;
+      }
+      Object copy = copies.get(value);
+      if (copy != null) {
+        return copy;
+      }
+      if (value instanceof Date) {
+        copy = ((Date) value).clone();
+      } else if (type.isArray()) {
+        copy = copyArray(value, type);
+      } else if (COLLECTION_TYPES.contains(type)) {
+        copy = newInstance(type);
+        copies.put(value, copy);
+        if (value instanceof Collection) {
+          for (Object element : (Collection<Object>) value) {
+            ((Collection<Object>) copy).add(copy(element));
+          }
+        } else {
+          for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+            ((Map<Object, Object>) copy).put(copy(entry.getKey()), copy(entry.getValue()));
+          }
+        }
+      } else if (value instanceof WriteReplaceInterface || value instanceof Collection || value instanceof Map
+          || type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+        throw new UnsupportedTypeException();
+      } else {
+        BeanCopier copier = getBeanCopier(type);
+        copy = copier.newInstance();
+        copies.put(value, copy);
+        copier.copyProperties(value, copy, this);
+      }
+      copies.put(value, copy);
+      return copy;
+    }
+
+    private Object copyArray(Object value, Class<?> type) {
+      if (type.getComponentType().isPrimitive()) {
+        int length = Array.getLength(value);
+        Object copy = Array.newInstance(type.getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        return copy;
+      }
+      Object[] array = (Object[]) value;
+      Object[] copy = (Object[]) Array.newInstance(type.getComponentType(), array.length);
+      copies.put(value, copy);
+      for (int i = 0; i < array.length; i++) {
+        copy[i] = copy(array[i]);
+      }
+      return copy;
+    }
+
+    private Object newInstance(Class<?> type) {
+      try {
+        return type.getDeclaredConstructor().newInstance();
+      } catch (InvocationTargetException e) {
+        final Throwable t = ExceptionUtil.unwrapThrowable(e);
+        throw new CacheException("Error copying an instance of " + type + ".  Cause: " + t, t);
+      } catch (Exception e) {
+        throw new CacheException("Error copying an instance of " + type + ".  Cause: " + e, e);
+      }
+    }
+  }
+
+  /*
+   * The properties of a class that are both readable and writable, resolved once per class.
+   */
+  private static class BeanCopier {
+
+    private final Constructor<?> constructor;
+    private final Invoker[] getters;
+    private final Invoker[] setters;
+
+    BeanCopier(Class<?> type) {
+      Reflector reflector = Reflector.forClass(type);
+      constructor = reflector.hasDefaultConstructor() ? reflector.getDefaultConstructor() : null;
+      List<Invoker> getterList = new ArrayList<Invoker>();
+      List<Invoker> setterList = new ArrayList<Invoker>();
+      for (String property : reflector.getGetablePropertyNames()) {
+        if (!reflector.hasSetter(property)) {
+          continue;
+        }
+        if (!isCopiedField(type, property)) {
+          continue;
+        }
+        getterList.add(reflector.getGetInvoker(property));
+        setterList.add(reflector.getSetInvoker(property));
+      }
+      getters = getterList.toArray(new Invoker[getterList.size()]);
+      setters = setterList.toArray(new Invoker[setterList.size()]);
+    }
+
+    Object newInstance() {
+      if (constructor == null) {
+        throw new UnsupportedTypeException();
+      }
+      try {
+        return constructor.newInstance();
+      } catch (InvocationTargetException e) {
+        final Throwable t = ExceptionUtil.unwrapThrowable(e);
+        throw new CacheException("Error copying an instance of " + constructor.getDeclaringClass() + ".  Cause: " + t, t);
+      } catch (Exception e) {
+        throw new CacheException("Error copying an instance of " + constructor.getDeclaringClass() + ".  Cause: " + e, e);
+      }
+    }
+
+    void copyProperties(Object source, Object target, GraphCopy graph) {
+      try {
+        for (int i = 0; i < getters.length; i++) {
+          setters[i].invoke(target, new Object[] { graph.copy(getters[i].invoke(source, null)) });
+        }
+      } catch (UnsupportedTypeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new CacheException("Error copying an instance of " + source.getClass() + ".  Cause: " + e, e);
+      }
+    }
+
+    // like serialization, skip the properties backed by static or transient fields
+    private static boolean isCopiedField(Class<?> type, String name) {
+      for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (field.getName().equals(name)) {
+            int modifiers = field.getModifiers();
+            return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers);
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+  /*
+   * A value that had to go through Java serialization.
+   */
+  private static class Serialized implements Serializable {
+    private static final long serialVersionUID = 2851732186318312470L;
+    private final byte[] bytes;
+
+    Serialized(byte[] bytes) {
+      this.bytes = bytes;
+    }
+  }
+
+  private static class UnsupportedTypeException extends RuntimeException {
+    private static final long serialVersionUID = -5240587958012000493L;
+
+    UnsupportedTypeException() {
+      super(null, null, false, false);
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/**
+ * One column of a {@link ColumnarResult}.
+ *
+ * Rows are 0 based. The primitive columns hold 0 in the rows that were SQL NULL, so check
+ * {@link #isNull(int)} when it matters.
+ */
+public abstract class Column {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final String name;
+  private final JdbcType jdbcType;
+  private final BitSet nulls = new BitSet();
+  protected int size;
+
+  Column(String name, JdbcType jdbcType) {
+    this.name = name;
+    this.jdbcType = jdbcType;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public JdbcType getJdbcType() {
+    return jdbcType;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isNull(int row) {
+    checkRow(row);
+    return nulls.get(row);
+  }
+
+  public int getNullCount() {
+    return nulls.cardinality();
+  }
+
+  /*
+   * Gets the value of a row boxed, null for SQL NULL.
+   */
+  public abstract Object getObject(int row);
+
+  /*
+   * Reads the current row of the result set and appends it.
+   */
+  abstract void read(ResultSet rs, int columnIndex) throws SQLException;
+
+  /*
+   * Drops the spare capacity once the result set has been read.
+   */
+  abstract void trim();
+
+  // 标记正要追加的这一行为NULL
+  protected void markNull() {
+    nulls.set(size);
+  }
+
+  protected void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " of column " + name + " with " + size + " rows");
+    }
+  }
+
+  /*
+   * Whether values can be read by index. Only the type handlers of MyBatis are, any other is called
+   * with the column name since that is how they have always been called for result sets.
+   */
+  protected static boolean readsByIndex(TypeHandler<?> typeHandler) {
+    final Class<?> type = typeHandler.getClass();
+    return type.getPackage() == TypeHandler.class.getPackage() && type != UnknownTypeHandler.class;
+  }
+
+  protected static int grow(int capacity) {
+    return capacity < INITIAL_CAPACITY ? INITIAL_CAPACITY : capacity + (capacity >> 1);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + name + ", " + size + " rows]";
+  }
+
+}
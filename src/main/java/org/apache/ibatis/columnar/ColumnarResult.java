@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The rows of one result set stored column by column.
+ *
+ * Columns are found by their 0 based position or by their name or label, ignoring case. When two
+ * columns share a name the first one wins the lookup by name.
+ */
+public class ColumnarResult {
+
+  private final List<Column> columns;
+  private final Map<String, Column> columnsByName = new HashMap<String, Column>();
+  private final int rowCount;
+
+  public ColumnarResult(List<Column> columns, int rowCount) {
+    this.columns = Collections.unmodifiableList(new ArrayList<Column>(columns));
+    this.rowCount = rowCount;
+    for (Column column : columns) {
+      String key = column.getName().toUpperCase(Locale.ENGLISH);
+      if (!columnsByName.containsKey(key)) {
+        columnsByName.put(key, column);
+      }
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columns.size();
+  }
+
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  public List<String> getColumnNames() {
+    List<String> names = new ArrayList<String>(columns.size());
+    for (Column column : columns) {
+      names.add(column.getName());
+    }
+    return names;
+  }
+
+  public Column getColumn(int index) {
+    return columns.get(index);
+  }
+
+  public Column getColumn(String name) {
+    Column column = columnsByName.get(name.toUpperCase(Locale.ENGLISH));
+    if (column == null) {
+      throw new IllegalArgumentException("No column named '" + name + "' in the result. Available columns are " + getColumnNames());
+    }
+    return column;
+  }
+
+  public IntColumn getIntColumn(String name) {
+    return getColumn(name, IntColumn.class);
+  }
+
+  public LongColumn getLongColumn(String name) {
+    return getColumn(name, LongColumn.class);
+  }
+
+  public DoubleColumn getDoubleColumn(String name) {
+    return getColumn(name, DoubleColumn.class);
+  }
+
+  public StringColumn getStringColumn(String name) {
+    return getColumn(name, StringColumn.class);
+  }
+
+  public ObjectColumn getObjectColumn(String name) {
+    return getColumn(name, ObjectColumn.class);
+  }
+
+  private <C extends Column> C getColumn(String name, Class<C> type) {
+    Column column = getColumn(name);
+    if (!type.isInstance(column)) {
+      throw new IllegalArgumentException("Column '" + name + "' (" + column.getJdbcType() + ") is a "
+          + column.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+    }
+    return type.cast(column);
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnarResult[" + rowCount + " rows, columns " + getColumnNames() + "]";
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.PrimitiveTypeHandlers;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Collects the rows of a select into {@link ColumnarResult}s instead of one object per row.
+ *
+ * Pass it to {@link org.apache.ibatis.session.SqlSession#select(String, Object, ResultHandler)}
+ * or declare a mapper method returning {@link ColumnarResult}. The result set handler recognizes it
+ * and fills the columns straight from the ResultSet, skipping the result maps:
+ * <ul>
+ * <li>INTEGER, SMALLINT and TINYINT go to an {@link IntColumn}, BIGINT to a {@link LongColumn} and
+ * DOUBLE, FLOAT and REAL to a {@link DoubleColumn}, without boxing</li>
+ * <li>character columns go to a dictionary encoded {@link StringColumn}</li>
+ * <li>anything else goes to an {@link ObjectColumn}</li>
+ * </ul>
+ * Values are read with the handlers of the {@link org.apache.ibatis.type.TypeHandlerRegistry}, so a
+ * primitive column whose registered handler was replaced by one that cannot read primitives is kept
+ * as an {@link ObjectColumn} of what that handler returns.
+ *
+ * One result is added per result set, RowBounds apply to each of them. A handler is not thread
+ * safe and collects the results of every select it is passed to.
+ */
+public class ColumnarResultHandler implements ResultHandler {
+
+  private final List<ColumnarResult> results = new ArrayList<ColumnarResult>();
+
+  @Override
+  public void handleResult(ResultContext context) {
+    throw new ExecutorException("A ColumnarResultHandler reads the ResultSet itself and cannot be handed mapped objects. "
+        + "Use it with SqlSession.select or a mapper method returning ColumnarResult.");
+  }
+
+  /*
+   * Reads the remaining rows of a result set, up to the limit, into a new result.
+   */
+  public ColumnarResult handleResultSet(ResultSetColumns source, int limit) throws SQLException {
+    List<String> columnNames = source.getColumnNames();
+    Column[] columns = new Column[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = createColumn(source, columnNames.get(i), source.getJdbcType(i + 1));
+    }
+    ResultSet rs = source.getResultSet();
+    int rows = 0;
+    // 按行读取，但每个值直接追加到对应列的数组里
+    while (rows < limit && rs.next()) {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].read(rs, i + 1);
+      }
+      rows++;
+    }
+    List<Column> columnList = new ArrayList<Column>(columns.length);
+    for (Column column : columns) {
+      column.trim();
+      columnList.add(column);
+    }
+    ColumnarResult result = new ColumnarResult(columnList, rows);
+    results.add(result);
+    return result;
+  }
+
+  /*
+   * Gets the result of the first result set, null if the statement returned none.
+   */
+  public ColumnarResult getResult() {
+    return results.isEmpty() ? null : results.get(0);
+  }
+
+  public List<ColumnarResult> getResults() {
+    return Collections.unmodifiableList(results);
+  }
+
+  // 能不装箱的TypeHandler才用基本类型的列，见PrimitiveTypeHandlers
+  private Column createColumn(ResultSetColumns source, String name, JdbcType jdbcType) {
+    if (jdbcType != null) {
+      switch (jdbcType) {
+        case INTEGER:
+        case SMALLINT:
+        case TINYINT:
+          TypeHandler<?> intHandler = source.getTypeHandler(int.class, name);
+          PrimitiveTypeHandler.OfInt intPrimitive = PrimitiveTypeHandlers.ofInt(intHandler);
+          if (intPrimitive != null) {
+            return new IntColumn(name, jdbcType, intPrimitive);
+          }
+          return new ObjectColumn(name, jdbcType, intHandler);
+        case BIGINT:
+          TypeHandler<?> longHandler = source.getTypeHandler(long.class, name);
+          PrimitiveTypeHandler.OfLong longPrimitive = PrimitiveTypeHandlers.ofLong(longHandler);
+          if (longPrimitive != null) {
+            return new LongColumn(name, jdbcType, longPrimitive);
+          }
+          return new ObjectColumn(name, jdbcType, longHandler);
+        case DOUBLE:
+        case FLOAT:
+        case REAL:
+          TypeHandler<?> doubleHandler = source.getTypeHandler(double.class, name);
+          PrimitiveTypeHandler.OfDouble doublePrimitive = PrimitiveTypeHandlers.ofDouble(doubleHandler);
+          if (doublePrimitive != null) {
+            return new DoubleColumn(name, jdbcType, doublePrimitive);
+          }
+          return new ObjectColumn(name, jdbcType, doubleHandler);
+        case CHAR:
+        case VARCHAR:
+        case LONGVARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+          return new StringColumn(name, jdbcType, source.getTypeHandler(String.class, name));
+        default:
+          break;
+      }
+    }
+    return new ObjectColumn(name, jdbcType, source.getTypeHandler(Object.class, name));
+  }
+
+  /**
+   * The columns of a result set, as the result set handler has resolved them.
+   */
+  public interface ResultSetColumns {
+
+    ResultSet getResultSet();
+
+    List<String> getColumnNames();
+
+    /*
+     * @param columnIndex the 1 based index of the column
+     */
+    JdbcType getJdbcType(int columnIndex);
+
+    TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName);
+  }
+
+}
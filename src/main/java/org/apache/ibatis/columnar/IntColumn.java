@@ -0,0 +1,74 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+
+/**
+ * A column of int values kept in an int[], read through {@link PrimitiveTypeHandler.OfInt} without boxing.
+ */
+public final class IntColumn extends Column {
+
+  private final PrimitiveTypeHandler.OfInt typeHandler;
+  private int[] values = new int[0];
+
+  IntColumn(String name, JdbcType jdbcType, PrimitiveTypeHandler.OfInt typeHandler) {
+    super(name, jdbcType);
+    this.typeHandler = typeHandler;
+  }
+
+  public int getInt(int row) {
+    checkRow(row);
+    return values[row];
+  }
+
+  /*
+   * Copies the values out, 0 in the rows that were SQL NULL.
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  public Object getObject(int row) {
+    return isNull(row) ? null : Integer.valueOf(values[row]);
+  }
+
+  @Override
+  void read(ResultSet rs, int columnIndex) throws SQLException {
+    int value = typeHandler.getInt(rs, columnIndex);
+    if (rs.wasNull()) {
+      markNull();
+    }
+    if (size == values.length) {
+      values = Arrays.copyOf(values, grow(size));
+    }
+    values[size++] = value;
+  }
+
+  @Override
+  void trim() {
+    if (size < values.length) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+}
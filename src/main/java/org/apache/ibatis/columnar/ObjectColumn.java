@@ -0,0 +1,70 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * A column of any other type (dates, decimals, binaries...), read with the {@link TypeHandler}
+ * the registry has for the JDBC type of the column.
+ */
+public final class ObjectColumn extends Column {
+
+  private final TypeHandler<?> typeHandler;
+  private final boolean readByIndex;
+  private Object[] values = new Object[0];
+
+  ObjectColumn(String name, JdbcType jdbcType, TypeHandler<?> typeHandler) {
+    super(name, jdbcType);
+    this.typeHandler = typeHandler;
+    this.readByIndex = readsByIndex(typeHandler);
+  }
+
+  @Override
+  public Object getObject(int row) {
+    checkRow(row);
+    return values[row];
+  }
+
+  public Object[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  void read(ResultSet rs, int columnIndex) throws SQLException {
+    Object value = readByIndex ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, getName());
+    if (value == null) {
+      markNull();
+    }
+    if (size == values.length) {
+      values = Arrays.copyOf(values, grow(size));
+    }
+    values[size++] = value;
+  }
+
+  @Override
+  void trim() {
+    if (size < values.length) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * A dictionary encoded column of strings.
+ *
+ * Every distinct value is stored once and each row keeps the int code of its value, -1 for SQL NULL.
+ * Low cardinality columns (status, country, category...) then cost four bytes a row, and grouping
+ * or filtering can work on the codes. Values are read with the {@link TypeHandler} registered for
+ * String and the JDBC type of the column.
+ */
+public final class StringColumn extends Column {
+
+  private final TypeHandler<?> typeHandler;
+  private final boolean readByIndex;
+  private final List<String> dictionary = new ArrayList<String>();
+  private final Map<String, Integer> codes = new HashMap<String, Integer>();
+  private int[] values = new int[0];
+
+  StringColumn(String name, JdbcType jdbcType, TypeHandler<?> typeHandler) {
+    super(name, jdbcType);
+    this.typeHandler = typeHandler;
+    this.readByIndex = readsByIndex(typeHandler);
+  }
+
+  public String getString(int row) {
+    int code = getCode(row);
+    return code < 0 ? null : dictionary.get(code);
+  }
+
+  /*
+   * Gets the dictionary code of a row, -1 for SQL NULL.
+   */
+  public int getCode(int row) {
+    checkRow(row);
+    return values[row];
+  }
+
+  /*
+   * Gets the dictionary code of a value, -1 if no row holds it.
+   */
+  public int getCode(String value) {
+    Integer code = codes.get(value);
+    return code == null ? -1 : code.intValue();
+  }
+
+  /*
+   * The distinct values, in order of first appearance, indexed by their code.
+   */
+  public List<String> getDictionary() {
+    return Collections.unmodifiableList(dictionary);
+  }
+
+  public int[] toCodeArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  public Object getObject(int row) {
+    return getString(row);
+  }
+
+  @Override
+  void read(ResultSet rs, int columnIndex) throws SQLException {
+    Object value = readByIndex ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, getName());
+    int code;
+    if (value == null) {
+      markNull();
+      code = -1;
+    } else {
+      String string = value.toString();
+      Integer existing = codes.get(string);
+      if (existing == null) {
+        code = dictionary.size();
+        dictionary.add(string);
+        codes.put(string, code);
+      } else {
+        code = existing.intValue();
+      }
+    }
+    if (size == values.length) {
+      values = Arrays.copyOf(values, grow(size));
+    }
+    values[size++] = code;
+  }
+
+  @Override
+  void trim() {
+    if (size < values.length) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+}
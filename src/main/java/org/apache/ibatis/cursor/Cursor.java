@@ -0,0 +1,51 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.io.Closeable;
+
+/**
+ * Lazily maps the rows of an open ResultSet as they are iterated, so a query of any size can be
+ * consumed with constant memory.
+ *
+ * A cursor can be iterated only once. It keeps its statement open until it is fully consumed or
+ * closed, and it is closed along with the SqlSession that created it.
+ * Results are never put in the local or the second level cache.
+ */
+public interface Cursor<T> extends Closeable, Iterable<T> {
+
+  /*
+   * @return true once the first result has been fetched and until the cursor is closed or consumed
+   */
+  boolean isOpen();
+
+  /*
+   * @return true if every result has been fetched
+   */
+  boolean isConsumed();
+
+  /*
+   * @return the index of the last fetched result, starting at 0, or -1 if none has been fetched yet
+   */
+  int getCurrentIndex();
+
+  /*
+   * Closes the ResultSet. Unlike {@link Closeable#close()} it does not throw checked exceptions.
+   */
+  @Override
+  void close();
+
+}
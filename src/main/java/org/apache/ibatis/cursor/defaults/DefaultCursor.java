@@ -0,0 +1,208 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Cursor that asks the result set handler that created it for one result at a time.
+ *
+ * The offset of the RowBounds has already been skipped when the cursor is created, the limit is
+ * enforced here.
+ */
+public class DefaultCursor<T> implements Cursor<T> {
+
+  private final ResultSource resultSource;
+  private final RowBounds rowBounds;
+  private final ObjectWrapperResultHandler<T> objectWrapperResultHandler = new ObjectWrapperResultHandler<T>();
+
+  private final CursorIterator cursorIterator = new CursorIterator();
+  private boolean iteratorRetrieved;
+
+  private CursorStatus status = CursorStatus.CREATED;
+  private int indexWithRowBound = -1;
+
+  private enum CursorStatus {
+    // 刚创建，还没有取过数据
+    CREATED,
+    // 已经取过数据
+    OPEN,
+    // 被用户关闭
+    CLOSED,
+    // 数据已经取完
+    CONSUMED
+  }
+
+  /*
+   * @param resultSource null if the statement returned no result set
+   */
+  public DefaultCursor(ResultSource resultSource, RowBounds rowBounds) {
+    this.resultSource = resultSource;
+    this.rowBounds = rowBounds;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return status == CursorStatus.OPEN;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return status == CursorStatus.CONSUMED;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return indexWithRowBound;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    iteratorRetrieved = true;
+    return cursorIterator;
+  }
+
+  @Override
+  public void close() {
+    if (isClosed()) {
+      return;
+    }
+    closeResultSet();
+    status = CursorStatus.CLOSED;
+  }
+
+  /*
+   * Maps the next result into the wrapper handler.
+   *
+   * @return false once the ResultSet is exhausted or the limit of the RowBounds is reached
+   */
+  protected boolean fetchNextObjectFromDatabase() {
+    if (isClosed()) {
+      return false;
+    }
+    if (resultSource == null || indexWithRowBound + 1 >= rowBounds.getLimit()) {
+      closeResultSet();
+      status = CursorStatus.CONSUMED;
+      return false;
+    }
+    try {
+      status = CursorStatus.OPEN;
+      objectWrapperResultHandler.fetched = false;
+      resultSource.fetch(objectWrapperResultHandler);
+    } catch (SQLException e) {
+      close();
+      throw ExceptionFactory.wrapException("Error fetching the next result from the cursor.  Cause: " + e, e);
+    }
+    if (!objectWrapperResultHandler.fetched) {
+      closeResultSet();
+      status = CursorStatus.CONSUMED;
+      return false;
+    }
+    indexWithRowBound++;
+    return true;
+  }
+
+  private boolean isClosed() {
+    return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
+  }
+
+  private void closeResultSet() {
+    if (resultSource == null) {
+      return;
+    }
+    try {
+      ResultSet rs = resultSource.getResultSet();
+      if (!rs.isClosed()) {
+        rs.close();
+      }
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private static class ObjectWrapperResultHandler<T> implements ResultHandler {
+
+    private T result;
+    // a row may legitimately be mapped to null, so the result alone does not tell
+    private boolean fetched;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handleResult(ResultContext context) {
+      this.result = (T) context.getResultObject();
+      this.fetched = true;
+      // 每次只取一条，让 DefaultResultSetHandler 停下来
+      context.stop();
+    }
+  }
+
+  private class CursorIterator implements Iterator<T> {
+
+    // 下一个对象是否已经预取
+    private boolean prefetched;
+
+    @Override
+    public boolean hasNext() {
+      if (!prefetched) {
+        prefetched = fetchNextObjectFromDatabase();
+      }
+      return prefetched;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      prefetched = false;
+      T next = objectWrapperResultHandler.result;
+      objectWrapperResultHandler.result = null;
+      return next;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+
+  /**
+   * The open result set of a cursor and the mapping of its rows.
+   */
+  public interface ResultSource {
+
+    ResultSet getResultSet();
+
+    /*
+     * Maps the next rows into the handler, which stops the mapping after the first result. Nothing
+     * is handed to the handler once the ResultSet is exhausted.
+     */
+    void fetch(ResultHandler resultHandler) throws SQLException;
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool statistics of a {@link ConcurrentPooledDataSource}.
+ *
+ * Same figures as the classic {@link PoolState} but kept in atomic counters, so neither
+ * the pool nor the readers need to synchronize on the state.
+ */
+public class ConcurrentPoolState extends PoolState {
+
+  protected final AtomicInteger totalConnections = new AtomicInteger();
+  protected final AtomicInteger activeConnectionCount = new AtomicInteger();
+
+  protected final AtomicLong requestCounter = new AtomicLong();
+  protected final AtomicLong requestTime = new AtomicLong();
+  protected final AtomicLong checkoutTime = new AtomicLong();
+  protected final AtomicLong claimedOverdueCounter = new AtomicLong();
+  protected final AtomicLong overdueCheckoutTime = new AtomicLong();
+  protected final AtomicLong waitTime = new AtomicLong();
+  protected final AtomicLong hadToWaitCounter = new AtomicLong();
+  protected final AtomicLong badConnectionCounter = new AtomicLong();
+
+  public ConcurrentPoolState(ConcurrentPooledDataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requestCounter.get();
+  }
+
+  @Override
+  public long getAverageRequestTime() {
+    long requests = requestCounter.get();
+    return requests == 0 ? 0 : requestTime.get() / requests;
+  }
+
+  @Override
+  public long getAverageWaitTime() {
+    long waits = hadToWaitCounter.get();
+    return waits == 0 ? 0 : waitTime.get() / waits;
+  }
+
+  @Override
+  public long getHadToWaitCount() {
+    return hadToWaitCounter.get();
+  }
+
+  @Override
+  public long getBadConnectionCount() {
+    return badConnectionCounter.get();
+  }
+
+  @Override
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueCounter.get();
+  }
+
+  @Override
+  public long getAverageOverdueCheckoutTime() {
+    long claimed = claimedOverdueCounter.get();
+    return claimed == 0 ? 0 : overdueCheckoutTime.get() / claimed;
+  }
+
+  @Override
+  public long getAverageCheckoutTime() {
+    long requests = requestCounter.get();
+    return requests == 0 ? 0 : checkoutTime.get() / requests;
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return Math.max(0, totalConnections.get() - activeConnectionCount.get());
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return activeConnectionCount.get();
+  }
+
+}
@@ -0,0 +1,410 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A thread-safe connection pool that does not serialize checkouts and returns on a single monitor.
+ *
+ * It accepts the same settings as {@link PooledDataSource} and keeps the same statistics, but the
+ * connections live in a {@link ConnectionBag}: idle connections are claimed with a CAS, threads
+ * preferably get back the connection they returned last, and waiting threads are served in
+ * arrival order by handing returned connections over directly.
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+  private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+  private final ConcurrentPoolState state = new ConcurrentPoolState(this);
+  private final ConnectionBag bag = new ConnectionBag();
+
+  public ConcurrentPooledDataSource() {
+    super();
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+    super(driver, url, driverProperties);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username, String password) {
+    super(driverClassLoader, driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, Properties driverProperties) {
+    super(driverClassLoader, driver, url, driverProperties);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return popConnection(dataSource.getUsername(), dataSource.getPassword()).getProxyConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return popConnection(username, password).getProxyConnection();
+  }
+
+  @Override
+  public ConcurrentPoolState getPoolState() {
+    return state;
+  }
+
+  /*
+   * Closes all active and idle connections in the pool
+   */
+  @Override
+  public void forceCloseAll() {
+    stopBackgroundWork();
+    expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
+    for (PoolEntry entry : bag.values()) {
+      boolean inUse = entry.getState() == PoolEntry.STATE_IN_USE;
+      if (!bag.remove(entry)) {
+        continue;
+      }
+      state.totalConnections.decrementAndGet();
+      if (inUse) {
+        state.activeConnectionCount.decrementAndGet();
+      }
+      PooledConnection conn = entry.getConnection();
+      if (conn != null && entry.compareAndSetConnection(conn, null)) {
+        conn.invalidate();
+        closeQuietly(conn.getRealConnection());
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+    }
+  }
+
+  @Override
+  protected void pushConnection(PooledConnection conn) throws SQLException {
+    getPoolMetrics().recordCheckout(TimeUnit.MILLISECONDS.toNanos(conn.getCheckoutTime()));
+    PoolEntry entry = conn.getPoolEntry();
+    if (entry == null || entry.getConnection() != conn) {
+      // claimed as overdue or closed by forceCloseAll while checked out
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnectionCounter.incrementAndGet();
+      return;
+    }
+    long checkoutTime = conn.getCheckoutTime();
+    if (conn.isValid()) {
+      if (bag.getIdleCount() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+          && !isExpired(conn)) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+        newConn.adoptStatementCache(conn);
+        newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+        newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+        newConn.setLastValidatedTimestamp(conn.getLastValidatedTimestamp());
+        if (!entry.compareAndSetConnection(conn, newConn)) {
+          state.badConnectionCounter.incrementAndGet();
+          return;
+        }
+        conn.invalidate();
+        state.checkoutTime.addAndGet(checkoutTime);
+        state.activeConnectionCount.decrementAndGet();
+        bag.requite(entry);
+        if (log.isDebugEnabled()) {
+          log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+        }
+      } else {
+        if (!entry.compareAndSetConnection(conn, null)) {
+          state.badConnectionCounter.incrementAndGet();
+          return;
+        }
+        state.checkoutTime.addAndGet(checkoutTime);
+        discard(entry, true);
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.getRealConnection().close();
+        if (log.isDebugEnabled()) {
+          log.debug("Closed connection " + conn.getRealHashCode() + ".");
+        }
+        conn.invalidate();
+      }
+    } else {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      if (entry.compareAndSetConnection(conn, null)) {
+        discard(entry, true);
+        closeQuietly(conn.getRealConnection());
+      }
+      state.badConnectionCounter.incrementAndGet();
+      requestFill();
+    }
+  }
+
+  private PooledConnection popConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
+    int localBadConnectionCount = 0;
+
+    warmUp();
+
+    while (true) {
+      PoolEntry entry;
+      try {
+        entry = bag.borrow(0, TimeUnit.MILLISECONDS);
+        if (entry == null) {
+          entry = createEntry();
+        }
+        if (entry == null) {
+          entry = claimOverdueEntry();
+        }
+        if (entry == null) {
+          if (!countedWait) {
+            state.hadToWaitCounter.incrementAndGet();
+            countedWait = true;
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+          }
+          long wt = System.currentTimeMillis();
+          entry = bag.borrow(poolTimeToWait, TimeUnit.MILLISECONDS);
+          state.waitTime.addAndGet(System.currentTimeMillis() - wt);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("ConcurrentPooledDataSource: Interrupted while waiting for a connection.");
+      }
+      if (entry == null) {
+        continue;
+      }
+
+      PooledConnection conn = entry.getConnection();
+      if (conn != null && conn.isValid()) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        state.activeConnectionCount.incrementAndGet();
+        state.requestCounter.incrementAndGet();
+        state.requestTime.addAndGet(System.currentTimeMillis() - t);
+        connectionAcquired(conn, startNanos);
+        return conn;
+      }
+
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + (conn == null ? 0 : conn.getRealHashCode()) + ") was returned from the pool, getting another connection.");
+      }
+      if (conn != null && entry.compareAndSetConnection(conn, null)) {
+        closeQuietly(conn.getRealConnection());
+      }
+      if (bag.remove(entry)) {
+        state.totalConnections.decrementAndGet();
+      }
+      state.badConnectionCounter.incrementAndGet();
+      requestFill();
+      localBadConnectionCount++;
+      if (localBadConnectionCount > (poolMaximumIdleConnections + 3)) {
+        if (log.isDebugEnabled()) {
+          log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+  }
+
+  /*
+   * Opens a new physical connection if the pool has not reached its maximum yet.
+   * The slot is reserved with a CAS on the connection counter, so no lock is held
+   * while the driver connects.
+   */
+  private PoolEntry createEntry() throws SQLException {
+    if (!reserveConnection()) {
+      return null;
+    }
+    PooledConnection conn = openReservedConnection();
+    PoolEntry entry = new PoolEntry(conn, PoolEntry.STATE_IN_USE);
+    bag.add(entry);
+    if (log.isDebugEnabled()) {
+      log.debug("Created connection " + conn.getRealHashCode() + ".");
+    }
+    return entry;
+  }
+
+  /*
+   * Opens connections until there are the given number of idle ones. Connections that are
+   * being opened already count as idle, so concurrent fills do not overshoot.
+   */
+  @Override
+  protected void fillPool(int target) throws SQLException {
+    int idleLimit = Math.min(target, poolMaximumIdleConnections);
+    while (state.getIdleConnectionCount() < idleLimit && reserveConnection()) {
+      int typeCode = expectedConnectionTypeCode;
+      PooledConnection conn = openReservedConnection();
+      if (typeCode != expectedConnectionTypeCode) {
+        // the pool has been reset while the connection was being opened
+        state.totalConnections.decrementAndGet();
+        conn.invalidate();
+        closeQuietly(conn.getRealConnection());
+        return;
+      }
+      conn.setConnectionTypeCode(typeCode);
+      bag.add(new PoolEntry(conn, PoolEntry.STATE_NOT_IN_USE));
+      if (log.isDebugEnabled()) {
+        log.debug("Created connection " + conn.getRealHashCode() + " in background.");
+      }
+    }
+  }
+
+  /*
+   * Same as the classic housekeeping, an idle slot is marked in use while it is checked
+   * so that no borrower can take it.
+   */
+  @Override
+  protected void housekeep() {
+    int evicted = 0;
+    for (PoolEntry entry : bag.values()) {
+      if (!bag.reserve(entry)) {
+        continue;
+      }
+      PooledConnection conn = entry.getConnection();
+      boolean evict = isExpired(conn) || (isIdleTimedOut(conn) && state.getIdleConnectionCount() > poolMinimumIdle);
+      if (!evict && poolPingEnabled) {
+        evict = !isAlive(conn) || !executePing(conn);
+      }
+      if (evict) {
+        if (entry.compareAndSetConnection(conn, null)) {
+          discard(entry, false);
+          conn.invalidate();
+          closeQuietly(conn.getRealConnection());
+          evicted++;
+          if (log.isDebugEnabled()) {
+            log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+          }
+        }
+      } else {
+        bag.requite(entry);
+      }
+    }
+    if (evicted > 0) {
+      requestFill();
+    }
+  }
+
+  @Override
+  protected List<PooledConnection> getCheckedOutConnections() {
+    List<PooledConnection> connections = new ArrayList<PooledConnection>();
+    for (PoolEntry entry : bag.values()) {
+      PooledConnection conn = entry.getConnection();
+      if (conn != null && entry.getState() == PoolEntry.STATE_IN_USE && conn.getCheckoutTimestamp() != 0) {
+        connections.add(conn);
+      }
+    }
+    return connections;
+  }
+
+  private boolean reserveConnection() {
+    while (true) {
+      int total = state.totalConnections.get();
+      if (total >= poolMaximumActiveConnections) {
+        return false;
+      }
+      if (state.totalConnections.compareAndSet(total, total + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private PooledConnection openReservedConnection() throws SQLException {
+    try {
+      return new PooledConnection(openConnection(), this);
+    } catch (SQLException e) {
+      state.totalConnections.decrementAndGet();
+      throw e;
+    } catch (RuntimeException e) {
+      state.totalConnections.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /*
+   * Takes over the connection that has been checked out for the longest time, if it has been
+   * checked out for longer than poolMaximumCheckoutTime.
+   */
+  private PoolEntry claimOverdueEntry() throws SQLException {
+    PoolEntry oldestEntry = null;
+    PooledConnection oldestConnection = null;
+    long longestCheckoutTime = poolMaximumCheckoutTime;
+    for (PoolEntry entry : bag.values()) {
+      PooledConnection conn = entry.getConnection();
+      // a connection without checkout timestamp is still being handed out
+      if (conn != null && entry.getState() == PoolEntry.STATE_IN_USE && conn.getCheckoutTimestamp() != 0
+          && conn.getCheckoutTime() > longestCheckoutTime) {
+        longestCheckoutTime = conn.getCheckoutTime();
+        oldestEntry = entry;
+        oldestConnection = conn;
+      }
+    }
+    if (oldestEntry == null) {
+      return null;
+    }
+    PooledConnection conn = new PooledConnection(oldestConnection.getRealConnection(), this);
+    conn.setCreatedTimestamp(oldestConnection.getCreatedTimestamp());
+    conn.setLastValidatedTimestamp(oldestConnection.getLastValidatedTimestamp());
+    if (!oldestEntry.compareAndSetConnection(oldestConnection, conn)) {
+      // returned or claimed by somebody else in the meantime
+      return null;
+    }
+    oldestConnection.invalidate();
+    oldestConnection.closeStatementCache();
+    state.claimedOverdueCounter.incrementAndGet();
+    state.overdueCheckoutTime.addAndGet(longestCheckoutTime);
+    state.checkoutTime.addAndGet(longestCheckoutTime);
+    // the claimed connection stays checked out, it only changes hands
+    state.activeConnectionCount.decrementAndGet();
+    if (!conn.getRealConnection().getAutoCommit()) {
+      conn.getRealConnection().rollback();
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+    }
+    return oldestEntry;
+  }
+
+  private void discard(PoolEntry entry, boolean active) {
+    if (bag.remove(entry)) {
+      state.totalConnections.decrementAndGet();
+      if (active) {
+        state.activeConnectionCount.decrementAndGet();
+      }
+    }
+  }
+
+}
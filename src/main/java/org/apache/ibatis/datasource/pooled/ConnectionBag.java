@@ -0,0 +1,198 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock free container of pool slots used by {@link ConcurrentPooledDataSource}.
+ *
+ * A borrower first looks at the slots its own thread returned lately, then scans the shared
+ * list, claiming a slot with a CAS on its state. When nothing is free it waits on a fair
+ * {@link SynchronousQueue} and the next returned slot is handed over directly, in arrival
+ * order, instead of waking up every waiting thread.
+ */
+final class ConnectionBag {
+
+  private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+  private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<PoolEntry>();
+  private final ThreadLocal<List<WeakReference<PoolEntry>>> threadList = new ThreadLocal<List<WeakReference<PoolEntry>>>() {
+    @Override
+    protected List<WeakReference<PoolEntry>> initialValue() {
+      return new ArrayList<WeakReference<PoolEntry>>(MAX_THREAD_LOCAL_ENTRIES);
+    }
+  };
+  private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<PoolEntry>(true);
+  private final AtomicInteger waiters = new AtomicInteger();
+  // slots in STATE_NOT_IN_USE
+  private final AtomicInteger idleCount = new AtomicInteger();
+
+  /*
+   * Takes a free slot, waiting up to the given time for one to be returned.
+   *
+   * @param timeout the time to wait, 0 to return immediately
+   * @param unit the unit of the timeout
+   * @return the slot, already marked as in use, or null if none became available
+   */
+  PoolEntry borrow(long timeout, TimeUnit unit) throws InterruptedException {
+    List<WeakReference<PoolEntry>> list = threadList.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      PoolEntry entry = list.remove(i).get();
+      if (entry != null && reserve(entry)) {
+        return entry;
+      }
+    }
+
+    long remaining = unit.toNanos(timeout);
+    if (remaining <= 0) {
+      // never polls, so requite has nobody to hand the slot to
+      return scanSharedList();
+    }
+    waiters.incrementAndGet();
+    try {
+      PoolEntry entry = scanSharedList();
+      while (entry == null && remaining > 0) {
+        long start = System.nanoTime();
+        entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (entry == null) {
+          return null;
+        }
+        if (!reserve(entry)) {
+          entry = null;
+        }
+        remaining -= System.nanoTime() - start;
+      }
+      return entry;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /*
+   * Marks a free slot as in use.
+   *
+   * @return false if the slot was not free
+   */
+  boolean reserve(PoolEntry entry) {
+    if (entry.compareAndSetState(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+      idleCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private PoolEntry scanSharedList() {
+    for (PoolEntry entry : sharedList) {
+      if (reserve(entry)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Gives a slot back. If somebody is waiting the slot is handed to the longest waiting thread,
+   * otherwise it is remembered by the current thread so the next borrow finds it first.
+   */
+  void requite(PoolEntry entry) {
+    // counted before it can be taken, so the count never drops below zero
+    idleCount.incrementAndGet();
+    entry.setState(PoolEntry.STATE_NOT_IN_USE);
+    if (handOff(entry)) {
+      return;
+    }
+    List<WeakReference<PoolEntry>> list = threadList.get();
+    if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+      list.add(new WeakReference<PoolEntry>(entry));
+    }
+  }
+
+  /*
+   * Adds a new slot. Slots added as in use belong to the caller until requited.
+   */
+  void add(PoolEntry entry) {
+    boolean idle = entry.getState() == PoolEntry.STATE_NOT_IN_USE;
+    if (idle) {
+      idleCount.incrementAndGet();
+    }
+    sharedList.add(entry);
+    if (idle) {
+      handOff(entry);
+    }
+  }
+
+  /*
+   * Removes a slot from the bag.
+   *
+   * @return true if this call removed it, false if it had already been removed
+   */
+  boolean remove(PoolEntry entry) {
+    int state = entry.getState();
+    while (state != PoolEntry.STATE_REMOVED) {
+      if (entry.compareAndSetState(state, PoolEntry.STATE_REMOVED)) {
+        if (state == PoolEntry.STATE_NOT_IN_USE) {
+          idleCount.decrementAndGet();
+        }
+        sharedList.remove(entry);
+        return true;
+      }
+      state = entry.getState();
+    }
+    return false;
+  }
+
+  List<PoolEntry> values() {
+    return new ArrayList<PoolEntry>(sharedList);
+  }
+
+  int getIdleCount() {
+    return idleCount.get();
+  }
+
+  int size() {
+    return sharedList.size();
+  }
+
+  int getWaitingThreadCount() {
+    return waiters.get();
+  }
+
+  /*
+   * Spins while there are waiters so a slot returned during their scan is not missed.
+   * Gives up as soon as the slot is taken by anyone.
+   */
+  private boolean handOff(PoolEntry entry) {
+    for (int i = 0; waiters.get() > 0; i++) {
+      if (entry.getState() != PoolEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+        return true;
+      } else if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+    return false;
+  }
+
+}
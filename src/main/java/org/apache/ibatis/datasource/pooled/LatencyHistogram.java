@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of durations in nanoseconds.
+ *
+ * Values are counted in power of two buckets, so recording is a couple of atomic increments and
+ * percentiles are accurate within a factor of two, which is enough to tell the tail from the mean.
+ */
+public class LatencyHistogram {
+
+  private static final int BUCKETS = 64;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    // bucket i holds the values from 2^i to 2^(i+1)-1, 0 goes to the first one
+    buckets.incrementAndGet(nanos == 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos));
+    count.incrementAndGet();
+    total.addAndGet(nanos);
+    long current = max.get();
+    while (nanos > current && !max.compareAndSet(current, nanos)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : total.get() / n;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /*
+   * Gets the upper bound of the bucket holding the given percentile.
+   *
+   * @param percentile a value between 0 and 100
+   * @return the duration in nanoseconds, never more than the maximum recorded
+   */
+  public long getPercentile(double percentile) {
+    long n = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = buckets.get(i);
+      n += snapshot[i];
+    }
+    if (n == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(n * percentile / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank && snapshot[i] > 0) {
+        long upperBound = i >= BUCKETS - 2 ? Long.MAX_VALUE : (2L << i) - 1;
+        return Math.min(upperBound, max.get());
+      }
+    }
+    return max.get();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    total.set(0);
+    max.set(0);
+  }
+
+}
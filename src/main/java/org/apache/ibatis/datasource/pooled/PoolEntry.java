@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A slot of the {@link ConnectionBag}.
+ *
+ * The slot outlives the {@link PooledConnection}s that are handed out for it: every time the
+ * connection goes back to the pool a fresh PooledConnection is bound to the slot, so a stale
+ * proxy kept by a previous borrower stays invalid.
+ */
+final class PoolEntry {
+
+  static final int STATE_NOT_IN_USE = 0;
+  static final int STATE_IN_USE = 1;
+  static final int STATE_REMOVED = -1;
+
+  private static final AtomicIntegerFieldUpdater<PoolEntry> STATE_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(PoolEntry.class, "state");
+  private static final AtomicReferenceFieldUpdater<PoolEntry, PooledConnection> CONNECTION_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(PoolEntry.class, PooledConnection.class, "connection");
+
+  private volatile int state;
+  private volatile PooledConnection connection;
+
+  PoolEntry(PooledConnection connection, int state) {
+    this.connection = connection;
+    this.state = state;
+    connection.setPoolEntry(this);
+  }
+
+  int getState() {
+    return state;
+  }
+
+  boolean compareAndSetState(int expect, int update) {
+    return STATE_UPDATER.compareAndSet(this, expect, update);
+  }
+
+  void setState(int state) {
+    this.state = state;
+  }
+
+  PooledConnection getConnection() {
+    return connection;
+  }
+
+  /*
+   * Binds a new PooledConnection to this slot, only if the current one is still the expected one.
+   * This is what decides the race between a borrower returning the connection and another thread
+   * claiming it as overdue.
+   */
+  boolean compareAndSetConnection(PooledConnection expect, PooledConnection update) {
+    if (CONNECTION_UPDATER.compareAndSet(this, expect, update)) {
+      if (update != null) {
+        update.setPoolEntry(this);
+      }
+      return true;
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * Receives the events of a {@link PooledDataSource}, to export them to a monitoring system.
+ *
+ * Listeners are called on the thread that borrows, returns or creates the connection,
+ * so they must be thread safe and should not block.
+ */
+public interface PoolListener {
+
+  /*
+   * A connection has been checked out.
+   *
+   * @param dataSource the pool
+   * @param waitNanos the time spent in getConnection()
+   */
+  void connectionAcquired(PooledDataSource dataSource, long waitNanos);
+
+  /*
+   * A connection has been returned to the pool.
+   *
+   * @param dataSource the pool
+   * @param checkoutNanos the time the connection was checked out
+   */
+  void connectionReturned(PooledDataSource dataSource, long checkoutNanos);
+
+  /*
+   * A physical connection has been opened.
+   *
+   * @param dataSource the pool
+   * @param creationNanos the time the driver took to open it
+   */
+  void connectionCreated(PooledDataSource dataSource, long creationNanos);
+
+  /*
+   * A connection has been checked out for longer than poolLeakDetectionThreshold.
+   *
+   * @param dataSource the pool
+   * @param checkoutMillis the time the connection has been checked out so far
+   * @param checkoutStack where the connection was checked out
+   */
+  void connectionLeakSuspected(PooledDataSource dataSource, long checkoutMillis, Throwable checkoutStack);
+
+}
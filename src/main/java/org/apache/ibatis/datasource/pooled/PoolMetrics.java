@@ -0,0 +1,219 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms and leak counter of a {@link PooledDataSource}.
+ *
+ * Every event is also forwarded to the registered {@link PoolListener}s. The pool registers
+ * this object as an MBean when poolRegisterMBean is set.
+ */
+public class PoolMetrics implements PoolMetricsMBean {
+
+  private final PooledDataSource dataSource;
+  private final LatencyHistogram acquireTime = new LatencyHistogram();
+  private final LatencyHistogram checkoutTime = new LatencyHistogram();
+  private final LatencyHistogram creationTime = new LatencyHistogram();
+  private final AtomicLong suspectedLeaks = new AtomicLong();
+  private final AtomicLong statementCacheHits = new AtomicLong();
+  private final AtomicLong statementCacheMisses = new AtomicLong();
+  private final AtomicLong statementCacheEvictions = new AtomicLong();
+  private final List<PoolListener> listeners = new CopyOnWriteArrayList<PoolListener>();
+
+  public PoolMetrics(PooledDataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  public void addListener(PoolListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(PoolListener listener) {
+    listeners.remove(listener);
+  }
+
+  public List<PoolListener> getListeners() {
+    return listeners;
+  }
+
+  public LatencyHistogram getAcquireTime() {
+    return acquireTime;
+  }
+
+  public LatencyHistogram getCheckoutTime() {
+    return checkoutTime;
+  }
+
+  public LatencyHistogram getCreationTime() {
+    return creationTime;
+  }
+
+  void recordAcquire(long nanos) {
+    acquireTime.record(nanos);
+    for (PoolListener listener : listeners) {
+      listener.connectionAcquired(dataSource, nanos);
+    }
+  }
+
+  void recordCheckout(long nanos) {
+    checkoutTime.record(nanos);
+    for (PoolListener listener : listeners) {
+      listener.connectionReturned(dataSource, nanos);
+    }
+  }
+
+  void recordCreation(long nanos) {
+    creationTime.record(nanos);
+    for (PoolListener listener : listeners) {
+      listener.connectionCreated(dataSource, nanos);
+    }
+  }
+
+  void recordSuspectedLeak(long checkoutMillis, Throwable checkoutStack) {
+    suspectedLeaks.incrementAndGet();
+    for (PoolListener listener : listeners) {
+      listener.connectionLeakSuspected(dataSource, checkoutMillis, checkoutStack);
+    }
+  }
+
+  void recordStatementCacheHit() {
+    statementCacheHits.incrementAndGet();
+  }
+
+  void recordStatementCacheMiss() {
+    statementCacheMisses.incrementAndGet();
+  }
+
+  void recordStatementCacheEviction() {
+    statementCacheEvictions.incrementAndGet();
+  }
+
+  @Override
+  public int getActiveConnections() {
+    return dataSource.getPoolState().getActiveConnectionCount();
+  }
+
+  @Override
+  public int getIdleConnections() {
+    return dataSource.getPoolState().getIdleConnectionCount();
+  }
+
+  @Override
+  public long getRequestCount() {
+    return dataSource.getPoolState().getRequestCount();
+  }
+
+  @Override
+  public long getBadConnectionCount() {
+    return dataSource.getPoolState().getBadConnectionCount();
+  }
+
+  @Override
+  public long getClaimedOverdueConnectionCount() {
+    return dataSource.getPoolState().getClaimedOverdueConnectionCount();
+  }
+
+  @Override
+  public long getSuspectedLeakCount() {
+    return suspectedLeaks.get();
+  }
+
+  @Override
+  public double getAcquireTimeMean() {
+    return toMillis(acquireTime.getMean());
+  }
+
+  @Override
+  public double getAcquireTime99thPercentile() {
+    return toMillis(acquireTime.getPercentile(99));
+  }
+
+  @Override
+  public double getAcquireTimeMax() {
+    return toMillis(acquireTime.getMax());
+  }
+
+  @Override
+  public double getCheckoutTimeMean() {
+    return toMillis(checkoutTime.getMean());
+  }
+
+  @Override
+  public double getCheckoutTime99thPercentile() {
+    return toMillis(checkoutTime.getPercentile(99));
+  }
+
+  @Override
+  public double getCheckoutTimeMax() {
+    return toMillis(checkoutTime.getMax());
+  }
+
+  @Override
+  public long getCreationCount() {
+    return creationTime.getCount();
+  }
+
+  @Override
+  public double getCreationTimeMean() {
+    return toMillis(creationTime.getMean());
+  }
+
+  @Override
+  public double getCreationTime99thPercentile() {
+    return toMillis(creationTime.getPercentile(99));
+  }
+
+  @Override
+  public double getCreationTimeMax() {
+    return toMillis(creationTime.getMax());
+  }
+
+  @Override
+  public long getStatementCacheHitCount() {
+    return statementCacheHits.get();
+  }
+
+  @Override
+  public long getStatementCacheMissCount() {
+    return statementCacheMisses.get();
+  }
+
+  @Override
+  public long getStatementCacheEvictionCount() {
+    return statementCacheEvictions.get();
+  }
+
+  @Override
+  public void reset() {
+    acquireTime.reset();
+    checkoutTime.reset();
+    creationTime.reset();
+    suspectedLeaks.set(0);
+    statementCacheHits.set(0);
+    statementCacheMisses.set(0);
+    statementCacheEvictions.set(0);
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+}
@@ -0,0 +1,63 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * JMX view of a {@link PooledDataSource}. Durations are in milliseconds.
+ */
+public interface PoolMetricsMBean {
+
+  int getActiveConnections();
+
+  int getIdleConnections();
+
+  long getRequestCount();
+
+  long getBadConnectionCount();
+
+  long getClaimedOverdueConnectionCount();
+
+  long getSuspectedLeakCount();
+
+  double getAcquireTimeMean();
+
+  double getAcquireTime99thPercentile();
+
+  double getAcquireTimeMax();
+
+  double getCheckoutTimeMean();
+
+  double getCheckoutTime99thPercentile();
+
+  double getCheckoutTimeMax();
+
+  long getCreationCount();
+
+  double getCreationTimeMean();
+
+  double getCreationTime99thPercentile();
+
+  double getCreationTimeMax();
+
+  long getStatementCacheHitCount();
+
+  long getStatementCacheMissCount();
+
+  long getStatementCacheEvictionCount();
+
+  void reset();
+
+}
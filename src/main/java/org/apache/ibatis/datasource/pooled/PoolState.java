@@ -32,6 +32,8 @@ public class PoolState {
   protected final List<PooledConnection> idleConnections = new ArrayList<PooledConnection>();
   //活动的连接
   protected final List<PooledConnection> activeConnections = new ArrayList<PooledConnection>();
+  //已预留位置、正在锁外创建的连接
+  protected int pendingConnectionCount = 0;
   //----------以下是一些统计信息----------
   //请求次数
   protected long requestCount = 0;
@@ -122,6 +124,14 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolMinimumIdle                ").append(dataSource.poolMinimumIdle);
+    builder.append("\n poolInitialSize                ").append(dataSource.poolInitialSize);
+    builder.append("\n poolMaxLifetime                ").append(dataSource.poolMaxLifetime);
+    builder.append("\n poolIdleTimeout                ").append(dataSource.poolIdleTimeout);
+    builder.append("\n poolValidationWindow           ").append(dataSource.poolValidationWindow);
+    builder.append("\n poolHousekeepingInterval       ").append(dataSource.poolHousekeepingInterval);
+    builder.append("\n poolPingUseIsValid             ").append(dataSource.poolPingUseIsValid);
+    builder.append("\n poolLeakDetectionThreshold     ").append(dataSource.poolLeakDetectionThreshold);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
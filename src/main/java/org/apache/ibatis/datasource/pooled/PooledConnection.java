@@ -32,6 +32,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private int hashCode = 0;
@@ -43,8 +44,17 @@ class PooledConnection implements InvocationHandler {
   private long checkoutTimestamp;
   private long createdTimestamp;
   private long lastUsedTimestamp;
+  private long lastValidatedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  // only set when the connection is managed by a ConnectionBag
+  private PoolEntry poolEntry;
+  // where the connection was checked out, only kept when leak detection is on
+  private Throwable checkoutStack;
+  private boolean leakReported;
+  // created on the first prepareStatement when poolPreparedStatementCacheSize is set, then handed
+  // from wrapper to wrapper with the real connection
+  private PreparedStatementCache statementCache;
 
   /*
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in
@@ -58,6 +68,7 @@ class PooledConnection implements InvocationHandler {
     this.dataSource = dataSource;
     this.createdTimestamp = System.currentTimeMillis();
     this.lastUsedTimestamp = System.currentTimeMillis();
+    this.lastValidatedTimestamp = this.createdTimestamp;
     this.valid = true;
     // <1> 创建代理的 Connection 对象
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
@@ -124,6 +135,62 @@ class PooledConnection implements InvocationHandler {
     this.connectionTypeCode = connectionTypeCode;
   }
 
+  /*
+   * Getter for the bag slot this connection is bound to (null for the classic pool)
+   *
+   * @return The slot
+   */
+  PoolEntry getPoolEntry() {
+    return poolEntry;
+  }
+
+  void setPoolEntry(PoolEntry poolEntry) {
+    this.poolEntry = poolEntry;
+  }
+
+  /*
+   * Takes over the statement cache of the previous wrapper of the same real connection.
+   */
+  void adoptStatementCache(PooledConnection previous) {
+    this.statementCache = previous.statementCache;
+  }
+
+  /*
+   * Closes the idle cached statements, used when the real connection changes hands while
+   * its previous user may still hold some of them.
+   */
+  void closeStatementCache() {
+    if (statementCache != null) {
+      statementCache.close();
+      statementCache = null;
+    }
+  }
+
+  PreparedStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /*
+   * Getter for the stack trace of the checkout (null unless leak detection is enabled)
+   *
+   * @return The stack trace
+   */
+  public Throwable getCheckoutStack() {
+    return checkoutStack;
+  }
+
+  public void setCheckoutStack(Throwable checkoutStack) {
+    this.checkoutStack = checkoutStack;
+  }
+
+  public boolean isLeakReported() {
+    return leakReported;
+  }
+
+  public void setLeakReported(boolean leakReported) {
+    this.leakReported = leakReported;
+  }
+
   /*
    * Getter for the time that the connection was created
    *
@@ -160,6 +227,33 @@ class PooledConnection implements InvocationHandler {
     this.lastUsedTimestamp = lastUsedTimestamp;
   }
 
+  /*
+   * Getter for the time that the connection was last validated
+   *
+   * @return - the timestamp
+   */
+  public long getLastValidatedTimestamp() {
+    return lastValidatedTimestamp;
+  }
+
+  /*
+   * Setter for the time that the connection was last validated
+   *
+   * @param lastValidatedTimestamp - the timestamp
+   */
+  public void setLastValidatedTimestamp(long lastValidatedTimestamp) {
+    this.lastValidatedTimestamp = lastValidatedTimestamp;
+  }
+
+  /*
+   * Getter for the time since this connection was last validated
+   *
+   * @return - the time since the last validation
+   */
+  public long getTimeElapsedSinceLastValidation() {
+    return System.currentTimeMillis() - lastValidatedTimestamp;
+  }
+
   /*
    * Getter for the time since this connection was last used
    *
@@ -250,6 +344,13 @@ class PooledConnection implements InvocationHandler {
         	//除了toString()方法，其他方法调用之前要检查connection是否还是合法的,不合法要抛出SQLException
           checkConnection();
         }
+        if (PREPARE_STATEMENT.equals(methodName) && dataSource.getPoolPreparedStatementCacheSize() > 0) {
+          //从连接的语句缓存里取
+          if (statementCache == null) {
+            statementCache = new PreparedStatementCache(dataSource.getPoolPreparedStatementCacheSize(), dataSource.getPoolMetrics());
+          }
+          return statementCache.prepare(realConnection, proxyConnection, method, args);
+        }
         //其他的方法，则交给真正的connection去调用
         return method.invoke(realConnection, args);
       } catch (Throwable t) {
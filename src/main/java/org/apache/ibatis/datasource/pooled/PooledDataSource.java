@@ -16,21 +16,37 @@
 package org.apache.ibatis.datasource.pooled;
 
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
+import org.apache.ibatis.datasource.DataSourceException;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
  * This is a simple, synchronous, thread-safe database connection pool.
@@ -56,7 +72,7 @@ public class PooledDataSource implements DataSource {
   private final PoolState state = new PoolState(this);
 
   //里面有一个UnpooledDataSource
-  private final UnpooledDataSource dataSource;
+  protected final UnpooledDataSource dataSource;
 
   // OPTIONAL CONFIGURATION FIELDS
   //正在使用连接的数量
@@ -73,8 +89,42 @@ public class PooledDataSource implements DataSource {
   protected boolean poolPingEnabled = false;
   //用来配置 poolPingQuery 多次时间被用一次
   protected int poolPingConnectionsNotUsedFor = 0;
-
-  private int expectedConnectionTypeCode;
+  //后台线程维持的最少空闲连接数
+  protected int poolMinimumIdle = 0;
+  //启动时预先建立的连接数
+  protected int poolInitialSize = 0;
+  //连接的最长存活时间，超过后被关闭
+  protected int poolMaxLifetime = 0;
+  //连接最长的空闲时间，超过后被关闭
+  protected int poolIdleTimeout = 0;
+  //在这个时间内校验过的连接，取出时不再 ping
+  protected int poolValidationWindow = 0;
+  //后台线程检查空闲连接的间隔
+  protected int poolHousekeepingInterval = 30000;
+  //使用 Connection.isValid(int) 代替 poolPingQuery
+  protected boolean poolPingUseIsValid = false;
+  //Connection.isValid(int) 的超时秒数
+  protected int poolPingTimeout = 5;
+  //连接被取出超过这个时间，就记录下取出时的调用栈，作为可能的连接泄漏报告
+  protected int poolLeakDetectionThreshold = 0;
+  //连接池的名字，用于 JMX
+  protected String poolName;
+  //是否将 PoolMetrics 注册为 MBean
+  protected boolean poolRegisterMBean = false;
+  //每个连接缓存的PreparedStatement个数，0为不缓存
+  protected int poolPreparedStatementCacheSize = 0;
+
+  private final PoolMetrics metrics = new PoolMetrics(this);
+
+  protected int expectedConnectionTypeCode;
+
+  // background thread that opens connections without making a borrower wait for them
+  private ScheduledExecutorService housekeeper;
+  private ScheduledFuture<?> housekeeping;
+  private ScheduledFuture<?> leakDetection;
+  private ObjectName registeredName;
+  private final AtomicBoolean warmUpRequested = new AtomicBoolean();
+  private final AtomicBoolean fillScheduled = new AtomicBoolean();
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -238,6 +288,162 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * The number of idle connections a background thread keeps open,
+   * so borrowers do not have to wait for new connections to be created.
+   *
+   * @param poolMinimumIdle The minimum number of idle connections
+   */
+  public void setPoolMinimumIdle(int poolMinimumIdle) {
+    this.poolMinimumIdle = poolMinimumIdle;
+    forceCloseAll();
+  }
+
+  /*
+   * The number of connections opened in background when the pool starts.
+   *
+   * @param poolInitialSize The number of connections to open upfront
+   */
+  public void setPoolInitialSize(int poolInitialSize) {
+    this.poolInitialSize = poolInitialSize;
+    forceCloseAll();
+  }
+
+  /*
+   * The maximum time a connection stays open. Older connections are closed by the
+   * housekeeper when idle, or when they are returned to the pool.
+   *
+   * @param poolMaxLifetime the maximum lifetime in milliseconds, 0 for no limit
+   */
+  public void setPoolMaxLifetime(int poolMaxLifetime) {
+    this.poolMaxLifetime = poolMaxLifetime;
+    forceCloseAll();
+  }
+
+  /*
+   * The time a connection can stay idle before the housekeeper closes it.
+   * The pool never goes below poolMinimumIdle idle connections because of this.
+   *
+   * @param poolIdleTimeout the idle timeout in milliseconds, 0 for no limit
+   */
+  public void setPoolIdleTimeout(int poolIdleTimeout) {
+    this.poolIdleTimeout = poolIdleTimeout;
+    forceCloseAll();
+  }
+
+  /*
+   * A connection validated within this time is trusted when it is checked out, so the ping
+   * is left to the housekeeper. Only meaningful if poolPingEnabled is set.
+   *
+   * @param poolValidationWindow the window in milliseconds, 0 to ping on every checkout
+   */
+  public void setPoolValidationWindow(int poolValidationWindow) {
+    this.poolValidationWindow = poolValidationWindow;
+    forceCloseAll();
+  }
+
+  /*
+   * How often the housekeeper evicts and validates idle connections. The housekeeper only runs
+   * if poolMaxLifetime, poolIdleTimeout or poolValidationWindow are set.
+   *
+   * @param poolHousekeepingInterval the interval in milliseconds
+   */
+  public void setPoolHousekeepingInterval(int poolHousekeepingInterval) {
+    this.poolHousekeepingInterval = poolHousekeepingInterval;
+    forceCloseAll();
+  }
+
+  /*
+   * Determines if connections are validated with Connection.isValid(int) instead of poolPingQuery.
+   *
+   * @param poolPingUseIsValid True to use the JDBC 4 validation
+   */
+  public void setPoolPingUseIsValid(boolean poolPingUseIsValid) {
+    this.poolPingUseIsValid = poolPingUseIsValid;
+    forceCloseAll();
+  }
+
+  /*
+   * The timeout passed to Connection.isValid(int).
+   *
+   * @param poolPingTimeout the timeout in seconds
+   */
+  public void setPoolPingTimeout(int poolPingTimeout) {
+    this.poolPingTimeout = poolPingTimeout;
+    forceCloseAll();
+  }
+
+  /*
+   * When a connection has been checked out for longer than this, a possible leak is logged
+   * with the stack trace of the checkout and reported to the PoolListeners.
+   * Capturing the stack trace has a cost on every checkout, so this is disabled by default.
+   *
+   * @param poolLeakDetectionThreshold the threshold in milliseconds, 0 to disable
+   */
+  public void setPoolLeakDetectionThreshold(int poolLeakDetectionThreshold) {
+    this.poolLeakDetectionThreshold = poolLeakDetectionThreshold;
+    forceCloseAll();
+  }
+
+  /*
+   * The number of idle prepared statements each connection keeps for reuse, least recently used
+   * ones being closed first. Meant for drivers without a statement cache of their own.
+   *
+   * @param poolPreparedStatementCacheSize the number of statements, 0 to disable
+   */
+  public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+    this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+    forceCloseAll();
+  }
+
+  /*
+   * The name of the pool, used in the MBean name.
+   *
+   * @param poolName the name
+   */
+  public void setPoolName(String poolName) {
+    this.poolName = poolName;
+  }
+
+  /*
+   * Determines if the pool metrics are registered in the platform MBean server
+   * as org.apache.ibatis:type=PooledDataSource,name=poolName when the pool starts.
+   *
+   * @param poolRegisterMBean True to register the MBean
+   */
+  public void setPoolRegisterMBean(boolean poolRegisterMBean) {
+    this.poolRegisterMBean = poolRegisterMBean;
+  }
+
+  /*
+   * Registers listeners by class name.
+   *
+   * @param classNames comma separated names of PoolListener implementations
+   */
+  public void setPoolListeners(String classNames) {
+    for (String className : classNames.split(",")) {
+      if (className.trim().length() == 0) {
+        continue;
+      }
+      try {
+        addPoolListener((PoolListener) Resources.classForName(className.trim()).getDeclaredConstructor().newInstance());
+      } catch (InvocationTargetException e) {
+        final Throwable t = ExceptionUtil.unwrapThrowable(e);
+        throw new DataSourceException("Error creating pool listener " + className + ". Cause: " + t, t);
+      } catch (Exception e) {
+        throw new DataSourceException("Error creating pool listener " + className + ". Cause: " + e, e);
+      }
+    }
+  }
+
+  public void addPoolListener(PoolListener listener) {
+    metrics.addListener(listener);
+  }
+
+  public void removePoolListener(PoolListener listener) {
+    metrics.removeListener(listener);
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -294,11 +500,64 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolMinimumIdle() {
+    return poolMinimumIdle;
+  }
+
+  public int getPoolInitialSize() {
+    return poolInitialSize;
+  }
+
+  public int getPoolMaxLifetime() {
+    return poolMaxLifetime;
+  }
+
+  public int getPoolIdleTimeout() {
+    return poolIdleTimeout;
+  }
+
+  public int getPoolValidationWindow() {
+    return poolValidationWindow;
+  }
+
+  public int getPoolHousekeepingInterval() {
+    return poolHousekeepingInterval;
+  }
+
+  public boolean isPoolPingUseIsValid() {
+    return poolPingUseIsValid;
+  }
+
+  public int getPoolPingTimeout() {
+    return poolPingTimeout;
+  }
+
+  public int getPoolLeakDetectionThreshold() {
+    return poolLeakDetectionThreshold;
+  }
+
+  public int getPoolPreparedStatementCacheSize() {
+    return poolPreparedStatementCacheSize;
+  }
+
+  public String getPoolName() {
+    return poolName;
+  }
+
+  public boolean isPoolRegisterMBean() {
+    return poolRegisterMBean;
+  }
+
+  public PoolMetrics getPoolMetrics() {
+    return metrics;
+  }
+
   /*
    * Closes all active and idle connections in the pool
    * 关闭所有的 activeConnections 和 idleConnections 的连接
    */
   public void forceCloseAll() {
+    stopBackgroundWork();
     synchronized (state) {
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       //关闭所有的activeConnections和idleConnections
@@ -340,7 +599,302 @@ public class PooledDataSource implements DataSource {
     return state;
   }
 
-  private int assembleConnectionTypeCode(String url, String username, String password) {
+  /*
+   * Starts opening poolInitialSize connections (at least poolMinimumIdle) in background.
+   * It is called when the first connection is requested, so it is only needed
+   * to warm up the pool before that.
+   */
+  public void warmUp() {
+    if (warmUpRequested.compareAndSet(false, true)) {
+      scheduleFill(Math.max(poolInitialSize, poolMinimumIdle));
+      scheduleHousekeeping();
+      scheduleLeakDetection();
+      if (poolRegisterMBean) {
+        registerMBean();
+      }
+    }
+  }
+
+  /*
+   * Cancels the pending housekeeping and lets the housekeeper thread end, so a closed pool does not
+   * keep a thread (and its class loader) alive. The next checkout (or warmUp) starts them again
+   * with the current settings.
+   */
+  protected synchronized void stopBackgroundWork() {
+    warmUpRequested.set(false);
+    if (housekeeping != null) {
+      housekeeping.cancel(false);
+      housekeeping = null;
+    }
+    if (leakDetection != null) {
+      leakDetection.cancel(false);
+      leakDetection = null;
+    }
+    if (housekeeper != null) {
+      // 正在进行的填充会做完，线程随后退出
+      housekeeper.shutdown();
+      housekeeper = null;
+    }
+  }
+
+  private synchronized void scheduleLeakDetection() {
+    if (leakDetection == null && poolLeakDetectionThreshold > 0) {
+      // a leak is reported at most one threshold after it happened
+      leakDetection = getHousekeeper().scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            detectLeaks();
+          } catch (Exception e) {
+            log.warn("Leak detection of the pool failed: " + e.getMessage());
+          }
+        }
+      }, poolLeakDetectionThreshold, poolLeakDetectionThreshold, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /*
+   * Reports, once, every connection checked out for longer than poolLeakDetectionThreshold.
+   */
+  protected void detectLeaks() {
+    for (PooledConnection conn : getCheckedOutConnections()) {
+      Throwable checkoutStack = conn.getCheckoutStack();
+      long checkoutTime = conn.getCheckoutTime();
+      if (checkoutStack != null && !conn.isLeakReported() && checkoutTime > poolLeakDetectionThreshold) {
+        conn.setLeakReported(true);
+        StringWriter stack = new StringWriter();
+        checkoutStack.printStackTrace(new PrintWriter(stack));
+        log.warn("Connection " + conn.getRealHashCode() + " has been checked out for " + checkoutTime
+            + " milliseconds, possible connection leak. " + stack);
+        metrics.recordSuspectedLeak(checkoutTime, checkoutStack);
+      }
+    }
+  }
+
+  /*
+   * Gets a snapshot of the connections that are currently checked out.
+   */
+  protected List<PooledConnection> getCheckedOutConnections() {
+    synchronized (state) {
+      return new ArrayList<PooledConnection>(state.activeConnections);
+    }
+  }
+
+  /*
+   * Called by a borrower once it got its connection.
+   */
+  protected void connectionAcquired(PooledConnection conn, long startNanos) {
+    if (poolLeakDetectionThreshold > 0) {
+      conn.setCheckoutStack(new Throwable("Connection " + conn.getRealHashCode() + " was checked out here"));
+    }
+    metrics.recordAcquire(System.nanoTime() - startNanos);
+  }
+
+  /*
+   * Opens a physical connection, timing it.
+   */
+  protected Connection openConnection() throws SQLException {
+    long start = System.nanoTime();
+    Connection connection = dataSource.getConnection();
+    metrics.recordCreation(System.nanoTime() - start);
+    return connection;
+  }
+
+  private synchronized void registerMBean() {
+    if (registeredName != null) {
+      return;
+    }
+    try {
+      String name = poolName != null ? poolName : "pool-" + Integer.toHexString(System.identityHashCode(this));
+      ObjectName objectName = new ObjectName("org.apache.ibatis:type=PooledDataSource,name=" + ObjectName.quote(name));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (!server.isRegistered(objectName)) {
+        server.registerMBean(metrics, objectName);
+        registeredName = objectName;
+      } else {
+        log.warn("Pool MBean " + objectName + " is already registered.");
+      }
+    } catch (Exception e) {
+      log.warn("Could not register the pool MBean: " + e.getMessage());
+    }
+  }
+
+  /*
+   * Removes the pool MBean from the platform MBean server, if it was registered.
+   */
+  public synchronized void unregisterMBean() {
+    if (registeredName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+      } catch (Exception e) {
+        log.warn("Could not unregister the pool MBean: " + e.getMessage());
+      }
+      registeredName = null;
+    }
+  }
+
+  private synchronized void scheduleHousekeeping() {
+    if (housekeeping == null && poolHousekeepingInterval > 0
+        && (poolMaxLifetime > 0 || poolIdleTimeout > 0 || poolValidationWindow > 0)) {
+      housekeeping = getHousekeeper().scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            housekeep();
+          } catch (Exception e) {
+            log.warn("Housekeeping of the pool failed: " + e.getMessage());
+          }
+        }
+      }, poolHousekeepingInterval, poolHousekeepingInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /*
+   * Asks the background thread to bring the pool back to poolMinimumIdle idle connections,
+   * meant to be called whenever connections are thrown away.
+   */
+  protected void requestFill() {
+    scheduleFill(poolMinimumIdle);
+  }
+
+  private void scheduleFill(final int target) {
+    if (target <= 0 || !fillScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    getHousekeeper().execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          fillPool(target);
+        } catch (Exception e) {
+          log.warn("Could not open connections in background: " + e.getMessage());
+        } finally {
+          fillScheduled.set(false);
+        }
+      }
+    });
+  }
+
+  protected synchronized ScheduledExecutorService getHousekeeper() {
+    if (housekeeper == null) {
+      housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "mybatis-pool-housekeeper");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return housekeeper;
+  }
+
+  /*
+   * Runs on the housekeeper thread. Closes the idle connections that outlived poolMaxLifetime
+   * or poolIdleTimeout and, if poolPingEnabled is set, pings the remaining ones.
+   * Connections are taken out of the idle list while they are checked so no borrower gets them.
+   */
+  protected void housekeep() {
+    List<PooledConnection> candidates;
+    synchronized (state) {
+      candidates = new ArrayList<PooledConnection>(state.idleConnections);
+    }
+    int evicted = 0;
+    for (PooledConnection conn : candidates) {
+      boolean evict;
+      synchronized (state) {
+        if (!state.idleConnections.remove(conn)) {
+          // checked out in the meantime
+          continue;
+        }
+        evict = isExpired(conn) || (isIdleTimedOut(conn) && state.idleConnections.size() >= poolMinimumIdle);
+      }
+      if (!evict && poolPingEnabled) {
+        evict = !isAlive(conn) || !executePing(conn);
+      }
+      if (evict) {
+        conn.invalidate();
+        closeQuietly(conn.getRealConnection());
+        evicted++;
+        if (log.isDebugEnabled()) {
+          log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+        }
+      } else {
+        synchronized (state) {
+          state.idleConnections.add(conn);
+          state.notifyAll();
+        }
+      }
+    }
+    if (evicted > 0) {
+      requestFill();
+    }
+  }
+
+  protected boolean isExpired(PooledConnection conn) {
+    return poolMaxLifetime > 0 && conn.getAge() > poolMaxLifetime;
+  }
+
+  protected boolean isIdleTimedOut(PooledConnection conn) {
+    return poolIdleTimeout > 0 && conn.getTimeElapsedSinceLastUse() > poolIdleTimeout;
+  }
+
+  protected void closeQuietly(Connection realConn) {
+    try {
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  /*
+   * Opens connections until there are the given number of idle ones.
+   * Every connection is opened outside the pool lock, its slot is reserved beforehand
+   * so the pool never exceeds poolMaximumActiveConnections.
+   *
+   * @param target the number of idle connections wanted
+   */
+  protected void fillPool(int target) throws SQLException {
+    int idleLimit = Math.min(target, poolMaximumIdleConnections);
+    while (true) {
+      int typeCode;
+      synchronized (state) {
+        int connections = state.activeConnections.size() + state.idleConnections.size() + state.pendingConnectionCount;
+        if (state.idleConnections.size() + state.pendingConnectionCount >= idleLimit || connections >= poolMaximumActiveConnections) {
+          return;
+        }
+        state.pendingConnectionCount++;
+        typeCode = expectedConnectionTypeCode;
+      }
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(openConnection(), this);
+      } finally {
+        synchronized (state) {
+          state.pendingConnectionCount--;
+        }
+      }
+      synchronized (state) {
+        // the pool has been reset while the connection was being opened
+        if (typeCode != expectedConnectionTypeCode || state.idleConnections.size() >= poolMaximumIdleConnections) {
+          conn.invalidate();
+          conn.getRealConnection().close();
+          return;
+        }
+        conn.setConnectionTypeCode(typeCode);
+        state.idleConnections.add(conn);
+        state.notifyAll();
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Created connection " + conn.getRealHashCode() + " in background.");
+      }
+    }
+  }
+
+  protected int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
 
@@ -353,6 +907,7 @@ public class PooledDataSource implements DataSource {
    * @throws SQLException
    */
   protected void pushConnection(PooledConnection conn) throws SQLException {
+    metrics.recordCheckout(TimeUnit.MILLISECONDS.toNanos(conn.getCheckoutTime()));
 
     synchronized (state) {
       //先从activeConnections中删除此connection
@@ -360,7 +915,8 @@ public class PooledDataSource implements DataSource {
       // 通过 ping 来测试连接是否有效
       if (conn.isValid()) {
         // 判断是否超过空闲连接上限，并且和当前连接池的标识匹配
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isExpired(conn)) {
       	  //如果空闲的连接太少，
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
           if (!conn.getRealConnection().getAutoCommit()) {
@@ -369,9 +925,11 @@ public class PooledDataSource implements DataSource {
           //new一个新的Connection，加入到idle列表
           // 创建 PooledConnection 对象，并添加到空闲的链接集合中
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.adoptStatementCache(conn);
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          newConn.setLastValidatedTimestamp(conn.getLastValidatedTimestamp());
           // 设置原连接失效
           conn.invalidate();
           if (log.isDebugEnabled()) {
@@ -397,6 +955,7 @@ public class PooledDataSource implements DataSource {
           log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
         }
         state.badConnectionCount++;
+        requestFill();
       }
     }
   }
@@ -415,13 +974,38 @@ public class PooledDataSource implements DataSource {
     PooledConnection conn = null;
     // 记录当前时间
     long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
     // 记录当前方法，获取到坏连接的次数
     int localBadConnectionCount = 0;
+    // 已在池中预留了一个位置，需要在锁外创建新连接
+    boolean reserved = false;
+    PooledConnection newConn = null;
+
+    warmUp();
 
     //最外面是while死循环，如果一直拿不到connection，则不断尝试
     while (conn == null) {
+      if (reserved) {
+        // open the connection outside the lock so a slow handshake does not block the other threads
+        try {
+          newConn = new PooledConnection(openConnection(), this);
+        } catch (SQLException e) {
+          releaseReservation();
+          throw e;
+        } catch (RuntimeException e) {
+          releaseReservation();
+          throw e;
+        }
+      }
       synchronized (state) {
-        if (!state.idleConnections.isEmpty()) {
+        if (reserved) {
+          state.pendingConnectionCount--;
+          reserved = false;
+          conn = newConn;
+          if (log.isDebugEnabled()) {
+            log.debug("Created connection " + conn.getRealHashCode() + ".");
+          }
+        } else if (!state.idleConnections.isEmpty()) {
           //如果有空闲的连接的话
           // Pool has available connection
           //删除空闲列表里第一个，返回
@@ -432,21 +1016,20 @@ public class PooledDataSource implements DataSource {
         } else {
         	//如果没有空闲的连接
           // Pool does not have available connection
-          if (state.activeConnections.size() < poolMaximumActiveConnections) {
-        	  //如果activeConnections太少,那就new一个PooledConnection
+          if (state.activeConnections.size() + state.pendingConnectionCount < poolMaximumActiveConnections) {
+        	  //如果activeConnections太少,那就预留一个位置，在锁外new一个PooledConnection
             // Can create new connection
-            conn = new PooledConnection(dataSource.getConnection(), this);
-            if (log.isDebugEnabled()) {
-              log.debug("Created connection " + conn.getRealHashCode() + ".");
-            }
+            state.pendingConnectionCount++;
+            reserved = true;
           } else {
         	  //如果activeConnections已经很多了，那不能再new了
             // Cannot create new connection
         	  //取得activeConnections列表的第一个（最老的）
-            PooledConnection oldestActiveConnection = state.activeConnections.get(0);
-            long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+            // 所有的位置都可能被正在创建的连接占用，此时activeConnections为空
+            PooledConnection oldestActiveConnection = state.activeConnections.isEmpty() ? null : state.activeConnections.get(0);
+            long longestCheckoutTime = oldestActiveConnection == null ? 0 : oldestActiveConnection.getCheckoutTime();
             // 检查该连接是否超时
-            if (longestCheckoutTime > poolMaximumCheckoutTime) {// 检查到超时
+            if (oldestActiveConnection != null && longestCheckoutTime > poolMaximumCheckoutTime) {// 检查到超时
             	//如果checkout时间过长，则这个connection标记为overdue（过期）
               // Can claim overdue connection
               // 对连接超时的时间的统计
@@ -462,6 +1045,7 @@ public class PooledDataSource implements DataSource {
               // 创建新的 PooledConnection 连接对象
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
               oldestActiveConnection.invalidate();
+              oldestActiveConnection.closeStatementCache();
               if (log.isDebugEnabled()) {
                 log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
               }
@@ -517,6 +1101,7 @@ public class PooledDataSource implements DataSource {
             localBadConnectionCount++;
             // 将 conn 置空，那么可以继续获取
             conn = null;
+            requestFill();
             // 如果超过最大次数，抛出 SQLException 异常
             // 为什么次数要包含 poolMaximumIdleConnections 呢？相当于把激活的连接，全部遍历一次。
             if (localBadConnectionCount > (poolMaximumIdleConnections + 3)) {
@@ -539,9 +1124,17 @@ public class PooledDataSource implements DataSource {
       throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
     }
 
+    connectionAcquired(conn, startNanos);
     return conn;
   }
 
+  private void releaseReservation() {
+    synchronized (state) {
+      state.pendingConnectionCount--;
+      state.notifyAll();
+    }
+  }
+
   /*
    * Method to check to see if a connection is still usable
    * 通过向数据库发起 poolPingQuery 语句来发起“ping”操作，以判断数据库连接是否有效
@@ -549,59 +1142,77 @@ public class PooledDataSource implements DataSource {
    * @return True if the connection is still usable
    */
   protected boolean pingConnection(PooledConnection conn) {
-    // 记录是否 ping 成功
-    boolean result = true;
+    // 判断真实的连接是否已经关闭。若已关闭，就意味着 ping 肯定是失败的。
+    boolean result = isAlive(conn);
+
+    if (result) {
+      if (poolPingEnabled) {
+        // 在 poolValidationWindow 内校验过的连接（通常由后台线程校验），直接信任
+        if (poolValidationWindow > 0 && conn.getTimeElapsedSinceLastValidation() < poolValidationWindow) {
+          return true;
+        }
+        // 判断是否长时间未使用。若是，才需要发起 ping
+        if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
+          result = executePing(conn);
+        }
+      }
+    }
+    return result;
+  }
 
+  protected boolean isAlive(PooledConnection conn) {
     try {
-      // 判断真实的连接是否已经关闭。若已关闭，就意味着 ping 肯定是失败的。
-      result = !conn.getRealConnection().isClosed();
+      return !conn.getRealConnection().isClosed();
     } catch (SQLException e) {
       if (log.isDebugEnabled()) {
         log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
       }
-      result = false;
+      return false;
     }
+  }
 
-    if (result) {
-      if (poolPingEnabled) {
-        // 判断是否长时间未使用。若是，才需要发起 ping
-        if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
-          try {
-            if (log.isDebugEnabled()) {
-              log.debug("Testing connection " + conn.getRealHashCode() + " ...");
-            }
-            Connection realConn = conn.getRealConnection();
-            Statement statement = realConn.createStatement();
-            // 通过执行 poolPingQuery 语句来发起 ping
-            ResultSet rs = statement.executeQuery(poolPingQuery);
-            rs.close();
-            statement.close();
-            if (!realConn.getAutoCommit()) {
-              realConn.rollback();
-            }
-            // 标记执行成功
-            result = true;
-            if (log.isDebugEnabled()) {
-              log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
-            }
-          } catch (Exception e) {
-            log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
-            try {
-              // 关闭数据库真实的连接
-              conn.getRealConnection().close();
-            } catch (Exception e2) {
-              //ignore
-            }
-            // 标记执行失败
-            result = false;
-            if (log.isDebugEnabled()) {
-              log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
-            }
-          }
+  /*
+   * Pings the database, with poolPingQuery or Connection.isValid(int) if poolPingUseIsValid is set.
+   * A connection that fails the ping is closed.
+   */
+  protected boolean executePing(PooledConnection conn) {
+    try {
+      if (log.isDebugEnabled()) {
+        log.debug("Testing connection " + conn.getRealHashCode() + " ...");
+      }
+      Connection realConn = conn.getRealConnection();
+      if (poolPingUseIsValid) {
+        if (!realConn.isValid(poolPingTimeout)) {
+          throw new SQLException("Connection.isValid(" + poolPingTimeout + ") returned false");
         }
+      } else {
+        Statement statement = realConn.createStatement();
+        // 通过执行 poolPingQuery 语句来发起 ping
+        ResultSet rs = statement.executeQuery(poolPingQuery);
+        rs.close();
+        statement.close();
+        if (!realConn.getAutoCommit()) {
+          realConn.rollback();
+        }
+      }
+      conn.setLastValidatedTimestamp(System.currentTimeMillis());
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
+      }
+      return true;
+    } catch (Exception e) {
+      log.warn("Execution of ping query '" + (poolPingUseIsValid ? "Connection.isValid()" : poolPingQuery) + "' failed: " + e.getMessage());
+      try {
+        // 关闭数据库真实的连接
+        conn.getRealConnection().close();
+      } catch (Exception e2) {
+        //ignore
       }
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
+      }
+      return false;
     }
-    return result;
   }
 
   /*
@@ -625,6 +1236,7 @@ public class PooledDataSource implements DataSource {
 
   protected void finalize() throws Throwable {
     forceCloseAll();
+    unregisterMBean();
     super.finalize();
   }
 
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.datasource.pooled;
 
+import java.util.Properties;
+
+import org.apache.ibatis.datasource.DataSourceException;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 
 /**
@@ -26,9 +29,33 @@ import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
  */
 public class PooledDataSourceFactory extends UnpooledDataSourceFactory {
 
+  /*
+   * Selects the pool engine: CLASSIC (default) or CONCURRENT
+   */
+  private static final String POOL_TYPE_PROPERTY = "poolType";
+
   //数据源换成了PooledDataSource
   public PooledDataSourceFactory() {
     this.dataSource = new PooledDataSource();
   }
 
+  @Override
+  public void setProperties(Properties properties) {
+    Properties poolProperties = new Properties();
+    poolProperties.putAll(properties);
+    String poolType = (String) poolProperties.remove(POOL_TYPE_PROPERTY);
+    if (poolType != null) {
+      if ("CONCURRENT".equalsIgnoreCase(poolType)) {
+        this.dataSource = new ConcurrentPooledDataSource();
+      } else if ("CLASSIC".equalsIgnoreCase(poolType)) {
+        this.dataSource = new PooledDataSource();
+      } else {
+        throw new DataSourceException("Unknown pool type: " + poolType + ". Expected CLASSIC or CONCURRENT.");
+      }
+    }
+    super.setProperties(poolProperties);
+    // every setter resets the pool, so the connections can only be opened once all are applied
+    ((PooledDataSource) dataSource).warmUp();
+  }
+
 }
@@ -0,0 +1,277 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Idle prepared statements of one real connection, least recently returned first.
+ *
+ * It follows the real connection when the pool wraps it in a new PooledConnection, so the
+ * statements outlive the SqlSession that prepared them whatever the executor type. A statement
+ * is taken out of the cache while in use, so two users of the connection never share one, and
+ * goes back on close, with its parameters, batch, result sets and the settings changed through it
+ * reset. A statement whose state cannot be reset (escape processing, cursor name) or that was
+ * unwrapped is closed instead.
+ * The key is the prepareStatement variant with all its arguments, so result set types and
+ * generated key columns get statements of their own.
+ */
+final class PreparedStatementCache {
+
+  private static final Log log = LogFactory.getLog(PreparedStatementCache.class);
+
+  private static final Class<?>[] IFACES = new Class<?>[] { PreparedStatement.class };
+  // settings a user may change, restored to what the driver had before the first change
+  private static final List<String> RESTORED_SETTINGS = Arrays.asList(
+      "setQueryTimeout", "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize", "setPoolable");
+  // JDBC没有对应的getter，或者交出了真实的语句，这些用过之后就不再缓存
+  private static final List<String> UNCACHEABLE_AFTER = Arrays.asList("setEscapeProcessing", "setCursorName", "unwrap");
+
+  private final int maxSize;
+  private final PoolMetrics metrics;
+  private final LinkedHashMap<Object, PreparedStatement> statements = new LinkedHashMap<Object, PreparedStatement>();
+  private boolean closed;
+
+  PreparedStatementCache(int maxSize, PoolMetrics metrics) {
+    this.maxSize = maxSize;
+    this.metrics = metrics;
+  }
+
+  /*
+   * Prepares a statement through the given prepareStatement method, reusing an idle one when possible.
+   *
+   * @param proxyConnection what the statement answers to getConnection
+   */
+  PreparedStatement prepare(Connection realConnection, Connection proxyConnection, Method method, Object[] args) throws Throwable {
+    final Object key = keyOf(method, args);
+    PreparedStatement statement = take(key);
+    if (statement == null) {
+      try {
+        statement = (PreparedStatement) method.invoke(realConnection, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES,
+        new CachedStatement(this, key, statement, proxyConnection));
+  }
+
+  synchronized int size() {
+    return statements.size();
+  }
+
+  /*
+   * Closes the idle statements, statements in use are closed when they are returned.
+   */
+  void close() {
+    List<PreparedStatement> idle;
+    synchronized (this) {
+      closed = true;
+      idle = new ArrayList<PreparedStatement>(statements.values());
+      statements.clear();
+    }
+    for (PreparedStatement statement : idle) {
+      closeQuietly(statement);
+    }
+  }
+
+  private synchronized PreparedStatement take(Object key) {
+    PreparedStatement statement = statements.remove(key);
+    if (statement != null) {
+      metrics.recordStatementCacheHit();
+    } else {
+      metrics.recordStatementCacheMiss();
+    }
+    return statement;
+  }
+
+  /*
+   * @return false if the statement could not be cached and has to be closed
+   */
+  private boolean offer(Object key, PreparedStatement statement) {
+    PreparedStatement evicted = null;
+    synchronized (this) {
+      //关闭了，或者同一SQL已经有一个空闲的
+      if (closed || statements.containsKey(key)) {
+        return false;
+      }
+      statements.put(key, statement);
+      if (statements.size() > maxSize) {
+        Iterator<PreparedStatement> eldest = statements.values().iterator();
+        evicted = eldest.next();
+        eldest.remove();
+      }
+    }
+    if (evicted != null) {
+      metrics.recordStatementCacheEviction();
+      closeQuietly(evicted);
+    }
+    return true;
+  }
+
+  private static Object keyOf(Method method, Object[] args) {
+    final List<Object> key = new ArrayList<Object>(args.length + 1);
+    key.add(method);
+    for (Object arg : args) {
+      if (arg instanceof int[]) {
+        key.add(Arrays.toString((int[]) arg));
+      } else if (arg instanceof Object[]) {
+        key.add(Arrays.asList((Object[]) arg));
+      } else {
+        key.add(arg);
+      }
+    }
+    return key;
+  }
+
+  private static void closeQuietly(Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  /*
+   * The statement a user holds. Closing it resets the real statement and gives it back to the cache.
+   */
+  private static final class CachedStatement implements InvocationHandler {
+
+    private final PreparedStatementCache cache;
+    private final Object key;
+    private final PreparedStatement statement;
+    private final Connection proxyConnection;
+    private Map<String, Object> changedSettings;
+    private List<ResultSet> resultSets;
+    private boolean uncacheable;
+    private boolean closed;
+
+    CachedStatement(PreparedStatementCache cache, Object key, PreparedStatement statement, Connection proxyConnection) {
+      this.cache = cache;
+      this.key = key;
+      this.statement = statement;
+      this.proxyConnection = proxyConnection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String methodName = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        if ("equals".equals(methodName)) {
+          return proxy == args[0];
+        } else if ("hashCode".equals(methodName)) {
+          return System.identityHashCode(proxy);
+        }
+        return "Cached" + statement;
+      } else if ("close".equals(methodName)) {
+        if (!closed) {
+          closed = true;
+          giveBack();
+        }
+        return null;
+      } else if ("isClosed".equals(methodName)) {
+        return closed || statement.isClosed();
+      } else if (closed) {
+        throw new SQLException("Statement is closed.");
+      } else if ("getConnection".equals(methodName)) {
+        return proxyConnection;
+      }
+      try {
+        if (RESTORED_SETTINGS.contains(methodName)) {
+          rememberSetting(methodName);
+        } else if (UNCACHEABLE_AFTER.contains(methodName)) {
+          uncacheable = true;
+        }
+        final Object result = method.invoke(statement, args);
+        if (result instanceof ResultSet) {
+          // getMoreResults可能让前面的结果集还开着，全部记下来
+          if (resultSets == null) {
+            resultSets = new ArrayList<ResultSet>();
+          }
+          resultSets.add((ResultSet) result);
+        }
+        return result;
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+
+    private void rememberSetting(String setter) throws Exception {
+      if (changedSettings == null) {
+        changedSettings = new HashMap<String, Object>();
+      }
+      if (!changedSettings.containsKey(setter)) {
+        final String getter = "setPoolable".equals(setter) ? "isPoolable" : "g" + setter.substring(1);
+        changedSettings.put(setter, Statement.class.getMethod(getter).invoke(statement));
+      }
+    }
+
+    private void giveBack() {
+      boolean cached = false;
+      try {
+        if (!uncacheable && !statement.isClosed()) {
+          reset();
+          cached = cache.offer(key, statement);
+        }
+      } catch (Exception e) {
+        if (log.isDebugEnabled()) {
+          log.debug("Could not reset a cached statement, closing it. Cause: " + e);
+        }
+      }
+      if (!cached) {
+        closeQuietly(statement);
+      }
+    }
+
+    private void reset() throws Exception {
+      if (resultSets != null) {
+        for (ResultSet resultSet : resultSets) {
+          resultSet.close();
+        }
+      }
+      statement.clearParameters();
+      statement.clearBatch();
+      statement.clearWarnings();
+      if (changedSettings != null) {
+        for (Map.Entry<String, Object> setting : changedSettings.entrySet()) {
+          final Object value = setting.getValue();
+          final Class<?> type = value instanceof Long ? long.class : value instanceof Boolean ? boolean.class : int.class;
+          Statement.class.getMethod(setting.getKey(), type).invoke(statement, value);
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,210 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.LatencyHistogram;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A read replica of a {@link RoutingDataSource}, with its load and health.
+ *
+ * A replica whose average statement latency goes over the threshold of the routing data source,
+ * or that fails to connect too many times in a row, is ejected: no connection is opened on it
+ * until the ejection time has passed. It then comes back with a clean record.
+ */
+public class Replica {
+
+  private static final Log log = LogFactory.getLog(Replica.class);
+
+  // executions needed before the average latency is trusted
+  private static final int MIN_LATENCY_SAMPLES = 5;
+
+  private final RoutingDataSource owner;
+  private final String name;
+  private final DataSource dataSource;
+  private final int weight;
+
+  private final AtomicInteger outstandingCount = new AtomicInteger();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+  private final AtomicLong ejectionCount = new AtomicLong();
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  // exponentially weighted, guarded by this
+  private long averageLatency;
+  private int latencySamples;
+
+  private volatile boolean ejected;
+  private volatile long ejectedUntil;
+
+  // smooth weighted round robin state, guarded by the owner
+  int currentWeight;
+
+  Replica(RoutingDataSource owner, String name, DataSource dataSource, int weight) {
+    if (weight < 1) {
+      throw new IllegalArgumentException("The weight of replica " + name + " must be at least 1 but was " + weight);
+    }
+    this.owner = owner;
+    this.name = name;
+    this.dataSource = dataSource;
+    this.weight = weight;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+  public int getWeight() {
+    return weight;
+  }
+
+  /*
+   * @return the connections currently open on this replica
+   */
+  public int getOutstandingCount() {
+    return outstandingCount.get();
+  }
+
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+
+  public long getEjectionCount() {
+    return ejectionCount.get();
+  }
+
+  public boolean isEjected() {
+    return ejected;
+  }
+
+  /*
+   * @return the recent average statement latency in nanoseconds
+   */
+  public synchronized long getAverageLatency() {
+    return averageLatency;
+  }
+
+  /*
+   * @return every statement latency recorded since the replica was added
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /*
+   * @return true unless the replica is ejected, bringing it back once its ejection time is over
+   */
+  boolean isAvailable(long now) {
+    if (!ejected) {
+      return true;
+    }
+    if (now - ejectedUntil < 0) {
+      return false;
+    }
+    synchronized (this) {
+      if (ejected) {
+        ejected = false;
+        averageLatency = 0;
+        latencySamples = 0;
+        consecutiveFailures.set(0);
+        if (log.isDebugEnabled()) {
+          log.debug("Replica " + name + " is back in rotation.");
+        }
+      }
+    }
+    return true;
+  }
+
+  void acquire() {
+    requestCount.incrementAndGet();
+    outstandingCount.incrementAndGet();
+  }
+
+  void release() {
+    outstandingCount.decrementAndGet();
+  }
+
+  void recordLatency(long nanos) {
+    latency.record(nanos);
+    consecutiveFailures.set(0);
+    long threshold = TimeUnit.MILLISECONDS.toNanos(owner.getReplicaLatencyThreshold());
+    synchronized (this) {
+      // alpha of 1/5, a handful of slow executions is enough to move it
+      averageLatency = latencySamples == 0 ? nanos : averageLatency + (nanos - averageLatency) / 5;
+      latencySamples++;
+      if (threshold > 0 && latencySamples >= MIN_LATENCY_SAMPLES && averageLatency > threshold) {
+        eject("average latency of " + TimeUnit.NANOSECONDS.toMillis(averageLatency) + " ms");
+      }
+    }
+  }
+
+  void recordFailure(SQLException e) {
+    failureCount.incrementAndGet();
+    int threshold = owner.getReplicaFailureThreshold();
+    if (threshold > 0 && consecutiveFailures.incrementAndGet() >= threshold) {
+      eject(consecutiveFailures.get() + " consecutive failures, last one: " + e);
+    }
+  }
+
+  /*
+   * Only connection problems and timeouts say something about the replica, a bad query does not.
+   */
+  static boolean isReplicaFailure(SQLException e) {
+    String state = e.getSQLState();
+    return e instanceof SQLTransientConnectionException
+        || e instanceof SQLNonTransientConnectionException
+        || e instanceof SQLTimeoutException
+        || (state != null && state.startsWith("08"));
+  }
+
+  private synchronized void eject(String reason) {
+    if (ejected) {
+      return;
+    }
+    long ejectionTime = owner.getReplicaEjectionTime();
+    ejectedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ejectionTime);
+    ejected = true;
+    ejectionCount.incrementAndGet();
+    log.warn("Ejected replica " + name + " for " + ejectionTime + " ms because of " + reason + ".");
+  }
+
+  @Override
+  public String toString() {
+    return "Replica " + name + " (weight " + weight + ", " + outstandingCount.get() + " outstanding"
+        + (ejected ? ", ejected)" : ")");
+  }
+
+}
@@ -0,0 +1,26 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+/**
+ * How a {@link RoutingDataSource} picks the replica for a new connection.
+ *
+ * LEAST_OUTSTANDING takes the replica with the fewest connections in use relative to its weight,
+ * WEIGHTED_ROUND_ROBIN hands out connections in proportion to the weights.
+ */
+public enum ReplicaBalancing {
+  LEAST_OUTSTANDING, WEIGHTED_ROUND_ROBIN
+}
@@ -0,0 +1,283 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.mapping.DataSourceRoute;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Connection of a {@link RoutingDataSource}.
+ *
+ * Holds up to two physical connections, one on the primary and one on a replica, both opened on
+ * first use. The session settings are remembered and applied to each of them, commit and
+ * rollback go to both.
+ */
+final class RoutingConnection implements InvocationHandler {
+
+  private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
+
+  private final RoutingDataSource dataSource;
+  private final String username;
+  private final String password;
+  private final Connection proxyConnection;
+
+  private Connection primaryConnection;
+  private Connection replicaConnection;
+  private Replica replica;
+  private boolean replicaUnavailable;
+
+  // a write went to the primary since the read-only transaction began, the rest of it stays there
+  private boolean writeTransaction;
+  private boolean autoCommit = true;
+  private Integer transactionIsolation;
+  private Boolean readOnly;
+  private boolean closed;
+
+  RoutingConnection(RoutingDataSource dataSource, String username, String password) {
+    this.dataSource = dataSource;
+    this.username = username;
+    this.password = password;
+    this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
+  }
+
+  Connection getProxyConnection() {
+    return proxyConnection;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String methodName = method.getName();
+    if ("equals".equals(methodName) && method.getParameterTypes().length == 1) {
+      return proxy == args[0];
+    } else if ("hashCode".equals(methodName) && args == null) {
+      return System.identityHashCode(proxy);
+    } else if (Object.class.equals(method.getDeclaringClass())) {
+      return method.invoke(this, args);
+    } else if ("close".equals(methodName)) {
+      close();
+      return null;
+    } else if ("isClosed".equals(methodName)) {
+      return closed;
+    } else if (closed) {
+      throw new SQLException("Error accessing RoutingConnection. Connection is closed.");
+    }
+    try {
+      if ("prepareStatement".equals(methodName) || "createStatement".equals(methodName)) {
+        return prepare(method, args);
+      } else if ("prepareCall".equals(methodName)) {
+        // a procedure may write
+        return method.invoke(primaryConnectionForWrite(), args);
+      } else if ("getAutoCommit".equals(methodName)) {
+        return autoCommit;
+      } else if ("setAutoCommit".equals(methodName)) {
+        autoCommit = (Boolean) args[0];
+        if (autoCommit) {
+          // switching to auto commit commits the transaction
+          writeTransaction = false;
+        }
+        invokeOnOpenConnections(method, args);
+        return null;
+      } else if (("commit".equals(methodName) || "rollback".equals(methodName)) && args == null) {
+        invokeOnOpenConnections(method, args);
+        writeTransaction = false;
+        return null;
+      } else if ("setTransactionIsolation".equals(methodName)) {
+        transactionIsolation = (Integer) args[0];
+        invokeOnOpenConnections(method, args);
+        return null;
+      } else if ("getTransactionIsolation".equals(methodName) && transactionIsolation != null) {
+        return transactionIsolation;
+      } else if ("setReadOnly".equals(methodName)) {
+        readOnly = (Boolean) args[0];
+        invokeOnOpenConnections(method, args);
+        return null;
+      } else if ("isReadOnly".equals(methodName) && readOnly != null) {
+        return readOnly;
+      }
+      return method.invoke(primaryConnection(), args);
+    } catch (Throwable t) {
+      throw ExceptionUtil.unwrapThrowable(t);
+    }
+  }
+
+  //按照当前语句决定走主库还是从库
+  //事务里的查询可能是先读后写（SELECT ... FOR UPDATE），AUTO只在自动提交或只读时走从库
+  private Object prepare(Method method, Object[] args) throws Throwable {
+    MappedStatement ms = RoutingContext.current();
+    if (ms == null || ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      return method.invoke(primaryConnectionForWrite(), args);
+    }
+    DataSourceRoute route = ms.getRoute();
+    if (route == DataSourceRoute.REPLICA
+        || (route == DataSourceRoute.AUTO && (autoCommit || Boolean.TRUE.equals(readOnly)) && !writeTransaction)) {
+      Connection connection = replicaConnection();
+      if (connection != null) {
+        Statement statement = (Statement) method.invoke(connection, args);
+        Class<?> type = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+            new ReplicaStatement(statement, replica, proxyConnection));
+      }
+    }
+    return method.invoke(primaryConnection(), args);
+  }
+
+  private Connection primaryConnectionForWrite() throws SQLException {
+    if (!autoCommit) {
+      writeTransaction = true;
+    }
+    return primaryConnection();
+  }
+
+  private Connection primaryConnection() throws SQLException {
+    if (primaryConnection == null) {
+      primaryConnection = open(dataSource.getPrimary());
+    }
+    return primaryConnection;
+  }
+
+  /*
+   * @return the replica connection, or null if no replica could be reached
+   */
+  private Connection replicaConnection() {
+    if (replicaConnection != null || replicaUnavailable) {
+      return replicaConnection;
+    }
+    List<Replica> failed = null;
+    Replica candidate;
+    while ((candidate = dataSource.chooseReplica(failed)) != null) {
+      candidate.acquire();
+      try {
+        replicaConnection = open(candidate.getDataSource());
+        replica = candidate;
+        return replicaConnection;
+      } catch (SQLException e) {
+        candidate.release();
+        candidate.recordFailure(e);
+        if (failed == null) {
+          failed = new ArrayList<Replica>();
+        }
+        failed.add(candidate);
+      }
+    }
+    // do not try again for every statement of this session
+    replicaUnavailable = true;
+    return null;
+  }
+
+  private Connection open(DataSource target) throws SQLException {
+    Connection connection = username == null ? target.getConnection() : target.getConnection(username, password);
+    try {
+      if (connection.getAutoCommit() != autoCommit) {
+        connection.setAutoCommit(autoCommit);
+      }
+      if (transactionIsolation != null) {
+        connection.setTransactionIsolation(transactionIsolation);
+      }
+      if (readOnly != null) {
+        connection.setReadOnly(readOnly);
+      }
+      return connection;
+    } catch (SQLException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  private void invokeOnOpenConnections(Method method, Object[] args) throws Throwable {
+    // the primary first, its outcome is the one that matters
+    if (primaryConnection != null) {
+      method.invoke(primaryConnection, args);
+    }
+    if (replicaConnection != null) {
+      method.invoke(replicaConnection, args);
+    }
+  }
+
+  private void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (replicaConnection != null) {
+        try {
+          replicaConnection.close();
+        } finally {
+          replica.release();
+        }
+      }
+    } finally {
+      if (primaryConnection != null) {
+        primaryConnection.close();
+      }
+    }
+  }
+
+  /*
+   * Times the executions on a replica, feeding its health.
+   */
+  private static class ReplicaStatement implements InvocationHandler {
+
+    private final Statement statement;
+    private final Replica replica;
+    private final Connection proxyConnection;
+
+    ReplicaStatement(Statement statement, Replica replica, Connection proxyConnection) {
+      this.statement = statement;
+      this.replica = replica;
+      this.proxyConnection = proxyConnection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      if ("getConnection".equals(methodName)) {
+        return proxyConnection;
+      }
+      try {
+        if (methodName.startsWith("execute")) {
+          long start = System.nanoTime();
+          Object result = method.invoke(statement, args);
+          replica.recordLatency(System.nanoTime() - start);
+          return result;
+        }
+        return method.invoke(statement, args);
+      } catch (Throwable t) {
+        Throwable cause = ExceptionUtil.unwrapThrowable(t);
+        if (cause instanceof SQLException && Replica.isReplicaFailure((SQLException) cause)) {
+          replica.recordFailure((SQLException) cause);
+        }
+        throw cause;
+      }
+    }
+
+  }
+
+}
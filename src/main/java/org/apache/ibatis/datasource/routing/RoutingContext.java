@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Tells a {@link RoutingDataSource} connection which statement is being prepared on the current
+ * thread, so it can pick the primary or a replica for it.
+ *
+ * Nothing is recorded until the first routing data source is created.
+ */
+public final class RoutingContext {
+
+  private static final ThreadLocal<MappedStatement> CURRENT = new ThreadLocal<MappedStatement>();
+
+  private static volatile boolean enabled;
+
+  private RoutingContext() {
+    // Prevent Instantiation
+  }
+
+  /*
+   * Marks the statement as the one being prepared.
+   *
+   * @return the statement that was marked before, to be given back to {@link #exit}
+   */
+  public static MappedStatement enter(MappedStatement ms) {
+    if (!enabled) {
+      return null;
+    }
+    MappedStatement previous = CURRENT.get();
+    CURRENT.set(ms);
+    return previous;
+  }
+
+  public static void exit(MappedStatement previous) {
+    if (!enabled) {
+      return;
+    }
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+  /*
+   * @return the statement being prepared, or null if the connection is used directly
+   */
+  public static MappedStatement current() {
+    return enabled ? CURRENT.get() : null;
+  }
+
+  static void enable() {
+    enabled = true;
+  }
+
+}
@@ -0,0 +1,232 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Data source that sends reads to replicas and everything else to the primary.
+ *
+ * A connection taken from it opens its physical connections lazily, when a statement is
+ * prepared, and decides per statement with the {@link org.apache.ibatis.mapping.MappedStatement}
+ * that {@link RoutingContext} reports. Non-transactional selects, those of an auto-commit or
+ * read-only connection, go to a replica unless their route says otherwise. Selects within a
+ * transaction stay on the primary since writes relying on what they read may follow. Writes,
+ * callable statements and any use of the connection outside of a mapped statement go to the
+ * primary. When no replica is available the reads go to the primary too.
+ *
+ * Replicas replicate asynchronously, so a read that must see the write just committed by
+ * another transaction should be routed to the primary.
+ */
+public class RoutingDataSource implements DataSource {
+
+  private final DataSource primary;
+  private volatile Replica[] replicas = new Replica[0];
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  private volatile ReplicaBalancing balancing = ReplicaBalancing.LEAST_OUTSTANDING;
+  private volatile long replicaLatencyThreshold;
+  private volatile int replicaFailureThreshold = 3;
+  private volatile long replicaEjectionTime = 30000;
+
+  public RoutingDataSource(DataSource primary) {
+    this.primary = primary;
+    RoutingContext.enable();
+  }
+
+  public Replica addReplica(DataSource dataSource) {
+    return addReplica(dataSource, 1);
+  }
+
+  public Replica addReplica(DataSource dataSource, int weight) {
+    return addReplica("replica-" + (replicas.length + 1), dataSource, weight);
+  }
+
+  public synchronized Replica addReplica(String name, DataSource dataSource, int weight) {
+    Replica replica = new Replica(this, name, dataSource, weight);
+    Replica[] newReplicas = Arrays.copyOf(replicas, replicas.length + 1);
+    newReplicas[replicas.length] = replica;
+    replicas = newReplicas;
+    return replica;
+  }
+
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  public List<Replica> getReplicas() {
+    return Collections.unmodifiableList(Arrays.asList(replicas));
+  }
+
+  public ReplicaBalancing getBalancing() {
+    return balancing;
+  }
+
+  public void setBalancing(ReplicaBalancing balancing) {
+    this.balancing = balancing;
+  }
+
+  public long getReplicaLatencyThreshold() {
+    return replicaLatencyThreshold;
+  }
+
+  /*
+   * Ejects a replica whose recent average statement latency goes over the given milliseconds.
+   * 0, the default, never ejects a replica for being slow.
+   */
+  public void setReplicaLatencyThreshold(long replicaLatencyThreshold) {
+    this.replicaLatencyThreshold = replicaLatencyThreshold;
+  }
+
+  public int getReplicaFailureThreshold() {
+    return replicaFailureThreshold;
+  }
+
+  /*
+   * Ejects a replica after this many connection failures in a row, 0 never does.
+   */
+  public void setReplicaFailureThreshold(int replicaFailureThreshold) {
+    this.replicaFailureThreshold = replicaFailureThreshold;
+  }
+
+  public long getReplicaEjectionTime() {
+    return replicaEjectionTime;
+  }
+
+  /*
+   * How many milliseconds an ejected replica stays out of rotation.
+   */
+  public void setReplicaEjectionTime(long replicaEjectionTime) {
+    this.replicaEjectionTime = replicaEjectionTime;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return new RoutingConnection(this, null, null).getProxyConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return new RoutingConnection(this, username, password).getProxyConnection();
+  }
+
+  /*
+   * Picks the replica for a new connection.
+   *
+   * @param excluded replicas that already failed for this connection, may be null
+   * @return null if no replica is available
+   */
+  Replica chooseReplica(Collection<Replica> excluded) {
+    Replica[] candidates = replicas;
+    if (candidates.length == 0) {
+      return null;
+    }
+    long now = System.nanoTime();
+    if (balancing == ReplicaBalancing.WEIGHTED_ROUND_ROBIN) {
+      return nextWeightedReplica(candidates, excluded, now);
+    }
+    return leastOutstandingReplica(candidates, excluded, now);
+  }
+
+  private Replica leastOutstandingReplica(Replica[] candidates, Collection<Replica> excluded, long now) {
+    // start from a different replica each time, so ties do not all land on the first one
+    int start = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % candidates.length;
+    Replica best = null;
+    long bestOutstanding = 0;
+    for (int i = 0; i < candidates.length; i++) {
+      Replica replica = candidates[(start + i) % candidates.length];
+      if ((excluded != null && excluded.contains(replica)) || !replica.isAvailable(now)) {
+        continue;
+      }
+      long outstanding = replica.getOutstandingCount() + 1;
+      // outstanding / weight < bestOutstanding / best.weight, without the division
+      if (best == null || outstanding * best.getWeight() < bestOutstanding * replica.getWeight()) {
+        best = replica;
+        bestOutstanding = outstanding;
+      }
+    }
+    return best;
+  }
+
+  //平滑加权轮询,和nginx的做法一样
+  private synchronized Replica nextWeightedReplica(Replica[] candidates, Collection<Replica> excluded, long now) {
+    Replica best = null;
+    int totalWeight = 0;
+    for (Replica replica : candidates) {
+      if ((excluded != null && excluded.contains(replica)) || !replica.isAvailable(now)) {
+        continue;
+      }
+      replica.currentWeight += replica.getWeight();
+      totalWeight += replica.getWeight();
+      if (best == null || replica.currentWeight > best.currentWeight) {
+        best = replica;
+      }
+    }
+    if (best != null) {
+      best.currentWeight -= totalWeight;
+    }
+    return best;
+  }
+
+  @Override
+  public void setLoginTimeout(int loginTimeout) throws SQLException {
+    primary.setLoginTimeout(loginTimeout);
+    for (Replica replica : replicas) {
+      replica.getDataSource().setLoginTimeout(loginTimeout);
+    }
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return primary.getLoginTimeout();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter logWriter) throws SQLException {
+    primary.setLogWriter(logWriter);
+    for (Replica replica : replicas) {
+      replica.getDataSource().setLogWriter(logWriter);
+    }
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return primary.getLogWriter();
+  }
+
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    throw new SQLException(getClass().getName() + " is not a wrapper.");
+  }
+
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return false;
+  }
+
+  public Logger getParentLogger() {
+    return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+  }
+
+}
@@ -0,0 +1,141 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.DataSourceException;
+import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
+
+/**
+ * Builds a {@link RoutingDataSource} over pooled data sources.
+ *
+ * <pre>
+ * &lt;dataSource type="ROUTING"&gt;
+ *   &lt;property name="driver" value="org.hsqldb.jdbcDriver"/&gt;
+ *   &lt;property name="primary.url" value="jdbc:hsqldb:hsql://primary/db"/&gt;
+ *   &lt;property name="replicas" value="r1,r2"/&gt;
+ *   &lt;property name="replica.r1.url" value="jdbc:hsqldb:hsql://replica1/db"/&gt;
+ *   &lt;property name="replica.r2.url" value="jdbc:hsqldb:hsql://replica2/db"/&gt;
+ *   &lt;property name="replica.r2.weight" value="2"/&gt;
+ * &lt;/dataSource&gt;
+ * </pre>
+ *
+ * Properties without a prefix are given to every pool, those starting with <code>primary.</code>
+ * or <code>replica.name.</code> to that pool only.
+ */
+public class RoutingDataSourceFactory implements DataSourceFactory {
+
+  private static final String PRIMARY_PREFIX = "primary.";
+  private static final String REPLICA_PREFIX = "replica.";
+  private static final String REPLICAS_PROPERTY = "replicas";
+  private static final String WEIGHT_PROPERTY = "weight";
+  private static final String BALANCING_PROPERTY = "balancing";
+  private static final String LATENCY_THRESHOLD_PROPERTY = "replicaLatencyThreshold";
+  private static final String FAILURE_THRESHOLD_PROPERTY = "replicaFailureThreshold";
+  private static final String EJECTION_TIME_PROPERTY = "replicaEjectionTime";
+
+  private RoutingDataSource dataSource;
+
+  @Override
+  public void setProperties(Properties properties) {
+    Properties commonProperties = new Properties();
+    Properties primaryProperties = new Properties();
+    Map<String, Properties> replicaProperties = new LinkedHashMap<String, Properties>();
+    for (String name : properties.getProperty(REPLICAS_PROPERTY, "").split(",")) {
+      if (name.trim().length() > 0) {
+        replicaProperties.put(name.trim(), new Properties());
+      }
+    }
+
+    //按前缀把属性分给主库和各个从库的连接池
+    for (String propertyName : properties.stringPropertyNames()) {
+      String value = properties.getProperty(propertyName);
+      if (propertyName.startsWith(PRIMARY_PREFIX)) {
+        primaryProperties.setProperty(propertyName.substring(PRIMARY_PREFIX.length()), value);
+      } else if (propertyName.startsWith(REPLICA_PREFIX)) {
+        String rest = propertyName.substring(REPLICA_PREFIX.length());
+        int dot = rest.indexOf('.');
+        Properties target = dot < 0 ? null : replicaProperties.get(rest.substring(0, dot));
+        if (target == null) {
+          throw new DataSourceException("Property " + propertyName + " does not belong to a replica listed in the "
+              + REPLICAS_PROPERTY + " property.");
+        }
+        target.setProperty(rest.substring(dot + 1), value);
+      } else if (!isRoutingProperty(propertyName)) {
+        commonProperties.setProperty(propertyName, value);
+      }
+    }
+
+    dataSource = new RoutingDataSource(newPooledDataSource(commonProperties, primaryProperties));
+    for (Map.Entry<String, Properties> entry : replicaProperties.entrySet()) {
+      String weight = (String) entry.getValue().remove(WEIGHT_PROPERTY);
+      dataSource.addReplica(entry.getKey(), newPooledDataSource(commonProperties, entry.getValue()),
+          weight == null ? 1 : Integer.parseInt(weight));
+    }
+
+    String balancing = properties.getProperty(BALANCING_PROPERTY);
+    if (balancing != null) {
+      try {
+        dataSource.setBalancing(ReplicaBalancing.valueOf(balancing.toUpperCase(Locale.ENGLISH)));
+      } catch (IllegalArgumentException e) {
+        throw new DataSourceException("Unknown replica balancing: " + balancing
+            + ". Expected LEAST_OUTSTANDING or WEIGHTED_ROUND_ROBIN.", e);
+      }
+    }
+    String latencyThreshold = properties.getProperty(LATENCY_THRESHOLD_PROPERTY);
+    if (latencyThreshold != null) {
+      dataSource.setReplicaLatencyThreshold(Long.parseLong(latencyThreshold));
+    }
+    String failureThreshold = properties.getProperty(FAILURE_THRESHOLD_PROPERTY);
+    if (failureThreshold != null) {
+      dataSource.setReplicaFailureThreshold(Integer.parseInt(failureThreshold));
+    }
+    String ejectionTime = properties.getProperty(EJECTION_TIME_PROPERTY);
+    if (ejectionTime != null) {
+      dataSource.setReplicaEjectionTime(Long.parseLong(ejectionTime));
+    }
+  }
+
+  @Override
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+  private boolean isRoutingProperty(String propertyName) {
+    return REPLICAS_PROPERTY.equals(propertyName)
+        || BALANCING_PROPERTY.equals(propertyName)
+        || LATENCY_THRESHOLD_PROPERTY.equals(propertyName)
+        || FAILURE_THRESHOLD_PROPERTY.equals(propertyName)
+        || EJECTION_TIME_PROPERTY.equals(propertyName);
+  }
+
+  private DataSource newPooledDataSource(Properties commonProperties, Properties ownProperties) {
+    Properties properties = new Properties();
+    properties.putAll(commonProperties);
+    properties.putAll(ownProperties);
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    factory.setProperties(properties);
+    return factory.getDataSource();
+  }
+
+}
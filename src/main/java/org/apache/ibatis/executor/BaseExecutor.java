@@ -20,11 +20,14 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.StatementCacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.jdbc.ConnectionLogger;
@@ -32,6 +35,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
@@ -144,15 +148,27 @@ public abstract class BaseExecutor implements Executor {
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     //得到绑定sql
     BoundSql boundSql = ms.getBoundSql(parameter);
-    //创建缓存Key
-    CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+    //创建缓存Key,只有会用到缓存时才创建
+    CacheKey key = isCacheKeyRequired(ms, resultHandler) ? createCacheKey(ms, parameter, rowBounds, boundSql) : null;
     //查询
-    return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    return queryWithCacheKey(ms, parameter, rowBounds, resultHandler, key, boundSql);
  }
 
-  @SuppressWarnings("unchecked")
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+    return queryWithCacheKey(ms, parameter, rowBounds, resultHandler, key, boundSql);
+  }
+
+  /*
+   * Runs a query that no cache looks at, for callers that already know the key is not required.
+   */
+  <E> List<E> queryWithoutCacheKey(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+    return queryWithCacheKey(ms, parameter, rowBounds, resultHandler, null, boundSql);
+  }
+
+  //key为null时不查也不写本地缓存,只在内部使用,不会经过Executor接口
+  @SuppressWarnings("unchecked")
+  private <E> List<E> queryWithCacheKey(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
     ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
     //如果已经关闭，报错
     if (closed) {
@@ -167,7 +183,7 @@ public abstract class BaseExecutor implements Executor {
       //加一,这样递归调用到上面的时候就不会再清局部缓存了
       queryStack++;
       //先根据cachekey从localCache去查
-      list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      list = resultHandler == null && key != null ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {
         //若查到localCache缓存，处理localOutputParameterCache
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
@@ -196,6 +212,23 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  //SqlSession.selectCursor会调用此方法，不读也不写本地缓存
+  @Override
+  public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    ErrorContext.instance().resource(ms.getResource()).activity("executing a cursor query").object(ms.getId());
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    if (ms.getStatementType() == StatementType.CALLABLE) {
+      throw new ExecutorException("Callable statements cannot return a Cursor, their output parameters can only be read once the results are consumed.");
+    }
+    if (queryStack == 0 && ms.isFlushCacheRequired()) {
+      clearLocalCache();
+    }
+    BoundSql boundSql = ms.getBoundSql(parameter);
+    return doQueryCursor(ms, parameter, rowBounds, boundSql);
+  }
+
   //延迟加载，DefaultResultSetHandler.getNestedQueryMappingValue调用.属于嵌套查询，比较高级.
   @Override
   public void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType) {
@@ -218,14 +251,12 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
     //MyBatis 对于其 Key 的生成采取规则为：[mappedStementId + offset + limit + SQL + queryParams + environment]生成一个哈希码
-    cacheKey.update(ms.getId());
-    cacheKey.update(Integer.valueOf(rowBounds.getOffset()));
-    cacheKey.update(Integer.valueOf(rowBounds.getLimit()));
-    cacheKey.update(boundSql.getSql());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
+    Object[] values = new Object[parameterMappings.size()];
+    int count = 0;
+    MetaObject metaObject = null;
     // mimic DefaultParameterHandler logic
     //模仿DefaultParameterHandler的逻辑,不再重复，请参考DefaultParameterHandler
     for (int i = 0; i < parameterMappings.size(); i++) {
@@ -240,18 +271,47 @@ public abstract class BaseExecutor implements Executor {
         } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
           value = parameterObject;
         } else {
-          MetaObject metaObject = configuration.newMetaObject(parameterObject);
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+          }
           value = metaObject.getValue(propertyName);
         }
-        cacheKey.update(value);
+        values[count++] = value;
       }
     }
-    if (configuration.getEnvironment() != null) {
-      // issue #176
-      cacheKey.update(configuration.getEnvironment().getId());
+    if (count < values.length) {
+      // OUT parameters are not part of the key
+      values = Arrays.copyOf(values, count);
     }
-    return cacheKey;
-  }    
+    // issue #176
+    String environmentId = configuration.getEnvironment() != null ? configuration.getEnvironment().getId() : null;
+    return new StatementCacheKey(ms.getId(), rowBounds.getOffset(), rowBounds.getLimit(), boundSql.getSql(), values, environmentId);
+  }
+
+  /*
+   * Tells whether a query will read or write a cache, so its key is worth building.
+   * The local cache is always needed when the results can trigger nested selects, it is what breaks
+   * circular references. Otherwise the key is only used when the results come back as a list and
+   * go to the second level cache or to a local cache that outlives the statement.
+   */
+  static boolean isCacheKeyRequired(MappedStatement ms, ResultHandler resultHandler) {
+    if (resultHandler == null) {
+      if (ms.getCache() != null && ms.isUseCache()) {
+        return true;
+      }
+      if (ms.getConfiguration().getLocalCacheScope() == LocalCacheScope.SESSION) {
+        return true;
+      }
+    }
+    List<ResultMap> resultMaps = ms.getResultMaps();
+    for (int i = 0; i < resultMaps.size(); i++) {
+      ResultMap resultMap = resultMaps.get(i);
+      if (resultMap.hasNestedQueries() || resultMap.hasNestedResultMaps()) {
+        return true;
+      }
+    }
+    return false;
+  }
 
   @Override
   public boolean isCached(MappedStatement ms, CacheKey key) {
@@ -302,6 +362,10 @@ public abstract class BaseExecutor implements Executor {
   protected abstract <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException;
 
+  //queryCursor-->doQueryCursor，返回的游标负责关闭语句
+  protected abstract <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql)
+      throws SQLException;
+
   protected void closeStatement(Statement statement) {
     if (statement != null) {
       try {
@@ -332,6 +396,10 @@ public abstract class BaseExecutor implements Executor {
 
   //从数据库查
   private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+    if (key == null) {
+      // no cache will look at this query
+      return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     List<E> list;
     //先向缓存中放入占位符？？？
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
@@ -17,22 +17,36 @@ package org.apache.ibatis.executor;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  * @author Jeff Butler 
@@ -41,10 +55,25 @@ public class BatchExecutor extends BaseExecutor {
 
   public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
 
+  private static final Log log = LogFactory.getLog(BatchExecutor.class);
+
+  // rough size of a batched row and of a parameter in a driver, on top of the values
+  private static final int ROW_OVERHEAD = 64;
+  private static final int PARAMETER_OVERHEAD = 16;
+
   private final List<Statement> statementList = new ArrayList<Statement>();
+  // the queued rows of the multi-row inserts, null for the statements batched through JDBC
+  private final List<MultiRowInsert> multiRowInsertList = new ArrayList<MultiRowInsert>();
   private final List<BatchResult> batchResultList = new ArrayList<BatchResult>();
+  // with batchGroupBySql, the pending statement of each statement id and SQL
+  private final Map<Object, Integer> statementIndexes = new HashMap<Object, Integer>();
   private String currentSql;
   private MappedStatement currentStatement;
+  // not always the last statement once interleaved statements are grouped
+  private int currentIndex;
+  private int pendingRows;
+  private long pendingBytes;
+  private boolean automaticFlush;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -57,21 +86,59 @@ public class BatchExecutor extends BaseExecutor {
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
     final Statement stmt;
+    Integer index = null;
     if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
-      BatchResult batchResult = batchResultList.get(last);
+      index = currentIndex;
+    } else if (configuration.isBatchGroupBySql()) {
+      //交错的语句，按SQL找回之前的那个批
+      index = statementIndexes.get(getGroupKey(ms, sql));
+    }
+    final MultiRowInsert multiRowInsert;
+    if (index != null) {
+      stmt = statementList.get(index);
+      multiRowInsert = multiRowInsertList.get(index);
+      BatchResult batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection);
-      currentSql = sql;
-      currentStatement = ms;
+      multiRowInsert = newMultiRowInsert(ms, boundSql);
+      if (multiRowInsert == null) {
+        Connection connection = getConnection(ms.getStatementLog());
+        stmt = handler.prepare(connection);
+      } else {
+        //多行insert到flush时才prepare
+        stmt = null;
+      }
+      index = statementList.size();
+      if (configuration.isBatchGroupBySql()) {
+        statementIndexes.put(getGroupKey(ms, sql), index);
+      }
       statementList.add(stmt);
+      multiRowInsertList.add(multiRowInsert);
       batchResultList.add(new BatchResult(ms, sql, parameterObject));
     }
-    handler.parameterize(stmt);
-    handler.batch(stmt);
+    currentIndex = index;
+    currentSql = sql;
+    currentStatement = ms;
+    if (multiRowInsert != null) {
+      multiRowInsert.addRow(configuration, boundSql, parameterObject);
+    } else {
+      handler.parameterize(stmt);
+      handler.batch(stmt);
+    }
+    pendingRows++;
+    if (configuration.getBatchFlushBytes() > 0) {
+      pendingBytes += estimateBytes(configuration, boundSql, parameterObject);
+    }
+    if ((configuration.getBatchFlushRows() > 0 && pendingRows >= configuration.getBatchFlushRows())
+        || (configuration.getBatchFlushBytes() > 0 && pendingBytes >= configuration.getBatchFlushBytes())) {
+      //到达上限，自动flush，结果不再保留
+      automaticFlush = true;
+      try {
+        flushStatements();
+      } finally {
+        automaticFlush = false;
+      }
+    }
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
@@ -92,6 +159,27 @@ public class BatchExecutor extends BaseExecutor {
     }
   }
 
+  @Override
+  protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+    flushStatements();
+    Configuration configuration = ms.getConfiguration();
+    StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
+    Connection connection = getConnection(ms.getStatementLog());
+    Statement stmt = handler.prepare(connection);
+    try {
+      handler.parameterize(stmt);
+      Cursor<E> cursor = handler.<E>queryCursor(stmt);
+      stmt.closeOnCompletion();
+      return cursor;
+    } catch (SQLException e) {
+      closeStatement(stmt);
+      throw e;
+    } catch (RuntimeException e) {
+      closeStatement(stmt);
+      throw e;
+    }
+  }
+
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
@@ -99,9 +187,22 @@ public class BatchExecutor extends BaseExecutor {
       if (isRollback) {
         return Collections.emptyList();
       }
+      final long start = System.nanoTime();
+      int executions = 0;
       for (int i = 0, n = statementList.size(); i < n; i++) {
         Statement stmt = statementList.get(i);
         BatchResult batchResult = batchResultList.get(i);
+        MultiRowInsert multiRowInsert = multiRowInsertList.get(i);
+        if (multiRowInsert != null) {
+          try {
+            executions += executeMultiRowInsert(multiRowInsert, batchResult);
+          } catch (SQLException e) {
+            throw new BatchExecutorException(failureMessage(batchResult, i), toBatchUpdateException(e), results, batchResult);
+          }
+          results.add(batchResult);
+          continue;
+        }
+        executions++;
         try {
           batchResult.setUpdateCounts(stmt.executeBatch());
           MappedStatement ms = batchResult.getMappedStatement();
@@ -116,21 +217,13 @@ public class BatchExecutor extends BaseExecutor {
             }
           }
         } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
-          }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
+          throw new BatchExecutorException(failureMessage(batchResult, i), e, results, batchResult);
         }
         results.add(batchResult);
       }
+      if (!statementList.isEmpty()) {
+        recordFlush(System.nanoTime() - start, executions);
+      }
       return results;
     } finally {
       for (Statement stmt : statementList) {
@@ -138,8 +231,155 @@ public class BatchExecutor extends BaseExecutor {
       }
       currentSql = null;
       statementList.clear();
+      multiRowInsertList.clear();
       batchResultList.clear();
+      statementIndexes.clear();
+      pendingRows = 0;
+      pendingBytes = 0;
+    }
+  }
+
+  private String failureMessage(BatchResult batchResult, int i) {
+    StringBuilder message = new StringBuilder();
+    message.append(batchResult.getMappedStatement().getId())
+        .append(" (batch index #")
+        .append(i + 1)
+        .append(")")
+        .append(" failed.");
+    if (i > 0) {
+      message.append(" ")
+          .append(i)
+          .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+    }
+    return message.toString();
+  }
+
+  /*
+   * Queues the rows of an opted in insert for a multi-row statement when its SQL, its key generator
+   * and the limits of the database allow it.
+   *
+   * @return null to batch the statement through JDBC
+   */
+  private MultiRowInsert newMultiRowInsert(MappedStatement ms, BoundSql boundSql) {
+    if (!ms.isMultiRowInsert() || ms.getSqlCommandType() != SqlCommandType.INSERT || ms.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    final MultiRowInsertLimits limits = MultiRowInsertLimits.forConfiguration(configuration);
+    final Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+      //驱动必须为每一行都返回生成的键，否则键会对不上参数对象
+      if (ms.getKeyProperties() != null && !limits.isAllKeysReturned()) {
+        return null;
+      }
+    } else if (!NoKeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    return MultiRowInsert.parse(boundSql.getSql(), boundSql.getParameterMappings(), limits);
+  }
+
+  /*
+   * Executes the queued rows in statements of up to rowsPerStatement rows. The statement of full
+   * chunks is prepared once and reused, generated keys are read back onto the parameter objects
+   * of each chunk in order.
+   *
+   * @return the number of statements executed
+   */
+  private int executeMultiRowInsert(MultiRowInsert multiRowInsert, BatchResult batchResult) throws SQLException {
+    final MappedStatement ms = batchResult.getMappedStatement();
+    final List<Object> parameterObjects = batchResult.getParameterObjects();
+    final boolean generatesKeys = Jdbc3KeyGenerator.class.equals(ms.getKeyGenerator().getClass());
+    final int rows = multiRowInsert.getRowCount();
+    final int[] updateCounts = new int[rows];
+    int executions = 0;
+    Statement stmt = null;
+    int preparedRows = 0;
+    try {
+      for (int from = 0; from < rows; from += multiRowInsert.getRowsPerStatement()) {
+        final int to = Math.min(rows, from + multiRowInsert.getRowsPerStatement());
+        final BoundSql boundSql = multiRowInsert.bind(configuration, from, to);
+        final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObjects.get(from), RowBounds.DEFAULT, null, boundSql);
+        if (stmt == null || preparedRows != to - from) {
+          closeStatement(stmt);
+          stmt = null;
+          stmt = handler.prepare(getConnection(ms.getStatementLog()));
+          preparedRows = to - from;
+        }
+        handler.parameterize(stmt);
+        ((PreparedStatement) stmt).execute();
+        executions++;
+        //一条语句只有一个总数，按行数对得上才能说每行插入了一条
+        final int updateCount = stmt.getUpdateCount();
+        Arrays.fill(updateCounts, from, to, updateCount == to - from ? 1 : Statement.SUCCESS_NO_INFO);
+        if (generatesKeys) {
+          ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, stmt, parameterObjects.subList(from, to));
+        }
+      }
+    } finally {
+      closeStatement(stmt);
+    }
+    batchResult.setUpdateCounts(updateCounts);
+    return executions;
+  }
+
+  private static BatchUpdateException toBatchUpdateException(SQLException e) {
+    if (e instanceof BatchUpdateException) {
+      return (BatchUpdateException) e;
+    }
+    return new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), new int[0], e);
+  }
+
+  private void recordFlush(long nanos, int executions) {
+    configuration.getBatchMetrics().recordFlush(nanos, executions, pendingRows, automaticFlush);
+    if (log.isDebugEnabled()) {
+      log.debug("Flushed " + executions + " statement(s) with " + pendingRows + " row(s) in "
+          + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms" + (automaticFlush ? ", the batch limit was reached" : ""));
+    }
+  }
+
+  private Object getGroupKey(MappedStatement ms, String sql) {
+    return Arrays.<Object>asList(ms.getId(), sql);
+  }
+
+  /*
+   * Estimates what the parameters of a row take in the driver's batch, reading them the way
+   * DefaultParameterHandler does.
+   */
+  private long estimateBytes(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+    long bytes = ROW_OVERHEAD;
+    final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    MetaObject metaObject = null;
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      final String propertyName = parameterMapping.getProperty();
+      final Object value;
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        value = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        value = null;
+      } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+        value = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        value = metaObject.getValue(propertyName);
+      }
+      bytes += PARAMETER_OVERHEAD + sizeOf(value);
+    }
+    return bytes;
+  }
+
+  private static long sizeOf(Object value) {
+    if (value instanceof CharSequence) {
+      return 2L * ((CharSequence) value).length();
+    } else if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    } else if (value instanceof char[]) {
+      return 2L * ((char[]) value).length;
     }
+    return 8;
   }
 
 }
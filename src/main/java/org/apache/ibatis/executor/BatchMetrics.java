@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.datasource.pooled.LatencyHistogram;
+
+/**
+ * What the batch executors of a configuration flushed: how many times, how many JDBC statements
+ * and rows, and how long each flush took.
+ */
+public class BatchMetrics {
+
+  private final LatencyHistogram flushLatency = new LatencyHistogram();
+  private final AtomicLong automaticFlushCount = new AtomicLong();
+  private final AtomicLong statementCount = new AtomicLong();
+  private final AtomicLong rowCount = new AtomicLong();
+
+  void recordFlush(long nanos, int statements, int rows, boolean automatic) {
+    flushLatency.record(nanos);
+    statementCount.addAndGet(statements);
+    rowCount.addAndGet(rows);
+    if (automatic) {
+      automaticFlushCount.incrementAndGet();
+    }
+  }
+
+  /*
+   * The time of each flush, from the first executeBatch to the last generated key read.
+   */
+  public LatencyHistogram getFlushLatency() {
+    return flushLatency;
+  }
+
+  public long getFlushCount() {
+    return flushLatency.getCount();
+  }
+
+  /*
+   * The flushes started because the pending rows or bytes reached their limit.
+   */
+  public long getAutomaticFlushCount() {
+    return automaticFlushCount.get();
+  }
+
+  public long getStatementCount() {
+    return statementCount.get();
+  }
+
+  public long getRowCount() {
+    return rowCount.get();
+  }
+
+  public void reset() {
+    flushLatency.reset();
+    automaticFlushCount.set(0);
+    statementCount.set(0);
+    rowCount.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return "BatchMetrics[flushes=" + getFlushCount() + ", automaticFlushes=" + getAutomaticFlushCount()
+        + ", statements=" + getStatementCount() + ", rows=" + getRowCount()
+        + ", meanFlushNanos=" + flushLatency.getMean() + ", p99FlushNanos=" + flushLatency.getPercentile(99) + "]";
+  }
+
+}
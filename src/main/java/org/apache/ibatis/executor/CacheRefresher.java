@@ -0,0 +1,181 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Reloads second level cache entries in the background for the refreshAhead setting of
+ * {@link org.apache.ibatis.cache.decorators.ExpiringCache}.
+ *
+ * The parameter values are read when the refresh is requested, so the caller is free to change
+ * its parameter object afterwards. Each reload then runs the query on an executor of its own
+ * configuration, plugins included, and stores the result through a transactional cache. The
+ * ExpiringCache drops it if the cache was flushed since the refresh was requested. A reload that
+ * cannot be queued or fails is dropped too, the entry then simply expires.
+ *
+ * Reloads run on the cache refresh executor of the configuration, by default a small pool of
+ * daemon threads that time out when idle, so nothing keeps running once the configuration is
+ * no longer used.
+ */
+final class CacheRefresher {
+
+  private static final Log log = LogFactory.getLog(CacheRefresher.class);
+
+  private static final int THREADS = 4;
+  private static final int QUEUE_SIZE = 1024;
+  private static final String PARAMETER_PREFIX = "__refresh";
+
+  private CacheRefresher() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static void refresh(final MappedStatement ms, Object parameter, final RowBounds rowBounds, final CacheKey key, BoundSql boundSql,
+      final ExpiringCache.Refresh refresh) {
+    final Configuration configuration = ms.getConfiguration();
+    final BoundSql detached = bind(configuration, boundSql, parameter);
+    try {
+      executorOf(configuration).execute(new Runnable() {
+        @Override
+        public void run() {
+          reload(ms, rowBounds, key, detached, refresh);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Too many pending refreshes, " + key + " of cache " + ms.getCache().getId() + " will expire");
+      }
+    }
+  }
+
+  private static java.util.concurrent.Executor executorOf(Configuration configuration) {
+    synchronized (configuration) {
+      java.util.concurrent.Executor executor = configuration.getCacheRefreshExecutor();
+      if (executor == null) {
+        executor = newExecutor();
+        configuration.setCacheRefreshExecutor(executor);
+      }
+      return executor;
+    }
+  }
+
+  private static java.util.concurrent.Executor newExecutor() {
+    final ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mybatis-cache-refresher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /*
+   * Copies the statement with its parameter values resolved now, renamed to __refresh0,
+   * __refresh1... and set as additional parameters, so it no longer needs the parameter object.
+   */
+  private static BoundSql bind(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+    final List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    final List<ParameterMapping> renamed = new ArrayList<ParameterMapping>(parameterMappings.size());
+    final Object[] values = new Object[parameterMappings.size()];
+    final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    MetaObject metaObject = null;
+    for (int i = 0; i < values.length; i++) {
+      final ParameterMapping mapping = parameterMappings.get(i);
+      final String propertyName = mapping.getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        values[i] = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        values[i] = null;
+      } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+        values[i] = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        values[i] = metaObject.getValue(propertyName);
+      }
+      renamed.add(new ParameterMapping.Builder(configuration, PARAMETER_PREFIX + i, mapping.getTypeHandler())
+          .javaType(mapping.getJavaType())
+          .jdbcType(mapping.getJdbcType())
+          .numericScale(mapping.getNumericScale())
+          .jdbcTypeName(mapping.getJdbcTypeName())
+          .build());
+    }
+    final BoundSql detached = new BoundSql(configuration, boundSql.getSql(), renamed, null);
+    for (int i = 0; i < values.length; i++) {
+      detached.setAdditionalParameter(PARAMETER_PREFIX + i, values[i]);
+    }
+    return detached;
+  }
+
+  private static void reload(MappedStatement ms, RowBounds rowBounds, CacheKey key, BoundSql boundSql, ExpiringCache.Refresh refresh) {
+    Configuration configuration = ms.getConfiguration();
+    Environment environment = configuration.getEnvironment();
+    Cache cache = ms.getCache();
+    if (environment == null || cache == null) {
+      return;
+    }
+    Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+    // 不要CachingExecutor，否则又会命中过期的那条缓存
+    Executor executor = configuration.newExecutor(transaction, ExecutorType.SIMPLE, false);
+    try {
+      List<Object> list = executor.query(ms, null, rowBounds, Executor.NO_RESULT_HANDLER, key, boundSql);
+      TransactionalCacheManager tcm = new TransactionalCacheManager();
+      tcm.putObject(cache, key, list);
+      refresh.begin();
+      try {
+        tcm.commit();
+      } finally {
+        refresh.end();
+      }
+    } catch (Exception e) {
+      log.warn("Could not refresh " + key + " of cache " + cache.getId() + ", it will expire. Cause: " + e);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+}
@@ -21,6 +21,8 @@ import java.util.List;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
@@ -82,11 +84,22 @@ public class CachingExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameterObject);
-	//query时传入一个cachekey参数
+	//query时传入一个cachekey参数,只有会用到缓存时才创建
+    if (!BaseExecutor.isCacheKeyRequired(ms, resultHandler) && delegate instanceof BaseExecutor) {
+      flushCacheIfRequired(ms);
+      return ((BaseExecutor) delegate).queryWithoutCacheKey(ms, parameterObject, rowBounds, resultHandler, boundSql);
+    }
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
     return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  //游标不使用二级缓存，但 flushCache 仍然生效
+  @Override
+  public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    flushCacheIfRequired(ms);
+    return delegate.queryCursor(ms, parameter, rowBounds);
+  }
+
   //被ResultLoader.selectList调用
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql)
@@ -98,8 +111,20 @@ public class CachingExecutor implements Executor {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, parameterObject, boundSql);
-        @SuppressWarnings("unchecked")
-        List<E> list = (List<E>) tcm.getObject(cache, key);
+        List<E> list;
+        ExpiringCache.Refresh refresh;
+        ExpiringCache.listenForRefresh();
+        try {
+          @SuppressWarnings("unchecked")
+          List<E> cached = (List<E>) tcm.getObject(cache, key);
+          list = cached;
+        } finally {
+          refresh = ExpiringCache.takeRefreshRequest(key);
+        }
+        if (refresh != null && list != null) {
+          // still fresh enough to be served, reload it in the background before it expires
+          CacheRefresher.refresh(ms, parameterObject, rowBounds, key, boundSql, refresh);
+        }
         if (list == null) {
           list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
           tcm.putObject(cache, key, list); // issue #578 and #116
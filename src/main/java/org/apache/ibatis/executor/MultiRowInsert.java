@@ -0,0 +1,247 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * The rows a BATCH executor queued for one insert statement and SQL, written out as
+ * INSERT ... VALUES (...), (...) statements of up to a given number of rows.
+ *
+ * The values of a row are read when it is queued, the way DefaultParameterHandler reads them,
+ * and bound later as additional parameters of a composite BoundSql, so the regular
+ * ParameterHandler and type handlers still set them.
+ */
+final class MultiRowInsert {
+
+  private static final String PARAMETER_PREFIX = "__mri";
+
+  // everything up to the row, the row with its placeholders, and what follows it
+  private final String head;
+  private final String row;
+  private final String tail;
+  private final int rowsPerStatement;
+  private final List<List<ParameterMapping>> rowMappings = new ArrayList<List<ParameterMapping>>();
+  private final List<Object[]> rowValues = new ArrayList<Object[]>();
+
+  private MultiRowInsert(String head, String row, String tail, int rowsPerStatement) {
+    this.head = head;
+    this.row = row;
+    this.tail = tail;
+    this.rowsPerStatement = rowsPerStatement;
+  }
+
+  /*
+   * Splits an INSERT ... VALUES (...) into its head, its single row and its tail.
+   *
+   * @return null if the SQL is not a single row insert with all its placeholders in the row,
+   *     or if the limits leave less than 2 rows per statement
+   */
+  static MultiRowInsert parse(String sql, List<ParameterMapping> parameterMappings, MultiRowInsertLimits limits) {
+    for (ParameterMapping parameterMapping : parameterMappings) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    final int rowsPerStatement = limits.getRowsPerStatement(parameterMappings.size());
+    if (rowsPerStatement < 2) {
+      return null;
+    }
+    final int values = findValues(sql);
+    if (values < 0) {
+      return null;
+    }
+    int open = values + "VALUES".length();
+    while (open < sql.length() && Character.isWhitespace(sql.charAt(open))) {
+      open++;
+    }
+    if (open == sql.length() || sql.charAt(open) != '(') {
+      return null;
+    }
+    final int close = findClosingParenthesis(sql, open);
+    if (close < 0) {
+      return null;
+    }
+    final String head = sql.substring(0, open);
+    final String row = sql.substring(open, close + 1);
+    final String tail = sql.substring(close + 1);
+    if (tail.trim().startsWith(",") || countPlaceholders(head) != 0 || countPlaceholders(tail) != 0
+        || countPlaceholders(row) != parameterMappings.size()) {
+      //已经是多行insert，或者VALUES之外还有参数
+      return null;
+    }
+    return new MultiRowInsert(head, row, tail, rowsPerStatement);
+  }
+
+  void addRow(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+    final List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    final Object[] values = new Object[parameterMappings.size()];
+    MetaObject metaObject = null;
+    for (int i = 0; i < values.length; i++) {
+      final String propertyName = parameterMappings.get(i).getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        values[i] = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        values[i] = null;
+      } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+        values[i] = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        values[i] = metaObject.getValue(propertyName);
+      }
+    }
+    rowMappings.add(parameterMappings);
+    rowValues.add(values);
+  }
+
+  int getRowCount() {
+    return rowValues.size();
+  }
+
+  int getRowsPerStatement() {
+    return rowsPerStatement;
+  }
+
+  /*
+   * Builds the statement inserting the rows from (inclusive) to (exclusive), its parameters
+   * renamed to __mri0, __mri1... and set as additional parameters.
+   */
+  BoundSql bind(Configuration configuration, int from, int to) {
+    final StringBuilder sql = new StringBuilder(head.length() + tail.length() + (row.length() + 2) * (to - from));
+    sql.append(head);
+    final List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>();
+    final List<Object> values = new ArrayList<Object>();
+    for (int i = from; i < to; i++) {
+      if (i > from) {
+        sql.append(", ");
+      }
+      sql.append(row);
+      final List<ParameterMapping> mappings = rowMappings.get(i);
+      final Object[] rowValue = rowValues.get(i);
+      for (int j = 0; j < rowValue.length; j++) {
+        parameterMappings.add(rename(configuration, mappings.get(j), PARAMETER_PREFIX + values.size()));
+        values.add(rowValue[j]);
+      }
+    }
+    sql.append(tail);
+    final BoundSql boundSql = new BoundSql(configuration, sql.toString(), parameterMappings, null);
+    for (int i = 0; i < values.size(); i++) {
+      boundSql.setAdditionalParameter(PARAMETER_PREFIX + i, values.get(i));
+    }
+    return boundSql;
+  }
+
+  private static ParameterMapping rename(Configuration configuration, ParameterMapping mapping, String property) {
+    return new ParameterMapping.Builder(configuration, property, mapping.getTypeHandler())
+        .javaType(mapping.getJavaType())
+        .jdbcType(mapping.getJdbcType())
+        .numericScale(mapping.getNumericScale())
+        .jdbcTypeName(mapping.getJdbcTypeName())
+        .build();
+  }
+
+  /*
+   * Finds the VALUES keyword, outside of literals and parentheses, provided there is only one.
+   */
+  private static int findValues(String sql) {
+    int found = -1;
+    int depth = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipLiteral(sql, i);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && (c == 'V' || c == 'v') && sql.regionMatches(true, i, "VALUES", 0, 6)
+          && (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))
+          && (i + 6 == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(i + 6)))) {
+        if (found >= 0) {
+          return -1;
+        }
+        found = i;
+      }
+    }
+    return found;
+  }
+
+  private static int findClosingParenthesis(String sql, int open) {
+    int depth = 0;
+    for (int i = open; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipLiteral(sql, i);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countPlaceholders(String sql) {
+    int count = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipLiteral(sql, i);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /*
+   * @return the index of the closing quote, a doubled quote being part of the literal, or -1
+   */
+  private static int skipLiteral(String sql, int start) {
+    final char quote = sql.charAt(start);
+    for (int i = start + 1; i < sql.length(); i++) {
+      if (sql.charAt(i) == quote) {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+          i++;
+        } else {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * How many rows and bind parameters a multi-row INSERT may carry on a database, and whether its
+ * driver returns one generated key per inserted row, looked up by the configured databaseId.
+ *
+ * The maxRows and maxParameters settings override the database defaults.
+ */
+final class MultiRowInsertLimits {
+
+  // an unknown database gets small statements and keeps classic batching when keys are generated
+  private static final MultiRowInsertLimits DEFAULT = new MultiRowInsertLimits(100, 1000, false);
+  private static final Map<String, MultiRowInsertLimits> DATABASES = new HashMap<String, MultiRowInsertLimits>();
+
+  static {
+    // no VALUES (...), (...) row lists
+    DATABASES.put("oracle", new MultiRowInsertLimits(0, 0, false));
+    // 1000 rows per VALUES clause, 2100 parameters per request, and only the last identity comes back
+    DATABASES.put("sqlserver", new MultiRowInsertLimits(1000, 2000, false));
+    DATABASES.put("mysql", new MultiRowInsertLimits(1000, 65535, true));
+    DATABASES.put("mariadb", new MultiRowInsertLimits(1000, 65535, true));
+    DATABASES.put("postgresql", new MultiRowInsertLimits(1000, 32767, true));
+    DATABASES.put("hsqldb", new MultiRowInsertLimits(1000, 32767, true));
+    DATABASES.put("h2", new MultiRowInsertLimits(1000, 32767, false));
+    // IDENTITY_VAL_LOCAL only knows about one row
+    DATABASES.put("derby", new MultiRowInsertLimits(1000, 32767, false));
+    DATABASES.put("db2", new MultiRowInsertLimits(1000, 32767, false));
+    DATABASES.put("sqlite", new MultiRowInsertLimits(500, 999, false));
+  }
+
+  private final int maxRows;
+  private final int maxParameters;
+  private final boolean allKeysReturned;
+
+  MultiRowInsertLimits(int maxRows, int maxParameters, boolean allKeysReturned) {
+    this.maxRows = maxRows;
+    this.maxParameters = maxParameters;
+    this.allKeysReturned = allKeysReturned;
+  }
+
+  static MultiRowInsertLimits forConfiguration(Configuration configuration) {
+    MultiRowInsertLimits limits = forDatabaseId(configuration.getDatabaseId());
+    if (configuration.getMultiRowInsertMaxRows() > 0 || configuration.getMultiRowInsertMaxParameters() > 0) {
+      limits = new MultiRowInsertLimits(
+          configuration.getMultiRowInsertMaxRows() > 0 ? configuration.getMultiRowInsertMaxRows() : limits.maxRows,
+          configuration.getMultiRowInsertMaxParameters() > 0 ? configuration.getMultiRowInsertMaxParameters() : limits.maxParameters,
+          limits.allKeysReturned);
+    }
+    return limits;
+  }
+
+  static MultiRowInsertLimits forDatabaseId(String databaseId) {
+    if (databaseId == null) {
+      return DEFAULT;
+    }
+    MultiRowInsertLimits limits = DATABASES.get(databaseId.toLowerCase(Locale.ENGLISH));
+    return limits == null ? DEFAULT : limits;
+  }
+
+  /*
+   * Gets the rows one statement may carry with the given parameters per row.
+   *
+   * @return the number of rows, less than 2 if rewriting does not pay off or is not possible
+   */
+  int getRowsPerStatement(int parametersPerRow) {
+    if (parametersPerRow == 0) {
+      return maxRows;
+    }
+    return Math.min(maxRows, maxParameters / parametersPerRow);
+  }
+
+  boolean isAllKeysReturned() {
+    return allKeysReturned;
+  }
+
+}
@@ -17,14 +17,12 @@ package org.apache.ibatis.executor.loader;
 
 import java.lang.reflect.Method;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import org.apache.ibatis.executor.ExecutorException;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.property.PropertyCopier;
-import org.apache.ibatis.reflection.property.PropertyNamer;
 
 /**
  * @author Clinton Begin
@@ -34,6 +32,7 @@ public abstract class AbstractEnhancedDeserializationProxy {
   protected static final String FINALIZE_METHOD = "finalize";
   protected static final String WRITE_REPLACE_METHOD = "writeReplace";
   private Class<?> type;
+  private LazyLoadPlan plan;
   private Map<String, ResultLoaderMap.LoadPair> unloadedProperties;
   private ObjectFactory objectFactory;
   private List<Class<?>> constructorArgTypes;
@@ -44,6 +43,7 @@ public abstract class AbstractEnhancedDeserializationProxy {
   protected AbstractEnhancedDeserializationProxy(Class<?> type, Map<String, ResultLoaderMap.LoadPair> unloadedProperties,
           ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
     this.type = type;
+    this.plan = LazyLoadPlan.forType(type);
     this.unloadedProperties = unloadedProperties;
     this.objectFactory = objectFactory;
     this.constructorArgTypes = constructorArgTypes;
@@ -53,9 +53,9 @@ public abstract class AbstractEnhancedDeserializationProxy {
   }
 
   public final Object invoke(Object enhanced, Method method, Object[] args) throws Throwable {
-    final String methodName = method.getName();
+    final LazyLoadPlan.LazyMethod lazyMethod = plan.getMethod(method);
     try {
-      if (WRITE_REPLACE_METHOD.equals(methodName)) {
+      if (lazyMethod.isWriteReplace()) {
         final Object original;
         if (constructorArgTypes.isEmpty()) {
           original = objectFactory.create(type);
@@ -67,9 +67,9 @@ public abstract class AbstractEnhancedDeserializationProxy {
         return this.newSerialStateHolder(original, unloadedProperties, objectFactory, constructorArgTypes, constructorArgs);
       } else {
         synchronized (this.reloadingPropertyLock) {
-          if (!FINALIZE_METHOD.equals(methodName) && PropertyNamer.isProperty(methodName) && !reloadingProperty) {
-            final String property = PropertyNamer.methodToProperty(methodName);
-            final String propertyKey = property.toUpperCase(Locale.ENGLISH);
+          if (!lazyMethod.isFinalizer() && lazyMethod.getPropertyKey() != null && !reloadingProperty) {
+            final String property = lazyMethod.getProperty();
+            final String propertyKey = lazyMethod.getPropertyKey();
             if (unloadedProperties.containsKey(propertyKey)) {
               final ResultLoaderMap.LoadPair loadPair = unloadedProperties.remove(propertyKey);
               if (loadPair != null) {
@@ -0,0 +1,280 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+
+/**
+ * Loads the nested select of a property for many owners with a single statement.
+ *
+ * The keys of all the owners are passed to the nested statement as a list, named <code>list</code>
+ * and <code>collection</code> like a List parameter of a SqlSession method, so the statement usually
+ * builds an <code>IN (...)</code> clause with a foreach. The returned rows are given back to their
+ * owners by comparing the values of the foreignColumn (or, if not set, of the column) of each row
+ * with the keys.
+ */
+public class BatchResultLoader {
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final MappedStatement mappedStatement;
+  private final ResultMapping resultMapping;
+  private final ResultExtractor resultExtractor;
+
+  //key -> 参数，重复的key只查一次
+  private final Map<Object, Object> parameters = new LinkedHashMap<Object, Object>();
+  private final List<Target> targets = new ArrayList<Target>();
+  private Map<Object, List<Object>> results;
+
+  public BatchResultLoader(Configuration configuration, Executor executor, MappedStatement mappedStatement, ResultMapping resultMapping) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.mappedStatement = mappedStatement;
+    this.resultMapping = resultMapping;
+    this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+  }
+
+  /*
+   * A batch takes no more keys once it holds batchSize of them or once it has been loaded.
+   */
+  public synchronized boolean isFull() {
+    return results != null || parameters.size() >= resultMapping.getBatchSize();
+  }
+
+  /*
+   * Adds the key of an owner that loads lazily.
+   *
+   * @return the loader to register in the ResultLoaderMap of the owner, the first one of the
+   *         batch to be called loads every owner of the batch
+   */
+  public synchronized ResultLoader addLoader(Object parameterObject, Class<?> targetType) {
+    return new BatchMemberLoader(this, addParameter(parameterObject), parameterObject, targetType);
+  }
+
+  /*
+   * Adds the key of an owner that loads eagerly, the property is set by {@link #load()}.
+   */
+  public synchronized void addTarget(MetaObject metaResultObject, String property, Object parameterObject, Class<?> targetType) {
+    targets.add(new Target(metaResultObject, property, addParameter(parameterObject), targetType));
+  }
+
+  /*
+   * Runs the batch, if not done yet, and sets the property of every eager owner.
+   */
+  public void load() throws SQLException {
+    if (targets.isEmpty()) {
+      return;
+    }
+    Target first = targets.get(0);
+    BatchMemberLoader loader = new BatchMemberLoader(this, first.key, parameters.get(first.key), first.targetType);
+    for (Target target : targets) {
+      target.metaResultObject.setValue(target.property,
+          resultExtractor.extractObjectFromList(getResults(target.key, loader), target.targetType));
+    }
+    targets.clear();
+  }
+
+  private Object addParameter(Object parameterObject) {
+    Object key = createParameterKey(parameterObject);
+    if (!parameters.containsKey(key)) {
+      parameters.put(key, parameterObject);
+    }
+    return key;
+  }
+
+  private synchronized List<Object> getResults(Object key, BatchMemberLoader loader) throws SQLException {
+    if (results == null) {
+      Object parameterObject = wrapParameters(new ArrayList<Object>(parameters.values()));
+      BoundSql boundSql = mappedStatement.getBoundSql(parameterObject);
+      //由发起加载的ResultLoader来决定用哪个Executor
+      results = groupResults(loader.<Object> selectList(parameterObject, null, boundSql));
+    }
+    List<Object> list = results.get(key);
+    //每个owner一个新的list，重复的key不会共享同一个集合
+    return list == null ? new ArrayList<Object>() : new ArrayList<Object>(list);
+  }
+
+  private Map<Object, List<Object>> groupResults(List<Object> rows) {
+    Map<Object, List<Object>> grouped = new HashMap<Object, List<Object>>();
+    String[] foreignProperties = null;
+    for (Object row : rows) {
+      if (row == null) {
+        continue;
+      }
+      MetaObject metaRow = configuration.newMetaObject(row);
+      if (foreignProperties == null) {
+        foreignProperties = resolveForeignProperties(metaRow);
+      }
+      Object key;
+      if (!resultMapping.isCompositeResult()) {
+        key = normalize(metaRow.getValue(foreignProperties[0]));
+      } else {
+        List<Object> values = new ArrayList<Object>(foreignProperties.length);
+        for (String property : foreignProperties) {
+          values.add(normalize(metaRow.getValue(property)));
+        }
+        key = values;
+      }
+      List<Object> list = grouped.get(key);
+      if (list == null) {
+        list = new ArrayList<Object>();
+        grouped.put(key, list);
+      }
+      list.add(row);
+    }
+    return grouped;
+  }
+
+  private String[] resolveForeignProperties(MetaObject metaRow) {
+    String[] columns = getForeignColumns();
+    String[] properties = new String[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      String property = findMappedProperty(columns[i]);
+      if (property == null) {
+        property = metaRow.findProperty(columns[i], configuration.isMapUnderscoreToCamelCase());
+      }
+      if (property == null || !metaRow.hasGetter(property)) {
+        throw new ExecutorException("Could not find a property of " + metaRow.getOriginalObject().getClass().getName()
+            + " for the column '" + columns[i] + "' returned by the batched nested query '" + mappedStatement.getId()
+            + "'. Set the foreignColumn attribute of the property '" + resultMapping.getProperty() + "' to the column of the nested query that holds the key.");
+      }
+      properties[i] = property;
+    }
+    return properties;
+  }
+
+  private String[] getForeignColumns() {
+    if (resultMapping.getForeignColumn() != null) {
+      String[] columns = resultMapping.getForeignColumn().split(",");
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = columns[i].trim();
+      }
+      return columns;
+    } else if (resultMapping.isCompositeResult()) {
+      List<ResultMapping> composites = resultMapping.getComposites();
+      String[] columns = new String[composites.size()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = composites.get(i).getColumn();
+      }
+      return columns;
+    } else {
+      return new String[] { resultMapping.getColumn() };
+    }
+  }
+
+  private String findMappedProperty(String column) {
+    for (ResultMap resultMap : mappedStatement.getResultMaps()) {
+      for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+        if (mapping.getProperty() != null && column.equalsIgnoreCase(mapping.getColumn())) {
+          return mapping.getProperty();
+        }
+      }
+    }
+    return null;
+  }
+
+  private Object createParameterKey(Object parameterObject) {
+    if (!resultMapping.isCompositeResult()) {
+      return normalize(parameterObject);
+    }
+    MetaObject metaParameter = configuration.newMetaObject(parameterObject);
+    List<Object> values = new ArrayList<Object>();
+    for (ResultMapping composite : resultMapping.getComposites()) {
+      values.add(normalize(metaParameter.getValue(composite.getProperty())));
+    }
+    return values;
+  }
+
+  //参数和结果里的数字类型可能不一样，比如Integer和Long，统一了再比较
+  private static Object normalize(Object value) {
+    if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+      return ((Number) value).longValue();
+    } else if (value instanceof BigInteger || value instanceof BigDecimal) {
+      BigDecimal decimal = new BigDecimal(value.toString()).stripTrailingZeros();
+      try {
+        return decimal.longValueExact();
+      } catch (ArithmeticException e) {
+        return decimal;
+      }
+    }
+    return value;
+  }
+
+  private static Object wrapParameters(List<Object> parameters) {
+    StrictMap<Object> map = new StrictMap<Object>();
+    map.put("collection", parameters);
+    map.put("list", parameters);
+    return map;
+  }
+
+  private static class Target {
+    private final MetaObject metaResultObject;
+    private final String property;
+    private final Object key;
+    private final Class<?> targetType;
+
+    private Target(MetaObject metaResultObject, String property, Object key, Class<?> targetType) {
+      this.metaResultObject = metaResultObject;
+      this.property = property;
+      this.key = key;
+      this.targetType = targetType;
+    }
+  }
+
+  /*
+   * The lazy loader of a single owner. Its own parameter is a batch of one, so it still works
+   * on its own once the owner has been serialized and the batch is gone.
+   */
+  private static class BatchMemberLoader extends ResultLoader {
+
+    private final BatchResultLoader batch;
+    private final Object key;
+
+    private BatchMemberLoader(BatchResultLoader batch, Object key, Object parameterObject, Class<?> targetType) {
+      super(batch.configuration, batch.executor, batch.mappedStatement, wrapParameters(Collections.singletonList(parameterObject)),
+          targetType, null, null);
+      this.batch = batch;
+      this.key = key;
+    }
+
+    @Override
+    public Object loadResult() throws SQLException {
+      resultObject = resultExtractor.extractObjectFromList(batch.getResults(key, this), targetType);
+      return resultObject;
+    }
+
+  }
+
+}
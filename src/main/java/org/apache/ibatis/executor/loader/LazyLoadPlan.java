@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+/**
+ * What an intercepted method of a lazy loading proxy has to do, worked out once per result type.
+ *
+ * The proxies call {@link #getMethod(Method)} on every invocation instead of comparing the method
+ * name with the special methods and turning getters and setters into property names each time.
+ */
+public final class LazyLoadPlan {
+
+  private static final String FINALIZE_METHOD = "finalize";
+  private static final String WRITE_REPLACE_METHOD = "writeReplace";
+
+  private static final ConcurrentMap<Class<?>, LazyLoadPlan> plans = new ConcurrentHashMap<Class<?>, LazyLoadPlan>();
+
+  private final ConcurrentMap<Method, LazyMethod> methods = new ConcurrentHashMap<Method, LazyMethod>();
+
+  private LazyLoadPlan(Class<?> type) {
+    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+      for (Method method : current.getDeclaredMethods()) {
+        if (!Modifier.isStatic(method.getModifiers())) {
+          methods.put(method, new LazyMethod(method.getName()));
+        }
+      }
+    }
+    for (Method method : type.getMethods()) {
+      if (!methods.containsKey(method)) {
+        methods.put(method, new LazyMethod(method.getName()));
+      }
+    }
+  }
+
+  public static LazyLoadPlan forType(Class<?> type) {
+    LazyLoadPlan plan = plans.get(type);
+    if (plan == null) {
+      LazyLoadPlan created = new LazyLoadPlan(type);
+      plan = plans.putIfAbsent(type, created);
+      if (plan == null) {
+        plan = created;
+      }
+    }
+    return plan;
+  }
+
+  public LazyMethod getMethod(Method method) {
+    LazyMethod lazyMethod = methods.get(method);
+    if (lazyMethod == null) {
+      // 代理类额外实现的接口方法，比如WriteReplaceInterface
+      lazyMethod = new LazyMethod(method.getName());
+      methods.putIfAbsent(method, lazyMethod);
+    }
+    return lazyMethod;
+  }
+
+  public static final class LazyMethod {
+
+    private final String name;
+    private final boolean writeReplace;
+    private final boolean finalizer;
+    private final String property;
+    private final String propertyKey;
+
+    private LazyMethod(String name) {
+      this.name = name;
+      this.writeReplace = WRITE_REPLACE_METHOD.equals(name);
+      this.finalizer = FINALIZE_METHOD.equals(name);
+      this.property = PropertyNamer.isProperty(name) ? PropertyNamer.methodToProperty(name) : null;
+      // the same key ResultLoaderMap uses for the loaders, the property upper cased
+      this.propertyKey = property == null ? null : property.toUpperCase(Locale.ENGLISH);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isWriteReplace() {
+      return writeReplace;
+    }
+
+    public boolean isFinalizer() {
+      return finalizer;
+    }
+
+    public String getProperty() {
+      return property;
+    }
+
+    /*
+     * Gets the upper cased property read or written by a getter or a setter.
+     *
+     * @return the key of the property in the ResultLoaderMap, null for other methods
+     */
+    public String getPropertyKey() {
+      return propertyKey;
+    }
+  }
+
+}
@@ -80,12 +80,19 @@ public class ResultLoader {
   }
 
   private <E> List<E> selectList() throws SQLException {
+    return selectList(parameterObject, cacheKey, boundSql);
+  }
+
+  protected <E> List<E> selectList(Object parameterObject, CacheKey cacheKey, BoundSql boundSql) throws SQLException {
     Executor localExecutor = executor;
     //如果executor已经被关闭了，则创建一个新的
     if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
       localExecutor = newExecutor();
     }
     try {
+      if (cacheKey == null && boundSql != null) {
+        cacheKey = localExecutor.createCacheKey(mappedStatement, parameterObject, RowBounds.DEFAULT, boundSql);
+      }
       //又调回Executor.query去了，比较巧妙
       return localExecutor.<E> query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
     } finally {
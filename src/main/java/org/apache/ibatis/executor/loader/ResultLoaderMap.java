@@ -28,6 +28,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BaseExecutor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ExecutorException;
@@ -86,8 +87,13 @@ public class ResultLoaderMap {
   }
 
   public boolean load(String property) throws SQLException {
+    return loadByKey(property.toUpperCase(Locale.ENGLISH));
+  }
+
+  //按已经转成大写的key加载,LazyLoadPlan里预先算好了key,不用每次再转
+  public boolean loadByKey(String propertyKey) throws SQLException {
 	//先删除key，防止第二次又去查数据库就不对了
-    LoadPair pair = loaderMap.remove(property.toUpperCase(Locale.ENGLISH));
+    LoadPair pair = loaderMap.remove(propertyKey);
     if (pair != null) {
       //去数据库查
       pair.load();
@@ -100,7 +106,7 @@ public class ResultLoaderMap {
     final Set<String> methodNameSet = loaderMap.keySet();
     String[] methodNames = methodNameSet.toArray(new String[methodNameSet.size()]);
     for (String methodName : methodNames) {
-      load(methodName);
+      loadByKey(methodName);
     }
   }
 
@@ -311,5 +317,10 @@ public class ResultLoaderMap {
     protected <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
       throw new UnsupportedOperationException("Not supported.");
     }
+
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+      throw new UnsupportedOperationException("Not supported.");
+    }
   }
 }
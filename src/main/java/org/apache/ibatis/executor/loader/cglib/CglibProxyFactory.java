@@ -15,12 +15,18 @@
  */
 package org.apache.ibatis.executor.loader.cglib;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import net.sf.cglib.core.CodeGenerationException;
 import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
@@ -28,6 +34,7 @@ import net.sf.cglib.proxy.MethodProxy;
 
 import org.apache.ibatis.executor.loader.AbstractEnhancedDeserializationProxy;
 import org.apache.ibatis.executor.loader.AbstractSerialStateHolder;
+import org.apache.ibatis.executor.loader.LazyLoadPlan;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.loader.WriteReplaceInterface;
@@ -37,7 +44,6 @@ import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.property.PropertyCopier;
-import org.apache.ibatis.reflection.property.PropertyNamer;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -49,8 +55,11 @@ import org.apache.ibatis.session.Configuration;
 public class CglibProxyFactory implements ProxyFactory {
 
   private static final Log log = LogFactory.getLog(CglibProxyFactory.class);
-  private static final String FINALIZE_METHOD = "finalize";
   private static final String WRITE_REPLACE_METHOD = "writeReplace";
+  private static final String SET_THREAD_CALLBACKS_METHOD = "CGLIB$SET_THREAD_CALLBACKS";
+
+  // 每个结果类型只生成一次代理类
+  private static final ConcurrentMap<Class<?>, EnhancedType> enhancedTypes = new ConcurrentHashMap<Class<?>, EnhancedType>();
 
   public CglibProxyFactory() {
     try {
@@ -76,9 +85,45 @@ public class CglibProxyFactory implements ProxyFactory {
   }
 
   static Object crateProxy(Class<?> type, Callback callback, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+    Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
+    Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
+    EnhancedType enhancedType = getEnhancedType(type);
+    Callback[] callbacks = new Callback[] { callback };
+    try {
+      Constructor<?> constructor = enhancedType.getConstructor(constructorArgTypes, typesArray);
+      // 和Enhancer.create()一样，构造时就已经有callback了
+      enhancedType.threadCallbacksSetter.invoke(null, new Object[] { callbacks });
+      try {
+        return constructor.newInstance(valuesArray);
+      } finally {
+        enhancedType.threadCallbacksSetter.invoke(null, new Object[] { null });
+      }
+    } catch (InvocationTargetException e) {
+      throw new CodeGenerationException(e.getTargetException());
+    } catch (Exception e) {
+      throw new CodeGenerationException(e);
+    }
+  }
+
+  /*
+   * Gets the proxy class of the type, generating it only the first time.
+   */
+  private static EnhancedType getEnhancedType(Class<?> type) {
+    EnhancedType enhancedType = enhancedTypes.get(type);
+    if (enhancedType == null) {
+      EnhancedType created = new EnhancedType(createProxyClass(type));
+      enhancedType = enhancedTypes.putIfAbsent(type, created);
+      if (enhancedType == null) {
+        enhancedType = created;
+      }
+    }
+    return enhancedType;
+  }
+
+  private static Class<?> createProxyClass(Class<?> type) {
     //核心就是用cglib的Enhancer
-	Enhancer enhancer = new Enhancer();
-    enhancer.setCallback(callback);
+    Enhancer enhancer = new Enhancer();
+    enhancer.setCallbackType(MethodInterceptor.class);
     enhancer.setSuperclass(type);
     try {
       type.getDeclaredMethod(WRITE_REPLACE_METHOD);
@@ -89,20 +134,44 @@ public class CglibProxyFactory implements ProxyFactory {
     } catch (SecurityException e) {
       // nothing to do here
     }
-    Object enhanced = null;
-    if (constructorArgTypes.isEmpty()) {
-      enhanced = enhancer.create();
-    } else {
-      Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
-      Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
-      enhanced = enhancer.create(typesArray, valuesArray);
+    return enhancer.createClass();
+  }
+
+  /*
+   * The generated proxy class of a result type, its constructors by argument types and the static
+   * method that hands the callbacks to the next instance created by this thread.
+   */
+  private static class EnhancedType {
+
+    private final Class<?> proxyClass;
+    private final Method threadCallbacksSetter;
+    private final ConcurrentMap<List<Class<?>>, Constructor<?>> constructors = new ConcurrentHashMap<List<Class<?>>, Constructor<?>>();
+
+    private EnhancedType(Class<?> proxyClass) {
+      this.proxyClass = proxyClass;
+      try {
+        this.threadCallbacksSetter = proxyClass.getDeclaredMethod(SET_THREAD_CALLBACKS_METHOD, Callback[].class);
+        this.threadCallbacksSetter.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        throw new CodeGenerationException(e);
+      }
+    }
+
+    private Constructor<?> getConstructor(List<Class<?>> constructorArgTypes, Class<?>[] typesArray) throws NoSuchMethodException {
+      Constructor<?> constructor = constructors.get(constructorArgTypes);
+      if (constructor == null) {
+        constructor = proxyClass.getDeclaredConstructor(typesArray);
+        constructor.setAccessible(true);
+        constructors.putIfAbsent(new ArrayList<Class<?>>(constructorArgTypes), constructor);
+      }
+      return constructor;
     }
-    return enhanced;
   }
 
   private static class EnhancedResultObjectProxyImpl implements MethodInterceptor {
 
     private Class<?> type;
+    private LazyLoadPlan plan;
     private ResultLoaderMap lazyLoader;
     private boolean aggressive;
     private Set<String> lazyLoadTriggerMethods;
@@ -112,6 +181,7 @@ public class CglibProxyFactory implements ProxyFactory {
 
     private EnhancedResultObjectProxyImpl(Class<?> type, ResultLoaderMap lazyLoader, Configuration configuration, ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
       this.type = type;
+      this.plan = LazyLoadPlan.forType(type);
       this.lazyLoader = lazyLoader;
       this.aggressive = configuration.isAggressiveLazyLoading();
       this.lazyLoadTriggerMethods = configuration.getLazyLoadTriggerMethods();
@@ -131,10 +201,10 @@ public class CglibProxyFactory implements ProxyFactory {
     //核心就是反调intercept
     @Override
     public Object intercept(Object enhanced, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
-      final String methodName = method.getName();
+      final LazyLoadPlan.LazyMethod lazyMethod = plan.getMethod(method);
       try {
         synchronized (lazyLoader) {
-          if (WRITE_REPLACE_METHOD.equals(methodName)) {
+          if (lazyMethod.isWriteReplace()) {
             Object original = null;
             if (constructorArgTypes.isEmpty()) {
               original = objectFactory.create(type);
@@ -149,15 +219,12 @@ public class CglibProxyFactory implements ProxyFactory {
             }
           } else {
         	//这里是关键，延迟加载就是调用ResultLoaderMap.loadAll()
-            if (lazyLoader.size() > 0 && !FINALIZE_METHOD.equals(methodName)) {
-              if (aggressive || lazyLoadTriggerMethods.contains(methodName)) {
+            if (lazyLoader.size() > 0 && !lazyMethod.isFinalizer()) {
+              if (aggressive || lazyLoadTriggerMethods.contains(lazyMethod.getName())) {
                 lazyLoader.loadAll();
-              } else if (PropertyNamer.isProperty(methodName)) {
-              	//或者调用ResultLoaderMap.load()
-                final String property = PropertyNamer.methodToProperty(methodName);
-                if (lazyLoader.hasLoader(property)) {
-                  lazyLoader.load(property);
-                }
+              } else if (lazyMethod.getPropertyKey() != null) {
+              	//或者调用ResultLoaderMap.loadByKey()
+                lazyLoader.loadByKey(lazyMethod.getPropertyKey());
               }
             }
           }
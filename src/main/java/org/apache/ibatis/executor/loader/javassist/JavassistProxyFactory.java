@@ -15,11 +15,15 @@
  */
 package org.apache.ibatis.executor.loader.javassist;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javassist.util.proxy.MethodHandler;
 import javassist.util.proxy.Proxy;
@@ -28,6 +32,7 @@ import javassist.util.proxy.ProxyFactory;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.AbstractEnhancedDeserializationProxy;
 import org.apache.ibatis.executor.loader.AbstractSerialStateHolder;
+import org.apache.ibatis.executor.loader.LazyLoadPlan;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.loader.WriteReplaceInterface;
 import org.apache.ibatis.io.Resources;
@@ -36,7 +41,6 @@ import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.property.PropertyCopier;
-import org.apache.ibatis.reflection.property.PropertyNamer;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -48,9 +52,11 @@ import org.apache.ibatis.session.Configuration;
 public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.ProxyFactory {
 
   private static final Log log = LogFactory.getLog(JavassistProxyFactory.class);
-  private static final String FINALIZE_METHOD = "finalize";
   private static final String WRITE_REPLACE_METHOD = "writeReplace";
 
+  // 每个结果类型只生成一次代理类
+  private static final ConcurrentMap<Class<?>, EnhancedType> enhancedTypes = new ConcurrentHashMap<Class<?>, EnhancedType>();
+
   public JavassistProxyFactory() {
     try {
       //先检查是否有javassist
@@ -75,7 +81,39 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
   }
 
   static Object crateProxy(Class<?> type, MethodHandler callback, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+    Object enhanced = null;
+    Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
+    Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
+    try {
+      enhanced = getProxyConstructor(type, constructorArgTypes, typesArray).newInstance(valuesArray);
+    } catch (Exception e) {
+      throw new ExecutorException("Error creating lazy proxy.  Cause: " + e, e);
+    }
+    ((Proxy) enhanced).setHandler(callback);
+    return enhanced;
+  }
 
+  /*
+   * Gets the constructor of the proxy class of the type, generating the class only the first time.
+   */
+  private static Constructor<?> getProxyConstructor(Class<?> type, List<Class<?>> constructorArgTypes, Class<?>[] typesArray) throws NoSuchMethodException {
+    EnhancedType enhancedType = enhancedTypes.get(type);
+    if (enhancedType == null) {
+      EnhancedType created = new EnhancedType(createProxyClass(type));
+      enhancedType = enhancedTypes.putIfAbsent(type, created);
+      if (enhancedType == null) {
+        enhancedType = created;
+      }
+    }
+    Constructor<?> constructor = enhancedType.constructors.get(constructorArgTypes);
+    if (constructor == null) {
+      constructor = enhancedType.proxyClass.getConstructor(typesArray);
+      enhancedType.constructors.putIfAbsent(new ArrayList<Class<?>>(constructorArgTypes), constructor);
+    }
+    return constructor;
+  }
+
+  private static Class<?> createProxyClass(Class<?> type) {
     //核心就是用javassist的ProxyFactory,没啥可说的，下面逻辑都是cglib的翻版
     ProxyFactory enhancer = new ProxyFactory();
     enhancer.setSuperclass(type);
@@ -90,21 +128,30 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
       // nothing to do here
     }
 
-    Object enhanced = null;
-    Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
-    Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
     try {
-      enhanced = enhancer.create(typesArray, valuesArray);
-    } catch (Exception e) {
+      return enhancer.createClass();
+    } catch (RuntimeException e) {
       throw new ExecutorException("Error creating lazy proxy.  Cause: " + e, e);
     }
-    ((Proxy) enhanced).setHandler(callback);
-    return enhanced;
+  }
+
+  /*
+   * The generated proxy class of a result type and its constructors by argument types.
+   */
+  private static class EnhancedType {
+
+    private final Class<?> proxyClass;
+    private final ConcurrentMap<List<Class<?>>, Constructor<?>> constructors = new ConcurrentHashMap<List<Class<?>>, Constructor<?>>();
+
+    private EnhancedType(Class<?> proxyClass) {
+      this.proxyClass = proxyClass;
+    }
   }
 
   private static class EnhancedResultObjectProxyImpl implements MethodHandler {
 
     private Class<?> type;
+    private LazyLoadPlan plan;
     private ResultLoaderMap lazyLoader;
     private boolean aggressive;
     private Set<String> lazyLoadTriggerMethods;
@@ -114,6 +161,7 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
 
     private EnhancedResultObjectProxyImpl(Class<?> type, ResultLoaderMap lazyLoader, Configuration configuration, ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
       this.type = type;
+      this.plan = LazyLoadPlan.forType(type);
       this.lazyLoader = lazyLoader;
       this.aggressive = configuration.isAggressiveLazyLoading();
       this.lazyLoadTriggerMethods = configuration.getLazyLoadTriggerMethods();
@@ -132,10 +180,10 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
 
     @Override
     public Object invoke(Object enhanced, Method method, Method methodProxy, Object[] args) throws Throwable {
-      final String methodName = method.getName();
+      final LazyLoadPlan.LazyMethod lazyMethod = plan.getMethod(method);
       try {
         synchronized (lazyLoader) {
-          if (WRITE_REPLACE_METHOD.equals(methodName)) {
+          if (lazyMethod.isWriteReplace()) {
             Object original = null;
             if (constructorArgTypes.isEmpty()) {
               original = objectFactory.create(type);
@@ -149,14 +197,11 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
               return original;
             }
           } else {
-            if (lazyLoader.size() > 0 && !FINALIZE_METHOD.equals(methodName)) {
-              if (aggressive || lazyLoadTriggerMethods.contains(methodName)) {
+            if (lazyLoader.size() > 0 && !lazyMethod.isFinalizer()) {
+              if (aggressive || lazyLoadTriggerMethods.contains(lazyMethod.getName())) {
                 lazyLoader.loadAll();
-              } else if (PropertyNamer.isProperty(methodName)) {
-                final String property = PropertyNamer.methodToProperty(methodName);
-                if (lazyLoader.hasLoader(property)) {
-                  lazyLoader.load(property);
-                }
+              } else if (lazyMethod.getPropertyKey() != null) {
+                lazyLoader.loadByKey(lazyMethod.getPropertyKey());
               }
             }
           }
@@ -23,15 +23,20 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.columnar.ColumnarResultHandler;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.DefaultCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -78,13 +83,23 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ObjectFactory objectFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<CacheKey, Object>();
-  private final Map<CacheKey, Object> ancestorObjects = new HashMap<CacheKey, Object>();
+  private final Map<RowKey, Object> nestedResultObjects = new HashMap<RowKey, Object>();
+  private final Map<RowKey, Object> ancestorObjects = new HashMap<RowKey, Object>();
   private final Map<String, String> ancestorColumnPrefix = new HashMap<String, String>();
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<String, ResultMapping>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<CacheKey, List<PendingRelation>>();
+
+  // resultOrdered 时，上一次停下来时还没有交出去的对象
+  private Object previousRowValue;
+
+  // batched nested selects, the batch being filled for each property mapping
+  private final Map<ResultMapping, BatchResultLoader> nestedQueryBatches = new IdentityHashMap<ResultMapping, BatchResultLoader>();
+  // eager batches can wait for the end of the result sets only if nobody sees the objects before
+  private boolean deferEagerNestedQueries;
+  // parallel mapping reads ahead, so only when all the rows are consumed in one go (not by a cursor)
+  private boolean parallelMappingAllowed;
   
   private static class PendingRelation {
     public MetaObject metaObject;
@@ -138,7 +153,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final String resultMapId = parameterMapping.getResultMapId();
       final ResultMap resultMap = configuration.getResultMap(resultMapId);
       final DefaultResultHandler resultHandler = new DefaultResultHandler(objectFactory);
-      final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+      final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration, mappedStatement);
       //里面就和一般ResultSet处理没两样了
       handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
       metaParam.setValue(parameterMapping.getProperty(), resultHandler.getResultList());
@@ -154,8 +169,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   @Override
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
-    
+    if (resultHandler instanceof ColumnarResultHandler) {
+      handleColumnarResultSets(stmt, (ColumnarResultHandler) resultHandler);
+      return new ArrayList<Object>();
+    }
+
     final List<Object> multipleResults = new ArrayList<Object>();
+    deferEagerNestedQueries = resultHandler == null;
+    parallelMappingAllowed = mappedStatement.isParallelMapping();
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
@@ -187,9 +208,44 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    loadNestedQueryBatches();
     return collapseSingleResultList(multipleResults);
   }
 
+  @Override
+  public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
+    ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
+
+    ResultSetWrapper rsw = getFirstResultSet(stmt);
+    List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+    int resultMapCount = resultMaps.size();
+    validateResultMapsCount(rsw, resultMapCount);
+    if (resultMapCount != 1) {
+      throw new ExecutorException("Cursor results cannot be mapped to multiple resultMaps");
+    }
+    final ResultMap resultMap = resultMaps.get(0);
+    if (resultMap.hasNestedResultMaps()) {
+      ensureNoRowBounds();
+      checkCursor();
+    }
+    if (rsw == null) {
+      return new DefaultCursor<E>(null, rowBounds);
+    }
+    skipRows(rsw.getResultSet(), rowBounds);
+    final ResultSetWrapper cursorRsw = rsw;
+    return new DefaultCursor<E>(new DefaultCursor.ResultSource() {
+      @Override
+      public ResultSet getResultSet() {
+        return cursorRsw.getResultSet();
+      }
+
+      @Override
+      public void fetch(ResultHandler resultHandler) throws SQLException {
+        handleRowValues(cursorRsw, resultMap, resultHandler, RowBounds.DEFAULT, null);
+      }
+    }, rowBounds);
+  }
+
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
     ResultSet rs = stmt.getResultSet();
     //HSQLDB2.1特殊情况处理
@@ -205,7 +261,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    return rs != null ? new ResultSetWrapper(rs, configuration, mappedStatement) : null;
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) throws SQLException {
@@ -215,7 +271,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         // Crazy Standard JDBC way of determining if there are more results
         if (!((!stmt.getMoreResults()) && (stmt.getUpdateCount() == -1))) {
           ResultSet rs = stmt.getResultSet();
-          return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+          return rs != null ? new ResultSetWrapper(rs, configuration, mappedStatement) : null;
         }
       }
     } catch (Exception e) {
@@ -236,6 +292,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private void cleanUpAfterHandlingResultSet() {
     nestedResultObjects.clear();
+    previousRowValue = null;
     ancestorColumnPrefix.clear();
   }
 
@@ -246,6 +303,20 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  //列式结果，不经过resultMap，每个结果集直接读进列
+  private void handleColumnarResultSets(Statement stmt, ColumnarResultHandler columnarResultHandler) throws SQLException {
+    ResultSetWrapper rsw = getFirstResultSet(stmt);
+    while (rsw != null) {
+      try {
+        skipRows(rsw.getResultSet(), rowBounds);
+        columnarResultHandler.handleResultSet(rsw, rowBounds.getLimit());
+      } finally {
+        closeResultSet(rsw.getResultSet());
+      }
+      rsw = getNextResultSet(stmt);
+    }
+  }
+
   //处理结果集
   private void handleResultSet(ResultSetWrapper rsw, ResultMap resultMap, List<Object> multipleResults, ResultMapping parentMapping) throws SQLException {
     try {
@@ -306,10 +377,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   } 
 
+  private void checkCursor() {
+    // a cursor hands out each object as soon as it is complete, so the rows of an object must be together
+    if (configuration.isSafeResultHandlerEnabled() && !mappedStatement.isResultOrdered()) {
+      throw new ExecutorException("Mapped Statements with nested result mappings cannot be safely used with a Cursor. "
+          + "Use safeResultHandlerEnabled=false setting to bypass this check "
+          + "or ensure your statement returns ordered data and set resultOrdered=true on it.");
+    }
+  }
+
   private void handleRowValuesForSimpleResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
       throws SQLException {
     DefaultResultContext resultContext = new DefaultResultContext();
     skipRows(rsw.getResultSet(), rowBounds);
+    final ParallelRowMapper parallelRowMapper = parallelMappingAllowed && parentMapping == null ? createParallelRowMapper(rsw, resultMap) : null;
+    if (parallelRowMapper != null) {
+      parallelRowMapper.mapRows(rsw.getResultSet(), rowBounds.getLimit(), resultHandler, resultContext);
+      return;
+    }
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap);
@@ -317,6 +402,23 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  /*
+   * A parallel mapper if every row of the result map can be mapped from its column values alone:
+   * no discriminator, no constructor mappings, no nested queries. Null otherwise.
+   */
+  private ParallelRowMapper createParallelRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (resultMap.getDiscriminator() != null || !resultMap.getConstructorResultMappings().isEmpty()
+        || typeHandlerRegistry.hasTypeHandler(resultMap.getType())) {
+      return null;
+    }
+    final Object prototype = objectFactory.create(resultMap.getType());
+    final RowMappingPlan plan = getRowMappingPlan(rsw, resultMap, prototype, null, shouldApplyAutomaticMappings(resultMap, false));
+    if (plan == null || !ParallelRowMapper.canMap(plan)) {
+      return null;
+    }
+    return new ParallelRowMapper(configuration, plan);
+  }
+
   private void storeObject(ResultHandler resultHandler, DefaultResultContext resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -358,14 +460,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     Object resultObject = createResultObject(rsw, resultMap, lazyLoader, null);
     if (resultObject != null && !typeHandlerRegistry.hasTypeHandler(resultMap.getType())) {
       //一般不是简单类型不会有typehandler,这个if会进来
-      final MetaObject metaObject = configuration.newMetaObject(resultObject);
+      final boolean automaticMapping = shouldApplyAutomaticMappings(resultMap, false);
+      //按列下标映射的编译好的计划, 每种列布局只解析一次
+      final RowMappingPlan plan = getRowMappingPlan(rsw, resultMap, resultObject, null, automaticMapping);
+      final MetaObject metaObject = plan == null || plan.isMetaObjectRequired() ? configuration.newMetaObject(resultObject) : null;
       boolean foundValues = !resultMap.getConstructorResultMappings().isEmpty();
-      if (shouldApplyAutomaticMappings(resultMap, false)) {        
-        //自动映射咯
-        //这里把每个列的值都赋到相应的字段里去了
-    	foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, null) || foundValues;
+      if (plan != null) {
+        foundValues = applyRowMappingPlan(plan, rsw, resultObject, metaObject, lazyLoader, null) || foundValues;
+      } else {
+        if (automaticMapping) {
+          //自动映射咯
+          //这里把每个列的值都赋到相应的字段里去了
+          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, null) || foundValues;
+        }
+        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, null) || foundValues;
       }
-      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, null) || foundValues;
       foundValues = lazyLoader.size() > 0 || foundValues;
       resultObject = foundValues ? resultObject : null;
       return resultObject;
@@ -467,6 +576,72 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  //
+  // COMPILED MAPPINGS
+  //
+
+  private RowMappingPlan getRowMappingPlan(ResultSetWrapper rsw, ResultMap resultMap, Object resultObject, String columnPrefix, boolean automaticMapping)
+      throws SQLException {
+    RowMappingPlan plan = rsw.getRowMappingPlan(resultMap, columnPrefix, automaticMapping);
+    if (plan == null) {
+      plan = RowMappingPlan.compile(rsw, resultMap, configuration.newMetaObject(resultObject), columnPrefix, automaticMapping, configuration);
+      plan = rsw.putRowMappingPlan(resultMap, columnPrefix, automaticMapping, plan);
+    }
+    // compiled for another class, e.g. by a custom ObjectFactory
+    return plan.getType() == resultObject.getClass() ? plan : null;
+  }
+
+  //applyAutomaticMappings和applyPropertyMappings的按下标版本
+  private boolean applyRowMappingPlan(RowMappingPlan plan, ResultSetWrapper rsw, Object resultObject, MetaObject metaObject, ResultLoaderMap lazyLoader,
+      String columnPrefix) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
+    final boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+    boolean foundValues = false;
+    for (RowMappingPlan.ColumnMapping mapping : plan.getAutomaticMappings()) {
+      if (mapping.isUnboxed()) {
+        // issue #377, a null column counts as found when setters are called on nulls
+        if (mapping.setUnboxedValue(rs, resultObject) || callSettersOnNulls) {
+          foundValues = true;
+        }
+        continue;
+      }
+      final Object value = mapping.getValue(rs);
+      // issue #377, call setter on nulls
+      if (value != null || callSettersOnNulls) {
+        if (value != null || !mapping.isPrimitive()) {
+          mapping.setValue(resultObject, metaObject, value);
+        }
+        foundValues = true;
+      }
+    }
+    for (RowMappingPlan.ColumnMapping mapping : plan.getPropertyMappings()) {
+      final ResultMapping propertyMapping = mapping.getResultMapping();
+      if (mapping.isUnboxed()) {
+        if (mapping.setUnboxedValue(rs, resultObject) || callSettersOnNulls) {
+          foundValues = true;
+        }
+      } else if (propertyMapping == null) {
+        final Object value = mapping.getValue(rs);
+        if (value != null || callSettersOnNulls) {
+          if (value != null || !mapping.isPrimitive()) {
+            mapping.setValue(resultObject, metaObject, value);
+          }
+          foundValues = true;
+        }
+      } else {
+        final Object value = getPropertyMappingValue(rs, metaObject, propertyMapping, lazyLoader, columnPrefix);
+        final String property = propertyMapping.getProperty();
+        if (value != NO_VALUE && property != null && (value != null || callSettersOnNulls)) {
+          if (value != null || !metaObject.getSetterType(property).isPrimitive()) {
+            metaObject.setValue(property, value);
+          }
+          foundValues = true;
+        }
+      }
+    }
+    return foundValues;
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -690,7 +865,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
     final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = NO_VALUE;
-    if (nestedQueryParameterObject != null) {
+    if (nestedQueryParameterObject != null && propertyMapping.getBatchSize() > 1) {
+      addToNestedQueryBatch(metaResultObject, propertyMapping, nestedQuery, nestedQueryParameterObject, lazyLoader);
+    } else if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
       final CacheKey key = executor.createCacheKey(nestedQuery, nestedQueryParameterObject, RowBounds.DEFAULT, nestedBoundSql);
       final Class<?> targetType = propertyMapping.getJavaType();
@@ -711,6 +888,33 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  private void addToNestedQueryBatch(MetaObject metaResultObject, ResultMapping propertyMapping, MappedStatement nestedQuery, Object nestedQueryParameterObject,
+      ResultLoaderMap lazyLoader) throws SQLException {
+    BatchResultLoader batch = nestedQueryBatches.get(propertyMapping);
+    if (batch == null || batch.isFull()) {
+      batch = new BatchResultLoader(configuration, executor, nestedQuery, propertyMapping);
+      nestedQueryBatches.put(propertyMapping, batch);
+    }
+    final String property = propertyMapping.getProperty();
+    final Class<?> targetType = propertyMapping.getJavaType();
+    if (propertyMapping.isLazy()) {
+      lazyLoader.addLoader(property, metaResultObject, batch.addLoader(nestedQueryParameterObject, targetType));
+    } else {
+      batch.addTarget(metaResultObject, property, nestedQueryParameterObject, targetType);
+      // 对象马上要交给ResultHandler或游标的话，只能一个一个地查
+      if (!deferEagerNestedQueries || batch.isFull()) {
+        batch.load();
+      }
+    }
+  }
+
+  private void loadNestedQueryBatches() throws SQLException {
+    for (BatchResultLoader batch : nestedQueryBatches.values()) {
+      batch.load();
+    }
+    nestedQueryBatches.clear();
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -798,10 +1002,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private void handleRowValuesForNestedResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
     final DefaultResultContext resultContext = new DefaultResultContext();
     skipRows(rsw.getResultSet(), rowBounds);
-    Object rowValue = null;
+    // a cursor stops after each result, the object being built when it stopped is carried over
+    Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
@@ -819,6 +1024,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
     if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
       storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
+      previousRowValue = null;
+    } else if (rowValue != null && mappedStatement.isResultOrdered()) {
+      previousRowValue = rowValue;
     }
   }
   
@@ -826,7 +1034,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, CacheKey absoluteKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, RowKey absoluteKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object resultObject = partialObject;
     if (resultObject != null) {
@@ -840,24 +1048,30 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (resultObject != null && !typeHandlerRegistry.hasTypeHandler(resultMap.getType())) {
         final MetaObject metaObject = configuration.newMetaObject(resultObject);
         boolean foundValues = !resultMap.getConstructorResultMappings().isEmpty();
-        if (shouldApplyAutomaticMappings(resultMap, true)) {
-          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
-        }        
-        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
+        final boolean automaticMapping = shouldApplyAutomaticMappings(resultMap, true);
+        final RowMappingPlan plan = getRowMappingPlan(rsw, resultMap, resultObject, columnPrefix, automaticMapping);
+        if (plan != null) {
+          foundValues = applyRowMappingPlan(plan, rsw, resultObject, metaObject, lazyLoader, columnPrefix) || foundValues;
+        } else {
+          if (automaticMapping) {
+            foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+          }
+          foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
+        }
         putAncestor(absoluteKey, resultObject, resultMapId, columnPrefix);
         foundValues = applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, true) || foundValues;
         ancestorObjects.remove(absoluteKey);
         foundValues = lazyLoader.size() > 0 || foundValues;
         resultObject = foundValues ? resultObject : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
+      if (combinedKey != RowKey.NULL_ROW_KEY) {
         nestedResultObjects.put(combinedKey, resultObject);
       }
     }
     return resultObject;
   }
 
-  private void putAncestor(CacheKey rowKey, Object resultObject, String resultMapId, String columnPrefix) {
+  private void putAncestor(RowKey rowKey, Object resultObject, String resultMapId, String columnPrefix) {
     if (!ancestorColumnPrefix.containsKey(resultMapId)) {
       ancestorColumnPrefix.put(resultMapId, columnPrefix);
     }
@@ -868,7 +1082,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -876,7 +1090,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         try {
           final String columnPrefix = getColumnPrefix(parentPrefix, resultMapping);
           final ResultMap nestedResultMap = getNestedResultMap(rsw.getResultSet(), nestedResultMapId, columnPrefix);
-          CacheKey rowKey = null;
+          RowKey rowKey = null;
           Object ancestorObject = null;
           if (ancestorColumnPrefix.containsKey(nestedResultMapId)) {
             rowKey = createRowKey(nestedResultMap, rsw, ancestorColumnPrefix.get(nestedResultMapId));
@@ -888,7 +1102,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             }
           } else {
             rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-            final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);            
+            final RowKey combinedKey = rowKey.combine(parentRowKey);
             Object rowValue = nestedResultObjects.get(combinedKey);
             boolean knownValue = (rowValue != null);
             final Object collectionProperty = instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject);            
@@ -914,6 +1128,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private String getColumnPrefix(String parentPrefix, ResultMapping resultMapping) {
+    if (parentPrefix == null && resultMapping.getColumnPrefix() == null) {
+      return null;
+    }
     final StringBuilder columnPrefixBuilder = new StringBuilder();
     if (parentPrefix != null) {
       columnPrefixBuilder.append(parentPrefix);
@@ -949,34 +1166,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final RowKey rowKey = new RowKey(resultMap.getId(), columnPrefix);
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.size() == 0) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        createRowKeyForMap(rsw, rowKey);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        createRowKeyForUnmappedProperties(resultMap, rsw, rowKey, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      createRowKeyForMappedProperties(resultMap, rsw, rowKey, resultMappings, columnPrefix);
     }
-    return cacheKey;
-  }
-
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
-    }
-    return CacheKey.NULL_CACHE_KEY;
+    return rowKey;
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -987,30 +1189,29 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKey rowKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    List<String> mappedColumnNames = null;
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
+        createRowKeyForMappedProperties(nestedResultMap, rsw, rowKey, nestedResultMap.getConstructorResultMappings(),
             prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
         final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        if (mappedColumnNames == null) {
+          mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        }
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+          rowKey.add(th.getResult(rsw.getResultSet(), column));
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKey rowKey, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType());
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1024,23 +1225,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
-        }
+        rowKey.add(rsw.getResultSet().getString(column));
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void createRowKeyForMap(ResultSetWrapper rsw, RowKey rowKey) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
     for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
-      if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
-      }
+      rowKey.add(rsw.getResultSet().getString(columnName));
     }
   }
 
@@ -0,0 +1,258 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Maps the rows of a simple result map on the parallel mapping executor of the configuration, for
+ * statements with parallelMapping.
+ *
+ * The calling thread is the only one touching the ResultSet: it reads the columns of a chunk of
+ * rows with their type handlers, exactly as serial mapping does, into reusable buffers and hands the
+ * chunk to the executor. There the objects are created and filled following the
+ * {@link RowMappingPlan}. Chunks are given back to the calling thread in order, which passes the
+ * objects to the ResultHandler, so handlers see the same objects in the same order as with serial
+ * mapping. Chunks still pending when the handler stops or mapping fails are cancelled.
+ */
+final class ParallelRowMapper {
+
+  private static final int CHUNK_ROWS = 256;
+  private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+  private final Configuration configuration;
+  private final ObjectFactory objectFactory;
+  private final Class<?> type;
+  private final boolean metaObjectRequired;
+  private final boolean callSettersOnNulls;
+  private final RowMappingPlan.ColumnMapping[] mappings;
+  private final Executor executor;
+  private final int maxChunksInFlight;
+  private final Deque<Chunk> freeChunks = new ArrayDeque<Chunk>();
+
+  ParallelRowMapper(Configuration configuration, RowMappingPlan plan) {
+    this.configuration = configuration;
+    this.objectFactory = configuration.getObjectFactory();
+    this.type = plan.getType();
+    this.metaObjectRequired = plan.isMetaObjectRequired();
+    this.callSettersOnNulls = configuration.isCallSettersOnNulls();
+    List<RowMappingPlan.ColumnMapping> all = new ArrayList<RowMappingPlan.ColumnMapping>();
+    for (RowMappingPlan.ColumnMapping mapping : plan.getAutomaticMappings()) {
+      all.add(mapping);
+    }
+    for (RowMappingPlan.ColumnMapping mapping : plan.getPropertyMappings()) {
+      all.add(mapping);
+    }
+    this.mappings = all.toArray(new RowMappingPlan.ColumnMapping[all.size()]);
+    this.executor = executorOf(configuration);
+    this.maxChunksInFlight = Math.max(2, THREADS * 2);
+  }
+
+  /*
+   * Whether the plan can be applied off the reading thread: every mapping must be compiled to a
+   * column read, nested queries and multiple result sets need the live ResultSet.
+   */
+  static boolean canMap(RowMappingPlan plan) {
+    for (RowMappingPlan.ColumnMapping mapping : plan.getPropertyMappings()) {
+      if (mapping.getResultMapping() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Maps up to maxRows rows, stopping early if the handler stops the context.
+   */
+  void mapRows(ResultSet rs, int maxRows, ResultHandler resultHandler, DefaultResultContext resultContext) throws SQLException {
+    final Deque<MappingTask> inFlight = new ArrayDeque<MappingTask>();
+    try {
+      int rowsRead = 0;
+      boolean moreRows = rowsRead < maxRows;
+      while (moreRows || !inFlight.isEmpty()) {
+        if (moreRows && inFlight.size() < maxChunksInFlight) {
+          Chunk chunk = takeChunk();
+          while (chunk.size < CHUNK_ROWS && rowsRead < maxRows && rs.next()) {
+            readRow(rs, chunk.values[chunk.size++]);
+            rowsRead++;
+          }
+          moreRows = chunk.size == CHUNK_ROWS && rowsRead < maxRows;
+          if (chunk.size > 0) {
+            MappingTask task = new MappingTask(chunk);
+            inFlight.addLast(task);
+            executor.execute(task);
+          } else {
+            freeChunks.push(chunk);
+          }
+          // 已经映射好的先交出去，不用等
+          while (!inFlight.isEmpty() && inFlight.peekFirst().isDone()) {
+            if (!deliver(inFlight.pollFirst(), resultHandler, resultContext)) {
+              return;
+            }
+          }
+        } else if (!deliver(inFlight.pollFirst(), resultHandler, resultContext)) {
+          return;
+        }
+      }
+    } finally {
+      // 停下或出错时，还没做完的块不用再映射了
+      for (MappingTask task : inFlight) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  private void readRow(ResultSet rs, Object[] values) throws SQLException {
+    for (int i = 0; i < mappings.length; i++) {
+      values[i] = mappings[i].getValue(rs);
+    }
+  }
+
+  private boolean deliver(MappingTask task, ResultHandler resultHandler, DefaultResultContext resultContext) throws SQLException {
+    final Object[] rowValues = task.getRowValues();
+    final Chunk chunk = task.chunk;
+    for (int i = 0; i < chunk.size; i++) {
+      resultContext.nextResultObject(rowValues[i]);
+      resultHandler.handleResult(resultContext);
+      if (resultContext.isStopped()) {
+        return false;
+      }
+    }
+    chunk.size = 0;
+    freeChunks.push(chunk);
+    return true;
+  }
+
+  private Chunk takeChunk() {
+    Chunk chunk = freeChunks.poll();
+    return chunk != null ? chunk : new Chunk(mappings.length);
+  }
+
+  // same rules as DefaultResultSetHandler.getRowValue with a plan
+  private Object mapRow(Object[] values) {
+    final Object resultObject = objectFactory.create(type);
+    final MetaObject metaObject = metaObjectRequired ? configuration.newMetaObject(resultObject) : null;
+    boolean foundValues = false;
+    for (int i = 0; i < mappings.length; i++) {
+      final RowMappingPlan.ColumnMapping mapping = mappings[i];
+      final Object value = values[i];
+      // issue #377, call setter on nulls
+      if (value != null || callSettersOnNulls) {
+        if (value != null || !mapping.isPrimitive()) {
+          mapping.setValue(resultObject, metaObject, value);
+        }
+        foundValues = true;
+      }
+    }
+    return foundValues ? resultObject : null;
+  }
+
+  private static Executor executorOf(Configuration configuration) {
+    synchronized (configuration) {
+      Executor executor = configuration.getParallelMappingExecutor();
+      if (executor == null) {
+        executor = newExecutor();
+        configuration.setParallelMappingExecutor(executor);
+      }
+      return executor;
+    }
+  }
+
+  private static Executor newExecutor() {
+    final ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mybatis-parallel-mapper-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /*
+   * Reusable buffers of CHUNK_ROWS rows, the values read by the type handlers by mapping.
+   */
+  private static final class Chunk {
+    private final Object[][] values;
+    private int size;
+
+    private Chunk(int mappings) {
+      values = new Object[CHUNK_ROWS][mappings];
+    }
+  }
+
+  private final class MappingTask extends FutureTask<Object[]> {
+
+    private final Chunk chunk;
+
+    private MappingTask(final Chunk chunk) {
+      super(new Callable<Object[]>() {
+        @Override
+        public Object[] call() {
+          final Object[] rowValues = new Object[chunk.size];
+          for (int i = 0; i < chunk.size; i++) {
+            rowValues[i] = mapRow(chunk.values[i]);
+          }
+          return rowValues;
+        }
+      });
+      this.chunk = chunk;
+    }
+
+    private Object[] getRowValues() throws SQLException {
+      try {
+        return get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while mapping rows in parallel.", e);
+      } catch (ExecutionException e) {
+        final Throwable failure = e.getCause();
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+          throw (Error) failure;
+        }
+        throw new SQLException("Error mapping rows in parallel. Cause: " + failure, failure);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,253 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/**
+ * The columns of a result set and everything derived from them: the type handler of each column
+ * and property type, the mapped and unmapped columns of each result map and the row mapping plans.
+ *
+ * The columns never change and the derived values are kept in concurrent maps, so the layouts of a
+ * statement are kept in the {@link ResultSetLayoutCache} and shared by every execution returning the
+ * same columns. A new execution only reads the ResultSetMetaData again to
+ * check that it {@link #matches} the layout.
+ */
+final class ResultSetLayout {
+
+  private final TypeHandlerRegistry typeHandlerRegistry;
+  private final boolean useColumnLabel;
+  private final List<String> columnNames;
+  private final List<String> classNames;
+  private final List<JdbcType> jdbcTypes;
+  private final int[] columnTypes;
+  private final List<Object> columnSignature;
+  private final Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
+  private final ConcurrentMap<String, ConcurrentMap<Class<?>, TypeHandler<?>>> typeHandlers = new ConcurrentHashMap<String, ConcurrentMap<Class<?>, TypeHandler<?>>>();
+  private final ConcurrentMap<String, List<String>> mappedColumnNames = new ConcurrentHashMap<String, List<String>>();
+  private final ConcurrentMap<String, List<String>> unmappedColumnNames = new ConcurrentHashMap<String, List<String>>();
+  private final ConcurrentMap<Object, RowMappingPlan> rowMappingPlans = new ConcurrentHashMap<Object, RowMappingPlan>();
+
+  public ResultSetLayout(ResultSetMetaData metaData, boolean useColumnLabel, TypeHandlerRegistry typeHandlerRegistry) throws SQLException {
+    this.typeHandlerRegistry = typeHandlerRegistry;
+    this.useColumnLabel = useColumnLabel;
+    final int columnCount = metaData.getColumnCount();
+    List<String> names = new ArrayList<String>(columnCount);
+    List<String> classes = new ArrayList<String>(columnCount);
+    List<JdbcType> types = new ArrayList<JdbcType>(columnCount);
+    List<Object> signature = new ArrayList<Object>(columnCount * 3);
+    this.columnTypes = new int[columnCount];
+    for (int i = 1; i <= columnCount; i++) {
+      String name = useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i);
+      columnTypes[i - 1] = metaData.getColumnType(i);
+      JdbcType jdbcType = JdbcType.forCode(columnTypes[i - 1]);
+      String className = metaData.getColumnClassName(i);
+      names.add(name);
+      types.add(jdbcType);
+      classes.add(className);
+      signature.add(name);
+      signature.add(jdbcType);
+      signature.add(className);
+      String upperName = name == null ? null : name.toUpperCase(Locale.ENGLISH);
+      if (!columnIndexes.containsKey(upperName)) {
+        columnIndexes.put(upperName, i);
+      }
+    }
+    this.columnNames = Collections.unmodifiableList(names);
+    this.classNames = Collections.unmodifiableList(classes);
+    this.jdbcTypes = Collections.unmodifiableList(types);
+    this.columnSignature = Collections.unmodifiableList(signature);
+  }
+
+  /*
+   * Checks whether a result set has the columns of this layout, without building anything.
+   */
+  public boolean matches(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    if (this.useColumnLabel != useColumnLabel || metaData.getColumnCount() != columnNames.size()) {
+      return false;
+    }
+    for (int i = 1; i <= columnTypes.length; i++) {
+      if (metaData.getColumnType(i) != columnTypes[i - 1]
+          || !equal(columnNames.get(i - 1), useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i))
+          || !equal(classNames.get(i - 1), metaData.getColumnClassName(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  public List<String> getClassNames() {
+    return classNames;
+  }
+
+  public List<JdbcType> getJdbcTypes() {
+    return jdbcTypes;
+  }
+
+  /*
+   * The names, JDBC types and classes of the columns, equal for equal layouts.
+   */
+  public List<Object> getColumnSignature() {
+    return columnSignature;
+  }
+
+  /*
+   * @return the 1 based index of the first column with that name ignoring case, 0 if there is none
+   */
+  public int getColumnIndex(String columnName) {
+    Integer index = columnIndexes.get(columnName == null ? null : columnName.toUpperCase(Locale.ENGLISH));
+    return index == null ? 0 : index.intValue();
+  }
+
+  public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+    ConcurrentMap<Class<?>, TypeHandler<?>> columnHandlers = typeHandlers.get(columnName);
+    if (columnHandlers == null) {
+      columnHandlers = new ConcurrentHashMap<Class<?>, TypeHandler<?>>();
+      ConcurrentMap<Class<?>, TypeHandler<?>> existing = typeHandlers.putIfAbsent(columnName, columnHandlers);
+      if (existing != null) {
+        columnHandlers = existing;
+      }
+    }
+    TypeHandler<?> handler = columnHandlers.get(propertyType);
+    if (handler == null) {
+      handler = resolveTypeHandler(propertyType, columnName);
+      // 并发时两个线程算出的handler等价，保留先放进去的那个
+      TypeHandler<?> existing = columnHandlers.putIfAbsent(propertyType, handler);
+      if (existing != null) {
+        handler = existing;
+      }
+    }
+    return handler;
+  }
+
+  public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    List<String> names = mappedColumnNames.get(getMapKey(resultMap, columnPrefix));
+    if (names == null) {
+      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+      names = mappedColumnNames.get(getMapKey(resultMap, columnPrefix));
+    }
+    return names;
+  }
+
+  public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    List<String> names = unmappedColumnNames.get(getMapKey(resultMap, columnPrefix));
+    if (names == null) {
+      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+      names = unmappedColumnNames.get(getMapKey(resultMap, columnPrefix));
+    }
+    return names;
+  }
+
+  public RowMappingPlan getRowMappingPlan(Object key) {
+    return rowMappingPlans.get(key);
+  }
+
+  public RowMappingPlan putRowMappingPlan(Object key, RowMappingPlan plan) {
+    RowMappingPlan existing = rowMappingPlans.putIfAbsent(key, plan);
+    return existing == null ? plan : existing;
+  }
+
+  /*
+   * Replicates the logic of UnknownTypeHandler#resolveTypeHandler, see issue #59 comment 10.
+   */
+  private TypeHandler<?> resolveTypeHandler(Class<?> propertyType, String columnName) {
+    TypeHandler<?> handler = typeHandlerRegistry.getTypeHandler(propertyType);
+    if (handler == null || handler instanceof UnknownTypeHandler) {
+      final int index = columnNames.indexOf(columnName);
+      final JdbcType jdbcType = jdbcTypes.get(index);
+      final Class<?> javaType = resolveClass(classNames.get(index));
+      if (javaType != null && jdbcType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+      } else if (javaType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(javaType);
+      } else if (jdbcType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+      }
+    }
+    if (handler == null || handler instanceof UnknownTypeHandler) {
+      handler = new ObjectTypeHandler();
+    }
+    return handler;
+  }
+
+  private Class<?> resolveClass(String className) {
+    try {
+      return Resources.classForName(className);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    List<String> mapped = new ArrayList<String>();
+    List<String> unmapped = new ArrayList<String>();
+    final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
+    final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
+    for (String columnName : columnNames) {
+      final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
+      if (mappedColumns.contains(upperColumnName)) {
+        mapped.add(upperColumnName);
+      } else {
+        unmapped.add(columnName);
+      }
+    }
+    mappedColumnNames.putIfAbsent(getMapKey(resultMap, columnPrefix), Collections.unmodifiableList(mapped));
+    unmappedColumnNames.putIfAbsent(getMapKey(resultMap, columnPrefix), Collections.unmodifiableList(unmapped));
+  }
+
+  private String getMapKey(ResultMap resultMap, String columnPrefix) {
+    return resultMap.getId() + ":" + columnPrefix;
+  }
+
+  private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
+    if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
+      return columnNames;
+    }
+    final Set<String> prefixed = new HashSet<String>();
+    for (String columnName : columnNames) {
+      prefixed.add(prefix + columnName);
+    }
+    return prefixed;
+  }
+
+  private static boolean equal(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+}
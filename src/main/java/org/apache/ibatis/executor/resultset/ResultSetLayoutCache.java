@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The result set layouts the statements of a configuration returned so far. Every execution of a
+ * statement returning the same columns shares the layout, with its type handlers and row mapping
+ * plans.
+ */
+public class ResultSetLayoutCache {
+
+  // 用${}拼出来的语句可能返回任意多种列，每个语句只留前面这些
+  private static final int MAX_LAYOUTS_PER_STATEMENT = 64;
+
+  private final ConcurrentMap<MappedStatement, StatementLayouts> statementLayouts = new ConcurrentHashMap<MappedStatement, StatementLayouts>();
+
+  /*
+   * Gets the layout of a result set of the statement, the one kept earlier when the columns are the
+   * same.
+   */
+  ResultSetLayout getLayout(MappedStatement ms, ResultSetMetaData metaData, Configuration configuration) throws SQLException {
+    StatementLayouts layouts = statementLayouts.get(ms);
+    if (layouts == null) {
+      layouts = new StatementLayouts();
+      StatementLayouts existing = statementLayouts.putIfAbsent(ms, layouts);
+      if (existing != null) {
+        layouts = existing;
+      }
+    }
+    final boolean useColumnLabel = configuration.isUseColumnLabel();
+    ResultSetLayout last = layouts.last;
+    if (last != null && last.matches(metaData, useColumnLabel)) {
+      return last;
+    }
+    // 和上次的列不同，按列签名再找一次
+    ResultSetLayout read = new ResultSetLayout(metaData, useColumnLabel, configuration.getTypeHandlerRegistry());
+    return layouts.put(read.getColumnSignature(), read);
+  }
+
+  /*
+   * The layout of the last result set of the statement, null if it has not returned any yet.
+   */
+  ResultSetLayout getLastLayout(MappedStatement ms) {
+    StatementLayouts layouts = statementLayouts.get(ms);
+    return layouts == null ? null : layouts.last;
+  }
+
+  private static class StatementLayouts {
+
+    private final ConcurrentMap<Object, ResultSetLayout> layouts = new ConcurrentHashMap<Object, ResultSetLayout>();
+    // checked first, it is almost always the layout of the next result set too
+    private volatile ResultSetLayout last;
+
+    /*
+     * @return the layout to use, the one kept earlier for the same columns if any
+     */
+    ResultSetLayout put(Object columnSignature, ResultSetLayout layout) {
+      ResultSetLayout existing = layouts.get(columnSignature);
+      if (existing != null) {
+        layout = existing;
+      } else if (layouts.size() < MAX_LAYOUTS_PER_STATEMENT) {
+        existing = layouts.putIfAbsent(columnSignature, layout);
+        if (existing != null) {
+          layout = existing;
+        }
+      }
+      last = layout;
+      return layout;
+    }
+  }
+
+}
@@ -16,62 +16,122 @@
 package org.apache.ibatis.executor.resultset;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-import org.apache.ibatis.io.Resources;
+
+import org.apache.ibatis.columnar.ColumnarResultHandler;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
-import org.apache.ibatis.type.ObjectTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
-import org.apache.ibatis.type.UnknownTypeHandler;
 
 /**
  * @author Iwao AVE!
  */
-class ResultSetWrapper {
+class ResultSetWrapper implements ColumnarResultHandler.ResultSetColumns {
 
   private final ResultSet resultSet;
-  private final TypeHandlerRegistry typeHandlerRegistry;
-  private final List<String> columnNames = new ArrayList<String>();
-  private final List<String> classNames = new ArrayList<String>();
-  private final List<JdbcType> jdbcTypes = new ArrayList<JdbcType>();
-  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<String, Map<Class<?>, TypeHandler<?>>>();
-  private Map<String, List<String>> mappedColumnNamesMap = new HashMap<String, List<String>>();
-  private Map<String, List<String>> unMappedColumnNamesMap = new HashMap<String, List<String>>();
+  private final ResultSetLayout layout;
+
+  // the plan of the previous row, almost always the one of the next row too
+  private ResultMap lastPlanResultMap;
+  private String lastPlanColumnPrefix;
+  private boolean lastPlanAutomaticMapping;
+  private RowMappingPlan lastPlan;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
-    this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.resultSet = rs;
-    final ResultSetMetaData metaData = rs.getMetaData();
-    final int columnCount = metaData.getColumnCount();
-    for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-      classNames.add(metaData.getColumnClassName(i));
-    }
+    this.layout = new ResultSetLayout(rs.getMetaData(), configuration.isUseColumnLabel(), configuration.getTypeHandlerRegistry());
+  }
+
+  /*
+   * Reuses the layout of a previous execution of the statement when the columns are the same.
+   */
+  public ResultSetWrapper(ResultSet rs, Configuration configuration, MappedStatement mappedStatement) throws SQLException {
+    super();
+    this.resultSet = rs;
+    this.layout = configuration.getResultSetLayoutCache().getLayout(mappedStatement, rs.getMetaData(), configuration);
   }
 
+  @Override
   public ResultSet getResultSet() {
     return resultSet;
   }
 
+  public ResultSetLayout getLayout() {
+    return layout;
+  }
+
+  @Override
   public List<String> getColumnNames() {
-    return this.columnNames;
+    return layout.getColumnNames();
   }
 
   public List<String> getClassNames() {
-    return Collections.unmodifiableList(classNames);
+    return layout.getClassNames();
+  }
+
+  /*
+   * Gets the position of a column the way ResultSet.findColumn does, ignoring case.
+   *
+   * @return the 1 based index of the first column with that name, 0 if there is none
+   */
+  public int getColumnIndex(String columnName) {
+    return layout.getColumnIndex(columnName);
+  }
+
+  /*
+   * Gets the JDBC type reported by the driver for a column.
+   *
+   * @param columnIndex the 1 based index of the column
+   */
+  @Override
+  public JdbcType getJdbcType(int columnIndex) {
+    return layout.getJdbcTypes().get(columnIndex - 1);
+  }
+
+  /*
+   * The names, JDBC types and classes of the columns, what a mapping plan depends on.
+   */
+  public List<Object> getColumnSignature() {
+    return layout.getColumnSignature();
+  }
+
+  public RowMappingPlan getRowMappingPlan(ResultMap resultMap, String columnPrefix, boolean automaticMapping) {
+    if (lastPlan != null && lastPlanResultMap == resultMap && lastPlanAutomaticMapping == automaticMapping
+        && (lastPlanColumnPrefix == null ? columnPrefix == null : lastPlanColumnPrefix.equals(columnPrefix))) {
+      return lastPlan;
+    }
+    RowMappingPlan plan = layout.getRowMappingPlan(getPlanKey(resultMap, columnPrefix, automaticMapping));
+    if (plan != null) {
+      rememberPlan(resultMap, columnPrefix, automaticMapping, plan);
+    }
+    return plan;
+  }
+
+  /*
+   * Keeps a plan in the layout, for this and the next executions returning the same columns.
+   *
+   * @return the plan to use, the one another execution put first if any
+   */
+  public RowMappingPlan putRowMappingPlan(ResultMap resultMap, String columnPrefix, boolean automaticMapping, RowMappingPlan plan) {
+    plan = layout.putRowMappingPlan(getPlanKey(resultMap, columnPrefix, automaticMapping), plan);
+    rememberPlan(resultMap, columnPrefix, automaticMapping, plan);
+    return plan;
+  }
+
+  private void rememberPlan(ResultMap resultMap, String columnPrefix, boolean automaticMapping, RowMappingPlan plan) {
+    lastPlanResultMap = resultMap;
+    lastPlanColumnPrefix = columnPrefix;
+    lastPlanAutomaticMapping = automaticMapping;
+    lastPlan = plan;
+  }
+
+  private List<Object> getPlanKey(ResultMap resultMap, String columnPrefix, boolean automaticMapping) {
+    return Arrays.<Object>asList(resultMap.getId(), columnPrefix, automaticMapping);
   }
 
   /**
@@ -83,95 +143,17 @@ class ResultSetWrapper {
    * @param columnName
    * @return
    */
+  @Override
   public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-    TypeHandler<?> handler = null;
-    Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-    if (columnHandlers == null) {
-      columnHandlers = new HashMap<Class<?>, TypeHandler<?>>();
-      typeHandlerMap.put(columnName, columnHandlers);
-    } else {
-      handler = columnHandlers.get(propertyType);
-    }
-    if (handler == null) {
-      handler = typeHandlerRegistry.getTypeHandler(propertyType);
-      // Replicate logic of UnknownTypeHandler#resolveTypeHandler
-      // See issue #59 comment 10
-      if (handler == null || handler instanceof UnknownTypeHandler) {
-        final int index = columnNames.indexOf(columnName);
-        final JdbcType jdbcType = jdbcTypes.get(index);
-        final Class<?> javaType = resolveClass(classNames.get(index));
-        if (javaType != null && jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-        } else if (javaType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType);
-        } else if (jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-        }
-      }
-      if (handler == null || handler instanceof UnknownTypeHandler) {
-        handler = new ObjectTypeHandler();
-      }
-      columnHandlers.put(propertyType, handler);
-    }
-    return handler;
-  }
-
-  private Class<?> resolveClass(String className) {
-    try {
-      return Resources.classForName(className);
-    } catch (ClassNotFoundException e) {
-      return null;
-    }
-  }
-
-  private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> mappedColumnNames = new ArrayList<String>();
-    List<String> unmappedColumnNames = new ArrayList<String>();
-    final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
-    final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
-    for (String columnName : columnNames) {
-      final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
-      if (mappedColumns.contains(upperColumnName)) {
-        mappedColumnNames.add(upperColumnName);
-      } else {
-        unmappedColumnNames.add(columnName);
-      }
-    }
-    mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), mappedColumnNames);
-    unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), unmappedColumnNames);
+    return layout.getTypeHandler(propertyType, columnName);
   }
 
   public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    if (mappedColumnNames == null) {
-      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-      mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    }
-    return mappedColumnNames;
+    return layout.getMappedColumnNames(resultMap, columnPrefix);
   }
 
   public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    if (unMappedColumnNames == null) {
-      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-      unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    }
-    return unMappedColumnNames;
+    return layout.getUnmappedColumnNames(resultMap, columnPrefix);
   }
 
-  private String getMapKey(ResultMap resultMap, String columnPrefix) {
-    return resultMap.getId() + ":" + columnPrefix;
-  }
-
-  private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
-    if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
-      return columnNames;
-    }
-    final Set<String> prefixed = new HashSet<String>();
-    for (String columnName : columnNames) {
-      prefixed.add(prefix + columnName);
-    }
-    return prefixed;
-  }
-  
 }
@@ -0,0 +1,144 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Identity of the object a row maps to, used to merge the rows of nested result maps.
+ *
+ * Unlike a {@link org.apache.ibatis.cache.CacheKey} it does not record the column names next to
+ * the values: within a result set the columns of a result map are always read in the same order,
+ * so the result map id, the column prefix and the values by position are enough. Array values,
+ * such as binary ids, are compared by content like a CacheKey does. The hash is
+ * computed as values are added and combining a key with its parent key just links them, nothing
+ * is copied.
+ */
+final class RowKey {
+
+  /*
+   * Key of an object that cannot be told apart from others, it is never stored.
+   */
+  static final RowKey NULL_ROW_KEY = new RowKey((String) null, null);
+
+  private static final Object[] EMPTY_VALUES = new Object[0];
+
+  private final String resultMapId;
+  private final String columnPrefix;
+  private final RowKey parent;
+  private Object[] values;
+  private int size;
+  private int nonNullCount;
+  private int hashcode;
+
+  RowKey(String resultMapId, String columnPrefix) {
+    this.resultMapId = resultMapId;
+    this.columnPrefix = columnPrefix;
+    this.parent = null;
+    this.values = EMPTY_VALUES;
+    this.hashcode = 31 * hash(resultMapId) + hash(columnPrefix);
+  }
+
+  private RowKey(RowKey key, RowKey parent) {
+    this.resultMapId = key.resultMapId;
+    this.columnPrefix = key.columnPrefix;
+    this.parent = parent;
+    // the key is complete once it is combined, so the values can be shared
+    this.values = key.values;
+    this.size = key.size;
+    this.nonNullCount = key.nonNullCount;
+    this.hashcode = 31 * key.hashcode + parent.hashcode;
+  }
+
+  void add(Object value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size == 0 ? 4 : size * 2);
+    }
+    values[size++] = value;
+    if (value != null) {
+      nonNullCount++;
+    }
+    hashcode = 31 * hashcode + hash(value);
+  }
+
+  boolean hasValues() {
+    return nonNullCount > 0;
+  }
+
+  /*
+   * Makes the key of this object under the given parent.
+   *
+   * @return the combined key, or {@link #NULL_ROW_KEY} if either key has no values
+   */
+  RowKey combine(RowKey parentKey) {
+    if (hasValues() && parentKey.hasValues()) {
+      return new RowKey(this, parentKey);
+    }
+    return NULL_ROW_KEY;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashcode;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof RowKey) || this == NULL_ROW_KEY || object == NULL_ROW_KEY) {
+      return false;
+    }
+    RowKey other = (RowKey) object;
+    if (hashcode != other.hashcode || size != other.size || nonNullCount != other.nonNullCount
+        || !equal(resultMapId, other.resultMapId) || !equal(columnPrefix, other.columnPrefix)) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (!equal(values[i], other.values[i])) {
+        return false;
+      }
+    }
+    return parent == null ? other.parent == null : parent.equals(other.parent);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append(resultMapId);
+    if (columnPrefix != null) {
+      builder.append('[').append(columnPrefix).append(']');
+    }
+    for (int i = 0; i < size; i++) {
+      builder.append(':').append(ArrayUtil.toString(values[i]));
+    }
+    if (parent != null) {
+      builder.append(" in ").append(parent);
+    }
+    return builder.toString();
+  }
+
+  private static int hash(Object object) {
+    return ArrayUtil.hashCode(object);
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return ArrayUtil.equals(a, b);
+  }
+
+}
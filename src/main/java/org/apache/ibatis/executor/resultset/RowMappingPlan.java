@@ -0,0 +1,333 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetInvoker;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.PrimitiveTypeHandlers;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/**
+ * How the columns of one result set layout are mapped to the properties of one result map.
+ *
+ * Automatic and property mappings are resolved by name once: the column index, the type handler,
+ * the setter and whether the property is primitive. Mapping a row is then a walk over two arrays,
+ * reading columns by index with the type handlers of MyBatis. Other type handlers have always been
+ * called with the column name, so they still are. int, long and double columns of primitive properties are moved
+ * without boxing when both the type handler and the setter support it. Plans are cached in the
+ * {@link ResultSetLayout} of the columns by result map and column prefix.
+ *
+ * Mappings the plan cannot resolve up front (nested queries, multiple result sets, columns that are
+ * not found by name) are kept as they are and go through the usual by name code.
+ */
+public final class RowMappingPlan {
+
+  private static final ColumnMapping[] NO_MAPPINGS = new ColumnMapping[0];
+
+  private final Class<?> type;
+  private final ColumnMapping[] automaticMappings;
+  private final ColumnMapping[] propertyMappings;
+  private final boolean metaObjectRequired;
+
+  private RowMappingPlan(Class<?> type, List<ColumnMapping> automaticMappings, List<ColumnMapping> propertyMappings) {
+    this.type = type;
+    this.automaticMappings = automaticMappings.toArray(NO_MAPPINGS);
+    this.propertyMappings = propertyMappings.toArray(NO_MAPPINGS);
+    boolean required = false;
+    for (ColumnMapping mapping : this.automaticMappings) {
+      required = required || mapping.setter == null;
+    }
+    for (ColumnMapping mapping : this.propertyMappings) {
+      required = required || mapping.setter == null;
+    }
+    this.metaObjectRequired = required;
+  }
+
+  /*
+   * The class of the result objects the plan was compiled for, other objects need the by name code.
+   */
+  Class<?> getType() {
+    return type;
+  }
+
+  ColumnMapping[] getAutomaticMappings() {
+    return automaticMappings;
+  }
+
+  ColumnMapping[] getPropertyMappings() {
+    return propertyMappings;
+  }
+
+  /*
+   * Whether applying the plan needs a MetaObject of the result object.
+   */
+  boolean isMetaObjectRequired() {
+    return metaObjectRequired;
+  }
+
+  static RowMappingPlan compile(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix,
+      boolean automaticMapping, Configuration configuration) throws SQLException {
+    final List<ColumnMapping> automaticMappings = new ArrayList<ColumnMapping>();
+    if (automaticMapping) {
+      compileAutomaticMappings(rsw, resultMap, metaObject, columnPrefix, configuration, automaticMappings);
+    }
+    final List<ColumnMapping> propertyMappings = new ArrayList<ColumnMapping>();
+    compilePropertyMappings(rsw, resultMap, metaObject, columnPrefix, propertyMappings);
+    return new RowMappingPlan(metaObject.getOriginalObject().getClass(), automaticMappings, propertyMappings);
+  }
+
+  // same rules as DefaultResultSetHandler.applyAutomaticMappings
+  private static void compileAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix,
+      Configuration configuration, List<ColumnMapping> mappings) throws SQLException {
+    final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    for (String columnName : rsw.getUnmappedColumnNames(resultMap, columnPrefix)) {
+      String propertyName = columnName;
+      if (columnPrefix != null && !columnPrefix.isEmpty()) {
+        if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          propertyName = columnName.substring(columnPrefix.length());
+        } else {
+          continue;
+        }
+      }
+      final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaObject.hasSetter(property)) {
+        final Class<?> propertyType = metaObject.getSetterType(property);
+        if (typeHandlerRegistry.hasTypeHandler(propertyType)) {
+          mappings.add(new ColumnMapping(rsw.getColumnIndex(columnName), columnName, rsw.getTypeHandler(propertyType, columnName), property,
+              directSetter(metaObject, property), propertyType.isPrimitive(), null));
+        }
+      }
+    }
+  }
+
+  // same rules as DefaultResultSetHandler.applyPropertyMappings
+  private static void compilePropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix,
+      List<ColumnMapping> mappings) throws SQLException {
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+      if (propertyMapping.isCompositeResult()
+          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || propertyMapping.getResultSet() != null) {
+        final String property = propertyMapping.getProperty();
+        if (propertyMapping.getNestedQueryId() == null && propertyMapping.getResultSet() == null
+            && propertyMapping.getNestedResultMapId() != null) {
+          // never has a value, the nested result map is applied later
+          continue;
+        }
+        final ColumnMapping compiled = compileColumn(rsw, metaObject, propertyMapping, column, property);
+        mappings.add(compiled != null ? compiled : new ColumnMapping(0, null, null, property, null, false, propertyMapping));
+      }
+    }
+  }
+
+  private static ColumnMapping compileColumn(ResultSetWrapper rsw, MetaObject metaObject, ResultMapping propertyMapping,
+      String column, String property) {
+    if (propertyMapping.getNestedQueryId() != null || propertyMapping.getResultSet() != null
+        || propertyMapping.isCompositeResult() || property == null) {
+      return null;
+    }
+    final int columnIndex = rsw.getColumnIndex(column);
+    if (columnIndex == 0) {
+      return null;
+    }
+    final boolean primitive;
+    try {
+      primitive = metaObject.getSetterType(property).isPrimitive();
+    } catch (RuntimeException e) {
+      // let the by name code report it, and only when it happens
+      return null;
+    }
+    return new ColumnMapping(columnIndex, column, propertyMapping.getTypeHandler(), property, directSetter(metaObject, property), primitive, null);
+  }
+
+  /*
+   * The setter of a plain bean property, null when the property has to be set through the
+   * MetaObject (maps, nested properties, custom object wrappers).
+   */
+  private static Invoker directSetter(MetaObject metaObject, String property) {
+    if (metaObject.getObjectWrapper().getClass() != BeanWrapper.class || property.indexOf('.') >= 0 || property.indexOf('[') >= 0) {
+      return null;
+    }
+    final Reflector reflector = Reflector.forClass(metaObject.getOriginalObject().getClass());
+    return reflector.hasSetter(property) ? reflector.getSetInvoker(property) : null;
+  }
+
+  private static String prependPrefix(String columnName, String prefix) {
+    if (columnName == null || columnName.length() == 0 || prefix == null || prefix.length() == 0) {
+      return columnName;
+    }
+    return prefix + columnName;
+  }
+
+  /*
+   * One column read into one property, or a property mapping left to the by name code.
+   */
+  static final class ColumnMapping {
+
+    private final int columnIndex;
+    private final String columnName;
+    // 只有MyBatis自带的TypeHandler按下标读，第三方的一直是按列名读的
+    private final boolean readByIndex;
+    private final TypeHandler<?> typeHandler;
+    private final String property;
+    private final Invoker setter;
+    private final boolean primitive;
+    private final ResultMapping resultMapping;
+    // int, long或double：列和属性都能不装箱地读写
+    private final Class<?> unboxedType;
+
+    ColumnMapping(int columnIndex, String columnName, TypeHandler<?> typeHandler, String property, Invoker setter, boolean primitive,
+        ResultMapping resultMapping) {
+      this.columnIndex = columnIndex;
+      this.columnName = columnName;
+      this.readByIndex = typeHandler != null && isBuiltIn(typeHandler);
+      this.typeHandler = typeHandler;
+      this.property = property;
+      this.setter = setter;
+      this.primitive = primitive;
+      this.resultMapping = resultMapping;
+      this.unboxedType = unboxedType(typeHandler, setter);
+    }
+
+    /*
+     * UnknownTypeHandler passes the column on to whatever handler it resolves, so it is left out.
+     */
+    private static boolean isBuiltIn(TypeHandler<?> typeHandler) {
+      final Class<?> type = typeHandler.getClass();
+      return type.getPackage() == TypeHandler.class.getPackage() && type != UnknownTypeHandler.class;
+    }
+
+    private static Class<?> unboxedType(TypeHandler<?> typeHandler, Invoker setter) {
+      if (!(setter instanceof PrimitiveSetInvoker)) {
+        return null;
+      }
+      final Class<?> type = setter.getType();
+      if ((type == int.class && PrimitiveTypeHandlers.ofInt(typeHandler) != null)
+          || (type == long.class && PrimitiveTypeHandlers.ofLong(typeHandler) != null)
+          || (type == double.class && PrimitiveTypeHandlers.ofDouble(typeHandler) != null)) {
+        return type;
+      }
+      return null;
+    }
+
+    int getColumnIndex() {
+      return columnIndex;
+    }
+
+    TypeHandler<?> getTypeHandler() {
+      return typeHandler;
+    }
+
+    boolean isReadByIndex() {
+      return readByIndex;
+    }
+
+    Object getValue(ResultSet rs) throws SQLException {
+      return readByIndex ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, columnName);
+    }
+
+    boolean isPrimitive() {
+      return primitive;
+    }
+
+    /*
+     * The property mapping when it was not compiled, null otherwise.
+     */
+    ResultMapping getResultMapping() {
+      return resultMapping;
+    }
+
+    /*
+     * Whether the column can be read and set with {@link #setUnboxedValue(ResultSet, Object)}.
+     */
+    boolean isUnboxed() {
+      return unboxedType != null;
+    }
+
+    /*
+     * Reads the column with the primitive getter of the type handler and sets it with the primitive
+     * setter, nothing is boxed.
+     *
+     * @return false if the column was null, the property is left untouched then
+     */
+    boolean setUnboxedValue(ResultSet rs, Object resultObject) throws SQLException {
+      final PrimitiveSetInvoker primitiveSetter = (PrimitiveSetInvoker) setter;
+      try {
+        if (unboxedType == int.class) {
+          final int value = ((PrimitiveTypeHandler.OfInt) typeHandler).getInt(rs, columnIndex);
+          if (rs.wasNull()) {
+            return false;
+          }
+          primitiveSetter.setInt(resultObject, value);
+        } else if (unboxedType == long.class) {
+          final long value = ((PrimitiveTypeHandler.OfLong) typeHandler).getLong(rs, columnIndex);
+          if (rs.wasNull()) {
+            return false;
+          }
+          primitiveSetter.setLong(resultObject, value);
+        } else {
+          final double value = ((PrimitiveTypeHandler.OfDouble) typeHandler).getDouble(rs, columnIndex);
+          if (rs.wasNull()) {
+            return false;
+          }
+          primitiveSetter.setDouble(resultObject, value);
+        }
+        return true;
+      } catch (IllegalAccessException e) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + resultObject.getClass() + "' Cause: " + e.toString(), e);
+      } catch (InvocationTargetException e) {
+        final Throwable t = ExceptionUtil.unwrapThrowable(e);
+        throw new ReflectionException("Could not set property '" + property + "' of '" + resultObject.getClass() + "' Cause: " + t.toString(), t);
+      }
+    }
+
+    void setValue(Object resultObject, MetaObject metaObject, Object value) {
+      if (setter == null) {
+        metaObject.setValue(property, value);
+        return;
+      }
+      try {
+        try {
+          setter.invoke(resultObject, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + resultObject.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import org.apache.ibatis.datasource.routing.RoutingContext;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -92,8 +93,13 @@ public abstract class BaseStatementHandler implements StatementHandler {
     ErrorContext.instance().sql(boundSql.getSql());
     Statement statement = null;
     try {
-      //实例化Statement
-      statement = instantiateStatement(connection);
+      //实例化Statement,路由数据源据此决定走主库还是从库
+      MappedStatement previous = RoutingContext.enter(mappedStatement);
+      try {
+        statement = instantiateStatement(connection);
+      } finally {
+        RoutingContext.exit(previous);
+      }
       //设置超时
       setStatementTimeout(statement);
       //设置读取条数
@@ -22,6 +22,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -76,6 +77,12 @@ public class CallableStatementHandler extends BaseStatementHandler {
     return resultList;
   }
 
+  //读OUT参数时很多驱动会关掉还没读的ResultSet，所以不支持游标
+  @Override
+  public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+    throw new ExecutorException("Callable statements cannot return a Cursor, their output parameters can only be read once the results are consumed.");
+  }
+
   @Override
   protected Statement instantiateStatement(Connection connection) throws SQLException {
     //调用Connection.prepareCall
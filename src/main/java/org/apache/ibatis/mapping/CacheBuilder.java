@@ -16,6 +16,7 @@
 package org.apache.ibatis.mapping;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -23,13 +24,18 @@ import java.util.Properties;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -46,7 +52,12 @@ public class CacheBuilder {
   private List<Class<? extends Cache>> decorators;
   private Integer size;
   private Long clearInterval;
+  private Long expireAfterWrite;
+  private Long expireAfterAccess;
+  private Long expiryJitter;
+  private Long refreshAhead;
   private boolean readWrite;
+  private Class<? extends CacheSerializer> serializer;
   private Properties properties;
   private boolean blocking;
 
@@ -77,11 +88,36 @@ public class CacheBuilder {
     return this;
   }
 
+  public CacheBuilder expireAfterWrite(Long expireAfterWrite) {
+    this.expireAfterWrite = expireAfterWrite;
+    return this;
+  }
+
+  public CacheBuilder expireAfterAccess(Long expireAfterAccess) {
+    this.expireAfterAccess = expireAfterAccess;
+    return this;
+  }
+
+  public CacheBuilder expiryJitter(Long expiryJitter) {
+    this.expiryJitter = expiryJitter;
+    return this;
+  }
+
+  public CacheBuilder refreshAhead(Long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
   }
 
+  public CacheBuilder serializer(Class<? extends CacheSerializer> serializer) {
+    this.serializer = serializer;
+    return this;
+  }
+
   public CacheBuilder blocking(boolean blocking) {
     this.blocking = blocking;
     return this;
@@ -107,7 +143,13 @@ public class CacheBuilder {
         setCacheProperties(cache);
       }
       //最后附加上标准的装饰者
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, true);
+    } else if (cache instanceof ConcurrentCache) {
+      // evicts entries on its own and is thread safe, so no eviction decorators and no lock
+      cache = setStandardDecorators(cache, false);
+    } else if (cache instanceof OffHeapCache) {
+      // evicts by bytes on its own, but is not thread safe
+      cache = setStandardDecorators(cache, true);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
         //如果是custom缓存，且不是日志，要加日志
       cache = new LoggingCache(cache);
@@ -126,7 +168,13 @@ public class CacheBuilder {
   }
 
   //最后附加上标准的装饰者
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, boolean synchronize) {
+    // OffHeapCache already returns a new copy on every read
+    boolean copiesValues = cache instanceof OffHeapCache;
+    if (copiesValues && (expireAfterAccess != null || refreshAhead != null)) {
+      // the entry read back is a copy, so its access time and refresh flag could not be updated
+      throw new CacheException("Cache " + id + " cannot use expireAfterAccess or refreshAhead with " + cache.getClass().getSimpleName() + ".");
+    }
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
@@ -137,16 +185,36 @@ public class CacheBuilder {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
-      if (readWrite) {
+      if (expireAfterWrite != null || expireAfterAccess != null) {
+        //按条目过期,不像ScheduledCache那样一次清空整个缓存
+        ExpiringCache expiringCache = new ExpiringCache(cache);
+        expiringCache.setExpireAfterWrite(valueOrZero(expireAfterWrite));
+        expiringCache.setExpireAfterAccess(valueOrZero(expireAfterAccess));
+        expiringCache.setExpiryJitter(valueOrZero(expiryJitter));
+        expiringCache.setRefreshAhead(valueOrZero(refreshAhead));
+        cache = expiringCache;
+      } else if (refreshAhead != null) {
+        throw new CacheException("Cache " + id + " sets refreshAhead without expireAfterWrite or expireAfterAccess.");
+      }
+      if (readWrite && !copiesValues) {
           //如果readOnly=false,可读写的缓存 会返回缓存对象的拷贝(通过序列化) 。这会慢一些,但是安全,因此默认是 false。
-        cache = new SerializedCache(cache);
+        SerializedCache serializedCache = new SerializedCache(cache);
+        if (serializer != null) {
+          serializedCache.setSerializer(newSerializerInstance(serializer));
+        }
+        cache = serializedCache;
       }
       //日志缓存
       cache = new LoggingCache(cache);
       //同步缓存, 3.2.6以后这个类已经没用了，考虑到Hazelcast, EhCache已经有锁机制了，所以这个锁就画蛇添足了。
-      cache = new SynchronizedCache(cache);
+      if (synchronize) {
+        cache = new SynchronizedCache(cache);
+      }
       if (blocking) {
-        cache = new BlockingCache(cache);
+        BlockingCache blockingCache = new BlockingCache(cache);
+        // 可读写的缓存每次返回拷贝, 等待的线程不能直接拿加载者的对象
+        blockingCache.setHandOff(!readWrite && !copiesValues);
+        cache = blockingCache;
       }
       return cache;
     } catch (Exception e) {
@@ -154,6 +222,10 @@ public class CacheBuilder {
     }
   }
 
+  private long valueOrZero(Long value) {
+    return value == null ? 0 : value;
+  }
+
   private void setCacheProperties(Cache cache) {
     if (properties != null) {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
@@ -222,6 +294,17 @@ public class CacheBuilder {
     }
   }
 
+  private CacheSerializer newSerializerInstance(Class<? extends CacheSerializer> serializerClass) {
+    try {
+      return serializerClass.getDeclaredConstructor().newInstance();
+    } catch (InvocationTargetException e) {
+      final Throwable t = ExceptionUtil.unwrapThrowable(e);
+      throw new CacheException("Could not instantiate cache serializer (" + serializerClass + "). Cause: " + t, t);
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache serializer (" + serializerClass + "). Cause: " + e, e);
+    }
+  }
+
   private Constructor<? extends Cache> getCacheDecoratorConstructor(Class<? extends Cache> cacheClass) {
     try {
       return cacheClass.getConstructor(Cache.class);
@@ -0,0 +1,28 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+/**
+ * Where a statement runs when the environment uses a routing data source.
+ *
+ * AUTO sends selects to a replica when they are not part of a transaction, that is when the
+ * connection is in auto-commit or read-only mode, PRIMARY always uses the primary and REPLICA
+ * sends selects to a replica even inside a transaction.
+ * Writes always go to the primary.
+ */
+public enum DataSourceRoute {
+  AUTO, PRIMARY, REPLICA
+}
@@ -52,6 +52,9 @@ public final class MappedStatement {
   private boolean flushCacheRequired;
   private boolean useCache;
   private boolean resultOrdered;
+  private boolean parallelMapping;
+  private boolean multiRowInsert;
+  private DataSourceRoute route = DataSourceRoute.AUTO;
   private SqlCommandType sqlCommandType;
   private KeyGenerator keyGenerator;
   private String[] keyProperties;
@@ -150,6 +153,21 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder parallelMapping(boolean parallelMapping) {
+      mappedStatement.parallelMapping = parallelMapping;
+      return this;
+    }
+
+    public Builder multiRowInsert(boolean multiRowInsert) {
+      mappedStatement.multiRowInsert = multiRowInsert;
+      return this;
+    }
+
+    public Builder route(DataSourceRoute route) {
+      mappedStatement.route = route;
+      return this;
+    }
+
     public Builder keyGenerator(KeyGenerator keyGenerator) {
       mappedStatement.keyGenerator = keyGenerator;
       return this;
@@ -258,6 +276,25 @@ public final class MappedStatement {
     return resultOrdered;
   }
 
+  public boolean isParallelMapping() {
+    return parallelMapping;
+  }
+
+  /*
+   * Whether a BATCH executor may coalesce the queued rows of this insert into multi-row
+   * INSERT ... VALUES (...), (...) statements.
+   */
+  public boolean isMultiRowInsert() {
+    return multiRowInsert;
+  }
+
+  /*
+   * Where the statement runs when the environment uses a routing data source.
+   */
+  public DataSourceRoute getRoute() {
+    return route;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -49,6 +49,7 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  private int batchSize;
 
   ResultMapping() {
   }
@@ -136,6 +137,11 @@ public class ResultMapping {
       resultMapping.lazy = lazy;
       return this;
     }
+
+    public Builder batchSize(int batchSize) {
+      resultMapping.batchSize = batchSize;
+      return this;
+    }
     
     public ResultMapping build() {
       // lock down collections
@@ -173,6 +179,19 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      // 批量嵌套查询只能用于属性，构造函数参数必须在创建对象时就有值
+      if (resultMapping.batchSize > 1) {
+        if (resultMapping.nestedQueryId == null) {
+          throw new IllegalStateException("batchSize can only be used with a nested select in property " + resultMapping.property);
+        }
+        if (resultMapping.flags.contains(ResultFlag.CONSTRUCTOR)) {
+          throw new IllegalStateException("batchSize cannot be used on constructor arguments");
+        }
+        int numColums = resultMapping.composites.isEmpty() ? 1 : resultMapping.composites.size();
+        if (resultMapping.foreignColumn != null && numColums != resultMapping.foreignColumn.split(",").length) {
+          throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
+        }
+      }
     }
     
     private void resolveTypeHandler() {
@@ -256,6 +275,14 @@ public class ResultMapping {
   public void setLazy(boolean lazy) {
     this.lazy = lazy;
   }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
   
   @Override
   public boolean equals(Object o) {
@@ -0,0 +1,368 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveGetInvoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetInvoker;
+
+/**
+ * Generates direct call getters, setters and no-arg constructors with {@link LambdaMetafactory}.
+ *
+ * The generated classes call the accessor like hand written code would, so once the JIT has
+ * inlined them there is no reflective dispatch, argument array or boxing of the target left.
+ * Getters and setters of int, long and double properties also get a primitive specialization,
+ * see {@link PrimitiveGetInvoker} and {@link PrimitiveSetInvoker}.
+ * Generation is only attempted for public members of public classes that can be seen from the
+ * class loader of MyBatis; for everything else null is returned and the caller keeps using
+ * reflection.
+ */
+final class AccessorGenerator {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private AccessorGenerator() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static Invoker getter(Method method) {
+    if (!isAccessible(method.getDeclaringClass(), method.getModifiers())
+        || method.getParameterTypes().length != 0 || Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    try {
+      MethodHandle handle = LOOKUP.unreflect(method);
+      CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+          MethodType.methodType(Function.class),
+          MethodType.methodType(Object.class, Object.class),
+          handle,
+          MethodType.methodType(boxed(method.getReturnType()), method.getDeclaringClass()));
+      @SuppressWarnings("unchecked")
+      Function<Object, Object> function = (Function<Object, Object>) site.getTarget().invoke();
+      return new GeneratedGetter(function, method.getReturnType(), primitiveGetter(handle, method));
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  static Invoker setter(Method method) {
+    if (!isAccessible(method.getDeclaringClass(), method.getModifiers())
+        || method.getParameterTypes().length != 1 || Modifier.isStatic(method.getModifiers())) {
+      return null;
+    }
+    Class<?> parameterType = method.getParameterTypes()[0];
+    try {
+      // the result of a fluent setter is simply dropped by the void accept method
+      MethodHandle handle = LOOKUP.unreflect(method);
+      CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+          MethodType.methodType(BiConsumer.class),
+          MethodType.methodType(void.class, Object.class, Object.class),
+          handle,
+          MethodType.methodType(void.class, method.getDeclaringClass(), boxed(parameterType)));
+      @SuppressWarnings("unchecked")
+      BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site.getTarget().invoke();
+      return new GeneratedSetter(consumer, parameterType, primitiveSetter(handle, method));
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  /*
+   * A ToIntFunction, ToLongFunction or ToDoubleFunction for getters of those primitive types, null otherwise.
+   */
+  private static Object primitiveGetter(MethodHandle handle, Method method) throws Throwable {
+    Class<?> type = method.getReturnType();
+    Class<?> functionType;
+    String name;
+    if (type == int.class) {
+      functionType = ToIntFunction.class;
+      name = "applyAsInt";
+    } else if (type == long.class) {
+      functionType = ToLongFunction.class;
+      name = "applyAsLong";
+    } else if (type == double.class) {
+      functionType = ToDoubleFunction.class;
+      name = "applyAsDouble";
+    } else {
+      return null;
+    }
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, name,
+        MethodType.methodType(functionType),
+        MethodType.methodType(type, Object.class),
+        handle,
+        MethodType.methodType(type, method.getDeclaringClass()));
+    return site.getTarget().invoke();
+  }
+
+  /*
+   * An ObjIntConsumer, ObjLongConsumer or ObjDoubleConsumer for setters of those primitive types, null otherwise.
+   */
+  private static Object primitiveSetter(MethodHandle handle, Method method) throws Throwable {
+    Class<?> type = method.getParameterTypes()[0];
+    Class<?> consumerType;
+    if (type == int.class) {
+      consumerType = ObjIntConsumer.class;
+    } else if (type == long.class) {
+      consumerType = ObjLongConsumer.class;
+    } else if (type == double.class) {
+      consumerType = ObjDoubleConsumer.class;
+    } else {
+      return null;
+    }
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+        MethodType.methodType(consumerType),
+        MethodType.methodType(void.class, Object.class, type),
+        handle,
+        MethodType.methodType(void.class, method.getDeclaringClass(), type));
+    return site.getTarget().invoke();
+  }
+
+  static Supplier<Object> constructor(Class<?> type) {
+    if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()
+        || (type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers()))) {
+      return null;
+    }
+    try {
+      Constructor<?> constructor = type.getConstructor();
+      if (!isAccessible(type, constructor.getModifiers())) {
+        return null;
+      }
+      MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+      CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+          MethodType.methodType(Supplier.class),
+          MethodType.methodType(Object.class),
+          handle,
+          MethodType.methodType(type));
+      @SuppressWarnings("unchecked")
+      Supplier<Object> supplier = (Supplier<Object>) site.getTarget().invoke();
+      return supplier;
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  /*
+   * The generated class lives next to this one, so it must be able to link against the
+   * target class: it has to be public all the way up and loaded by (a parent of) our loader.
+   */
+  private static boolean isAccessible(Class<?> type, int memberModifiers) {
+    if (!Modifier.isPublic(memberModifiers)) {
+      return false;
+    }
+    for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    try {
+      return Class.forName(type.getName(), false, AccessorGenerator.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static Class<?> boxed(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    } else if (type == int.class) {
+      return Integer.class;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == boolean.class) {
+      return Boolean.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == byte.class) {
+      return Byte.class;
+    } else if (type == char.class) {
+      return Character.class;
+    } else {
+      return Void.class;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T as(Class<T> type, Object function) {
+    return type.isInstance(function) ? (T) function : null;
+  }
+
+  private static final class GeneratedGetter implements PrimitiveGetInvoker {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Function<Object, Object> function;
+    private final Class<?> type;
+    private final ToIntFunction<Object> intFunction;
+    private final ToLongFunction<Object> longFunction;
+    private final ToDoubleFunction<Object> doubleFunction;
+
+    @SuppressWarnings("unchecked")
+    GeneratedGetter(Function<Object, Object> function, Class<?> type, Object primitiveFunction) {
+      this.function = function;
+      this.type = type;
+      this.intFunction = as(ToIntFunction.class, primitiveFunction);
+      this.longFunction = as(ToLongFunction.class, primitiveFunction);
+      this.doubleFunction = as(ToDoubleFunction.class, primitiveFunction);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      try {
+        return function.apply(target);
+      } catch (Throwable t) {
+        // same contract as Method.invoke
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public int getInt(Object target) throws IllegalAccessException, InvocationTargetException {
+      if (intFunction == null) {
+        return (Integer) invoke(target, NO_ARGUMENTS);
+      }
+      try {
+        return intFunction.applyAsInt(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public long getLong(Object target) throws IllegalAccessException, InvocationTargetException {
+      if (longFunction == null) {
+        return (Long) invoke(target, NO_ARGUMENTS);
+      }
+      try {
+        return longFunction.applyAsLong(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public double getDouble(Object target) throws IllegalAccessException, InvocationTargetException {
+      if (doubleFunction == null) {
+        return (Double) invoke(target, NO_ARGUMENTS);
+      }
+      try {
+        return doubleFunction.applyAsDouble(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public Class<?> getType() {
+      return type;
+    }
+  }
+
+  private static final class GeneratedSetter implements PrimitiveSetInvoker {
+
+    private final BiConsumer<Object, Object> consumer;
+    private final Class<?> type;
+    private final ObjIntConsumer<Object> intConsumer;
+    private final ObjLongConsumer<Object> longConsumer;
+    private final ObjDoubleConsumer<Object> doubleConsumer;
+
+    @SuppressWarnings("unchecked")
+    GeneratedSetter(BiConsumer<Object, Object> consumer, Class<?> type, Object primitiveConsumer) {
+      this.consumer = consumer;
+      this.type = type;
+      this.intConsumer = as(ObjIntConsumer.class, primitiveConsumer);
+      this.longConsumer = as(ObjLongConsumer.class, primitiveConsumer);
+      this.doubleConsumer = as(ObjDoubleConsumer.class, primitiveConsumer);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      try {
+        consumer.accept(target, args[0]);
+        return null;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public void setInt(Object target, int value) throws IllegalAccessException, InvocationTargetException {
+      if (intConsumer == null) {
+        invoke(target, new Object[] { value });
+        return;
+      }
+      try {
+        intConsumer.accept(target, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public void setLong(Object target, long value) throws IllegalAccessException, InvocationTargetException {
+      if (longConsumer == null) {
+        invoke(target, new Object[] { value });
+        return;
+      }
+      try {
+        longConsumer.accept(target, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public void setDouble(Object target, double value) throws IllegalAccessException, InvocationTargetException {
+      if (doubleConsumer == null) {
+        invoke(target, new Object[] { value });
+        return;
+      }
+      try {
+        doubleConsumer.accept(target, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public Class<?> getType() {
+      return type;
+    }
+  }
+
+}
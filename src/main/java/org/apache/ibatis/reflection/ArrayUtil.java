@@ -0,0 +1,158 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.util.Arrays;
+
+/**
+ * Null safe hashCode, equals, toString and copy that look into arrays, including arrays of
+ * primitives, without going through {@link java.lang.reflect.Array}.
+ */
+public final class ArrayUtil {
+
+  private ArrayUtil() {
+    // Prevent Instantiation of Static Class
+  }
+
+  public static int hashCode(Object obj) {
+    if (obj == null) {
+      return 1;
+    }
+    final Class<?> clazz = obj.getClass();
+    if (!clazz.isArray()) {
+      return obj.hashCode();
+    }
+    final Class<?> componentType = clazz.getComponentType();
+    if (long.class.equals(componentType)) {
+      return Arrays.hashCode((long[]) obj);
+    } else if (int.class.equals(componentType)) {
+      return Arrays.hashCode((int[]) obj);
+    } else if (short.class.equals(componentType)) {
+      return Arrays.hashCode((short[]) obj);
+    } else if (char.class.equals(componentType)) {
+      return Arrays.hashCode((char[]) obj);
+    } else if (byte.class.equals(componentType)) {
+      return Arrays.hashCode((byte[]) obj);
+    } else if (boolean.class.equals(componentType)) {
+      return Arrays.hashCode((boolean[]) obj);
+    } else if (float.class.equals(componentType)) {
+      return Arrays.hashCode((float[]) obj);
+    } else if (double.class.equals(componentType)) {
+      return Arrays.hashCode((double[]) obj);
+    } else {
+      return Arrays.deepHashCode((Object[]) obj);
+    }
+  }
+
+  public static boolean equals(Object thisObj, Object thatObj) {
+    if (thisObj == null) {
+      return thatObj == null;
+    } else if (thatObj == null) {
+      return false;
+    }
+    final Class<?> clazz = thisObj.getClass();
+    if (!clazz.equals(thatObj.getClass())) {
+      return false;
+    }
+    if (!clazz.isArray()) {
+      return thisObj.equals(thatObj);
+    }
+    final Class<?> componentType = clazz.getComponentType();
+    if (long.class.equals(componentType)) {
+      return Arrays.equals((long[]) thisObj, (long[]) thatObj);
+    } else if (int.class.equals(componentType)) {
+      return Arrays.equals((int[]) thisObj, (int[]) thatObj);
+    } else if (short.class.equals(componentType)) {
+      return Arrays.equals((short[]) thisObj, (short[]) thatObj);
+    } else if (char.class.equals(componentType)) {
+      return Arrays.equals((char[]) thisObj, (char[]) thatObj);
+    } else if (byte.class.equals(componentType)) {
+      return Arrays.equals((byte[]) thisObj, (byte[]) thatObj);
+    } else if (boolean.class.equals(componentType)) {
+      return Arrays.equals((boolean[]) thisObj, (boolean[]) thatObj);
+    } else if (float.class.equals(componentType)) {
+      return Arrays.equals((float[]) thisObj, (float[]) thatObj);
+    } else if (double.class.equals(componentType)) {
+      return Arrays.equals((double[]) thisObj, (double[]) thatObj);
+    } else {
+      return Arrays.deepEquals((Object[]) thisObj, (Object[]) thatObj);
+    }
+  }
+
+  public static String toString(Object obj) {
+    if (obj == null) {
+      return "null";
+    }
+    final Class<?> clazz = obj.getClass();
+    if (!clazz.isArray()) {
+      return obj.toString();
+    }
+    final Class<?> componentType = clazz.getComponentType();
+    if (long.class.equals(componentType)) {
+      return Arrays.toString((long[]) obj);
+    } else if (int.class.equals(componentType)) {
+      return Arrays.toString((int[]) obj);
+    } else if (short.class.equals(componentType)) {
+      return Arrays.toString((short[]) obj);
+    } else if (char.class.equals(componentType)) {
+      return Arrays.toString((char[]) obj);
+    } else if (byte.class.equals(componentType)) {
+      return Arrays.toString((byte[]) obj);
+    } else if (boolean.class.equals(componentType)) {
+      return Arrays.toString((boolean[]) obj);
+    } else if (float.class.equals(componentType)) {
+      return Arrays.toString((float[]) obj);
+    } else if (double.class.equals(componentType)) {
+      return Arrays.toString((double[]) obj);
+    } else {
+      return Arrays.deepToString((Object[]) obj);
+    }
+  }
+
+  /*
+   * Shallow copy of an array, any other object is returned as is.
+   */
+  public static Object copy(Object obj) {
+    if (obj == null) {
+      return null;
+    }
+    final Class<?> clazz = obj.getClass();
+    if (!clazz.isArray()) {
+      return obj;
+    }
+    final Class<?> componentType = clazz.getComponentType();
+    if (long.class.equals(componentType)) {
+      return ((long[]) obj).clone();
+    } else if (int.class.equals(componentType)) {
+      return ((int[]) obj).clone();
+    } else if (short.class.equals(componentType)) {
+      return ((short[]) obj).clone();
+    } else if (char.class.equals(componentType)) {
+      return ((char[]) obj).clone();
+    } else if (byte.class.equals(componentType)) {
+      return ((byte[]) obj).clone();
+    } else if (boolean.class.equals(componentType)) {
+      return ((boolean[]) obj).clone();
+    } else if (float.class.equals(componentType)) {
+      return ((float[]) obj).clone();
+    } else if (double.class.equals(componentType)) {
+      return ((double[]) obj).clone();
+    } else {
+      return ((Object[]) obj).clone();
+    }
+  }
+
+}
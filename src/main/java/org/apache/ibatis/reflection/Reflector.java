@@ -29,6 +29,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
@@ -50,7 +51,14 @@ import org.apache.ibatis.reflection.property.PropertyNamer;
  */
 public class Reflector {
 
+  /*
+   * System property turning the generated accessors on from the start, see
+   * {@link #setAccessorGenerationEnabled(boolean)}.
+   */
+  public static final String ACCESSOR_GENERATION_PROPERTY = "org.apache.ibatis.reflection.accessorGeneration";
+
   private static boolean classCacheEnabled = true;
+  private static volatile boolean accessorGenerationEnabled = Boolean.getBoolean(ACCESSOR_GENERATION_PROPERTY);
   private static final String[] EMPTY_STRING_ARRAY = new String[0];
   //这里用ConcurrentHashMap，多线程支持，作为一个缓存
   private static final Map<Class<?>, Reflector> REFLECTOR_MAP = new ConcurrentHashMap<Class<?>, Reflector>();
@@ -106,6 +114,10 @@ public class Reflector {
    */
   //构造函数
   private Constructor<?> defaultConstructor;
+  /**
+   * 生成的无参构造方法，未开启 accessorGenerationEnabled 或无法生成时为 null
+   */
+  private Supplier<Object> generatedConstructor;
   /**
    * 不区分大小写的属性集合
    */
@@ -117,6 +129,9 @@ public class Reflector {
     //加入构造函数
     // <1> 初始化 defaultConstructor
     addDefaultConstructor(clazz);
+    if (accessorGenerationEnabled) {
+      generatedConstructor = AccessorGenerator.constructor(clazz);
+    }
     //加入getter
     // <2> // 初始化 getMethods 和 getTypes ，通过遍历 getting 方法
     addGetMethods(clazz);
@@ -246,7 +261,7 @@ public class Reflector {
     // <2.1> 判断是合理的属性名
     if (isValidPropertyName(name)) {
       // <2.2> 添加到 getMethods 中
-      getMethods.put(name, new MethodInvoker(method));
+      getMethods.put(name, newGetInvoker(method));
       // <2.3> 添加到 getTypes 中
       getTypes.put(name, method.getReturnType());
     }
@@ -343,9 +358,19 @@ public class Reflector {
     }
   }
 
+  private Invoker newGetInvoker(Method method) {
+    Invoker invoker = accessorGenerationEnabled ? AccessorGenerator.getter(method) : null;
+    return invoker != null ? invoker : new MethodInvoker(method);
+  }
+
+  private Invoker newSetInvoker(Method method) {
+    Invoker invoker = accessorGenerationEnabled ? AccessorGenerator.setter(method) : null;
+    return invoker != null ? invoker : new MethodInvoker(method);
+  }
+
   private void addSetMethod(String name, Method method) {
     if (isValidPropertyName(name)) {
-      setMethods.put(name, new MethodInvoker(method));
+      setMethods.put(name, newSetInvoker(method));
       setTypes.put(name, method.getParameterTypes()[0]);
     }
   }
@@ -547,6 +572,15 @@ public class Reflector {
     return defaultConstructor != null;
   }
 
+  /*
+   * Gets the generated no-arg constructor.
+   *
+   * @return the constructor, or null if accessor generation is disabled or not possible for this class
+   */
+  public Supplier<Object> getGeneratedConstructor() {
+    return generatedConstructor;
+  }
+
   public Invoker getSetInvoker(String propertyName) {
     Invoker method = setMethods.get(propertyName);
     if (method == null) {
@@ -663,4 +697,21 @@ public class Reflector {
   public static boolean isClassCacheEnabled() {
     return classCacheEnabled;
   }
+
+  /*
+   * Turns the generated accessors on or off for every class looked up from now on. This is a JVM
+   * wide switch like the class cache, not a setting of a Configuration: reflectors are shared by all
+   * of them, and those cached with the previous mode are dropped. Off by default unless the
+   * {@link #ACCESSOR_GENERATION_PROPERTY} system property is true.
+   */
+  public static void setAccessorGenerationEnabled(boolean accessorGenerationEnabled) {
+    if (Reflector.accessorGenerationEnabled != accessorGenerationEnabled) {
+      Reflector.accessorGenerationEnabled = accessorGenerationEnabled;
+      REFLECTOR_MAP.clear();
+    }
+  }
+
+  public static boolean isAccessorGenerationEnabled() {
+    return accessorGenerationEnabled;
+  }
 }
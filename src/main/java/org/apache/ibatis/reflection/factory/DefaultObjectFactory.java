@@ -27,8 +27,10 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
 
 /**
  * @author Clinton Begin
@@ -80,6 +82,13 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
       //如果没有传入constructor，调用空构造函数，核心是调用Constructor.newInstance
       // <x1> 通过无参构造方法，创建指定类的对象
       if (constructorArgTypes == null || constructorArgs == null) {
+        // only worth it when the reflector, and so the generated class, is cached
+        if (Reflector.isAccessorGenerationEnabled() && Reflector.isClassCacheEnabled()) {
+          Supplier<Object> generated = Reflector.forClass(type).getGeneratedConstructor();
+          if (generated != null) {
+            return type.cast(generated.get());
+          }
+        }
         constructor = type.getDeclaredConstructor();
         if (!constructor.isAccessible()) {
           constructor.setAccessible(true);
@@ -26,7 +26,7 @@ import java.lang.reflect.InvocationTargetException;
  * getter调用者
  * 
  */
-public class GetFieldInvoker implements Invoker {
+public class GetFieldInvoker implements PrimitiveGetInvoker {
   private Field field;
 
   public GetFieldInvoker(Field field) {
@@ -39,6 +39,21 @@ public class GetFieldInvoker implements Invoker {
     return field.get(target);
   }
 
+  @Override
+  public int getInt(Object target) throws IllegalAccessException {
+    return field.getInt(target);
+  }
+
+  @Override
+  public long getLong(Object target) throws IllegalAccessException {
+    return field.getLong(target);
+  }
+
+  @Override
+  public double getDouble(Object target) throws IllegalAccessException {
+    return field.getDouble(target);
+  }
+
   @Override
   public Class<?> getType() {
     return field.getType();
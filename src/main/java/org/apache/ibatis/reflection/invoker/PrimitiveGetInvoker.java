@@ -0,0 +1,33 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A getter that can also read int, long and double properties without boxing.
+ *
+ * Only the method matching {@link Invoker#getType()} should be called.
+ */
+public interface PrimitiveGetInvoker extends Invoker {
+
+  int getInt(Object target) throws IllegalAccessException, InvocationTargetException;
+
+  long getLong(Object target) throws IllegalAccessException, InvocationTargetException;
+
+  double getDouble(Object target) throws IllegalAccessException, InvocationTargetException;
+
+}
@@ -26,7 +26,7 @@ import java.lang.reflect.InvocationTargetException;
  * setter调用者
  * Field 调用者
  */
-public class SetFieldInvoker implements Invoker {
+public class SetFieldInvoker implements PrimitiveSetInvoker {
   private Field field;
 
   public SetFieldInvoker(Field field) {
@@ -40,6 +40,21 @@ public class SetFieldInvoker implements Invoker {
     return null;
   }
 
+  @Override
+  public void setInt(Object target, int value) throws IllegalAccessException {
+    field.setInt(target, value);
+  }
+
+  @Override
+  public void setLong(Object target, long value) throws IllegalAccessException {
+    field.setLong(target, value);
+  }
+
+  @Override
+  public void setDouble(Object target, double value) throws IllegalAccessException {
+    field.setDouble(target, value);
+  }
+
   @Override
   public Class<?> getType() {
     return field.getType();
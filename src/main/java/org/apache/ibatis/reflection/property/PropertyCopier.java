@@ -16,6 +16,11 @@
 package org.apache.ibatis.reflection.property;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Clinton Begin
@@ -26,6 +31,8 @@ import java.lang.reflect.Field;
  */
 public final class PropertyCopier {
 
+  private static final ConcurrentMap<Class<?>, Field[]> copyableFields = new ConcurrentHashMap<Class<?>, Field[]>();
+
   private PropertyCopier() {
     // Prevent Instantiation of Static Class
   }
@@ -41,21 +48,44 @@ public final class PropertyCopier {
    * @param destinationBean 目标 Bean 对象
    */
   public static void copyBeanProperties(Class<?> type, Object sourceBean, Object destinationBean) {
-    Class<?> parent = type;
-    while (parent != null) {
+    for (Field field : getCopyableFields(type)) {
+      try {
+        // 将field 属性 给目标对象赋值
+        field.set(destinationBean, field.get(sourceBean));
+      } catch (Exception e) {
+        // Nothing useful to do, will only fail on final fields, which will be ignored.
+      }
+    }
+  }
+
+  /*
+   * Gets the instance fields of the type and of all its super classes, already made accessible.
+   * Static fields are left out, copying them is at best a no op and fails on constants.
+   */
+  private static Field[] getCopyableFields(Class<?> type) {
+    Field[] fields = copyableFields.get(type);
+    if (fields == null) {
+      List<Field> list = new ArrayList<Field>();
+      Class<?> parent = type;
+      while (parent != null) {
         //循环将父类的属性都要复制过来
-      final Field[] fields = parent.getDeclaredFields();
-      for(Field field : fields) {
-        try {
-          field.setAccessible(true);
-          // 将field 属性 给目标对象赋值
-          field.set(destinationBean, field.get(sourceBean));
-        } catch (Exception e) {
-          // Nothing useful to do, will only fail on final fields, which will be ignored.
+        for (Field field : parent.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          try {
+            field.setAccessible(true);
+            list.add(field);
+          } catch (Exception e) {
+            // Ignored, the field could not be copied anyway.
+          }
         }
+        parent = parent.getSuperclass();
       }
-      parent = parent.getSuperclass();
+      fields = list.toArray(new Field[list.size()]);
+      copyableFields.putIfAbsent(type, fields);
     }
+    return fields;
   }
 
 }
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.defaults;
 
+import java.lang.reflect.InvocationTargetException;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
@@ -25,9 +26,16 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.PrimitiveGetInvoker;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.PrimitiveTypeHandlers;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -86,6 +94,9 @@ public class DefaultParameterHandler implements ParameterHandler {
           } else {
             //除此以外，MetaObject.getValue反射取得值设进去
             MetaObject metaObject = configuration.newMetaObject(parameterObject);
+            if (setUnboxedParameter(ps, i + 1, metaObject, propertyName, parameterMapping.getTypeHandler())) {
+              continue;
+            }
             value = metaObject.getValue(propertyName);
           }
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
@@ -100,4 +111,42 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  /*
+   * Sets an int, long or double property of a plain bean without boxing it, when both the getter and
+   * the type handler support it (see {@link PrimitiveTypeHandlers}). Primitives are never null, so
+   * there is no JdbcType to care about.
+   *
+   * @return false if the parameter has to be set the usual way
+   */
+  private boolean setUnboxedParameter(PreparedStatement ps, int i, MetaObject metaObject, String propertyName, TypeHandler<?> typeHandler)
+      throws SQLException {
+    if (!(typeHandler instanceof PrimitiveTypeHandler) || metaObject.getObjectWrapper().getClass() != BeanWrapper.class
+        || propertyName.indexOf('.') >= 0 || propertyName.indexOf('[') >= 0) {
+      return false;
+    }
+    final Reflector reflector = Reflector.forClass(parameterObject.getClass());
+    if (!reflector.hasGetter(propertyName) || !(reflector.getGetInvoker(propertyName) instanceof PrimitiveGetInvoker)) {
+      return false;
+    }
+    final PrimitiveGetInvoker getter = (PrimitiveGetInvoker) reflector.getGetInvoker(propertyName);
+    final Class<?> type = getter.getType();
+    try {
+      if (type == int.class && PrimitiveTypeHandlers.ofInt(typeHandler) != null) {
+        ((PrimitiveTypeHandler.OfInt) typeHandler).setInt(ps, i, getter.getInt(parameterObject));
+      } else if (type == long.class && PrimitiveTypeHandlers.ofLong(typeHandler) != null) {
+        ((PrimitiveTypeHandler.OfLong) typeHandler).setLong(ps, i, getter.getLong(parameterObject));
+      } else if (type == double.class && PrimitiveTypeHandlers.ofDouble(typeHandler) != null) {
+        ((PrimitiveTypeHandler.OfDouble) typeHandler).setDouble(ps, i, getter.getDouble(parameterObject));
+      } else {
+        return false;
+      }
+    } catch (IllegalAccessException e) {
+      throw new ReflectionException("Could not get property '" + propertyName + "' from " + parameterObject.getClass() + ".  Cause: " + e.toString(), e);
+    } catch (InvocationTargetException e) {
+      final Throwable t = ExceptionUtil.unwrapThrowable(e);
+      throw new ReflectionException("Could not get property '" + propertyName + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+    }
+    return true;
+  }
+
 }
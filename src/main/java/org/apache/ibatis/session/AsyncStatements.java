@@ -0,0 +1,240 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Runs statements in the background, each one in a SqlSession of its own, and joins them.
+ *
+ * <pre>
+ * AsyncStatements statements = new AsyncStatements(sqlSessionFactory);
+ * CompletableFuture&lt;Author&gt; author = statements.selectOne("selectAuthor", id);
+ * CompletableFuture&lt;List&lt;Post&gt;&gt; posts = statements.selectList("selectPostsByAuthor", id);
+ * statements.join();
+ * </pre>
+ *
+ * The statements run on the executor of the configuration (see {@link Configuration#getAsyncExecutor()})
+ * unless another one is given, so the time to join is the time of the slowest one rather than the sum.
+ * Each session is committed when its work succeeds and closed in any case, so the statements do not
+ * see the uncommitted changes of the caller, nor of each other. Mapper methods returning a
+ * CompletableFuture run the same way.
+ *
+ * Work that is already running on the executor should not wait for more work on the same bounded
+ * executor, as it may wait forever once all the threads do so.
+ */
+public class AsyncStatements {
+
+  private static final Log log = LogFactory.getLog(AsyncStatements.class);
+
+  /*
+   * What to run in the session of a statement.
+   */
+  public interface Work<T> {
+    T execute(SqlSession sqlSession);
+  }
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final Executor executor;
+  private final List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+
+  public AsyncStatements(SqlSessionFactory sqlSessionFactory) {
+    this(sqlSessionFactory, sqlSessionFactory.getConfiguration().getAsyncExecutor());
+  }
+
+  public AsyncStatements(SqlSessionFactory sqlSessionFactory, Executor executor) {
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.executor = executor;
+  }
+
+  public <T> CompletableFuture<T> selectOne(final String statement, final Object parameter) {
+    return submit(new Work<T>() {
+      @Override
+      public T execute(SqlSession sqlSession) {
+        return sqlSession.<T>selectOne(statement, parameter);
+      }
+    });
+  }
+
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter) {
+    return selectList(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  public <E> CompletableFuture<List<E>> selectList(final String statement, final Object parameter, final RowBounds rowBounds) {
+    return submit(new Work<List<E>>() {
+      @Override
+      public List<E> execute(SqlSession sqlSession) {
+        return sqlSession.<E>selectList(statement, parameter, rowBounds);
+      }
+    });
+  }
+
+  public <K, V> CompletableFuture<Map<K, V>> selectMap(final String statement, final Object parameter, final String mapKey) {
+    return submit(new Work<Map<K, V>>() {
+      @Override
+      public Map<K, V> execute(SqlSession sqlSession) {
+        return sqlSession.<K, V>selectMap(statement, parameter, mapKey);
+      }
+    });
+  }
+
+  public CompletableFuture<Integer> insert(final String statement, final Object parameter) {
+    return submit(new Work<Integer>() {
+      @Override
+      public Integer execute(SqlSession sqlSession) {
+        return sqlSession.insert(statement, parameter);
+      }
+    });
+  }
+
+  public CompletableFuture<Integer> update(final String statement, final Object parameter) {
+    return submit(new Work<Integer>() {
+      @Override
+      public Integer execute(SqlSession sqlSession) {
+        return sqlSession.update(statement, parameter);
+      }
+    });
+  }
+
+  public CompletableFuture<Integer> delete(final String statement, final Object parameter) {
+    return submit(new Work<Integer>() {
+      @Override
+      public Integer execute(SqlSession sqlSession) {
+        return sqlSession.delete(statement, parameter);
+      }
+    });
+  }
+
+  /*
+   * Runs any work, for instance several mapper calls, in a session of its own.
+   */
+  public <T> CompletableFuture<T> submit(Work<T> work) {
+    CompletableFuture<T> future = supply(sqlSessionFactory, executor, work);
+    synchronized (futures) {
+      futures.add(future);
+    }
+    return future;
+  }
+
+  /*
+   * Waits for every statement submitted so far. When some failed, the first failure in
+   * submission order is thrown once all are done.
+   */
+  public void join() {
+    final CompletableFuture<?>[] submitted;
+    synchronized (futures) {
+      submitted = futures.toArray(new CompletableFuture<?>[futures.size()]);
+    }
+    try {
+      CompletableFuture.allOf(submitted).join();
+    } catch (CompletionException e) {
+      for (CompletableFuture<?> future : submitted) {
+        if (future.isCompletedExceptionally()) {
+          // throws the cause of the failure
+          join(future);
+        }
+      }
+      throw unwrap(e);
+    }
+  }
+
+  /*
+   * Waits for one statement and returns its result, throwing its failure as is.
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  /*
+   * Runs work in a new session on the given executor, committing it when the work succeeds.
+   */
+  public static <T> CompletableFuture<T> supply(final SqlSessionFactory sqlSessionFactory, Executor executor, final Work<T> work) {
+    return CompletableFuture.supplyAsync(new Supplier<T>() {
+      @Override
+      public T get() {
+        final SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+          final T result = work.execute(sqlSession);
+          sqlSession.commit();
+          return result;
+        } finally {
+          sqlSession.close();
+        }
+      }
+    }, executor);
+  }
+
+  /*
+   * Creates the executor of a configuration: daemon threads, as many as poolSize and created on
+   * demand, or a virtual thread per statement when asked for and the runtime has them.
+   */
+  static Executor newExecutor(int poolSize, boolean virtualThreads) {
+    if (virtualThreads) {
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (Exception e) {
+        log.warn("Virtual threads are not available in this runtime, using a pool of " + poolSize + " threads instead.");
+      }
+    }
+    final ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mybatis-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  private static RuntimeException unwrap(CompletionException e) {
+    final Throwable cause = e.getCause();
+    if (cause == null) {
+      return e;
+    } else if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    } else if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return ExceptionFactory.wrapException("Error running a statement asynchronously.", (Exception) cause);
+  }
+
+}
@@ -35,11 +35,17 @@ import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.CopyingSerializer;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
+import org.apache.ibatis.datasource.routing.RoutingDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchMetrics;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ReuseExecutor;
@@ -51,6 +57,7 @@ import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetLayoutCache;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.logging.Log;
@@ -63,6 +70,7 @@ import org.apache.ibatis.logging.nologging.NoLoggingImpl;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.logging.stdout.StdOutImpl;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMap;
@@ -119,9 +127,25 @@ public class Configuration {
   protected Integer defaultStatementTimeout;
   //默认为简单执行器
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
+  //BATCH执行器：按SQL合并交错的语句，以及自动flush的行数/字节数上限(0为不限)
+  protected boolean batchGroupBySql = false;
+  protected int batchFlushRows = 0;
+  protected long batchFlushBytes = 0;
+  //多行insert每条语句的行数/参数个数上限(0为按databaseId取默认值)
+  protected int multiRowInsertMaxRows = 0;
+  protected int multiRowInsertMaxParameters = 0;
+  //异步mapper方法的线程数，或者用虚拟线程
+  protected int asyncPoolSize = 10;
+  protected boolean asyncVirtualThreads = false;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   //---------以上都是<settings>节点-------
 
+  protected final BatchMetrics batchMetrics = new BatchMetrics();
+  protected final ResultSetLayoutCache resultSetLayoutCache = new ResultSetLayoutCache();
+  protected java.util.concurrent.Executor asyncExecutor;
+  protected java.util.concurrent.Executor cacheRefreshExecutor;
+  protected java.util.concurrent.Executor parallelMappingExecutor;
+
   protected Properties variables = new Properties();
   //对象工厂和对象包装器工厂
   protected ObjectFactory objectFactory = new DefaultObjectFactory();
@@ -174,6 +198,12 @@ public class Configuration {
    */
   protected final Map<String, String> cacheRefMap = new HashMap<String, String>();
 
+  /*
+   * The data source route declared on a mapper element, inherited by the statements of the
+   * namespace that do not declare their own.
+   */
+  protected final Map<String, DataSourceRoute> namespaceRoutes = new HashMap<String, DataSourceRoute>();
+
   public Configuration(Environment environment) {
     this();
     this.environment = environment;
@@ -187,12 +217,18 @@ public class Configuration {
     typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
     typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
+    typeAliasRegistry.registerAlias("ROUTING", RoutingDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT", ConcurrentCache.class);
+    typeAliasRegistry.registerAlias("OFFHEAP", OffHeapCache.class);
+
+    typeAliasRegistry.registerAlias("JAVA", JavaSerializer.class);
+    typeAliasRegistry.registerAlias("COPY", CopyingSerializer.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -381,6 +417,146 @@ public class Configuration {
     this.defaultStatementTimeout = defaultStatementTimeout;
   }
 
+  /*
+   * Lets a BATCH executor add a statement to the pending JDBC statement of the same SQL even when
+   * other statements were batched in between. Those are then executed in the order their SQL was
+   * first seen, so this is only right for statements that do not depend on each other's order,
+   * like inserts into tables without constraints between them.
+   */
+  public boolean isBatchGroupBySql() {
+    return batchGroupBySql;
+  }
+
+  public void setBatchGroupBySql(boolean batchGroupBySql) {
+    this.batchGroupBySql = batchGroupBySql;
+  }
+
+  /*
+   * The number of pending rows at which a BATCH executor flushes by itself, 0 for no limit.
+   * The results of those flushes are only counted in the batch metrics.
+   */
+  public int getBatchFlushRows() {
+    return batchFlushRows;
+  }
+
+  public void setBatchFlushRows(int batchFlushRows) {
+    this.batchFlushRows = batchFlushRows;
+  }
+
+  /*
+   * The estimated size of the pending parameters at which a BATCH executor flushes by itself,
+   * 0 for no limit.
+   */
+  public long getBatchFlushBytes() {
+    return batchFlushBytes;
+  }
+
+  public void setBatchFlushBytes(long batchFlushBytes) {
+    this.batchFlushBytes = batchFlushBytes;
+  }
+
+  /*
+   * Maximum rows of a multi-row insert written by the BATCH executor,
+   * 0 for the default of the database the databaseId names.
+   */
+  public int getMultiRowInsertMaxRows() {
+    return multiRowInsertMaxRows;
+  }
+
+  public void setMultiRowInsertMaxRows(int multiRowInsertMaxRows) {
+    this.multiRowInsertMaxRows = multiRowInsertMaxRows;
+  }
+
+  /*
+   * Maximum bind parameters of a multi-row insert written by the BATCH executor,
+   * 0 for the default of the database the databaseId names.
+   */
+  public int getMultiRowInsertMaxParameters() {
+    return multiRowInsertMaxParameters;
+  }
+
+  public void setMultiRowInsertMaxParameters(int multiRowInsertMaxParameters) {
+    this.multiRowInsertMaxParameters = multiRowInsertMaxParameters;
+  }
+
+  public int getAsyncPoolSize() {
+    return asyncPoolSize;
+  }
+
+  /*
+   * The number of threads running asynchronous statements, used when the executor is created.
+   */
+  public void setAsyncPoolSize(int asyncPoolSize) {
+    this.asyncPoolSize = asyncPoolSize;
+  }
+
+  public boolean isAsyncVirtualThreads() {
+    return asyncVirtualThreads;
+  }
+
+  /*
+   * Runs asynchronous statements on a virtual thread each when the runtime has them,
+   * instead of a pool of asyncPoolSize threads. Used when the executor is created.
+   */
+  public void setAsyncVirtualThreads(boolean asyncVirtualThreads) {
+    this.asyncVirtualThreads = asyncVirtualThreads;
+  }
+
+  /*
+   * Gets the executor of mapper methods returning a CompletableFuture and of {@link AsyncStatements},
+   * created on first use from asyncPoolSize and asyncVirtualThreads unless one was set.
+   */
+  public synchronized java.util.concurrent.Executor getAsyncExecutor() {
+    if (asyncExecutor == null) {
+      asyncExecutor = AsyncStatements.newExecutor(asyncPoolSize, asyncVirtualThreads);
+    }
+    return asyncExecutor;
+  }
+
+  public synchronized void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  /*
+   * Gets the executor reloading second level cache entries for refreshAhead, null until the first
+   * refresh creates one unless one was set.
+   */
+  public synchronized java.util.concurrent.Executor getCacheRefreshExecutor() {
+    return cacheRefreshExecutor;
+  }
+
+  /*
+   * Sets the executor reloading second level cache entries, to share threads with the
+   * application or to shut them down along with it.
+   */
+  public synchronized void setCacheRefreshExecutor(java.util.concurrent.Executor cacheRefreshExecutor) {
+    this.cacheRefreshExecutor = cacheRefreshExecutor;
+  }
+
+  /*
+   * Gets the executor mapping the rows of statements with parallelMapping, null until the first
+   * such statement creates one unless one was set.
+   */
+  public synchronized java.util.concurrent.Executor getParallelMappingExecutor() {
+    return parallelMappingExecutor;
+  }
+
+  /*
+   * Sets the executor mapping the rows of statements with parallelMapping, to share threads with
+   * the application or to shut them down along with it.
+   */
+  public synchronized void setParallelMappingExecutor(java.util.concurrent.Executor parallelMappingExecutor) {
+    this.parallelMappingExecutor = parallelMappingExecutor;
+  }
+
+  public BatchMetrics getBatchMetrics() {
+    return batchMetrics;
+  }
+
+  public ResultSetLayoutCache getResultSetLayoutCache() {
+    return resultSetLayoutCache;
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -505,6 +681,14 @@ public class Configuration {
 
   //产生执行器
   public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+    return newExecutor(transaction, executorType, cacheEnabled);
+  }
+
+  /*
+   * Creates an executor with or without the second level cache, whatever the cacheEnabled
+   * setting. Plugins are applied either way.
+   */
+  public Executor newExecutor(Transaction transaction, ExecutorType executorType, boolean cacheEnabled) {
     executorType = executorType == null ? defaultExecutorType : executorType;
     //这句再做一下保护,囧,防止粗心大意的人将defaultExecutorType设成null?
     executorType = executorType == null ? ExecutorType.SIMPLE : executorType;
@@ -710,6 +894,14 @@ public class Configuration {
   public void addCacheRef(String namespace, String referencedNamespace) {
     cacheRefMap.put(namespace, referencedNamespace);
   }
+
+  public void setNamespaceRoute(String namespace, DataSourceRoute route) {
+    namespaceRoutes.put(namespace, route);
+  }
+
+  public DataSourceRoute getNamespaceRoute(String namespace) {
+    return namespaceRoutes.get(namespace);
+  }
   
   /*
    * Parses all the unprocessed statement nodes in the cache. It is recommended
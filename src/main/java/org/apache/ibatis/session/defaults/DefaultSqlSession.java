@@ -17,12 +17,14 @@ package org.apache.ibatis.session.defaults;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
@@ -35,6 +37,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 /**
  * @author Clinton Begin
@@ -53,6 +56,10 @@ public class DefaultSqlSession implements SqlSession {
    */
   private boolean autoCommit;
   private boolean dirty;
+  //还没有关闭的游标，随 session 一起关闭
+  private List<Cursor<?>> cursorList;
+  //打开这个session的工厂，直接new出来的为null
+  private SqlSessionFactory sqlSessionFactory;
   
   public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit) {
     this.configuration = configuration;
@@ -61,10 +68,22 @@ public class DefaultSqlSession implements SqlSession {
     this.autoCommit = autoCommit;
   }
 
+  public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit, SqlSessionFactory sqlSessionFactory) {
+    this(configuration, executor, autoCommit);
+    this.sqlSessionFactory = sqlSessionFactory;
+  }
+
   public DefaultSqlSession(Configuration configuration, Executor executor) {
     this(configuration, executor, false);
   }
 
+  /*
+   * Gets the factory that opened this session, null if the session was created directly.
+   */
+  public SqlSessionFactory getSqlSessionFactory() {
+    return sqlSessionFactory;
+  }
+
   @Override
   public <T> T selectOne(String statement) {
     return this.<T>selectOne(statement, null);
@@ -114,6 +133,31 @@ public class DefaultSqlSession implements SqlSession {
     return mapResultHandler.getMappedResults();
   }
 
+  @Override
+  public <T> Cursor<T> selectCursor(String statement) {
+    return selectCursor(statement, null);
+  }
+
+  @Override
+  public <T> Cursor<T> selectCursor(String statement, Object parameter) {
+    return selectCursor(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  //核心selectCursor，不经过一级和二级缓存
+  @Override
+  public <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
+    try {
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      Cursor<T> cursor = executor.<T>queryCursor(ms, wrapCollection(parameter), rowBounds);
+      registerCursor(cursor);
+      return cursor;
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return this.selectList(statement, null);
@@ -262,6 +306,7 @@ public class DefaultSqlSession implements SqlSession {
   @Override
   public void close() {
     try {
+      closeCursors();
       //转而用执行器来close
       executor.close(isCommitOrRollbackRequired(false));
       //每次close之后，dirty标志设为false
@@ -299,6 +344,22 @@ public class DefaultSqlSession implements SqlSession {
   }
 
   //检查是否需要强制commit或rollback
+  private void closeCursors() {
+    if (cursorList != null && cursorList.size() != 0) {
+      for (Cursor<?> cursor : cursorList) {
+        cursor.close();
+      }
+      cursorList.clear();
+    }
+  }
+
+  private <T> void registerCursor(Cursor<T> cursor) {
+    if (cursorList == null) {
+      cursorList = new ArrayList<Cursor<?>>();
+    }
+    cursorList.add(cursor);
+  }
+
   private boolean isCommitOrRollbackRequired(boolean force) {
     return (!autoCommit && dirty) || force;
   }
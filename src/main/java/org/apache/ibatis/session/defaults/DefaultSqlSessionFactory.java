@@ -104,7 +104,7 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
       //生成一个执行器(事务包含在执行器里)
       final Executor executor = configuration.newExecutor(tx, execType);
       //然后产生一个DefaultSqlSession
-      return new DefaultSqlSession(configuration, executor, autoCommit);
+      return new DefaultSqlSession(configuration, executor, autoCommit, this);
     } catch (Exception e) {
       //如果打开事务出错，则关闭它
       closeTransaction(tx); // may have fetched a connection so lets call close()
@@ -129,7 +129,7 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
       final TransactionFactory transactionFactory = getTransactionFactoryFromEnvironment(environment);
       final Transaction tx = transactionFactory.newTransaction(connection);
       final Executor executor = configuration.newExecutor(tx, execType);
-      return new DefaultSqlSession(configuration, executor, autoCommit);
+      return new DefaultSqlSession(configuration, executor, autoCommit, this);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
     } finally {
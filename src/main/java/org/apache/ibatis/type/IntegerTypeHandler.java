@@ -28,7 +28,7 @@ import java.sql.SQLException;
  * 调用PreparedStatement.setInt, ResultSet.getInt, CallableStatement.getInt
  * 
  */
-public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
+public class IntegerTypeHandler extends BaseTypeHandler<Integer> implements PrimitiveTypeHandler.OfInt {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Integer parameter, JdbcType jdbcType)
@@ -54,4 +54,16 @@ public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
       throws SQLException {
     return cs.getInt(columnIndex);
   }
+
+  @Override
+  public int getInt(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return rs.getInt(columnIndex);
+  }
+
+  @Override
+  public void setInt(PreparedStatement ps, int i, int parameter)
+      throws SQLException {
+    ps.setInt(i, parameter);
+  }
 }
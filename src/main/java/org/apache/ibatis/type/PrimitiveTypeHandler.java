@@ -0,0 +1,52 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A type handler that can also move its values as primitives, so int, long and double columns and
+ * parameters of primitive properties are not boxed on the way.
+ *
+ * Like JDBC, the getters return 0 for SQL NULL and the caller checks {@link ResultSet#wasNull()}.
+ * {@link PrimitiveTypeHandlers} tells which handlers are used this way.
+ */
+public interface PrimitiveTypeHandler<T> extends TypeHandler<T> {
+
+  interface OfInt extends PrimitiveTypeHandler<Integer> {
+
+    int getInt(ResultSet rs, int columnIndex) throws SQLException;
+
+    void setInt(PreparedStatement ps, int i, int parameter) throws SQLException;
+  }
+
+  interface OfLong extends PrimitiveTypeHandler<Long> {
+
+    long getLong(ResultSet rs, int columnIndex) throws SQLException;
+
+    void setLong(PreparedStatement ps, int i, long parameter) throws SQLException;
+  }
+
+  interface OfDouble extends PrimitiveTypeHandler<Double> {
+
+    double getDouble(ResultSet rs, int columnIndex) throws SQLException;
+
+    void setDouble(PreparedStatement ps, int i, double parameter) throws SQLException;
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds out whether a type handler can move its values as primitives.
+ *
+ * Any implementor of {@link PrimitiveTypeHandler.OfInt}, {@link PrimitiveTypeHandler.OfLong} or
+ * {@link PrimitiveTypeHandler.OfDouble} qualifies. A subclass of {@link IntegerTypeHandler},
+ * {@link LongTypeHandler} or {@link DoubleTypeHandler} only qualifies when it overrides the primitive
+ * getter and setter itself, otherwise it may have changed getNullableResult or setNonNullParameter
+ * and the inherited primitive methods would bypass that.
+ */
+public final class PrimitiveTypeHandlers {
+
+  private static final Map<Class<?>, Boolean> OVERRIDES_PRIMITIVES = new ConcurrentHashMap<Class<?>, Boolean>();
+
+  private PrimitiveTypeHandlers() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * @return the handler, or null if its values have to be boxed
+   */
+  public static PrimitiveTypeHandler.OfInt ofInt(TypeHandler<?> typeHandler) {
+    if (typeHandler instanceof PrimitiveTypeHandler.OfInt
+        && isUnboxed(typeHandler.getClass(), IntegerTypeHandler.class, "getInt", "setInt", int.class)) {
+      return (PrimitiveTypeHandler.OfInt) typeHandler;
+    }
+    return null;
+  }
+
+  /**
+   * @return the handler, or null if its values have to be boxed
+   */
+  public static PrimitiveTypeHandler.OfLong ofLong(TypeHandler<?> typeHandler) {
+    if (typeHandler instanceof PrimitiveTypeHandler.OfLong
+        && isUnboxed(typeHandler.getClass(), LongTypeHandler.class, "getLong", "setLong", long.class)) {
+      return (PrimitiveTypeHandler.OfLong) typeHandler;
+    }
+    return null;
+  }
+
+  /**
+   * @return the handler, or null if its values have to be boxed
+   */
+  public static PrimitiveTypeHandler.OfDouble ofDouble(TypeHandler<?> typeHandler) {
+    if (typeHandler instanceof PrimitiveTypeHandler.OfDouble
+        && isUnboxed(typeHandler.getClass(), DoubleTypeHandler.class, "getDouble", "setDouble", double.class)) {
+      return (PrimitiveTypeHandler.OfDouble) typeHandler;
+    }
+    return null;
+  }
+
+  private static boolean isUnboxed(Class<?> type, Class<?> builtIn, String getter, String setter, Class<?> primitive) {
+    if (type == builtIn || !builtIn.isAssignableFrom(type)) {
+      return true;
+    }
+    Boolean overrides = OVERRIDES_PRIMITIVES.get(type);
+    if (overrides == null) {
+      overrides = declares(type, builtIn, getter, ResultSet.class, int.class)
+          && declares(type, builtIn, setter, PreparedStatement.class, int.class, primitive);
+      OVERRIDES_PRIMITIVES.put(type, overrides);
+    }
+    return overrides;
+  }
+
+  // 在子类到自带类之间找有没有重写
+  private static boolean declares(Class<?> type, Class<?> builtIn, String name, Class<?>... parameterTypes) {
+    for (Class<?> c = type; c != builtIn; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod(name, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // 继续找父类
+      }
+    }
+    return false;
+  }
+
+}
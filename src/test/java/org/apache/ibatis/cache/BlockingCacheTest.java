@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class BlockingCacheTest {
+
+  @Test
+  public void shouldPutAKeyThatWasNeverMissed() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    cache.removeObject(1);
+    assertEquals(0, cache.getObject(0));
+    assertEquals(0, cache.getLoadCount());
+  }
+
+  @Test
+  public void shouldLoadOnceAndHandTheValueToWaiters() throws Exception {
+    final BlockingCache cache = new BlockingCache(new SynchronizedCache(new PerpetualCache("default")));
+    final Object loaded = new ArrayList<Object>();
+    final int threads = 8;
+    final AtomicInteger loads = new AtomicInteger();
+    final List<Object> results = new ArrayList<Object>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            Object value = cache.getObject("key");
+            if (value == null) {
+              loads.incrementAndGet();
+              Thread.sleep(50);
+              cache.putObject("key", loaded);
+              value = loaded;
+            }
+            synchronized (results) {
+              results.add(value);
+            }
+          } catch (InterruptedException e) {
+            // ignored, the result will be missing
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    start.countDown();
+    done.await();
+    assertEquals(1, loads.get());
+    assertEquals(threads, results.size());
+    for (Object result : results) {
+      assertSame(loaded, result);
+    }
+    assertEquals(0, cache.getLoadCount());
+  }
+
+  @Test
+  public void shouldLetAWaiterLoadWhenTheLoaderGivesUp() throws Exception {
+    final BlockingCache cache = new BlockingCache(new SynchronizedCache(new PerpetualCache("default")));
+    assertNull(cache.getObject("key"));
+    final Object[] result = new Object[1];
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        result[0] = cache.getObject("key");
+        cache.putObject("key", "loaded by the waiter");
+      }
+    };
+    waiter.start();
+    Thread.sleep(50);
+    assertTrue(waiter.isAlive());
+    cache.putObject("key", null);
+    waiter.join();
+    assertNull(result[0]);
+    assertEquals("loaded by the waiter", cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldLetTheLoaderMissTheSameKeyAgain() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "value");
+    assertEquals(0, cache.getLoadCount());
+  }
+
+  @Test
+  public void shouldReadAnOwnCopyWithoutHandOff() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default") {
+      @Override
+      public Object getObject(Object key) {
+        Object value = super.getObject(key);
+        return value == null ? null : new String((String) value);
+      }
+    });
+    cache.setHandOff(false);
+    final String loaded = "value";
+    assertNull(cache.getObject("key"));
+    final Object[] result = new Object[1];
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        result[0] = cache.getObject("key");
+      }
+    };
+    waiter.start();
+    Thread.sleep(50);
+    cache.putObject("key", loaded);
+    waiter.join();
+    assertEquals(loaded, result[0]);
+    assertNotSame(loaded, result[0]);
+  }
+
+  @Test
+  public void shouldTimeOutWaitingForTheLoader() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(20);
+    assertNull(cache.getObject("key"));
+    final Exception[] failure = new Exception[1];
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          cache.getObject("key");
+        } catch (CacheException e) {
+          failure[0] = e;
+        }
+      }
+    };
+    waiter.start();
+    waiter.join();
+    assertNotNull(failure[0]);
+    cache.putObject("key", "value");
+  }
+
+}
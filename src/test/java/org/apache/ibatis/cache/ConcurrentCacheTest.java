@@ -0,0 +1,160 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+
+  @Test
+  public void shouldRemoveLeastRecentlyUsedItemInBeyondFiveEntries() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setPolicy("lru");
+    cache.setSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(5, 5);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getObject(0));
+    assertEquals(5, cache.getSize());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void shouldKeepFrequentlyUsedItemsDuringAScan() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 50; i++) {
+      cache.putObject("hot" + i, i);
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.getObject("hot" + i);
+      }
+    }
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject("cold" + i, i);
+    }
+    int hot = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.getObject("hot" + i) != null) {
+        hot++;
+      }
+    }
+    assertTrue("only " + hot + " hot entries left", hot >= 45);
+    assertTrue(cache.getSize() <= 100);
+  }
+
+  @Test
+  public void shouldRemoveItemOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldCountHitsAndMisses() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject(0, 0);
+    cache.getObject(0);
+    cache.getObject(0);
+    cache.getObject(1);
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2.0 / 3, cache.getHitRatio(), 0.001);
+  }
+
+  @Test
+  public void shouldStayWithinItsSizeUnderConcurrentAccess() throws Exception {
+    final ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(64);
+    final int threads = 8;
+    final CountDownLatch done = new CountDownLatch(threads);
+    final AtomicInteger failures = new AtomicInteger();
+    for (int t = 0; t < threads; t++) {
+      final int seed = t;
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < 20000; i++) {
+              int key = (i * 31 + seed) % 200;
+              Object value = cache.getObject(key);
+              if (value == null) {
+                cache.putObject(key, key);
+              } else if (!value.equals(key)) {
+                failures.incrementAndGet();
+              }
+              if (i % 1000 == 0) {
+                cache.removeObject(key);
+              }
+            }
+          } catch (RuntimeException e) {
+            failures.incrementAndGet();
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    done.await();
+    assertEquals(0, failures.get());
+    assertTrue(cache.getSize() <= 64);
+  }
+
+  @Test
+  public void shouldBeBuiltWithoutSynchronizedCache() {
+    Cache cache = new CacheBuilder("default").implementation(ConcurrentCache.class).size(5).build();
+    assertTrue(cache instanceof LoggingCache);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldFailOnUnknownPolicy() {
+    new ConcurrentCache("default").setPolicy("MRU");
+  }
+
+}
@@ -0,0 +1,203 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.CopyingSerializer;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.domain.blog.Tag;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class CopyingSerializerTest {
+
+  @Test
+  public void shouldCopyIndependentGraphs() {
+    CopyingSerializer serializer = new CopyingSerializer();
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    Post post = new Post();
+    post.setId(1);
+    post.setAuthor(author);
+    post.setCreatedOn(new Date(0));
+    post.setSubject("Corn nuts");
+    post.setTags(new ArrayList<Tag>());
+
+    Post copy = (Post) serializer.deserialize(serializer.serialize(post));
+    assertNotSame(post, copy);
+    assertEquals(1, copy.getId());
+    assertEquals("Corn nuts", copy.getSubject());
+    assertEquals(author, copy.getAuthor());
+    assertNotSame(author, copy.getAuthor());
+    assertEquals(post.getCreatedOn(), copy.getCreatedOn());
+    assertNotSame(post.getCreatedOn(), copy.getCreatedOn());
+    assertNotSame(post.getTags(), copy.getTags());
+    assertSame(Section.NEWS, copy.getAuthor().getFavouriteSection());
+
+    copy.getAuthor().setUsername("bob");
+    assertEquals("jim", author.getUsername());
+  }
+
+  @Test
+  public void shouldPreserveSharedReferencesAndCycles() {
+    CopyingSerializer serializer = new CopyingSerializer();
+    Node parent = new Node();
+    Node child = new Node();
+    parent.setChildren(new ArrayList<Node>());
+    parent.getChildren().add(child);
+    parent.getChildren().add(child);
+    child.setParent(parent);
+
+    Node copy = (Node) serializer.deserialize(serializer.serialize(parent));
+    assertNotSame(parent, copy);
+    assertEquals(2, copy.getChildren().size());
+    assertSame(copy.getChildren().get(0), copy.getChildren().get(1));
+    assertSame(copy, copy.getChildren().get(0).getParent());
+  }
+
+  @Test
+  public void shouldSkipTransientProperties() {
+    CopyingSerializer serializer = new CopyingSerializer();
+    Node node = new Node();
+    node.setName("node");
+    node.label = "transient";
+    Node copy = (Node) serializer.deserialize(serializer.serialize(node));
+    assertEquals("node", copy.getName());
+    assertNull(copy.label);
+  }
+
+  @Test
+  public void shouldFallBackToJavaSerialization() {
+    CopyingSerializer serializer = new CopyingSerializer();
+    List<Object> list = new ArrayList<Object>();
+    list.add(new Immutable("value"));
+    TreeMap<String, String> sorted = new TreeMap<String, String>();
+    sorted.put("key", "value");
+    list.add(sorted);
+
+    @SuppressWarnings("unchecked")
+    List<Object> copy = (List<Object>) serializer.deserialize(serializer.serialize(list));
+    assertEquals("value", ((Immutable) copy.get(0)).getValue());
+    assertNotSame(list.get(0), copy.get(0));
+    assertEquals(sorted, copy.get(1));
+    assertNotSame(sorted, copy.get(1));
+  }
+
+  @Test
+  public void shouldReturnCopiesFromSerializedCache() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+    cache.setSerializer(new CopyingSerializer());
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    cache.putObject(0, author);
+    author.setUsername("bob");
+    Author cached = (Author) cache.getObject(0);
+    assertEquals("jim", cached.getUsername());
+    cached.setUsername("sally");
+    assertEquals("jim", ((Author) cache.getObject(0)).getUsername());
+  }
+
+  @Test
+  public void shouldSelectTheSerializerInTheBuilder() {
+    Cache cache = new CacheBuilder("default").readWrite(true).serializer(CopyingSerializer.class).build();
+    assertTrue(serializerOf(cache) instanceof CopyingSerializer);
+    cache = new CacheBuilder("default").readWrite(true).build();
+    assertTrue(serializerOf(cache) instanceof JavaSerializer);
+  }
+
+  @Test
+  public void shouldSelectTheSerializerInXml() throws Exception {
+    Configuration configuration = new Configuration();
+    String resource = "org/apache/ibatis/cache/CopyingSerializerMapper.xml";
+    XMLMapperBuilder builder = new XMLMapperBuilder(Resources.getResourceAsStream(resource), configuration, resource,
+        configuration.getSqlFragments());
+    builder.parse();
+    Cache cache = configuration.getCache("org.apache.ibatis.cache.CopyingSerializerMapper");
+    assertTrue(serializerOf(cache) instanceof CopyingSerializer);
+  }
+
+  private CacheSerializer serializerOf(Cache cache) {
+    while (!(cache instanceof SerializedCache)) {
+      try {
+        Field delegate = cache.getClass().getDeclaredField("delegate");
+        delegate.setAccessible(true);
+        cache = (Cache) delegate.get(cache);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return ((SerializedCache) cache).getSerializer();
+  }
+
+  public static class Node {
+    private String name;
+    private Node parent;
+    private List<Node> children;
+    private transient String label;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Node getParent() {
+      return parent;
+    }
+
+    public void setParent(Node parent) {
+      this.parent = parent;
+    }
+
+    public List<Node> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<Node> children) {
+      this.children = children;
+    }
+  }
+
+  public static class Immutable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String value;
+
+    public Immutable(String value) {
+      this.value = value;
+    }
+
+    public String getValue() {
+      return value;
+    }
+  }
+
+}
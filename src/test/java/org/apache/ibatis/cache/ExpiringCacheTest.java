@@ -0,0 +1,186 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Test;
+
+public class ExpiringCacheTest extends BaseDataTest {
+
+  @Test
+  public void shouldExpireEntriesAfterWrite() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setExpireAfterWrite(50);
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    Thread.sleep(80);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldKeepEntriesThatAreReadWithExpireAfterAccess() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setExpireAfterAccess(100);
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    for (int i = 0; i < 4; i++) {
+      Thread.sleep(40);
+      assertEquals(0, cache.getObject(0));
+    }
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  public void shouldNotExpireEntriesBeforeTheirTimeWithJitter() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setExpireAfterWrite(200);
+    cache.setExpiryJitter(100);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, i);
+    }
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, cache.getObject(i));
+    }
+    Thread.sleep(350);
+    for (int i = 0; i < 10; i++) {
+      assertNull(cache.getObject(i));
+    }
+  }
+
+  @Test
+  public void shouldRequestOneRefreshPerEntry() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setExpireAfterWrite(1000);
+    cache.setRefreshAhead(1000);
+    cache.putObject(0, 0);
+    ExpiringCache.listenForRefresh();
+    assertEquals(0, cache.getObject(0));
+    assertNull(ExpiringCache.takeRefreshRequest(1));
+    ExpiringCache.listenForRefresh();
+    assertEquals(0, cache.getObject(0));
+    assertNull(ExpiringCache.takeRefreshRequest(0));
+    cache.putObject(0, 0);
+    ExpiringCache.listenForRefresh();
+    assertEquals(0, cache.getObject(0));
+    assertNotNull(ExpiringCache.takeRefreshRequest(0));
+    assertNull(ExpiringCache.takeRefreshRequest(0));
+  }
+
+  @Test
+  public void shouldNotRequestRefreshesFromCallersThatDoNotListen() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setExpireAfterWrite(1000);
+    cache.setRefreshAhead(1000);
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    assertNull(ExpiringCache.takeRefreshRequest(0));
+    // the entry is still due, the first listening reader gets the request
+    ExpiringCache.listenForRefresh();
+    assertEquals(0, cache.getObject(0));
+    assertNotNull(ExpiringCache.takeRefreshRequest(0));
+  }
+
+  @Test
+  public void shouldDropARefreshedValueWhenFlushedMeanwhile() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setExpireAfterWrite(1000);
+    cache.setRefreshAhead(1000);
+    cache.putObject(0, 0);
+    ExpiringCache.listenForRefresh();
+    cache.getObject(0);
+    ExpiringCache.Refresh refresh = ExpiringCache.takeRefreshRequest(0);
+    cache.clear();
+    refresh.begin();
+    try {
+      cache.putObject(0, 1);
+    } finally {
+      refresh.end();
+    }
+    assertNull(cache.getObject(0));
+    cache.putObject(0, 2);
+    assertEquals(2, cache.getObject(0));
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldFailOnRefreshAheadWithoutExpiry() {
+    new CacheBuilder("default").refreshAhead(100L).build();
+  }
+
+  @Test
+  public void shouldRefreshAheadInTheBackgroundAndServeTheCachedValueMeanwhile() throws Exception {
+    DataSource dataSource = createBlogDataSource();
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(RefreshingAuthorMapper.class);
+    SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(configuration);
+    long start = System.currentTimeMillis();
+    assertEquals("jim", selectUsername(factory));
+    Connection connection = dataSource.getConnection();
+    try {
+      Statement statement = connection.createStatement();
+      statement.executeUpdate("update author set username = 'refreshed' where id = 101");
+      statement.close();
+      connection.commit();
+    } finally {
+      connection.close();
+    }
+    Thread.sleep(100);
+    // due for a refresh but still served from the cache
+    assertEquals("jim", selectUsername(factory));
+    String username = null;
+    while (!"refreshed".equals(username) && System.currentTimeMillis() - start < 1500) {
+      Thread.sleep(20);
+      username = selectUsername(factory);
+    }
+    assertEquals("refreshed", username);
+    assertTrue("should have been refreshed before expiring", System.currentTimeMillis() - start < 2000);
+  }
+
+  private String selectUsername(SqlSessionFactory factory) {
+    SqlSession session = factory.openSession();
+    try {
+      return session.getMapper(RefreshingAuthorMapper.class).selectAuthor(101).getUsername();
+    } finally {
+      session.close();
+    }
+  }
+
+  @CacheNamespace(readWrite = false, expireAfterWrite = 2000, refreshAhead = 1900)
+  public interface RefreshingAuthorMapper {
+    @Select("select * from author where id = #{id}")
+    Author selectAuthor(int id);
+  }
+
+}
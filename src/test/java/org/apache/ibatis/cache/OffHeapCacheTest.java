@@ -0,0 +1,144 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+  @Test
+  public void shouldReturnCopiesOfTheStoredValues() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    List<Author> list = new ArrayList<Author>();
+    list.add(author);
+    cache.putObject(0, list);
+    author.setUsername("bob");
+    @SuppressWarnings("unchecked")
+    List<Author> cached = (List<Author>) cache.getObject(0);
+    assertEquals(1, cached.size());
+    assertEquals("jim", cached.get(0).getUsername());
+    assertNotSame(cached, cache.getObject(0));
+    assertEquals(1, cache.getSize());
+    assertTrue(cache.getUsedBytes() > 0);
+  }
+
+  @Test
+  public void shouldEvictTheOldestSegmentWhenFull() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSegmentSize(1024);
+    cache.setCapacity(4096);
+    byte[] value = new byte[200];
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, value);
+    }
+    assertNull(cache.getObject(0));
+    assertNotNull(cache.getObject(99));
+    assertTrue(cache.getEvictionCount() > 0);
+    assertTrue(cache.getUsedBytes() <= 4096);
+    assertEquals(100 - cache.getEvictionCount(), cache.getSize());
+  }
+
+  @Test
+  public void shouldKeepTheLatestValueOfAKey() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSegmentSize(1024);
+    cache.setCapacity(2048);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject("key", i);
+    }
+    assertEquals(99, cache.getObject("key"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldNotCacheValuesBiggerThanASegment() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSegmentSize(1024);
+    cache.setCapacity(1024);
+    cache.putObject(0, 0);
+    cache.putObject(0, new byte[2048]);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getRejectionCount());
+  }
+
+  @Test
+  public void shouldRemoveAndFlushItems() {
+    OffHeapCache cache = new OffHeapCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+    assertEquals(4, cache.getSize());
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getUsedBytes());
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+  }
+
+  @Test
+  public void shouldStoreValuesInAMappedFile() throws Exception {
+    File file = File.createTempFile("mybatis", ".cache");
+    file.deleteOnExit();
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setFile(file.getAbsolutePath());
+    cache.setSegmentSize(4096);
+    cache.setCapacity(8192);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, "value" + i);
+    }
+    assertEquals("value99", cache.getObject(99));
+    assertTrue(file.length() > 0);
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldNotChangeTheLayoutOnceAllocated() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, 0);
+    cache.setCapacity(1024);
+  }
+
+  @Test
+  public void shouldBeBuiltWithoutEvictionAndSerializedDecorators() {
+    Properties props = new Properties();
+    props.setProperty("capacity", "1048576");
+    props.setProperty("segmentSize", "65536");
+    Cache cache = new CacheBuilder("default").implementation(OffHeapCache.class).readWrite(true).properties(props).build();
+    assertTrue(cache instanceof SynchronizedCache);
+    cache.putObject(0, "value");
+    assertEquals("value", cache.getObject(0));
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectExpireAfterAccess() {
+    new CacheBuilder("default").implementation(OffHeapCache.class).expireAfterAccess(1000L).build();
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class StatementCacheKeyTest {
+
+  @Test
+  public void shouldTestCacheKeysEqual() {
+    Date date = new Date();
+    CacheKey key1 = new StatementCacheKey("id", 0, 10, "sql", new Object[] { 1, "hello", null, new Date(date.getTime()) }, "dev");
+    CacheKey key2 = new StatementCacheKey("id", 0, 10, "sql", new Object[] { 1, "hello", null, new Date(date.getTime()) }, "dev");
+    assertTrue(key1.equals(key2));
+    assertTrue(key2.equals(key1));
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+  }
+
+  @Test
+  public void shouldTestCacheKeysNotEqualDueToAnyComponent() {
+    CacheKey key = new StatementCacheKey("id", 0, 10, "sql", new Object[] { 1, "hello" }, "dev");
+    assertNotEquals(key, new StatementCacheKey("id2", 0, 10, "sql", new Object[] { 1, "hello" }, "dev"));
+    assertNotEquals(key, new StatementCacheKey("id", 10, 0, "sql", new Object[] { 1, "hello" }, "dev"));
+    assertNotEquals(key, new StatementCacheKey("id", 0, 10, "sql2", new Object[] { 1, "hello" }, "dev"));
+    assertNotEquals(key, new StatementCacheKey("id", 0, 10, "sql", new Object[] { "hello", 1 }, "dev"));
+    assertNotEquals(key, new StatementCacheKey("id", 0, 10, "sql", new Object[] { 1, "hello", null }, "dev"));
+    assertNotEquals(key, new StatementCacheKey("id", 0, 10, "sql", new Object[] { 1, "hello" }, null));
+  }
+
+  @Test
+  public void shouldTestCacheKeysWithBinaryArrays() {
+    byte[] array = new byte[] { 1 };
+    CacheKey key1 = new StatementCacheKey("id", 0, 10, "sql", new Object[] { array }, null);
+    CacheKey key2 = new StatementCacheKey("id", 0, 10, "sql", new Object[] { new byte[] { 1 } }, null);
+    assertTrue(key1.equals(key2));
+    assertEquals(key1.hashCode(), key2.hashCode());
+    array[0] = 2;
+    assertTrue(key1.equals(key2));
+  }
+
+  @Test
+  public void shouldNeverEqualAMutableKey() {
+    CacheKey key = new StatementCacheKey("id", 0, 10, "sql", new Object[0], null);
+    CacheKey mutable = new CacheKey(new Object[] { "id", 0, 10, "sql" });
+    assertFalse(key.equals(mutable));
+    assertFalse(mutable.equals(key));
+    assertFalse(new CacheKey().equals(key));
+  }
+
+  @Test
+  public void shouldBeExtendedByPlugins() throws Exception {
+    CacheKey key = new StatementCacheKey("id", 0, 10, "sql", new Object[] { 1 }, null);
+    CacheKey copy = key.clone();
+    assertEquals(key, copy);
+    assertEquals(5, key.getUpdateCount());
+    key.update("page");
+    key.updateAll(new Object[] { 2, new int[] { 3 } });
+    assertEquals(8, key.getUpdateCount());
+    assertNotEquals(key, copy);
+    copy.update("page");
+    copy.updateAll(new Object[] { 2, new int[] { 3 } });
+    assertEquals(key, copy);
+    assertEquals(key.hashCode(), copy.hashCode());
+    copy.update("other");
+    assertNotEquals(key, copy);
+    assertEquals(8, key.getUpdateCount());
+  }
+
+}
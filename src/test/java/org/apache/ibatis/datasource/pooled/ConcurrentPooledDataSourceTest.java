@@ -0,0 +1,238 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.DataSourceException;
+import org.apache.ibatis.io.Resources;
+import org.junit.Test;
+
+public class ConcurrentPooledDataSourceTest extends BaseDataTest {
+
+  @Test
+  public void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setDefaultAutoCommit(false);
+      ds.setPoolMaximumActiveConnections(3);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolMaximumCheckoutTime(10000);
+      ds.setPoolPingConnectionsNotUsedFor(1);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT * FROM PRODUCT");
+      ds.setPoolTimeToWait(10000);
+      List<Connection> connections = new ArrayList<Connection>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(4, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getHadToWaitCount());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertNotNull(ds.getPoolState().toString());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldInvalidateTheProxyOfAReturnedConnection() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      Connection c = ds.getConnection();
+      c.close();
+      try {
+        c.getAutoCommit();
+        fail("A returned connection should not be usable");
+      } catch (SQLException e) {
+        // expected
+      }
+      Connection again = ds.getConnection();
+      assertFalse(again.isClosed());
+      again.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldClaimOverdueConnection() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolMaximumCheckoutTime(1);
+      Connection first = ds.getConnection();
+      Thread.sleep(20);
+      Connection second = ds.getConnection();
+      assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      first.close();
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+      second.close();
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldHandOffConnectionsToWaitingThreads() throws Exception {
+    final ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      ds.setPoolMaximumActiveConnections(4);
+      ds.setPoolMaximumIdleConnections(4);
+      ds.setPoolTimeToWait(1000);
+      final int threads = 32;
+      final int iterations = 100;
+      final CountDownLatch start = new CountDownLatch(1);
+      final CountDownLatch done = new CountDownLatch(threads);
+      final AtomicInteger failures = new AtomicInteger();
+      for (int i = 0; i < threads; i++) {
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              start.await();
+              for (int j = 0; j < iterations; j++) {
+                Connection c = ds.getConnection();
+                try {
+                  c.getAutoCommit();
+                } finally {
+                  c.close();
+                }
+              }
+            } catch (Exception e) {
+              failures.incrementAndGet();
+            } finally {
+              done.countDown();
+            }
+          }
+        }.start();
+      }
+      start.countDown();
+      done.await();
+      assertEquals(0, failures.get());
+      assertEquals(threads * iterations, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 4);
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldKeepMinimumIdleConnectionsOpen() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      ds.setPoolMaximumActiveConnections(5);
+      ds.setPoolMinimumIdle(2);
+      ds.warmUp();
+      waitForIdleConnections(ds, 2);
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      Connection c = ds.getConnection();
+      c.close();
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldEvictIdleConnectionsInBackground() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      ds.setPoolIdleTimeout(50);
+      ds.setPoolHousekeepingInterval(20);
+      ds.setPoolMinimumIdle(1);
+      List<Connection> connections = new ArrayList<Connection>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(3, ds.getPoolState().getIdleConnectionCount());
+      for (int i = 0; i < 100 && ds.getPoolState().getIdleConnectionCount() > 1; i++) {
+        Thread.sleep(20);
+      }
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldSelectThePoolEngineThroughTheFactory() throws Exception {
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    props.setProperty("poolType", "concurrent");
+    props.setProperty("poolMaximumActiveConnections", "7");
+    factory.setProperties(props);
+    assertTrue(factory.getDataSource() instanceof ConcurrentPooledDataSource);
+    assertEquals(7, ((ConcurrentPooledDataSource) factory.getDataSource()).getPoolMaximumActiveConnections());
+
+    factory = new PooledDataSourceFactory();
+    factory.setProperties(Resources.getResourceAsProperties(JPETSTORE_PROPERTIES));
+    assertFalse(factory.getDataSource() instanceof ConcurrentPooledDataSource);
+  }
+
+  @Test(expected = DataSourceException.class)
+  public void shouldFailOnUnknownPoolType() throws Exception {
+    Properties props = new Properties();
+    props.setProperty("poolType", "magic");
+    new PooledDataSourceFactory().setProperties(props);
+  }
+
+  private void waitForIdleConnections(PooledDataSource ds, int expected) throws InterruptedException {
+    for (int i = 0; i < 100 && ds.getPoolState().getIdleConnectionCount() < expected; i++) {
+      Thread.sleep(50);
+    }
+  }
+
+  private ConcurrentPooledDataSource createConcurrentPooledDataSource() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    ConcurrentPooledDataSource ds = new ConcurrentPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+    return ds;
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void shouldReportCountMeanAndMax() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10);
+    histogram.record(20);
+    histogram.record(30);
+    assertEquals(3, histogram.getCount());
+    assertEquals(20, histogram.getMean());
+    assertEquals(30, histogram.getMax());
+  }
+
+  @Test
+  public void shouldReportPercentilesWithinAFactorOfTwo() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(1000);
+    }
+    histogram.record(1000000);
+    long p50 = histogram.getPercentile(50);
+    assertTrue(p50 >= 1000 && p50 < 2000);
+    long p99 = histogram.getPercentile(99);
+    assertTrue(p99 >= 1000 && p99 < 2000);
+    assertEquals(1000000, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void shouldStartOverAfterReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(Long.MAX_VALUE);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(99));
+  }
+
+}
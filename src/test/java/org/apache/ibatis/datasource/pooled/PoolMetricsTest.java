@@ -0,0 +1,139 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.BaseDataTest;
+import org.junit.Test;
+
+public class PoolMetricsTest extends BaseDataTest {
+
+  @Test
+  public void shouldRecordAcquireCheckoutAndCreationTimes() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    CountingListener listener = new CountingListener();
+    ds.addPoolListener(listener);
+    try {
+      for (int i = 0; i < 3; i++) {
+        ds.getConnection().close();
+      }
+      PoolMetrics metrics = ds.getPoolMetrics();
+      assertEquals(3, metrics.getAcquireTime().getCount());
+      assertEquals(3, metrics.getCheckoutTime().getCount());
+      assertEquals(1, metrics.getCreationTime().getCount());
+      assertEquals(1, metrics.getCreationCount());
+      assertEquals(3, listener.acquired.get());
+      assertEquals(3, listener.returned.get());
+      assertEquals(1, listener.created.get());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldReportConnectionsCheckedOutForTooLong() throws Exception {
+    PooledDataSource ds = new ConcurrentPooledDataSource();
+    PooledDataSource template = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setDriver(template.getDriver());
+    ds.setUrl(template.getUrl());
+    ds.setUsername(template.getUsername());
+    ds.setPassword(template.getPassword());
+    ds.setPoolLeakDetectionThreshold(20);
+    CountingListener listener = new CountingListener();
+    ds.addPoolListener(listener);
+    try {
+      Connection c = ds.getConnection();
+      for (int i = 0; i < 100 && listener.leaked.get() == 0; i++) {
+        Thread.sleep(20);
+      }
+      assertEquals(1, listener.leaked.get());
+      assertNotNull(listener.leakStack);
+      assertEquals(1, ds.getPoolMetrics().getSuspectedLeakCount());
+      Thread.sleep(60);
+      // reported only once
+      assertEquals(1, listener.leaked.get());
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRegisterThePoolMBean() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolName("metrics-test");
+    ds.setPoolRegisterMBean(true);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("org.apache.ibatis:type=PooledDataSource,name=\"metrics-test\"");
+    try {
+      ds.getConnection().close();
+      assertTrue(server.isRegistered(name));
+      assertEquals(1L, server.getAttribute(name, "RequestCount"));
+      assertEquals(1, server.getAttribute(name, "IdleConnections"));
+    } finally {
+      ds.forceCloseAll();
+      ds.unregisterMBean();
+    }
+    assertTrue(!server.isRegistered(name));
+  }
+
+  @Test
+  public void shouldRegisterListenersByClassName() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolListeners(CountingListener.class.getName() + ", " + CountingListener.class.getName());
+    assertEquals(2, ds.getPoolMetrics().getListeners().size());
+  }
+
+  public static class CountingListener implements PoolListener {
+    final AtomicInteger acquired = new AtomicInteger();
+    final AtomicInteger returned = new AtomicInteger();
+    final AtomicInteger created = new AtomicInteger();
+    final AtomicInteger leaked = new AtomicInteger();
+    volatile Throwable leakStack;
+
+    @Override
+    public void connectionAcquired(PooledDataSource dataSource, long waitNanos) {
+      acquired.incrementAndGet();
+    }
+
+    @Override
+    public void connectionReturned(PooledDataSource dataSource, long checkoutNanos) {
+      returned.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(PooledDataSource dataSource, long creationNanos) {
+      created.incrementAndGet();
+    }
+
+    @Override
+    public void connectionLeakSuspected(PooledDataSource dataSource, long checkoutMillis, Throwable checkoutStack) {
+      leakStack = checkoutStack;
+      leaked.incrementAndGet();
+    }
+  }
+
+}
@@ -0,0 +1,242 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PreparedStatementCacheTest extends BaseDataTest {
+
+  private static final String SQL = "SELECT name FROM product WHERE productid = ?";
+
+  private PooledDataSource ds;
+
+  @Before
+  public void setUp() throws Exception {
+    ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    runScript(ds, JPETSTORE_DDL);
+    runScript(ds, JPETSTORE_DATA);
+    ds.setPoolPreparedStatementCacheSize(2);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.getPoolMetrics().reset();
+  }
+
+  @After
+  public void tearDown() {
+    ds.forceCloseAll();
+  }
+
+  @Test
+  public void shouldReuseStatementsAcrossCheckouts() throws Exception {
+    Connection conn = ds.getConnection();
+    PreparedStatement first = conn.prepareStatement(SQL);
+    assertEquals("Angelfish", queryName(first, "FI-SW-01"));
+    first.close();
+    conn.close();
+
+    conn = ds.getConnection();
+    PreparedStatement second = conn.prepareStatement(SQL);
+    assertNotSame(first, second);
+    assertSame(conn, second.getConnection());
+    assertEquals("Tiger Shark", queryName(second, "FI-SW-02"));
+    second.close();
+    conn.close();
+
+    assertEquals(1, ds.getPoolMetrics().getStatementCacheHitCount());
+    assertEquals(1, ds.getPoolMetrics().getStatementCacheMissCount());
+  }
+
+  @Test
+  public void shouldKeepResultSetTypesAndKeyVariantsApart() throws Exception {
+    Connection conn = ds.getConnection();
+    PreparedStatement plain = conn.prepareStatement(SQL);
+    PreparedStatement scrollable = conn.prepareStatement(SQL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+    plain.close();
+    scrollable.close();
+
+    PreparedStatement keys = conn.prepareStatement(SQL, Statement.RETURN_GENERATED_KEYS);
+    keys.close();
+    assertEquals(3, ds.getPoolMetrics().getStatementCacheMissCount());
+
+    scrollable = conn.prepareStatement(SQL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+    assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, scrollable.getResultSetType());
+    assertEquals(1, ds.getPoolMetrics().getStatementCacheHitCount());
+    scrollable.close();
+    conn.close();
+  }
+
+  @Test
+  public void shouldEvictTheLeastRecentlyUsedStatement() throws Exception {
+    Connection conn = ds.getConnection();
+    conn.prepareStatement(SQL).close();
+    conn.prepareStatement("SELECT descn FROM product WHERE productid = ?").close();
+    conn.prepareStatement("SELECT category FROM product WHERE productid = ?").close();
+    assertEquals(1, ds.getPoolMetrics().getStatementCacheEvictionCount());
+    assertEquals(2, currentCacheSize(conn));
+    // the first one was evicted
+    conn.prepareStatement(SQL).close();
+    assertEquals(4, ds.getPoolMetrics().getStatementCacheMissCount());
+    conn.close();
+  }
+
+  @Test
+  public void shouldNotShareAStatementInUse() throws Exception {
+    Connection conn = ds.getConnection();
+    PreparedStatement outer = conn.prepareStatement(SQL);
+    PreparedStatement inner = conn.prepareStatement(SQL);
+    assertEquals(2, ds.getPoolMetrics().getStatementCacheMissCount());
+    outer.close();
+    // the same SQL is already cached, so the other one is really closed
+    inner.close();
+    assertEquals(1, currentCacheSize(conn));
+    conn.close();
+  }
+
+  @Test
+  public void shouldResetAStatementBeforeReusingIt() throws Exception {
+    Connection conn = ds.getConnection();
+    PreparedStatement ps = conn.prepareStatement(SQL);
+    ps.setMaxRows(1);
+    ps.setQueryTimeout(7);
+    ps.setString(1, "FI-SW-01");
+    ResultSet rs = ps.executeQuery();
+    ps.close();
+    assertTrue(ps.isClosed());
+    assertTrue(rs.isClosed());
+    try {
+      ps.executeQuery();
+      fail("A closed statement should not be usable");
+    } catch (SQLException e) {
+      // expected
+    }
+
+    ps = conn.prepareStatement(SQL);
+    assertEquals(0, ps.getMaxRows());
+    assertEquals(0, ps.getQueryTimeout());
+    assertFalse(ps.isClosed());
+    ps.close();
+    conn.close();
+  }
+
+  @Test
+  public void shouldRestorePoolableAndCloseAllResultSets() throws Exception {
+    Connection conn = ds.getConnection();
+    PreparedStatement ps = conn.prepareStatement(SQL);
+    boolean poolable = ps.isPoolable();
+    ps.setPoolable(!poolable);
+    ps.setString(1, "FI-SW-01");
+    ps.execute();
+    ResultSet first = ps.getResultSet();
+    ps.getMoreResults(Statement.KEEP_CURRENT_RESULT);
+    ps.close();
+    assertTrue(first.isClosed());
+
+    ps = conn.prepareStatement(SQL);
+    assertEquals(1, ds.getPoolMetrics().getStatementCacheHitCount());
+    assertEquals(poolable, ps.isPoolable());
+    ps.close();
+    conn.close();
+  }
+
+  @Test
+  public void shouldNotCacheStatementsWithStateItCannotReset() throws Exception {
+    Connection conn = ds.getConnection();
+    PreparedStatement ps = conn.prepareStatement(SQL);
+    ps.setEscapeProcessing(false);
+    ps.close();
+    ps = conn.prepareStatement(SQL);
+    PreparedStatement real = ps.unwrap(PreparedStatement.class);
+    ps.close();
+    // the real statement may still be used by whoever unwrapped it
+    assertTrue(real.isClosed());
+    assertEquals(0, currentCacheSize(conn));
+    assertEquals(0, ds.getPoolMetrics().getStatementCacheHitCount());
+    conn.close();
+  }
+
+  @Test
+  public void shouldReuseStatementsAcrossSimpleSessions() throws Exception {
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), ds));
+    configuration.addMapper(ProductMapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    for (int i = 0; i < 3; i++) {
+      SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE);
+      try {
+        assertEquals("Angelfish", session.getMapper(ProductMapper.class).getName("FI-SW-01"));
+      } finally {
+        session.close();
+      }
+    }
+    assertEquals(1, ds.getPoolMetrics().getStatementCacheMissCount());
+    assertEquals(2, ds.getPoolMetrics().getStatementCacheHitCount());
+  }
+
+  @Test
+  public void shouldNotCacheWhenDisabled() throws Exception {
+    ds.setPoolPreparedStatementCacheSize(0);
+    Connection conn = ds.getConnection();
+    PreparedStatement ps = conn.prepareStatement(SQL);
+    ps.close();
+    assertTrue(ps.isClosed());
+    conn.close();
+    assertEquals(0, ds.getPoolMetrics().getStatementCacheMissCount());
+  }
+
+  public interface ProductMapper {
+    @Select("SELECT name FROM product WHERE productid = #{productId}")
+    String getName(String productId);
+  }
+
+  private String queryName(PreparedStatement ps, String productId) throws SQLException {
+    ps.setString(1, productId);
+    ResultSet rs = ps.executeQuery();
+    try {
+      return rs.next() ? rs.getString(1) : null;
+    } finally {
+      rs.close();
+    }
+  }
+
+  private int currentCacheSize(Connection conn) {
+    PooledConnection pooled = (PooledConnection) Proxy.getInvocationHandler(conn);
+    return pooled.getStatementCache().size();
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class ReplicaTest {
+
+  private static final String DRIVER = "org.hsqldb.jdbcDriver";
+
+  @Test
+  public void shouldHandOutReplicasInProportionToTheirWeight() {
+    RoutingDataSource ds = new RoutingDataSource(dataSource("primary"));
+    ds.setBalancing(ReplicaBalancing.WEIGHTED_ROUND_ROBIN);
+    Replica light = ds.addReplica(dataSource("light"), 1);
+    Replica heavy = ds.addReplica(dataSource("heavy"), 3);
+    int lightCount = 0;
+    int heavyCount = 0;
+    for (int i = 0; i < 8; i++) {
+      Replica replica = ds.chooseReplica(null);
+      if (replica == light) {
+        lightCount++;
+      } else if (replica == heavy) {
+        heavyCount++;
+      }
+    }
+    assertEquals(2, lightCount);
+    assertEquals(6, heavyCount);
+  }
+
+  @Test
+  public void shouldPreferTheReplicaWithTheFewestOutstandingConnections() {
+    RoutingDataSource ds = new RoutingDataSource(dataSource("primary"));
+    Replica first = ds.addReplica(dataSource("first"));
+    Replica second = ds.addReplica(dataSource("second"), 2);
+    first.acquire();
+    for (int i = 0; i < 4; i++) {
+      assertSame(second, ds.chooseReplica(null));
+    }
+    // 4 connections on a weight of 2 weigh more than 1 on a weight of 1
+    for (int i = 0; i < 4; i++) {
+      second.acquire();
+    }
+    for (int i = 0; i < 4; i++) {
+      assertSame(first, ds.chooseReplica(null));
+    }
+    assertSame(second, ds.chooseReplica(Collections.singleton(first)));
+  }
+
+  @Test
+  public void shouldEjectAReplicaThatCannotConnect() throws Exception {
+    RoutingDataSource ds = new RoutingDataSource(dataSource("routing_unit_primary"));
+    ds.setReplicaFailureThreshold(2);
+    Replica down = ds.addReplica(new UnpooledDataSource(DRIVER, "jdbc:hsqldb:mem:routing_unit_down", "sa", "") {
+      @Override
+      public Connection getConnection() throws SQLException {
+        throw new SQLException("Connection refused", "08001");
+      }
+    });
+    Replica up = ds.addReplica(dataSource("routing_unit_up"));
+
+    // the first connection tries the broken replica and moves on to the other one
+    assertTrue(query(ds));
+    assertEquals(1, down.getFailureCount());
+    assertFalse(down.isEjected());
+    assertEquals(1, up.getRequestCount());
+    assertEquals(0, up.getOutstandingCount());
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(query(ds));
+    }
+    assertTrue(down.isEjected());
+    assertEquals(1, down.getEjectionCount());
+    assertEquals(2, down.getFailureCount());
+  }
+
+  @Test
+  public void shouldEjectASlowReplicaUntilItsEjectionTimeIsOver() throws Exception {
+    RoutingDataSource ds = new RoutingDataSource(dataSource("primary"));
+    ds.setReplicaLatencyThreshold(10);
+    ds.setReplicaEjectionTime(50);
+    Replica slow = ds.addReplica(dataSource("slow"));
+    Replica fast = ds.addReplica(dataSource("fast"));
+
+    for (int i = 0; i < 4; i++) {
+      slow.recordLatency(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+    // not enough samples yet to judge it
+    assertFalse(slow.isEjected());
+    slow.recordLatency(TimeUnit.MILLISECONDS.toNanos(20));
+    assertTrue(slow.isEjected());
+    for (int i = 0; i < 4; i++) {
+      assertSame(fast, ds.chooseReplica(null));
+    }
+    assertNull(ds.chooseReplica(Collections.singleton(fast)));
+
+    Thread.sleep(60);
+    assertSame(slow, ds.chooseReplica(Collections.singleton(fast)));
+    assertFalse(slow.isEjected());
+    assertEquals(0, slow.getAverageLatency());
+    assertEquals(5, slow.getLatency().getCount());
+  }
+
+  @Test
+  public void shouldOnlyCountConnectionProblemsAsReplicaFailures() {
+    assertTrue(Replica.isReplicaFailure(new SQLException("Connection reset", "08S01")));
+    assertFalse(Replica.isReplicaFailure(new SQLSyntaxErrorException("Unknown column", "42S22")));
+    assertFalse(Replica.isReplicaFailure(new SQLException("No state")));
+  }
+
+  private boolean query(RoutingDataSource ds) throws SQLException {
+    Configuration configuration = new Configuration();
+    MappedStatement ms = new MappedStatement.Builder(configuration, "select",
+        new StaticSqlSource(configuration, "select 1 from INFORMATION_SCHEMA.SYSTEM_USERS"), SqlCommandType.SELECT).build();
+    Connection connection = ds.getConnection();
+    MappedStatement previous = RoutingContext.enter(ms);
+    try {
+      return connection.prepareStatement("select 1 from INFORMATION_SCHEMA.SYSTEM_USERS").executeQuery().next();
+    } finally {
+      RoutingContext.exit(previous);
+      connection.close();
+    }
+  }
+
+  private UnpooledDataSource dataSource(String name) {
+    return new UnpooledDataSource(DRIVER, "jdbc:hsqldb:mem:" + name, "sa", "");
+  }
+
+}
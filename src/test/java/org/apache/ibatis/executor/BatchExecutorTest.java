@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2012 the original author or authors.
+ *    Copyright 2009-2014 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,13 +15,111 @@
  */
 package org.apache.ibatis.executor;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
 import org.junit.Test;
 
 public class BatchExecutorTest extends BaseExecutorTest {
 
   @Test
-  public void dummy() {
+  public void shouldGroupInterleavedStatementsBySql() throws Exception {
+    config.setBatchGroupBySql(true);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement updateStatement = ExecutorTestHelper.prepareUpdateAuthorMappedStatement(config);
+      Author first = new Author(97, "first", "******", "first@apache.org", null, Section.NEWS);
+      Author second = new Author(98, "second", "******", "second@apache.org", null, Section.NEWS);
+      Author jim = new Author(101, "jim", "******", "jim@apache.org", null, Section.NEWS);
+      Author sally = new Author(102, "sally", "******", "sally@apache.org", null, Section.NEWS);
+      Author third = new Author(99, "third", "******", "third@apache.org", null, Section.NEWS);
+      executor.update(insertStatement, first);
+      executor.update(updateStatement, jim);
+      executor.update(insertStatement, second);
+      // 同一SQL连续两次，第二次不能落到最后一个批(update)上
+      executor.update(insertStatement, third);
+      executor.update(updateStatement, sally);
+
+      List<BatchResult> results = executor.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(Arrays.<Object>asList(first, second, third), results.get(0).getParameterObjects());
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertEquals(Arrays.<Object>asList(jim, sally), results.get(1).getParameterObjects());
+      assertEquals(2, config.getBatchMetrics().getStatementCount());
+      assertEquals(5, config.getBatchMetrics().getRowCount());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldKeepInterleavedStatementsApartByDefault() throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement updateStatement = ExecutorTestHelper.prepareUpdateAuthorMappedStatement(config);
+      executor.update(insertStatement, new Author(97, "first", "******", "first@apache.org", null, Section.NEWS));
+      executor.update(updateStatement, new Author(101, "jim", "******", "jim@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(98, "second", "******", "second@apache.org", null, Section.NEWS));
+      assertEquals(3, executor.flushStatements().size());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldFlushWhenTheRowLimitIsReached() throws Exception {
+    config.setBatchFlushRows(2);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      for (int id = 90; id < 95; id++) {
+        executor.update(insertStatement, new Author(id, "author" + id, "******", "author@apache.org", null, Section.NEWS));
+      }
+      assertEquals(2, config.getBatchMetrics().getAutomaticFlushCount());
+      List<BatchResult> results = executor.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(1, results.get(0).getParameterObjects().size());
+      assertEquals(3, config.getBatchMetrics().getFlushCount());
+      assertEquals(5, config.getBatchMetrics().getRowCount());
+      assertTrue(config.getBatchMetrics().getFlushLatency().getMax() > 0);
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldFlushWhenTheByteLimitIsReached() throws Exception {
+    config.setBatchFlushBytes(1000);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      char[] bio = new char[300];
+      Arrays.fill(bio, 'x');
+      // 600字节左右的bio，加上第一行就超过上限
+      executor.update(insertStatement, new Author(90, "small", "******", "small@apache.org", null, Section.NEWS));
+      assertEquals(0, config.getBatchMetrics().getAutomaticFlushCount());
+      executor.update(insertStatement, new Author(91, "large", "******", "large@apache.org", new String(bio), Section.NEWS));
+      assertEquals(1, config.getBatchMetrics().getAutomaticFlushCount());
+      executor.update(insertStatement, new Author(92, "large", "******", "large@apache.org", new String(bio), Section.NEWS));
+      assertEquals(1, config.getBatchMetrics().getAutomaticFlushCount());
+      assertEquals(1, executor.flushStatements().size());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
   }
 
   protected Executor createExecutor(Transaction transaction) {
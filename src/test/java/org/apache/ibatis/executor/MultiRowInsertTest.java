@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class MultiRowInsertTest {
+
+  private final Configuration configuration = new Configuration();
+  private final MultiRowInsertLimits limits = new MultiRowInsertLimits(100, 1000, true);
+
+  @Test
+  public void shouldRepeatTheRowOfTheValuesClause() {
+    MultiRowInsert insert = MultiRowInsert.parse("insert into t (a, b) values (?, upper(?)) on conflict do nothing", mappings("a", "b"), limits);
+    assertNotNull(insert);
+    for (int i = 0; i < 3; i++) {
+      Map<String, Object> row = new HashMap<String, Object>();
+      row.put("a", i);
+      row.put("b", "v" + i);
+      insert.addRow(configuration, new BoundSql(configuration, "", mappings("a", "b"), row), row);
+    }
+    BoundSql boundSql = insert.bind(configuration, 1, 3);
+    assertEquals("insert into t (a, b) values (?, upper(?)), (?, upper(?)) on conflict do nothing", boundSql.getSql());
+    assertEquals(4, boundSql.getParameterMappings().size());
+    assertEquals("__mri2", boundSql.getParameterMappings().get(2).getProperty());
+    assertEquals(1, boundSql.getAdditionalParameter("__mri0"));
+    assertEquals("v1", boundSql.getAdditionalParameter("__mri1"));
+    assertEquals(2, boundSql.getAdditionalParameter("__mri2"));
+    assertEquals("v2", boundSql.getAdditionalParameter("__mri3"));
+  }
+
+  @Test
+  public void shouldIgnoreKeywordsAndPlaceholdersInLiterals() {
+    assertNotNull(MultiRowInsert.parse("insert into t (a, b) values (?, 'values (?)')", mappings("a"), limits));
+    assertNotNull(MultiRowInsert.parse("INSERT INTO \"VALUES\" (A) VALUES (?)", mappings("a"), limits));
+  }
+
+  @Test
+  public void shouldNotRewriteOtherInserts() {
+    assertNull(MultiRowInsert.parse("insert into t (a) select a from s where b = ?", mappings("b"), limits));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?), (?)", mappings("a", "b"), limits));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?) on duplicate key update a = ?", mappings("a", "b"), limits));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?", mappings("a"), limits));
+    assertNull(MultiRowInsert.parse("insert into t (a) values ('?)", mappings("a"), limits));
+  }
+
+  @Test
+  public void shouldNotRewriteWhenLessThanTwoRowsFit() {
+    assertNull(MultiRowInsert.parse("insert into t (a, b) values (?, ?)", mappings("a", "b"), new MultiRowInsertLimits(100, 3, true)));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?)", mappings("a"), MultiRowInsertLimits.forDatabaseId("oracle")));
+    assertEquals(499, MultiRowInsert.parse("insert into t (a, b) values (?, ?)", mappings("a", "b"), MultiRowInsertLimits.forDatabaseId("sqlite")).getRowsPerStatement());
+  }
+
+  private List<ParameterMapping> mappings(String... properties) {
+    List<ParameterMapping> mappings = new ArrayList<ParameterMapping>();
+    for (String property : properties) {
+      mappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+    }
+    return mappings;
+  }
+
+}
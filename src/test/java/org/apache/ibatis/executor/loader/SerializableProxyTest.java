@@ -17,6 +17,7 @@ package org.apache.ibatis.executor.loader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -28,6 +29,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 
 import org.apache.ibatis.domain.blog.Author;
@@ -53,6 +55,24 @@ public abstract class SerializableProxyTest {
     }
   }
 
+  @Test
+  public void shouldReuseTheProxyClassOfAType() throws Exception {
+    Object proxy = proxyFactory.createProxy(author, new ResultLoaderMap(), new Configuration(), new DefaultObjectFactory(), new ArrayList<Class<?>>(), new ArrayList<Object>());
+    Object proxy2 = proxyFactory.createProxy(new Author(), new ResultLoaderMap(), new Configuration(), new DefaultObjectFactory(), new ArrayList<Class<?>>(), new ArrayList<Object>());
+    assertNotSame(proxy, proxy2);
+    assertEquals(proxy.getClass(), proxy2.getClass());
+    assertEquals(author, proxy);
+    assertEquals(-1, ((Author) proxy2).getId());
+
+    AuthorWithoutDefaultConstructor target = new AuthorWithoutDefaultConstructor(999, "someone", "!@#@!#!@#", "someone@somewhere.com", "blah", Section.NEWS);
+    ArrayList<Class<?>> argTypes = new ArrayList<Class<?>>(Arrays.<Class<?>>asList(Integer.class, String.class, String.class, String.class, String.class, Section.class));
+    ArrayList<Object> argValues = new ArrayList<Object>(Arrays.<Object>asList(999, "someone", "!@#@!#!@#", "someone@somewhere.com", "blah", Section.NEWS));
+    Object proxy3 = proxyFactory.createProxy(target, new ResultLoaderMap(), new Configuration(), new DefaultObjectFactory(), argTypes, argValues);
+    Object proxy4 = proxyFactory.createProxy(target, new ResultLoaderMap(), new Configuration(), new DefaultObjectFactory(), argTypes, argValues);
+    assertEquals(proxy3.getClass(), proxy4.getClass());
+    assertEquals(target, proxy4);
+  }
+
   @Test
   public void shouldSerializeAProxyForABeanWithDefaultConstructor() throws Exception {
     Object proxy = proxyFactory.createProxy(author, new ResultLoaderMap(), new Configuration(), new DefaultObjectFactory(), new ArrayList<Class<?>>(), new ArrayList<Object>());
@@ -0,0 +1,305 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.*;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RowMappingPlanTest extends BaseDataTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), createBlogDataSource()));
+    configuration.addMapper(PlanMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  public void shouldMapEveryColumnLayoutOfAStatement() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      PlanMapper mapper = session.getMapper(PlanMapper.class);
+      Author author = mapper.selectColumns("id, username");
+      assertEquals(101, author.getId());
+      assertEquals("jim", author.getUsername());
+      assertNull(author.getEmail());
+
+      author = mapper.selectColumns("email, username, id");
+      assertEquals(101, author.getId());
+      assertEquals("jim", author.getUsername());
+      assertEquals("jim@ibatis.apache.org", author.getEmail());
+
+      author = mapper.selectColumns("id, username");
+      assertEquals(101, author.getId());
+      assertEquals("jim", author.getUsername());
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldShareTheColumnLayoutBetweenExecutions() {
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement(PlanMapper.class.getName() + ".selectColumns");
+    ResultSetLayoutCache layouts = sqlSessionFactory.getConfiguration().getResultSetLayoutCache();
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      PlanMapper mapper = session.getMapper(PlanMapper.class);
+      mapper.selectColumns("id, username, bio");
+      ResultSetLayout first = layouts.getLastLayout(ms);
+      assertEquals(Arrays.asList("ID", "USERNAME", "BIO"), first.getColumnNames());
+
+      // 清掉一级缓存，让语句真正再执行一次
+      session.clearCache();
+      mapper.selectColumns("id, username, bio");
+      assertSame(first, layouts.getLastLayout(ms));
+
+      mapper.selectColumns("bio, username, id");
+      ResultSetLayout second = layouts.getLastLayout(ms);
+      assertNotSame(first, second);
+      assertEquals(3, second.getColumnIndex("id"));
+
+      session.clearCache();
+      Author author = mapper.selectColumns("id, username, bio");
+      assertSame(first, layouts.getLastLayout(ms));
+      assertEquals("jim", author.getUsername());
+      assertSame(first.getTypeHandler(String.class, "USERNAME"), first.getTypeHandler(String.class, "USERNAME"));
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyPropertyAndAutomaticMappings() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      List<Author> authors = session.getMapper(PlanMapper.class).selectAuthors();
+      assertEquals(2, authors.size());
+      assertEquals(101, authors.get(0).getId());
+      assertEquals("jim", authors.get(0).getUsername());
+      assertEquals("", authors.get(0).getBio());
+      assertEquals(Section.NEWS, authors.get(0).getFavouriteSection());
+      assertEquals(102, authors.get(1).getId());
+      assertNull(authors.get(1).getBio());
+      assertEquals(Section.VIDEOS, authors.get(1).getFavouriteSection());
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldMapRowsToMaps() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      List<Map<String, Object>> rows = session.getMapper(PlanMapper.class).selectMaps();
+      assertEquals(2, rows.size());
+      assertEquals("jim", rows.get(0).get("USERNAME"));
+      assertEquals("sally", rows.get(1).get("USERNAME"));
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldMapNumericColumnsWithoutBoxing() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      Totals totals = session.getMapper(PlanMapper.class).selectTotals();
+      assertEquals(2, totals.count);
+      assertEquals(203L, totals.total);
+      assertEquals(101.5d, totals.average, 0.0001d);
+      // a null column leaves the primitive alone
+      assertEquals(42, totals.missing);
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldSetNumericParametersWithoutBoxing() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      AuthorKey key = new AuthorKey();
+      key.id = 102;
+      assertEquals("sally", session.getMapper(PlanMapper.class).selectUsername(key));
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldUseOverriddenMethodsOfSubclassedNumericTypeHandlers() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      PlanMapper mapper = session.getMapper(PlanMapper.class);
+      assertEquals(1002, mapper.selectOffsetTotals().count);
+      AuthorKey key = new AuthorKey();
+      key.id = 2;
+      assertEquals("sally", mapper.selectUsernameByOffset(key));
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldMoveValuesOfAnyPrimitiveTypeHandlerWithoutBoxing() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      PlanMapper mapper = session.getMapper(PlanMapper.class);
+      CountingIntTypeHandler.unboxedCalls = 0;
+      assertEquals(2, mapper.selectCountedTotals().count);
+      AuthorKey key = new AuthorKey();
+      key.id = 102;
+      assertEquals("sally", mapper.selectUsernameByCountedKey(key));
+      assertEquals(2, CountingIntTypeHandler.unboxedCalls);
+    } finally {
+      session.close();
+    }
+  }
+
+  public static class CountingIntTypeHandler extends BaseTypeHandler<Integer> implements PrimitiveTypeHandler.OfInt {
+
+    static int unboxedCalls;
+
+    @Override
+    public int getInt(ResultSet rs, int columnIndex) throws SQLException {
+      unboxedCalls++;
+      return rs.getInt(columnIndex);
+    }
+
+    @Override
+    public void setInt(PreparedStatement ps, int i, int parameter) throws SQLException {
+      unboxedCalls++;
+      ps.setInt(i, parameter);
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Integer parameter, JdbcType jdbcType) throws SQLException {
+      ps.setInt(i, parameter);
+    }
+
+    @Override
+    public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+      return rs.getInt(columnName);
+    }
+
+    @Override
+    public Integer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+      return rs.getInt(columnIndex);
+    }
+
+    @Override
+    public Integer getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+      return cs.getInt(columnIndex);
+    }
+  }
+
+  public static class OffsetIntegerTypeHandler extends IntegerTypeHandler {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Integer parameter, JdbcType jdbcType) throws SQLException {
+      ps.setInt(i, parameter + 100);
+    }
+
+    @Override
+    public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+      return rs.getInt(columnName) + 1000;
+    }
+  }
+
+  public static class AuthorKey {
+    // no getter, read through the reflector's field invoker
+    private int id;
+  }
+
+  public static class Totals {
+    // no setters, so the fields are set through the reflector's field invokers
+    private int count;
+    private long total;
+    private double average;
+    private int missing = 42;
+  }
+
+  public interface PlanMapper {
+
+    @Select("select ${columns} from author where id = 101")
+    Author selectColumns(@Param("columns") String columns);
+
+    @Select("select id, username, bio, favourite_section as section from author order by id")
+    @Results({
+      @Result(property = "favouriteSection", column = "section")
+    })
+    List<Author> selectAuthors();
+
+    @Select("select id, username from author order by id")
+    List<Map<String, Object>> selectMaps();
+
+    @Select("select count(*) as count, sum(id) as total, avg(cast(id as double)) as average, cast(null as integer) as missing from author")
+    Totals selectTotals();
+
+    @Select("select username from author where id = #{id}")
+    String selectUsername(AuthorKey key);
+
+    @Select("select count(*) as count from author")
+    @Results({
+      @Result(property = "count", column = "count", typeHandler = OffsetIntegerTypeHandler.class)
+    })
+    Totals selectOffsetTotals();
+
+    @Select("select username from author where id = #{id,typeHandler=org.apache.ibatis.executor.resultset.RowMappingPlanTest$OffsetIntegerTypeHandler}")
+    String selectUsernameByOffset(AuthorKey key);
+
+    @Select("select count(*) as count from author")
+    @Results({
+      @Result(property = "count", column = "count", typeHandler = CountingIntTypeHandler.class)
+    })
+    Totals selectCountedTotals();
+
+    @Select("select username from author where id = #{id,typeHandler=org.apache.ibatis.executor.resultset.RowMappingPlanTest$CountingIntTypeHandler}")
+    String selectUsernameByCountedKey(AuthorKey key);
+
+  }
+
+}
@@ -24,7 +24,9 @@ import org.hsqldb.jdbc.JDBCConnection;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
@@ -71,6 +73,144 @@ public class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldWarmUpThePoolInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(5);
+      ds.setPoolMaximumIdleConnections(4);
+      ds.setPoolInitialSize(3);
+      ds.setPoolMinimumIdle(2);
+      ds.warmUp();
+      waitForIdleConnections(ds, 3);
+      assertEquals(3, ds.getPoolState().getIdleConnectionCount());
+      Connection c = ds.getConnection();
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      c.close();
+      assertEquals(3, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldNotExceedMaximumActiveConnectionsWhileCreatingConnections() throws Exception {
+    final PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(2);
+      ds.setPoolMaximumIdleConnections(2);
+      final List<Connection> connections = Collections.synchronizedList(new ArrayList<Connection>());
+      List<Thread> threads = new ArrayList<Thread>();
+      for (int i = 0; i < 2; i++) {
+        Thread thread = new Thread() {
+          @Override
+          public void run() {
+            try {
+              connections.add(ds.getConnection());
+            } catch (SQLException e) {
+              // checked below
+            }
+          }
+        };
+        thread.start();
+        threads.add(thread);
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertEquals(2, connections.size());
+      assertEquals(2, ds.getPoolState().getActiveConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldEvictIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolIdleTimeout(50);
+      ds.setPoolHousekeepingInterval(20);
+      List<Connection> connections = new ArrayList<Connection>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(3, ds.getPoolState().getIdleConnectionCount());
+      for (int i = 0; i < 100 && ds.getPoolState().getIdleConnectionCount() > 0; i++) {
+        Thread.sleep(20);
+      }
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRetireConnectionsPastMaxLifetimeWhenReturned() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaxLifetime(10);
+      ds.setPoolHousekeepingInterval(0);
+      Connection c = ds.getConnection();
+      Thread.sleep(20);
+      c.close();
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldTrustRecentlyValidatedConnections() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolPingEnabled(true);
+      // would fail if it was executed
+      ds.setPoolPingQuery("SELECT * FROM NO_SUCH_TABLE");
+      ds.setPoolValidationWindow(60000);
+      ds.setPoolHousekeepingInterval(0);
+      for (int i = 0; i < 3; i++) {
+        ds.getConnection().close();
+        Thread.sleep(5);
+      }
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldPingWithConnectionIsValid() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT * FROM NO_SUCH_TABLE");
+      ds.setPoolPingUseIsValid(true);
+      for (int i = 0; i < 3; i++) {
+        ds.getConnection().close();
+        Thread.sleep(5);
+      }
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  private void waitForIdleConnections(PooledDataSource ds, int expected) throws InterruptedException {
+    for (int i = 0; i < 100 && ds.getPoolState().getIdleConnectionCount() < expected; i++) {
+      Thread.sleep(50);
+    }
+  }
+
   @Test
   public void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
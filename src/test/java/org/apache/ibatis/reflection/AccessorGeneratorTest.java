@@ -0,0 +1,194 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveGetInvoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetInvoker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccessorGeneratorTest {
+
+  @Before
+  public void enableAccessorGeneration() {
+    Reflector.setAccessorGenerationEnabled(true);
+  }
+
+  @After
+  public void disableAccessorGeneration() {
+    Reflector.setAccessorGenerationEnabled(false);
+  }
+
+  @Test
+  public void shouldGenerateGettersAndSettersForPublicBeans() throws Exception {
+    Reflector reflector = Reflector.forClass(Author.class);
+    assertFalse(reflector.getGetInvoker("username") instanceof MethodInvoker);
+    assertFalse(reflector.getSetInvoker("id") instanceof MethodInvoker);
+    assertEquals(int.class, reflector.getSetInvoker("id").getType());
+    assertEquals(String.class, reflector.getGetInvoker("username").getType());
+
+    MetaObject metaObject = SystemMetaObject.forObject(new Author());
+    metaObject.setValue("id", 101);
+    metaObject.setValue("username", "jim");
+    metaObject.setValue("favouriteSection", Section.NEWS);
+    assertEquals(101, metaObject.getValue("id"));
+    assertEquals("jim", metaObject.getValue("username"));
+    assertEquals(Section.NEWS, metaObject.getValue("favouriteSection"));
+  }
+
+  @Test
+  public void shouldDropTheReflectorsCachedInTheOtherMode() throws Exception {
+    Reflector.setAccessorGenerationEnabled(false);
+    assertTrue(Reflector.forClass(Author.class).getGetInvoker("username") instanceof MethodInvoker);
+    assertNull(Reflector.forClass(Author.class).getGeneratedConstructor());
+    Reflector.setAccessorGenerationEnabled(true);
+    assertFalse(Reflector.forClass(Author.class).getGetInvoker("username") instanceof MethodInvoker);
+  }
+
+  @Test
+  public void shouldFallBackToReflectionForNonPublicMembers() throws Exception {
+    Reflector reflector = Reflector.forClass(Hidden.class);
+    assertTrue(reflector.getGetInvoker("name") instanceof MethodInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof MethodInvoker);
+    assertNull(reflector.getGeneratedConstructor());
+
+    Hidden hidden = new DefaultObjectFactory().create(Hidden.class);
+    MetaObject metaObject = SystemMetaObject.forObject(hidden);
+    metaObject.setValue("name", "hidden");
+    assertEquals("hidden", metaObject.getValue("name"));
+  }
+
+  @Test
+  public void shouldWrapExceptionsLikeMethodInvoke() throws Exception {
+    Invoker invoker = Reflector.forClass(Failing.class).getSetInvoker("value");
+    assertFalse(invoker instanceof MethodInvoker);
+    try {
+      invoker.invoke(new Failing(), new Object[] { "x" });
+      fail("Should have thrown");
+    } catch (InvocationTargetException e) {
+      assertTrue(e.getTargetException() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void shouldIgnoreTheResultOfFluentSetters() throws Exception {
+    Invoker invoker = Reflector.forClass(Fluent.class).getSetInvoker("value");
+    assertFalse(invoker instanceof MethodInvoker);
+    Fluent fluent = new Fluent();
+    assertNull(invoker.invoke(fluent, new Object[] { 7L }));
+    assertEquals(7L, fluent.value);
+  }
+
+  @Test
+  public void shouldCreateObjectsWithTheGeneratedConstructor() throws Exception {
+    assertTrue(Reflector.forClass(Author.class).getGeneratedConstructor() != null);
+    Author author = new DefaultObjectFactory().create(Author.class);
+    assertEquals(-1, author.getId());
+  }
+
+  @Test
+  public void shouldGeneratePrimitiveGettersAndSetters() throws Exception {
+    Reflector reflector = Reflector.forClass(Numbers.class);
+    Numbers numbers = new Numbers();
+    ((PrimitiveSetInvoker) reflector.getSetInvoker("count")).setInt(numbers, 3);
+    ((PrimitiveSetInvoker) reflector.getSetInvoker("total")).setLong(numbers, 4000000000L);
+    ((PrimitiveSetInvoker) reflector.getSetInvoker("average")).setDouble(numbers, 1.5d);
+    assertEquals(3, ((PrimitiveGetInvoker) reflector.getGetInvoker("count")).getInt(numbers));
+    assertEquals(4000000000L, ((PrimitiveGetInvoker) reflector.getGetInvoker("total")).getLong(numbers));
+    assertEquals(1.5d, ((PrimitiveGetInvoker) reflector.getGetInvoker("average")).getDouble(numbers), 0d);
+    // the boxed contract still works
+    assertEquals(3, reflector.getGetInvoker("count").invoke(numbers, new Object[0]));
+  }
+
+  @Test
+  public void shouldSetFluentPrimitiveSetters() throws Exception {
+    Fluent fluent = new Fluent();
+    ((PrimitiveSetInvoker) Reflector.forClass(Fluent.class).getSetInvoker("value")).setLong(fluent, 7L);
+    assertEquals(7L, fluent.value);
+  }
+
+  public static class Numbers {
+    private int count;
+    private long total;
+    private double average;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public void setTotal(long total) {
+      this.total = total;
+    }
+
+    public double getAverage() {
+      return average;
+    }
+
+    public void setAverage(double average) {
+      this.average = average;
+    }
+  }
+
+  public static class Failing {
+    public void setValue(String value) {
+      throw new IllegalStateException(value);
+    }
+  }
+
+  public static class Fluent {
+    private long value;
+
+    public Fluent setValue(long value) {
+      this.value = value;
+      return this;
+    }
+  }
+
+  static class Hidden {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+}
@@ -668,6 +668,20 @@ public class SqlSessionTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldNotCacheTheEmptyListOfAQueryWithResultHandler() {
+    SqlSession session = sqlMapper.openSession();
+    try {
+      DefaultResultHandler handler = new DefaultResultHandler();
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      mapper.selectAllAuthors(handler);
+      assertEquals(2, handler.getResultList().size());
+      assertEquals(2, mapper.selectAllAuthors().size());
+    } finally {
+      session.close();
+    }
+  }
+
   @Test(expected = BindingException.class)
   public void shouldFailSelectOneAuthorUsingMapperClassWithTwoResultHandlers() {
     Configuration configuration = new Configuration(sqlMapper.getConfiguration().getEnvironment());
@@ -0,0 +1,218 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.AsyncStatements;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncMapperTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_mapper/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_mapper/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldRunMapperMethodsInTheBackground() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      CompletableFuture<User> user = mapper.getUser(2);
+      CompletableFuture<List<User>> users = mapper.getUsers();
+      CompletableFuture<Map<Integer, User>> usersById = mapper.getUsersById();
+      CompletableFuture.allOf(user, users, usersById).join();
+      assertEquals("User2", user.join().getName());
+      assertEquals(3, users.join().size());
+      assertEquals("User3", usersById.join().get(3).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCommitWritesOfTheirOwnSession() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Integer.valueOf(1), mapper.insertUser(new User(4, "User4")).join());
+      assertNull(mapper.updateUser(new User(4, "Renamed")).join());
+    } finally {
+      sqlSession.close();
+    }
+    sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals("Renamed", sqlSession.getMapper(Mapper.class).getUserNow(4).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCompleteExceptionallyOnFailure() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      CompletableFuture<User> missing = sqlSession.getMapper(Mapper.class).getMissing();
+      try {
+        AsyncStatements.join(missing);
+        fail("The statement should have failed");
+      } catch (PersistenceException e) {
+        assertTrue(missing.isCompletedExceptionally());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test(expected = BindingException.class)
+  public void shouldRefuseAsynchronousCursors() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getUserCursor();
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldOpenTheirSessionFromASqlSessionManager() {
+    SqlSessionManager sqlSessionManager = SqlSessionManager.newInstance(sqlSessionFactory);
+    assertEquals("User1", sqlSessionManager.getMapper(Mapper.class).getUser(1).join().getName());
+  }
+
+  @Test(expected = BindingException.class)
+  public void shouldRefuseToLeaveAManagedSession() {
+    SqlSessionManager sqlSessionManager = SqlSessionManager.newInstance(sqlSessionFactory);
+    sqlSessionManager.startManagedSession();
+    try {
+      sqlSessionManager.getMapper(Mapper.class).getUser(1);
+    } finally {
+      sqlSessionManager.close();
+    }
+  }
+
+  @Test
+  public void shouldUseTheConfiguredExecutor() {
+    final AtomicInteger submitted = new AtomicInteger();
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        submitted.incrementAndGet();
+        new Thread(command).start();
+      }
+    });
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals("User1", sqlSession.getMapper(Mapper.class).getUser(1).join().getName());
+      assertEquals(1, submitted.get());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldJoinSeveralStatements() {
+    AsyncStatements statements = new AsyncStatements(sqlSessionFactory);
+    CompletableFuture<User> user = statements.selectOne("org.apache.ibatis.submitted.async_mapper.Mapper.getUserNow", 1);
+    CompletableFuture<List<User>> users = statements.selectList("org.apache.ibatis.submitted.async_mapper.Mapper.getUsers", null);
+    CompletableFuture<Integer> inserted = statements.insert("org.apache.ibatis.submitted.async_mapper.Mapper.insertUser", new User(5, "User5"));
+    statements.join();
+    assertTrue(user.isDone() && users.isDone() && inserted.isDone());
+    assertEquals("User1", user.join().getName());
+    assertEquals(Integer.valueOf(1), inserted.join());
+  }
+
+  @Test
+  public void shouldRunStatementsConcurrently() {
+    final int parallelism = 3;
+    final CyclicBarrier barrier = new CyclicBarrier(parallelism);
+    AsyncStatements statements = new AsyncStatements(sqlSessionFactory);
+    List<CompletableFuture<String>> names = new ArrayList<CompletableFuture<String>>();
+    for (int i = 1; i <= parallelism; i++) {
+      final int id = i;
+      names.add(statements.submit(new AsyncStatements.Work<String>() {
+        @Override
+        public String execute(SqlSession sqlSession) {
+          try {
+            // only passes when all of them run at the same time
+            barrier.await(10, TimeUnit.SECONDS);
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+          return sqlSession.getMapper(Mapper.class).getUserNow(id).getName();
+        }
+      }));
+    }
+    statements.join();
+    for (int i = 0; i < parallelism; i++) {
+      assertEquals("User" + (i + 1), names.get(i).join());
+    }
+  }
+
+  @Test
+  public void shouldThrowTheFirstFailureOnceAllAreDone() {
+    AsyncStatements statements = new AsyncStatements(sqlSessionFactory);
+    CompletableFuture<Object> failing = statements.selectOne("org.apache.ibatis.submitted.async_mapper.Mapper.getMissing", null);
+    CompletableFuture<List<Object>> users = statements.selectList("org.apache.ibatis.submitted.async_mapper.Mapper.getUsers", null);
+    try {
+      statements.join();
+      fail("The join should have failed");
+    } catch (PersistenceException e) {
+      assertTrue(failing.isCompletedExceptionally());
+      assertTrue(users.isDone());
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+
+public interface Mapper {
+
+  @Select("select id, name from users where id = #{id}")
+  CompletableFuture<User> getUser(int id);
+
+  @Select("select id, name from users where id = #{id}")
+  User getUserNow(int id);
+
+  @Select("select id, name from users order by id")
+  CompletableFuture<List<User>> getUsers();
+
+  @Select("select id, name from users order by id")
+  @MapKey("id")
+  CompletableFuture<Map<Integer, User>> getUsersById();
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  CompletableFuture<Integer> insertUser(User user);
+
+  @Update("update users set name = #{name} where id = #{id}")
+  CompletableFuture<Void> updateUser(User user);
+
+  @Select("select id, name from no_such_table")
+  CompletableFuture<User> getMissing();
+
+  @Select("select id, name from users order by id")
+  CompletableFuture<Cursor<User>> getUserCursor();
+
+}
@@ -0,0 +1,175 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_nested_select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchNestedSelectTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static QueryCounter queryCounter = new QueryCounter();
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_nested_select/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+    sqlSessionFactory.getConfiguration().addInterceptor(queryCounter);
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_nested_select/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Before
+  public void resetCounter() {
+    queryCounter.count.set(0);
+  }
+
+  @Test
+  public void shouldLoadEagerNestedSelectsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Blog> blogs = sqlSession.selectList("org.apache.ibatis.submitted.batch_nested_select.Mapper.getBlogs");
+      // the blogs, two batches of two authors and one batch for all the posts
+      assertEquals(4, queryCounter.count.get());
+      assertBlogs(blogs);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadLazyNestedSelectsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Blog> blogs = sqlSession.selectList("org.apache.ibatis.submitted.batch_nested_select.Mapper.getBlogsLazy");
+      assertEquals(1, queryCounter.count.get());
+      assertEquals(2, blogs.get(0).getPosts().size());
+      assertEquals(2, queryCounter.count.get());
+      assertEquals("jim", blogs.get(0).getAuthor().getName());
+      assertEquals(3, queryCounter.count.get());
+      assertBlogs(blogs);
+      assertEquals(4, queryCounter.count.get());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadLazyNestedSelectsAfterTheSessionIsClosed() {
+    List<Blog> blogs;
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      blogs = sqlSession.selectList("org.apache.ibatis.submitted.batch_nested_select.Mapper.getBlogsLazy");
+    } finally {
+      sqlSession.close();
+    }
+    assertBlogs(blogs);
+  }
+
+  @Test
+  public void shouldLoadOneByOneWhenResultsAreHandedOutImmediately() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<Blog> blogs = new ArrayList<Blog>();
+      sqlSession.select("org.apache.ibatis.submitted.batch_nested_select.Mapper.getBlogs", new ResultHandler() {
+        @Override
+        public void handleResult(ResultContext context) {
+          Blog blog = (Blog) context.getResultObject();
+          // the nested properties must be there when the handler gets the object
+          assertEquals(blog.getId() == 5 ? null : blog.getAuthor().getId(), blog.getAuthor() == null ? null : blog.getAuthor().getId());
+          blogs.add(blog);
+        }
+      });
+      assertBlogs(blogs);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void assertBlogs(List<Blog> blogs) {
+    assertEquals(5, blogs.size());
+    assertEquals("jim", blogs.get(0).getAuthor().getName());
+    assertEquals("sally", blogs.get(1).getAuthor().getName());
+    assertEquals("jim", blogs.get(2).getAuthor().getName());
+    assertEquals("bob", blogs.get(3).getAuthor().getName());
+    assertNull(blogs.get(4).getAuthor());
+    assertEquals(2, blogs.get(0).getPosts().size());
+    assertEquals("a", blogs.get(0).getPosts().get(0).getSubject());
+    assertEquals("b", blogs.get(0).getPosts().get(1).getSubject());
+    assertEquals(1, blogs.get(1).getPosts().size());
+    assertEquals(0, blogs.get(2).getPosts().size());
+    assertEquals(3, blogs.get(3).getPosts().size());
+    assertEquals(0, blogs.get(4).getPosts().size());
+  }
+
+  @Intercepts({ @Signature(type = StatementHandler.class, method = "query", args = { Statement.class, ResultHandler.class }) })
+  public static class QueryCounter implements Interceptor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count.incrementAndGet();
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
@@ -0,0 +1,33 @@
+--
+--    Copyright 2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table children if exists;
+drop table parents if exists;
+
+create table parents (
+  id binary(4),
+  name varchar(20)
+);
+create table children (
+  parent_id binary(4),
+  name varchar(20)
+);
+
+insert into parents (id, name) values(X'00000001', 'Parent1');
+insert into parents (id, name) values(X'00000002', 'Parent2');
+insert into children (parent_id, name) values(X'00000001', 'Child1');
+insert into children (parent_id, name) values(X'00000001', 'Child3');
+insert into children (parent_id, name) values(X'00000002', 'Child2');
@@ -0,0 +1,189 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.ibatis.columnar.ColumnarResult;
+import org.apache.ibatis.columnar.ColumnarResultHandler;
+import org.apache.ibatis.columnar.DoubleColumn;
+import org.apache.ibatis.columnar.IntColumn;
+import org.apache.ibatis.columnar.LongColumn;
+import org.apache.ibatis.columnar.ObjectColumn;
+import org.apache.ibatis.columnar.StringColumn;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ColumnarTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldFillColumnsFromTheSession() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      ColumnarResultHandler handler = new ColumnarResultHandler();
+      sqlSession.select("org.apache.ibatis.submitted.columnar.Mapper.getOrders", handler);
+      ColumnarResult result = handler.getResult();
+      assertEquals(1, handler.getResults().size());
+      assertEquals(5, result.getRowCount());
+      assertEquals(Arrays.asList("ID", "CUSTOMER", "AMOUNT", "STATUS", "PLACED"), result.getColumnNames());
+
+      IntColumn ids = result.getIntColumn("id");
+      assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, ids.toArray());
+      assertEquals(0, ids.getNullCount());
+
+      LongColumn customers = result.getLongColumn("customer");
+      assertEquals(10000000002L, customers.getLong(1));
+      assertTrue(customers.isNull(3));
+      assertEquals(0L, customers.getLong(3));
+      assertNull(customers.getObject(3));
+
+      DoubleColumn amounts = result.getDoubleColumn("amount");
+      assertEquals(12.5, amounts.getDouble(0), 0.0);
+      assertTrue(amounts.isNull(2));
+      assertFalse(amounts.isNull(3));
+      assertEquals(Double.valueOf(30.0), amounts.getObject(3));
+
+      ObjectColumn placed = result.getObjectColumn("placed");
+      assertTrue(placed.getObject(0) instanceof Date);
+      assertNull(placed.getObject(4));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldEncodeStringsWithADictionary() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getOrders();
+      StringColumn statuses = result.getStringColumn("STATUS");
+      assertEquals(Arrays.asList("OPEN", "SHIPPED"), statuses.getDictionary());
+      assertArrayEquals(new int[] { 0, 1, 0, -1, 1 }, statuses.toCodeArray());
+      assertEquals("SHIPPED", statuses.getString(4));
+      assertNull(statuses.getString(3));
+      assertEquals(1, statuses.getNullCount());
+      assertEquals(1, statuses.getCode("SHIPPED"));
+      assertEquals(-1, statuses.getCode("CANCELLED"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBoundsAndParameters() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      ColumnarResult page = mapper.getOrders(new RowBounds(1, 2));
+      assertEquals(2, page.getRowCount());
+      assertArrayEquals(new int[] { 2, 3 }, page.getIntColumn("ID").toArray());
+
+      ColumnarResult totals = mapper.getTotalsByStatus(2);
+      assertEquals(2, totals.getRowCount());
+      assertEquals("OPEN", totals.getStringColumn("STATUS").getString(0));
+      // 只有id=3的OPEN订单，金额为NULL
+      assertTrue(totals.getDoubleColumn("TOTAL").isNull(0));
+      assertEquals(8.25, totals.getDoubleColumn("TOTAL").getDouble(1), 0.0);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReadThroughSubclassedNumericTypeHandlers() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar/mybatis-config.xml");
+    SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+    factory.getConfiguration().getTypeHandlerRegistry().register(int.class, new OffsetIntegerTypeHandler());
+    SqlSession sqlSession = factory.openSession();
+    try {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getOrders();
+      ObjectColumn ids = result.getObjectColumn("ID");
+      assertEquals(1001, ids.getObject(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  public static class OffsetIntegerTypeHandler extends IntegerTypeHandler {
+    @Override
+    public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+      return rs.getInt(columnName) + 1000;
+    }
+  }
+
+  @Test
+  public void shouldRejectUnknownOrMistypedColumns() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).getOrders();
+      try {
+        result.getColumn("missing");
+        fail("Should have failed on an unknown column");
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("missing"));
+      }
+      try {
+        result.getLongColumn("ID");
+        fail("Should have failed on an int column read as long");
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("IntColumn"));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+--
+--    Copyright 2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table orders if exists;
+
+create table orders (
+  id int,
+  customer bigint,
+  amount double,
+  status varchar(20),
+  placed date
+);
+
+insert into orders (id, customer, amount, status, placed) values (1, 10000000001, 12.5, 'OPEN', '2014-03-01');
+insert into orders (id, customer, amount, status, placed) values (2, 10000000002, 7.25, 'SHIPPED', '2014-03-02');
+insert into orders (id, customer, amount, status, placed) values (3, 10000000001, null, 'OPEN', '2014-03-02');
+insert into orders (id, customer, amount, status, placed) values (4, null, 30.0, null, '2014-03-04');
+insert into orders (id, customer, amount, status, placed) values (5, 10000000003, 1.0, 'SHIPPED', null);
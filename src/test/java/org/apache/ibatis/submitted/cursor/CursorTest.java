@@ -0,0 +1,244 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CursorTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldFetchRowsLazilyFromTheSession() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<Item> items = sqlSession.selectCursor("org.apache.ibatis.submitted.cursor.Mapper.getItems");
+      assertFalse(items.isOpen());
+      assertEquals(-1, items.getCurrentIndex());
+
+      Iterator<Item> iterator = items.iterator();
+      assertTrue(iterator.hasNext());
+      assertTrue(items.isOpen());
+      assertEquals(0, items.getCurrentIndex());
+      assertEquals("book", iterator.next().getName());
+      assertEquals("tv", iterator.next().getName());
+      assertEquals(1, items.getCurrentIndex());
+
+      List<String> rest = new ArrayList<String>();
+      while (iterator.hasNext()) {
+        rest.add(iterator.next().getName());
+      }
+      assertEquals(4, rest.size());
+      assertEquals("boat", rest.get(3));
+      assertEquals(5, items.getCurrentIndex());
+      assertFalse(items.isOpen());
+      assertTrue(items.isConsumed());
+      try {
+        iterator.next();
+        fail("Should have thrown");
+      } catch (NoSuchElementException e) {
+        // expected
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReturnCursorsFromMapperMethods() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<String> names = new ArrayList<String>();
+      for (String name : mapper.getPersonNames()) {
+        names.add(name);
+      }
+      assertEquals(4, names.size());
+      assertEquals("grandma", names.get(0));
+      assertEquals("uncle", names.get(3));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBounds() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<Item> items = mapper.getItems(new RowBounds(2, 3));
+      List<Integer> ids = new ArrayList<Integer>();
+      for (Item item : items) {
+        ids.add(item.getId());
+      }
+      assertEquals(3, ids.size());
+      assertEquals(Integer.valueOf(3), ids.get(0));
+      assertEquals(Integer.valueOf(5), ids.get(2));
+      assertEquals(2, items.getCurrentIndex());
+      assertTrue(items.isConsumed());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldHandOutCompleteObjectsOfOrderedNestedResultMaps() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Iterator<Person> persons = mapper.getPersonsWithItems().iterator();
+
+      Person person = persons.next();
+      assertEquals("grandma", person.getName());
+      assertEquals(2, person.getItems().size());
+
+      // a single row object between two multi row ones
+      person = persons.next();
+      assertEquals("brother", person.getName());
+      assertEquals(1, person.getItems().size());
+      assertEquals("car", person.getItems().get(0).getName());
+
+      person = persons.next();
+      assertEquals("sister", person.getName());
+      assertEquals(2, person.getItems().size());
+
+      person = persons.next();
+      assertEquals("uncle", person.getName());
+      assertEquals(1, person.getItems().size());
+      assertFalse(persons.hasNext());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRejectUnorderedNestedResultMaps() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getPersonsWithItemsUnordered();
+      fail("Should have thrown");
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage().contains("resultOrdered=true"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRejectCallableStatements() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.selectCursor("org.apache.ibatis.submitted.cursor.Mapper.callItems");
+      fail("Should have thrown");
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage().contains("Callable statements cannot return a Cursor"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldStopFetchingOnceClosed() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<Item> items = sqlSession.getMapper(Mapper.class).getItems();
+      Iterator<Item> iterator = items.iterator();
+      iterator.next();
+      items.close();
+      assertFalse(items.isOpen());
+      assertFalse(items.isConsumed());
+      assertFalse(iterator.hasNext());
+      try {
+        items.iterator();
+        fail("Should have thrown");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCloseOpenCursorsWithTheSession() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    Cursor<Item> items;
+    try {
+      items = sqlSession.getMapper(Mapper.class).getItems();
+      items.iterator().next();
+      assertTrue(items.isOpen());
+    } finally {
+      sqlSession.close();
+    }
+    assertFalse(items.isOpen());
+  }
+
+  @Test
+  public void shouldBypassTheLocalCache() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Item first = mapper.getItems().iterator().next();
+      Item second = mapper.getItems().iterator().next();
+      assertNotSame(first, second);
+      assertEquals(first.getName(), second.getName());
+      assertNotSame(first, sqlSession.<Item>selectList("org.apache.ibatis.submitted.cursor.Mapper.getItems").get(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
@@ -0,0 +1,196 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multirow_insert;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.executor.BatchMetrics;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MultiRowInsertTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multirow_insert/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multirow_insert/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @After
+  public void resetLimits() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setMultiRowInsertMaxRows(0);
+    configuration.setMultiRowInsertMaxParameters(0);
+    configuration.setDatabaseId("hsqldb");
+  }
+
+  @Test
+  public void shouldInsertInChunksAndMapGeneratedKeysBack() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals("hsqldb", configuration.getDatabaseId());
+    configuration.setMultiRowInsertMaxRows(3);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = new ArrayList<User>();
+      for (int i = 0; i < 7; i++) {
+        User user = new User("user" + i, i * 10);
+        users.add(user);
+        mapper.insertUser(user);
+      }
+      long statements = configuration.getBatchMetrics().getStatementCount();
+      List<BatchResult> results = sqlSession.flushStatements();
+      // 3 + 3 + 1 rows
+      assertEquals(3, configuration.getBatchMetrics().getStatementCount() - statements);
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(7, results.get(0).getParameterObjects().size());
+
+      List<User> inserted = mapper.getUsers();
+      assertEquals(7, inserted.size());
+      for (int i = 0; i < 7; i++) {
+        assertNotNull(users.get(i).getId());
+        assertEquals(inserted.get(i).getId(), users.get(i).getId());
+        assertEquals("user" + i, inserted.get(i).getName());
+        assertEquals(i * 10, inserted.get(i).getScore());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRespectTheParameterLimit() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    // two parameters per row, so two rows per statement
+    configuration.setMultiRowInsertMaxParameters(5);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 5; i++) {
+        mapper.insertUser(new User("user" + i, i));
+      }
+      long statements = configuration.getBatchMetrics().getStatementCount();
+      sqlSession.flushStatements();
+      assertEquals(3, configuration.getBatchMetrics().getStatementCount() - statements);
+      assertEquals(5, mapper.getUsers().size());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepClassicBatchingWhenTheDatabaseDoesNotReturnEveryKey() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDatabaseId("derby");
+    configuration.setMultiRowInsertMaxRows(2);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = new ArrayList<User>();
+      for (int i = 0; i < 4; i++) {
+        User user = new User("user" + i, i);
+        users.add(user);
+        mapper.insertUser(user);
+      }
+      long statements = configuration.getBatchMetrics().getStatementCount();
+      sqlSession.flushStatements();
+      assertEquals(1, configuration.getBatchMetrics().getStatementCount() - statements);
+      List<User> inserted = mapper.getUsers();
+      for (int i = 0; i < 4; i++) {
+        assertEquals(inserted.get(i).getId(), users.get(i).getId());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepLiteralsAndTheOrderOfInterleavedInserts() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertTag("a");
+      mapper.insertTag("b");
+      mapper.insertUser(new User("first", 1));
+      mapper.insertTag("c");
+      mapper.insertUser(new User("second", 2));
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      assertEquals("org.apache.ibatis.submitted.multirow_insert.Mapper.insertTag", results.get(0).getMappedStatement().getId());
+      assertArrayEquals(new int[] { 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(Arrays.asList("a:it's (fixed), really?", "b:it's (fixed), really?", "c:it's (fixed), really?"), mapper.getTagNotes());
+      List<User> users = mapper.getUsers();
+      assertEquals("first", users.get(0).getName());
+      assertEquals("second", users.get(1).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCountMultiRowInsertsInTheBatchMetrics() {
+    BatchMetrics metrics = sqlSessionFactory.getConfiguration().getBatchMetrics();
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      long rows = metrics.getRowCount();
+      long statements = metrics.getStatementCount();
+      for (int i = 0; i < 10; i++) {
+        mapper.insertUser(new User("user" + i, i));
+      }
+      sqlSession.flushStatements();
+      assertEquals(10, metrics.getRowCount() - rows);
+      assertEquals(1, metrics.getStatementCount() - statements);
+      assertTrue(metrics.getFlushCount() > 0);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
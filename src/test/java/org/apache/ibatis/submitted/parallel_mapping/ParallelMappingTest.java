@@ -0,0 +1,198 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_mapping;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelMappingTest {
+
+  private static final int ROWS = 2000;
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapping/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapping/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    for (int i = 1; i <= ROWS; i++) {
+      Map<String, Object> item = new HashMap<String, Object>();
+      item.put("id", i);
+      item.put("name", "item" + i);
+      item.put("price", new BigDecimal(i).movePointLeft(2));
+      item.put("created", new Timestamp(1400000000000L + i * 1000L));
+      item.put("note", i % 3 == 0 ? null : "note" + i);
+      item.put("flag", i % 2 == 0);
+      item.put("quantity", i % 5 == 0 ? null : i);
+      session.insert("org.apache.ibatis.submitted.parallel_mapping.Mapper.insertItem", item);
+    }
+    session.commit();
+    session.close();
+  }
+
+  @Test
+  public void shouldMapTheSameObjectsInTheSameOrderAsSerialMapping() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> serial = sqlSession.selectList("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItems");
+      List<Item> parallel = sqlSession.selectList("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsInParallel");
+      assertEquals(ROWS, parallel.size());
+      for (int i = 0; i < ROWS; i++) {
+        assertSameItem(serial.get(i), parallel.get(i));
+      }
+      assertEquals(0, parallel.get(4).getQuantity());
+      assertEquals(null, parallel.get(2).getNote());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldConvertColumnsLikeTheDriver() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> serial = sqlSession.selectList("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectTimestampsAsNotes");
+      List<Item> parallel = sqlSession.selectList("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectTimestampsAsNotesInParallel");
+      assertEquals(ROWS, parallel.size());
+      for (int i = 0; i < ROWS; i++) {
+        assertEquals(serial.get(i).getNote(), parallel.get(i).getNote());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldMapOnTheConfiguredExecutor() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Executor previous = configuration.getParallelMappingExecutor();
+    final AtomicInteger tasks = new AtomicInteger();
+    configuration.setParallelMappingExecutor(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        tasks.incrementAndGet();
+        command.run();
+      }
+    });
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.selectList("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsInParallel");
+      assertEquals(ROWS, items.size());
+      // 256 rows per chunk
+      assertEquals(8, tasks.get());
+    } finally {
+      sqlSession.close();
+      configuration.setParallelMappingExecutor(previous);
+    }
+  }
+
+  @Test
+  public void shouldStopWhenTheResultHandlerStops() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<Item> items = new ArrayList<Item>();
+      sqlSession.select("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsInParallel", new ResultHandler() {
+        @Override
+        public void handleResult(ResultContext context) {
+          items.add((Item) context.getResultObject());
+          if (items.size() == 300) {
+            context.stop();
+          }
+        }
+      });
+      assertEquals(300, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        assertEquals(Integer.valueOf(i + 1), items.get(i).getId());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBounds() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.selectList("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsInParallel", null, new RowBounds(10, 500));
+      assertEquals(500, items.size());
+      assertEquals(Integer.valueOf(11), items.get(0).getId());
+      assertEquals(Integer.valueOf(510), items.get(499).getId());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldMapSeriallyForACursor() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<Item> items = sqlSession.selectCursor("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsInParallel");
+      int expectedId = 1;
+      for (Item item : items) {
+        assertEquals(Integer.valueOf(expectedId++), item.getId());
+      }
+      assertEquals(ROWS + 1, expectedId);
+      items.close();
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void assertSameItem(Item expected, Item actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getPrice(), actual.getPrice());
+    assertEquals(expected.getCreated(), actual.getCreated());
+    assertEquals(expected.getNote(), actual.getNote());
+    assertEquals(expected.isFlag(), actual.isFlag());
+    assertEquals(expected.getQuantity(), actual.getQuantity());
+  }
+
+}
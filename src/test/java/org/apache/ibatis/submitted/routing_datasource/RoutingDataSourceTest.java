@@ -0,0 +1,228 @@
+/*
+ *    Copyright 2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.routing_datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.routing.Replica;
+import org.apache.ibatis.datasource.routing.RoutingDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RoutingDataSourceTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private RoutingDataSource dataSource;
+
+  @Before
+  public void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/routing_datasource/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate the primary and the replicas, each one knows its name
+    dataSource = (RoutingDataSource) sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+    populate(dataSource.getPrimary(), "primary");
+    for (Replica replica : dataSource.getReplicas()) {
+      populate(replica.getDataSource(), replica.getName());
+    }
+  }
+
+  @After
+  public void tearDown() {
+    ((PooledDataSource) dataSource.getPrimary()).forceCloseAll();
+    for (Replica replica : dataSource.getReplicas()) {
+      ((PooledDataSource) replica.getDataSource()).forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldSendSelectsToTheReplicasInTurn() {
+    List<String> origins = new ArrayList<String>();
+    for (int i = 0; i < 4; i++) {
+      SqlSession sqlSession = sqlSessionFactory.openSession(true);
+      try {
+        origins.add(sqlSession.getMapper(Mapper.class).getOrigin());
+      } finally {
+        sqlSession.close();
+      }
+    }
+    assertEquals(Arrays.asList("r1", "r2", "r1", "r2"), origins);
+    assertEquals(2, dataSource.getReplicas().get(0).getRequestCount());
+    assertEquals(0, dataSource.getReplicas().get(0).getOutstandingCount());
+  }
+
+  @Test
+  public void shouldSendWritesToThePrimary() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).insertUser(1, "User1");
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+    assertEquals(1, countUsers(dataSource.getPrimary()));
+    assertEquals(0, countUsers(dataSource.getReplicas().get(0).getDataSource()));
+    assertEquals(0, countUsers(dataSource.getReplicas().get(1).getDataSource()));
+  }
+
+  @Test
+  public void shouldKeepATransactionOnThePrimary() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      // read before the first write, e.g. a select for update
+      assertEquals("primary", mapper.getOrigin());
+      mapper.insertUser(1, "User1");
+      // reads its own uncommitted write
+      assertEquals(1, mapper.countUsers());
+      assertEquals("primary", mapper.getOrigin());
+      sqlSession.commit();
+      sqlSession.clearCache();
+      assertEquals("primary", mapper.getOrigin());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReadFromAReplicaInAReadOnlyTransaction() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getConnection().setReadOnly(true);
+      assertEquals("r1", sqlSession.getMapper(Mapper.class).getOrigin());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReadFromThePrimaryWhenTheStatementSaysSo() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals("primary", sqlSession.getMapper(Mapper.class).getOriginFromPrimary());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReadFromAReplicaInATransactionWhenTheStatementSaysSo() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      assertEquals("r1", mapper.getOriginFromReplica());
+      assertEquals("primary", mapper.getOrigin());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldInheritTheRouteOfTheNamespace() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(true);
+    try {
+      PrimaryMapper mapper = sqlSession.getMapper(PrimaryMapper.class);
+      assertEquals("primary", mapper.getOrigin());
+      assertEquals("r1", mapper.getOriginFromAnyDatabase());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldUseThePrimaryOutsideOfMappedStatements() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Statement statement = sqlSession.getConnection().createStatement();
+      ResultSet rs = statement.executeQuery("select name from origin");
+      rs.next();
+      assertEquals("primary", rs.getString(1));
+      statement.close();
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldFallBackToThePrimaryWhenNoReplicaIsAvailable() {
+    RoutingDataSource primaryOnly = new RoutingDataSource(dataSource.getPrimary());
+    sqlSessionFactory.getConfiguration().setEnvironment(new Environment("primaryOnly",
+        sqlSessionFactory.getConfiguration().getEnvironment().getTransactionFactory(), primaryOnly));
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals("primary", sqlSession.getMapper(Mapper.class).getOrigin());
+      assertTrue(primaryOnly.getReplicas().isEmpty());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void populate(DataSource target, String name) throws Exception {
+    Connection conn = target.getConnection();
+    try {
+      Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/routing_datasource/CreateDB.sql");
+      ScriptRunner runner = new ScriptRunner(conn);
+      runner.setLogWriter(null);
+      runner.runScript(reader);
+      reader.close();
+      Statement statement = conn.createStatement();
+      statement.executeUpdate("insert into origin (name) values ('" + name + "')");
+      statement.close();
+      if (!conn.getAutoCommit()) {
+        conn.commit();
+      }
+    } finally {
+      conn.close();
+    }
+  }
+
+  private int countUsers(DataSource target) throws Exception {
+    Connection conn = target.getConnection();
+    try {
+      Statement statement = conn.createStatement();
+      ResultSet rs = statement.executeQuery("select count(*) from users");
+      rs.next();
+      int count = rs.getInt(1);
+      statement.close();
+      return count;
+    } finally {
+      conn.close();
+    }
+  }
+
+}